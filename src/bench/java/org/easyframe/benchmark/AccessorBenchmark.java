@@ -0,0 +1,91 @@
+package org.easyframe.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import jef.com.sun.xml.bind.v2.runtime.reflect.Accessor;
+import jef.com.sun.xml.bind.v2.runtime.reflect.opt.AccessorBackend;
+import jef.tools.reflect.ClassEx;
+import jef.tools.reflect.MethodEx;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JAXB属性访问器：反射、注入模板类(inject)与生成类(generate)三种实现的读写对比。
+ * 无法优化时AccessorBackend返回null，此时使用反射访问器，结果与reflection一致。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessorBenchmark {
+	@Param({ "REFLECTION", "INJECT", "GENERATE" })
+	public String backend;
+
+	private Accessor<Order, Object> id;
+	private Accessor<Order, Object> customer;
+	private Order order;
+	private Object idValue;
+	private Object customerValue;
+
+	@Setup
+	public void setup() throws Exception {
+		AccessorBackend b = AccessorBackend.valueOf(backend);
+		ClassEx cls = new ClassEx(Order.class);
+		id = create(b, method(cls, "getId"), method(cls, "setId"));
+		customer = create(b, method(cls, "getCustomer"), method(cls, "setCustomer"));
+		order = Payloads.order(1, 1);
+		idValue = Long.valueOf(12345L);
+		customerValue = "customer-1";
+	}
+
+	@Benchmark
+	public Object getPrimitive() throws Exception {
+		return id.get(order);
+	}
+
+	@Benchmark
+	public Order setPrimitive() throws Exception {
+		id.set(order, idValue);
+		return order;
+	}
+
+	@Benchmark
+	public Object getReference() throws Exception {
+		return customer.get(order);
+	}
+
+	@Benchmark
+	public Order setReference() throws Exception {
+		customer.set(order, customerValue);
+		return order;
+	}
+
+	private static Accessor<Order, Object> create(AccessorBackend backend, MethodEx getter, MethodEx setter) {
+		Accessor<Order, Object> acc = backend.optimize(getter, setter);
+		if (acc == null) {
+			acc = new Accessor.GetterSetterReflection<Order, Object>(getter, setter);
+		}
+		return acc;
+	}
+
+	private static MethodEx method(ClassEx cls, String name) {
+		for (MethodEx m : cls.getMethods()) {
+			if (m.getName().equals(name)) {
+				return m;
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+}
@@ -0,0 +1,82 @@
+package org.easyframe.benchmark;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+
+/**
+ * 和{@link Reading}相同的字段，仍按原来jaxb-types.properties的方式经过XmlAdapter，
+ * 时间先转成java.util.Date，数字先转成String。
+ */
+public class AdaptedReading {
+	private Timestamp time;
+	private AtomicLong total;
+	private AtomicInteger count;
+
+	@XmlJavaTypeAdapter(TimestampAdapter.class)
+	public Timestamp getTime() {
+		return time;
+	}
+
+	public void setTime(Timestamp time) {
+		this.time = time;
+	}
+
+	@XmlJavaTypeAdapter(AtomicLongAdapter.class)
+	public AtomicLong getTotal() {
+		return total;
+	}
+
+	public void setTotal(AtomicLong total) {
+		this.total = total;
+	}
+
+	@XmlJavaTypeAdapter(AtomicIntegerAdapter.class)
+	public AtomicInteger getCount() {
+		return count;
+	}
+
+	public void setCount(AtomicInteger count) {
+		this.count = count;
+	}
+
+	public static class TimestampAdapter extends XmlAdapter<Date, Timestamp> {
+		@Override
+		public Timestamp unmarshal(Date v) {
+			return v == null ? null : new Timestamp(v.getTime());
+		}
+
+		@Override
+		public Date marshal(Timestamp v) {
+			return v == null ? null : new Date(v.getTime());
+		}
+	}
+
+	public static class AtomicLongAdapter extends XmlAdapter<String, AtomicLong> {
+		@Override
+		public AtomicLong unmarshal(String v) {
+			return v == null ? null : new AtomicLong(Long.parseLong(v.trim()));
+		}
+
+		@Override
+		public String marshal(AtomicLong v) {
+			return v == null ? null : String.valueOf(v.get());
+		}
+	}
+
+	public static class AtomicIntegerAdapter extends XmlAdapter<String, AtomicInteger> {
+		@Override
+		public AtomicInteger unmarshal(String v) {
+			return v == null ? null : new AtomicInteger(Integer.parseInt(v.trim()));
+		}
+
+		@Override
+		public String marshal(AtomicInteger v) {
+			return v == null ? null : String.valueOf(v.get());
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package org.easyframe.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.jaxws.JaxWsServerFactoryBean;
+import org.apache.cxf.jaxws.support.CXFPlusServiceFactoryBean;
+import org.easyframe.cxfplus.client.WsClientFactoryImpl;
+import org.easyframe.cxfplus.support.DefaultImpl;
+import org.easyframe.cxfplus.support.ServiceDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 一个调用方线程连续发出batch个调用：同步代理逐个等待，异步视图一次全部发出后再等待结果。
+ * 服务端使用local传输，每次调用人为延迟latency毫秒，模拟下游服务的响应时间。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncClientBenchmark {
+	private static final String ADDRESS = "local://" + AsyncClientBenchmark.class.getName();
+
+	@Param({ "0", "5" })
+	public int latency;
+
+	@Param({ "16" })
+	public int batch;
+
+	private Server server;
+	private BenchService client;
+	private BenchServiceAsync asyncClient;
+	private Order order;
+	private Map<String, Long> numbers;
+
+	@Setup
+	public void setup() {
+		ServiceDefinition ws = new DefaultImpl().processServiceDef(new ServiceDefinition(BenchService.class.getSimpleName(), BenchService.class, new DelayedBenchService(latency)));
+		JaxWsServerFactoryBean sf = new JaxWsServerFactoryBean(new CXFPlusServiceFactoryBean());
+		sf.setAddress(ADDRESS);
+		sf.setServiceBean(ws.getServiceBean());
+		sf.setServiceClass(ws.getServiceClass());
+		server = sf.create();
+		WsClientFactoryImpl factory = new WsClientFactoryImpl(true, true);
+		client = factory.createProxy(ADDRESS, BenchService.class);
+		asyncClient = factory.createAsyncProxy(ADDRESS, BenchService.class, BenchServiceAsync.class);
+
+		order = Payloads.order(1, 10);
+		numbers = Payloads.numbers(10);
+	}
+
+	@TearDown
+	public void tearDown() {
+		server.destroy();
+	}
+
+	@Benchmark
+	public Object syncOrders() {
+		Order last = null;
+		for (int i = 0; i < batch; i++) {
+			last = client.echoOrder(order);
+		}
+		return last;
+	}
+
+	@Benchmark
+	public Object asyncOrders() throws InterruptedException, ExecutionException {
+		List<Future<Order>> futures = new ArrayList<Future<Order>>(batch);
+		for (int i = 0; i < batch; i++) {
+			futures.add(asyncClient.echoOrder(order));
+		}
+		Order last = null;
+		for (Future<Order> f : futures) {
+			last = f.get();
+		}
+		return last;
+	}
+
+	@Benchmark
+	public Object syncNumberMap() {
+		Map<String, Long> last = null;
+		for (int i = 0; i < batch; i++) {
+			last = client.echoNumbers(numbers);
+		}
+		return last;
+	}
+
+	@Benchmark
+	public Object asyncNumberMap() throws InterruptedException, ExecutionException {
+		List<Future<Map<String, Long>>> futures = new ArrayList<Future<Map<String, Long>>>(batch);
+		for (int i = 0; i < batch; i++) {
+			futures.add(asyncClient.echoNumbersAsync(numbers));
+		}
+		Map<String, Long> last = null;
+		for (Future<Map<String, Long>> f : futures) {
+			last = f.get();
+		}
+		return last;
+	}
+
+	/**
+	 * 模拟有响应时间的下游服务
+	 */
+	public static class DelayedBenchService extends BenchServiceImpl {
+		private final int latency;
+
+		public DelayedBenchService(int latency) {
+			this.latency = latency;
+		}
+
+		@Override
+		public Order echoOrder(Order order) {
+			pause();
+			return super.echoOrder(order);
+		}
+
+		@Override
+		public Map<String, Long> echoNumbers(Map<String, Long> map) {
+			pause();
+			return super.echoNumbers(map);
+		}
+
+		private void pause() {
+			if (latency > 0) {
+				try {
+					Thread.sleep(latency);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package org.easyframe.benchmark;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.jws.WebService;
+
+import org.easyframe.cxfplus.support.IWebService;
+
+@WebService
+public interface BenchService extends IWebService {
+	Order echoOrder(Order order);
+
+	List<Order> echoOrders(List<Order> orders);
+
+	Map<String, String> echoStrings(Map<String, String> map);
+
+	Map<String, Long> echoNumbers(Map<String, Long> map);
+}
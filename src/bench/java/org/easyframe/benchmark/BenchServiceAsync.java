@@ -0,0 +1,19 @@
+package org.easyframe.benchmark;
+
+import java.util.List;
+import java.util.Map;
+
+import org.easyframe.cxfplus.client.ClientFuture;
+
+/**
+ * BenchService的异步视图
+ */
+public interface BenchServiceAsync {
+	ClientFuture<Order> echoOrder(Order order);
+
+	ClientFuture<List<Order>> echoOrders(List<Order> orders);
+
+	ClientFuture<Map<String, String>> echoStringsAsync(Map<String, String> map);
+
+	ClientFuture<Map<String, Long>> echoNumbersAsync(Map<String, Long> map);
+}
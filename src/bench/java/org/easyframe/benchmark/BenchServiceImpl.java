@@ -0,0 +1,22 @@
+package org.easyframe.benchmark;
+
+import java.util.List;
+import java.util.Map;
+
+public class BenchServiceImpl implements BenchService {
+	public Order echoOrder(Order order) {
+		return order;
+	}
+
+	public List<Order> echoOrders(List<Order> orders) {
+		return orders;
+	}
+
+	public Map<String, String> echoStrings(Map<String, String> map) {
+		return map;
+	}
+
+	public Map<String, Long> echoNumbers(Map<String, Long> map) {
+		return map;
+	}
+}
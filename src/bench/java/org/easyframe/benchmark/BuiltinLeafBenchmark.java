@@ -0,0 +1,70 @@
+package org.easyframe.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import org.apache.cxf.jaxbplus.JAXBDataBinding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Timestamp、AtomicLong、AtomicInteger的序列化和反序列化：内置Transducer(adapted=false)
+ * 与原来经过XmlAdapter的AdaptedAccessor(adapted=true)的对比。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuiltinLeafBenchmark {
+	@Param({ "1", "100" })
+	public int count;
+
+	@Param({ "false", "true" })
+	public boolean adapted;
+
+	private Marshaller marshaller;
+	private Unmarshaller unmarshaller;
+	private Readings readings;
+	private ByteArrayOutputStream out;
+	private byte[] xml;
+
+	@Setup
+	public void setup() throws Exception {
+		JAXBContext context = new JAXBDataBinding(Readings.class).getContext();
+		marshaller = context.createMarshaller();
+		marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+		unmarshaller = context.createUnmarshaller();
+		readings = Payloads.readings(count, adapted);
+		out = new ByteArrayOutputStream(64 * 1024);
+		marshaller.marshal(readings, out);
+		xml = out.toByteArray();
+	}
+
+	@Benchmark
+	public ByteArrayOutputStream marshal() throws Exception {
+		out.reset();
+		marshaller.marshal(readings, out);
+		return out;
+	}
+
+	@Benchmark
+	public Object unmarshal() throws Exception {
+		return unmarshaller.unmarshal(new ByteArrayInputStream(xml));
+	}
+}
@@ -0,0 +1,82 @@
+package org.easyframe.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import jef.com.sun.xml.bind.api.JAXBRIContext;
+
+import org.apache.cxf.databinding.DataReader;
+import org.apache.cxf.databinding.DataWriter;
+import org.apache.cxf.jaxbplus.JAXBDataBinding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 直接通过JAXBDataBinding的DataWriter/DataReader序列化和反序列化，不经过CXF的拦截器链。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataBindingBenchmark {
+	@Param({ "1", "50" })
+	public int lines;
+
+	/**
+	 * 是否启用生成的序列化类与子元素顺序预测，见JAXBRIContext.GENERATED_CODECS。每组参数在单独的JVM中运行。
+	 */
+	@Param({ "false", "true" })
+	public boolean generatedCodecs;
+
+	private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+	private final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+
+	private DataWriter<XMLStreamWriter> writer;
+	private DataReader<XMLStreamReader> reader;
+	private Order order;
+	private byte[] xml;
+
+	@Setup
+	public void setup() throws Exception {
+		System.setProperty(JAXBRIContext.GENERATED_CODECS, String.valueOf(generatedCodecs));
+		JAXBDataBinding databinding = new JAXBDataBinding(Order.class);
+		writer = databinding.createWriter(XMLStreamWriter.class);
+		reader = databinding.createReader(XMLStreamReader.class);
+		order = Payloads.order(1, lines);
+		xml = marshal();
+	}
+
+	@Benchmark
+	public byte[] marshal() throws Exception {
+		buffer.reset();
+		XMLStreamWriter out = outputFactory.createXMLStreamWriter(buffer, "UTF-8");
+		writer.write(order, out);
+		out.flush();
+		return buffer.toByteArray();
+	}
+
+	@Benchmark
+	public Object unmarshal() throws Exception {
+		XMLStreamReader in = inputFactory.createXMLStreamReader(new ByteArrayInputStream(xml));
+		in.nextTag();
+		return reader.read(in);
+	}
+}
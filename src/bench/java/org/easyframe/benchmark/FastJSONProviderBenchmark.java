@@ -0,0 +1,68 @@
+package org.easyframe.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Annotation;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MediaType;
+
+import org.apache.cxf.jaxrs.impl.MetadataMap;
+import org.easyframe.jaxrs.FastJSONProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * FastJSONProvider的读写，分别测试流式和非流式模式。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastJSONProviderBenchmark {
+	private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+	@Param({ "false", "true" })
+	public boolean streaming;
+
+	@Param({ "5", "500" })
+	public int lines;
+
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+	private FastJSONProvider provider;
+	private Order order;
+	private byte[] json;
+
+	@Setup
+	public void setup() throws Exception {
+		provider = new FastJSONProvider(true, false);
+		provider.setStreaming(streaming);
+		order = Payloads.order(1, lines);
+		json = write();
+	}
+
+	@Benchmark
+	public byte[] write() throws Exception {
+		buffer.reset();
+		provider.getSize(order, Order.class, Order.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE);
+		provider.writeTo(order, Order.class, Order.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE, new MetadataMap<String, Object>(), buffer);
+		return buffer.toByteArray();
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Benchmark
+	public Object read() throws Exception {
+		return provider.readFrom((Class) Order.class, Order.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE, new MetadataMap<String, String>(), new ByteArrayInputStream(json));
+	}
+}
@@ -0,0 +1,78 @@
+package org.easyframe.benchmark;
+
+import java.lang.reflect.Type;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.jaxbplus.JAXBContextCache;
+import org.apache.cxf.jaxbplus.JAXBContextCache.CachedContextAndSchemas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 多线程并发查找已缓存的JAXBContext，包括精确匹配和通过超集匹配两种情况。
+ * coldMiss为缓存清空后第一次查找，需要创建JAXBContext，单线程逐次计时。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class JAXBContextCacheBenchmark {
+	private Set<Type> full;
+	private Set<Type> subset;
+
+	@Setup
+	public void setup() throws Exception {
+		full = new HashSet<Type>();
+		full.add(Order.class);
+		full.add(OrderLine.class);
+		subset = new HashSet<Type>();
+		subset.add(OrderLine.class);
+		JAXBContextCache.getCachedContextAndSchemas(full, null, null, null, false);
+	}
+
+	@Benchmark
+	public CachedContextAndSchemas exactLookup() throws Exception {
+		return JAXBContextCache.getCachedContextAndSchemas(full, null, null, null, true);
+	}
+
+	@Benchmark
+	public CachedContextAndSchemas supersetLookup() throws Exception {
+		return JAXBContextCache.getCachedContextAndSchemas(subset, null, null, null, false);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 20)
+	@Threads(1)
+	public CachedContextAndSchemas coldMiss(Cold cold) throws Exception {
+		return JAXBContextCache.getCachedContextAndSchemas(full, null, null, null, true);
+	}
+
+	/*
+	 * 每次调用前清空缓存
+	 */
+	@State(Scope.Thread)
+	public static class Cold {
+		@Setup(Level.Invocation)
+		public void clear() {
+			JAXBContextCache.clearCaches();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package org.easyframe.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.jaxws.JaxWsServerFactoryBean;
+import org.apache.cxf.jaxws.support.CXFPlusServiceFactoryBean;
+import org.easyframe.cxfplus.client.WsClientFactoryImpl;
+import org.easyframe.cxfplus.support.DefaultImpl;
+import org.easyframe.cxfplus.support.ServiceDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 完整的一次WebService调用：客户端序列化、服务端反序列化和序列化、客户端反序列化。
+ * 使用local传输，不涉及网络。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalTransportBenchmark {
+	private static final String ADDRESS = "local://" + BenchService.class.getName();
+
+	@Param({ "10", "100" })
+	public int size;
+
+	private Server server;
+	private BenchService client;
+	private Order order;
+	private List<Order> orders;
+	private Map<String, String> strings;
+	private Map<String, Long> numbers;
+
+	@Setup
+	public void setup() {
+		ServiceDefinition ws = new DefaultImpl().processServiceDef(new ServiceDefinition(BenchService.class.getSimpleName(), BenchService.class, new BenchServiceImpl()));
+		JaxWsServerFactoryBean sf = new JaxWsServerFactoryBean(new CXFPlusServiceFactoryBean());
+		sf.setAddress(ADDRESS);
+		sf.setServiceBean(ws.getServiceBean());
+		sf.setServiceClass(ws.getServiceClass());
+		server = sf.create();
+		client = WsClientFactoryImpl.getDefault().createProxy(ADDRESS, BenchService.class);
+
+		order = Payloads.order(1, size);
+		orders = Payloads.orders(size, 5);
+		strings = Payloads.strings(size);
+		numbers = Payloads.numbers(size);
+	}
+
+	@TearDown
+	public void tearDown() {
+		server.destroy();
+	}
+
+	@Benchmark
+	public Order echoOrder() {
+		return client.echoOrder(order);
+	}
+
+	@Benchmark
+	public List<Order> echoOrders() {
+		return client.echoOrders(orders);
+	}
+
+	@Benchmark
+	public Map<String, String> echoStringMap() {
+		return client.echoStrings(strings);
+	}
+
+	@Benchmark
+	public Map<String, Long> echoNumberMap() {
+		return client.echoNumbers(numbers);
+	}
+}
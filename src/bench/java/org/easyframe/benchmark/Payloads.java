@@ -0,0 +1,89 @@
+package org.easyframe.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基准测试使用的数据
+ */
+final class Payloads {
+	private Payloads() {
+	}
+
+	static Order order(long id, int lineCount) {
+		Order order = new Order();
+		order.setId(id);
+		order.setCustomer("customer-" + id);
+		order.setCreated(new Timestamp(1400000000000L + id));
+		List<OrderLine> lines = new ArrayList<OrderLine>(lineCount);
+		for (int i = 0; i < lineCount; i++) {
+			OrderLine line = new OrderLine();
+			line.setProduct("product-" + i);
+			line.setQuantity(i + 1);
+			line.setPrice(new BigDecimal("19.99"));
+			lines.add(line);
+		}
+		order.setLines(lines);
+		order.setAttributes(strings(8));
+		return order;
+	}
+
+	static List<Order> orders(int count, int lineCount) {
+		List<Order> result = new ArrayList<Order>(count);
+		for (int i = 0; i < count; i++) {
+			result.add(order(i, lineCount));
+		}
+		return result;
+	}
+
+	/**
+	 * count个内容相同的Reading，adapted为true时放在经过XmlAdapter的那一组
+	 */
+	static Readings readings(int count, boolean adapted) {
+		Readings readings = new Readings();
+		if (adapted) {
+			List<AdaptedReading> list = new ArrayList<AdaptedReading>(count);
+			for (int i = 0; i < count; i++) {
+				AdaptedReading reading = new AdaptedReading();
+				reading.setTime(new Timestamp(1400000000000L + i * 1000L));
+				reading.setTotal(new AtomicLong(1234567890123L + i));
+				reading.setCount(new AtomicInteger(i));
+				list.add(reading);
+			}
+			readings.setAdapted(list);
+		} else {
+			List<Reading> list = new ArrayList<Reading>(count);
+			for (int i = 0; i < count; i++) {
+				Reading reading = new Reading();
+				reading.setTime(new Timestamp(1400000000000L + i * 1000L));
+				reading.setTotal(new AtomicLong(1234567890123L + i));
+				reading.setCount(new AtomicInteger(i));
+				list.add(reading);
+			}
+			readings.setReading(list);
+		}
+		return readings;
+	}
+
+	static Map<String, String> strings(int size) {
+		Map<String, String> map = new LinkedHashMap<String, String>();
+		for (int i = 0; i < size; i++) {
+			map.put("key" + i, "value-" + i);
+		}
+		return map;
+	}
+
+	static Map<String, Long> numbers(int size) {
+		Map<String, Long> map = new LinkedHashMap<String, Long>();
+		for (int i = 0; i < size; i++) {
+			map.put("key" + i, Long.valueOf(i * 1000L));
+		}
+		return map;
+	}
+}
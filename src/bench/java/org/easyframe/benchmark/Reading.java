@@ -0,0 +1,38 @@
+package org.easyframe.benchmark;
+
+import java.sql.Timestamp;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 由内置Transducer处理的java.sql和atomic类型
+ */
+public class Reading {
+	private Timestamp time;
+	private AtomicLong total;
+	private AtomicInteger count;
+
+	public Timestamp getTime() {
+		return time;
+	}
+
+	public void setTime(Timestamp time) {
+		this.time = time;
+	}
+
+	public AtomicLong getTotal() {
+		return total;
+	}
+
+	public void setTotal(AtomicLong total) {
+		this.total = total;
+	}
+
+	public AtomicInteger getCount() {
+		return count;
+	}
+
+	public void setCount(AtomicInteger count) {
+		this.count = count;
+	}
+}
@@ -0,0 +1,30 @@
+package org.easyframe.benchmark;
+
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * 两种写法的Reading放在同一个根元素下，每次只填其中一种
+ */
+@XmlRootElement
+public class Readings {
+	private List<Reading> reading;
+	private List<AdaptedReading> adapted;
+
+	public List<Reading> getReading() {
+		return reading;
+	}
+
+	public void setReading(List<Reading> reading) {
+		this.reading = reading;
+	}
+
+	public List<AdaptedReading> getAdapted() {
+		return adapted;
+	}
+
+	public void setAdapted(List<AdaptedReading> adapted) {
+		this.adapted = adapted;
+	}
+}
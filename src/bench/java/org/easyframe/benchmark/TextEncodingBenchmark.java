@@ -0,0 +1,96 @@
+package org.easyframe.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import jef.com.sun.xml.bind.v2.runtime.output.Encoded;
+import jef.com.sun.xml.bind.v2.runtime.output.UTF8XmlOutput;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 文本编码：UTF8XmlOutput直接写入缓冲区(direct)与原来先编码到Encoded再复制(encoded)的对比。
+ * 文本分为纯ASCII、含少量需转义字符、纯中文和中英混合几种。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextEncodingBenchmark {
+	@Param({ "ASCII", "ESCAPED", "CHINESE", "MIXED" })
+	public String mix;
+
+	@Param({ "16", "256", "4096" })
+	public int length;
+
+	private String[] texts;
+	private UTF8XmlOutput output;
+	private Encoded encoded;
+	private int next;
+
+	@Setup
+	public void setup() throws IOException {
+		Random random = new Random(42);
+		texts = new String[64];
+		for (int i = 0; i < texts.length; i++) {
+			texts[i] = text(random);
+		}
+		output = new UTF8XmlOutput(new NullOutputStream(), new Encoded[0], null);
+		encoded = new Encoded();
+	}
+
+	@Benchmark
+	public UTF8XmlOutput direct() throws IOException {
+		output.text(texts[next++ & 63], false);
+		return output;
+	}
+
+	@Benchmark
+	public Encoded encoded() {
+		encoded.setEscape(texts[next++ & 63], false);
+		return encoded;
+	}
+
+	private String text(Random random) {
+		String ascii = "The quick brown fox jumps over the lazy dog 0123456789 ";
+		String chinese = "订单客户产品数量价格地址北京上海广州深圳杭州南京备注已发货";
+		StringBuilder sb = new StringBuilder(length);
+		while (sb.length() < length) {
+			if ("ASCII".equals(mix)) {
+				sb.append(ascii.charAt(random.nextInt(ascii.length())));
+			} else if ("ESCAPED".equals(mix)) {
+				sb.append(random.nextInt(40) == 0 ? "&<>\"".charAt(random.nextInt(4)) : ascii.charAt(random.nextInt(ascii.length())));
+			} else if ("CHINESE".equals(mix)) {
+				sb.append(chinese.charAt(random.nextInt(chinese.length())));
+			} else {
+				// 中文夹杂字母、数字的地址和备注
+				sb.append(random.nextInt(3) == 0 ? chinese.charAt(random.nextInt(chinese.length())) : ascii.charAt(random.nextInt(ascii.length())));
+			}
+		}
+		return sb.toString();
+	}
+
+	private static final class NullOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	}
+}
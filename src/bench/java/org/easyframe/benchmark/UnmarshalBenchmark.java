@@ -0,0 +1,70 @@
+package org.easyframe.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+
+import jef.com.sun.xml.bind.v2.runtime.unmarshaller.UnmarshallerImpl;
+
+import org.apache.cxf.jaxbplus.JAXBDataBinding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 从字节流反序列化：SAX解析器(utf8Parser=false)与UTF8XmlConnector(utf8Parser=true)的对比，stax为经过XMLStreamReader的参照。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnmarshalBenchmark {
+	@Param({ "1", "50", "1000" })
+	public int lines;
+
+	@Param({ "false", "true" })
+	public boolean utf8Parser;
+
+	private final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+
+	private Unmarshaller unmarshaller;
+	private byte[] xml;
+
+	@Setup
+	public void setup() throws Exception {
+		JAXBContext context = new JAXBDataBinding(Order.class).getContext();
+		unmarshaller = context.createUnmarshaller();
+		unmarshaller.setProperty(UnmarshallerImpl.UTF8_PARSER, utf8Parser);
+
+		Marshaller marshaller = context.createMarshaller();
+		marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+		ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+		marshaller.marshal(Payloads.order(1, lines), out);
+		xml = out.toByteArray();
+	}
+
+	@Benchmark
+	public Object stream() throws Exception {
+		return unmarshaller.unmarshal(new ByteArrayInputStream(xml));
+	}
+
+	@Benchmark
+	public Object stax() throws Exception {
+		return unmarshaller.unmarshal(inputFactory.createXMLStreamReader(new ByteArrayInputStream(xml)));
+	}
+}
@@ -0,0 +1,57 @@
+package org.easyframe.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.databinding.WrapperHelper;
+import org.apache.cxf.jaxbplus.JAXBDataBinding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * WrapperHelperCompiler生成的helper：由参数构造wrapper对象，以及从wrapper对象取出参数。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WrapperHelperBenchmark {
+	private WrapperHelper helper;
+	private List<Object> parts;
+	private Object wrapper;
+
+	@Setup
+	public void setup() throws Exception {
+		JAXBDataBinding databinding = new JAXBDataBinding(Order.class);
+		List<String> names = Arrays.asList("id", "customer", "created", "lines", "attributes");
+		List<String> types = Arrays.asList(null, null, null, null, null);
+		List<Class<?>> classes = Arrays.<Class<?>>asList(long.class, String.class, java.sql.Timestamp.class, List.class, java.util.Map.class);
+		helper = databinding.createWrapperHelper(Order.class, new QName("order"), names, types, classes);
+		Order order = Payloads.order(1, 5);
+		parts = Arrays.<Object>asList(order.getId(), order.getCustomer(), order.getCreated(), order.getLines(), order.getAttributes());
+		wrapper = helper.createWrapperObject(parts);
+	}
+
+	@Benchmark
+	public Object createWrapperObject() throws Exception {
+		return helper.createWrapperObject(parts);
+	}
+
+	@Benchmark
+	public List<Object> getWrapperParts() throws Exception {
+		return helper.getWrapperParts(wrapper);
+	}
+}
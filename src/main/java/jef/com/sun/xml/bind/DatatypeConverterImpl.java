@@ -138,6 +138,35 @@ public final class DatatypeConverterImpl implements DatatypeConverterInterface {
     }
 
     public static long _parseLong(CharSequence s) {
+        // up to 18 digits can't overflow, parse those in place without creating a String
+        int start = 0;
+        int end = s.length();
+        while(start<end && WhiteSpaceProcessor.isWhiteSpace(s.charAt(start)))
+            start++;
+        while(end>start && WhiteSpaceProcessor.isWhiteSpace(s.charAt(end-1)))
+            end--;
+        boolean negative = false;
+        if(start<end) {
+            char ch = s.charAt(start);
+            if(ch=='-') {
+                negative = true;
+                start++;
+            } else
+            if(ch=='+')
+                start++;
+        }
+        if(start<end && end-start<=18) {
+            long r = 0;
+            int i = start;
+            for( ; i<end; i++ ) {
+                char ch = s.charAt(i);
+                if(ch<'0' || '9'<ch)
+                    break;
+                r = r*10 + (ch-'0');
+            }
+            if(i==end)
+                return negative ? -r : r;
+        }
         return Long.valueOf(removeOptionalPlus(WhiteSpaceProcessor.trim(s)).toString());
     }
 
@@ -393,15 +422,33 @@ public final class DatatypeConverterImpl implements DatatypeConverterInterface {
     }
 
     public static GregorianCalendar _parseDateTime(CharSequence s) {
+        GregorianCalendar cal = IsoDateTime.parseCalendar(s);
+        if(cal!=null)
+            return cal;
         String val = WhiteSpaceProcessor.trim(s).toString();
         return datatypeFactory.newXMLGregorianCalendar(val).toGregorianCalendar();
     }
 
+    /**
+     * Parses xs:dateTime into milliseconds since the epoch, for the leaf types
+     * which only need the instant.
+     */
+    public static long _parseDateTimeMillis(CharSequence s) {
+        long millis = IsoDateTime.parseMillis(s);
+        if(millis!=IsoDateTime.UNKNOWN)
+            return millis;
+        String val = WhiteSpaceProcessor.trim(s).toString();
+        return datatypeFactory.newXMLGregorianCalendar(val).toGregorianCalendar().getTimeInMillis();
+    }
+
     public String printDateTime(Calendar val) {
         return _printDateTime(val);
     }
 
     public static String _printDateTime(Calendar val) {
+        String s = IsoDateTime.printDateTime(val);
+        if(s!=null)
+            return s;
         return CalendarFormatter.doFormat("%Y-%M-%DT%h:%m:%s%z",val);
     }
 
@@ -479,6 +526,9 @@ public final class DatatypeConverterImpl implements DatatypeConverterInterface {
     }
 
     public static String _printDate(Calendar val) {
+        String s = IsoDateTime.printDate(val);
+        if(s!=null)
+            return s;
         return CalendarFormatter.doFormat((new StringBuilder("%Y-%M-%D")).toString(),val);
     }
 
@@ -834,6 +884,11 @@ public final class DatatypeConverterImpl implements DatatypeConverterInterface {
     }
 
 
+    // default access for tests.
+    static String formatCalendar(String format, Calendar cal) {
+        return CalendarFormatter.doFormat(format, cal);
+    }
+
     private static final class CalendarFormatter {
         public static String doFormat( String format, Calendar cal ) throws IllegalArgumentException {
             int fidx = 0;
@@ -0,0 +1,426 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ * 
+ * Copyright 1997-2007 Sun Microsystems, Inc. All rights reserved.
+ * 
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License. You can obtain
+ * a copy of the License at https://glassfish.dev.java.net/public/CDDL+GPL.html
+ * or glassfish/bootstrap/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ * 
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ * Sun designates this particular file as subject to the "Classpath" exception
+ * as provided by Sun in the GPL Version 2 section of the License file that
+ * accompanied this code.  If applicable, add the following below the License
+ * Header, with the fields enclosed by brackets [] replaced by your own
+ * identifying information: "Portions Copyrighted [year]
+ * [name of copyright owner]"
+ * 
+ * Contributor(s):
+ * 
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package jef.com.sun.xml.bind;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import javax.xml.datatype.DatatypeConstants;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+/**
+ * Hand-written parser and printer for the common shape of xs:dateTime,
+ * {@code YYYY-MM-DDThh:mm:ss[.fff][Z|(+|-)hh:mm]}.
+ *
+ * <p>
+ * The methods work on the character data directly, without going through
+ * {@link DatatypeFactory} or a format string, and give exactly the results of
+ * the general code in {@link DatatypeConverterImpl}. Whatever they do not
+ * handle (other year forms, 24:00:00, dates before the Gregorian cutover when
+ * printing, ...) is signalled by a null or {@link #UNKNOWN} return, and the
+ * caller falls back to the general code.
+ */
+public final class IsoDateTime {
+    /**
+     * Returned by {@link #parseMillis(CharSequence)} when the text needs the general parser.
+     */
+    public static final long UNKNOWN = Long.MIN_VALUE;
+
+    private static final int NO_TIMEZONE = Integer.MIN_VALUE;
+
+    /**
+     * GregorianCalendar of XMLGregorianCalendar.toGregorianCalendar(), which
+     * is Gregorian for all dates.
+     */
+    private static final Date PURE_GREGORIAN_CHANGE = new Date(Long.MIN_VALUE);
+
+    /**
+     * 1582-10-15T00:00:00Z, the default cutover of GregorianCalendar.
+     */
+    private static final long GREGORIAN_CUTOVER = -12219292800000L;
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    /**
+     * The "GMT+h[mm]" zones of the offsets -14:00..+14:00, by offset in minutes.
+     * They are handed out as clones since a TimeZone is mutable.
+     */
+    private static final TimeZone[] ZONES = new TimeZone[14*60*2+1];
+
+    private IsoDateTime() {}
+
+    /**
+     * Fields of a parsed xs:dateTime.
+     */
+    private static final class Parsed {
+        int year, month, day, hour, minute, second;
+        /** -1 when there is no fraction of second */
+        int millis;
+        int fractionDigits;
+        /** offset in minutes, or NO_TIMEZONE */
+        int timezone;
+    }
+
+    /**
+     * Parses xs:dateTime into the same calendar as
+     * {@code DatatypeFactory.newXMLGregorianCalendar(s).toGregorianCalendar()}.
+     *
+     * @return null if the text is not in the common shape.
+     */
+    public static GregorianCalendar parseCalendar(CharSequence s) {
+        Parsed p = parse(s);
+        if(p==null)
+            return null;
+        return toCalendar(p);
+    }
+
+    /**
+     * Parses xs:dateTime into milliseconds since the epoch, without creating a
+     * calendar when the text has a time zone.
+     *
+     * @return {@link #UNKNOWN} if the text is not in the common shape.
+     */
+    public static long parseMillis(CharSequence s) {
+        Parsed p = parse(s);
+        if(p==null)
+            return UNKNOWN;
+        if(p.timezone==NO_TIMEZONE) {
+            // local time of the default zone, let the calendar resolve DST gaps and overlaps
+            return toCalendar(p).getTimeInMillis();
+        }
+        long days = daysFromCivil(p.year, p.month, p.day);
+        long millis = ((days*24 + p.hour)*60 + p.minute - p.timezone)*60 + p.second;
+        return millis*1000 + (p.millis<0 ? 0 : p.millis);
+    }
+
+    /**
+     * Parses xs:dateTime into the same value as
+     * {@code factory.newXMLGregorianCalendar(s.toString().trim())}.
+     *
+     * @return null if the text is not in the common shape, or has a fraction of
+     *      second which is not exactly milliseconds.
+     */
+    public static XMLGregorianCalendar parseXMLGregorianCalendar(CharSequence s, DatatypeFactory factory) {
+        Parsed p = parse(s);
+        if(p==null || (p.millis>=0 && p.fractionDigits!=3))
+            return null;
+        return factory.newXMLGregorianCalendar(p.year, p.month, p.day, p.hour, p.minute, p.second,
+                p.millis<0 ? DatatypeConstants.FIELD_UNDEFINED : p.millis,
+                p.timezone==NO_TIMEZONE ? DatatypeConstants.FIELD_UNDEFINED : p.timezone);
+    }
+
+    private static Parsed parse(CharSequence s) {
+        int start = 0;
+        int end = s.length();
+        while(start<end && WhiteSpaceProcessor.isWhiteSpace(s.charAt(start)))
+            start++;
+        while(end>start && WhiteSpaceProcessor.isWhiteSpace(s.charAt(end-1)))
+            end--;
+        if(end-start<19)
+            return null;
+
+        int year = digits(s, start, 4);
+        int month = digits(s, start+5, 2);
+        int day = digits(s, start+8, 2);
+        int hour = digits(s, start+11, 2);
+        int minute = digits(s, start+14, 2);
+        int second = digits(s, start+17, 2);
+        if(s.charAt(start+4)!='-' || s.charAt(start+7)!='-' || s.charAt(start+10)!='T'
+        || s.charAt(start+13)!=':' || s.charAt(start+16)!=':')
+            return null;
+        if(year<1 || month<1 || month>12 || day<1 || day>daysInMonth(year,month)
+        || hour<0 || hour>23 || minute<0 || minute>59 || second<0 || second>59)
+            return null;
+
+        Parsed p = new Parsed();
+        p.year = year;
+        p.month = month;
+        p.day = day;
+        p.hour = hour;
+        p.minute = minute;
+        p.second = second;
+        p.millis = -1;
+        p.timezone = NO_TIMEZONE;
+
+        int i = start+19;
+        if(i<end && s.charAt(i)=='.') {
+            int f = ++i;
+            int millis = 0;
+            while(i<end) {
+                int d = s.charAt(i)-'0';
+                if(d<0 || d>9)
+                    break;
+                if(i-f<3)
+                    millis = millis*10+d;
+                i++;
+            }
+            int n = i-f;
+            if(n==0)
+                return null;
+            for( ; n<3; n++ )
+                millis *= 10;
+            p.millis = millis;
+            p.fractionDigits = i-f;
+        }
+        if(i<end) {
+            char c = s.charAt(i);
+            if(c=='Z') {
+                p.timezone = 0;
+                i++;
+            } else
+            if((c=='+' || c=='-') && end-i==6 && s.charAt(i+3)==':') {
+                int h = digits(s, i+1, 2);
+                int m = digits(s, i+4, 2);
+                if(h<0 || m<0 || m>59 || h>14 || (h==14 && m!=0))
+                    return null;
+                p.timezone = c=='-' ? -(h*60+m) : h*60+m;
+                i += 6;
+            } else
+                return null;
+        }
+        if(i!=end)
+            return null;
+        return p;
+    }
+
+    /**
+     * Same steps as XMLGregorianCalendar.toGregorianCalendar().
+     */
+    private static GregorianCalendar toCalendar(Parsed p) {
+        TimeZone tz = p.timezone==NO_TIMEZONE ? TimeZone.getDefault() : zone(p.timezone);
+        GregorianCalendar cal = new GregorianCalendar(tz, Locale.getDefault());
+        cal.clear();
+        cal.setGregorianChange(PURE_GREGORIAN_CHANGE);
+        cal.set(Calendar.ERA, GregorianCalendar.AD);
+        cal.set(Calendar.YEAR, p.year);
+        cal.set(Calendar.MONTH, p.month-1);
+        cal.set(Calendar.DAY_OF_MONTH, p.day);
+        cal.set(Calendar.HOUR_OF_DAY, p.hour);
+        cal.set(Calendar.MINUTE, p.minute);
+        cal.set(Calendar.SECOND, p.second);
+        if(p.millis>=0)
+            cal.set(Calendar.MILLISECOND, p.millis);
+        return cal;
+    }
+
+    private static TimeZone zone(int offset) {
+        TimeZone tz = ZONES[offset+14*60];
+        if(tz==null) {
+            int abs = Math.abs(offset);
+            StringBuilder id = new StringBuilder(8).append("GMT").append(offset<0 ? '-' : '+').append(abs/60);
+            if(abs%60!=0) {
+                if(abs%60<10)
+                    id.append('0');
+                id.append(abs%60);
+            }
+            tz = TimeZone.getTimeZone(id.toString());
+            ZONES[offset+14*60] = tz;
+        }
+        return (TimeZone)tz.clone();
+    }
+
+    /**
+     * Prints the calendar as xs:dateTime, the same way as
+     * {@link DatatypeConverterImpl#_printDateTime(Calendar)}.
+     *
+     * @return null if the calendar needs the general printer.
+     */
+    public static String printDateTime(Calendar cal) {
+        long millis = gregorianMillis(cal);
+        if(millis==UNKNOWN)
+            return null;
+        return print(millis, cal.getTimeZone(), true);
+    }
+
+    /**
+     * Prints the calendar as xs:date, the same way as
+     * {@link DatatypeConverterImpl#_printDate(Calendar)}.
+     *
+     * @return null if the calendar needs the general printer.
+     */
+    public static String printDate(Calendar cal) {
+        long millis = gregorianMillis(cal);
+        if(millis==UNKNOWN)
+            return null;
+        return print(millis, cal.getTimeZone(), false);
+    }
+
+    /**
+     * Prints the instant in the given zone as xs:dateTime (or xs:date), the same
+     * way as formatting a default GregorianCalendar of that zone set to it.
+     *
+     * @return null for instants before the Gregorian cutover.
+     */
+    public static String print(long millis, TimeZone tz, boolean dateTime) {
+        if(millis<GREGORIAN_CUTOVER)
+            return null;
+        int offset = tz==null ? 0 : tz.getOffset(millis);
+        long local = millis+offset;
+        long days = floorDiv(local, MILLIS_PER_DAY);
+        int time = (int)(local-days*MILLIS_PER_DAY);
+
+        // civil date of the day number, proleptic Gregorian
+        long z = days+719468;
+        long era = (z>=0 ? z : z-146096)/146097;
+        int doe = (int)(z-era*146097);
+        int yoe = (doe-doe/1460+doe/36524-doe/146096)/365;
+        int doy = doe-(365*yoe+yoe/4-yoe/100);
+        int mp = (5*doy+2)/153;
+        int day = doy-(153*mp+2)/5+1;
+        int month = mp<10 ? mp+3 : mp-9;
+        int year = (int)(yoe+era*400)+(month<=2 ? 1 : 0);
+
+        char[] buf = new char[32];
+        int i = 0;
+        if(year<10000) {
+            i = put4(buf, i, year);
+        } else {
+            String y = Integer.toString(year);
+            y.getChars(0, y.length(), buf, 0);
+            i = y.length();
+        }
+        buf[i++] = '-';
+        i = put2(buf, i, month);
+        buf[i++] = '-';
+        i = put2(buf, i, day);
+        if(!dateTime)
+            return new String(buf, 0, i);
+
+        buf[i++] = 'T';
+        i = put2(buf, i, time/3600000);
+        buf[i++] = ':';
+        i = put2(buf, i, time/60000%60);
+        buf[i++] = ':';
+        i = put2(buf, i, time/1000%60);
+        int ms = time%1000;
+        if(ms!=0) {
+            buf[i++] = '.';
+            buf[i++] = (char)('0'+ms/100);
+            buf[i++] = (char)('0'+ms/10%10);
+            buf[i++] = (char)('0'+ms%10);
+        }
+        if(tz!=null) {
+            if(offset==0) {
+                buf[i++] = 'Z';
+            } else {
+                if(offset<0) {
+                    buf[i++] = '-';
+                    offset = -offset;
+                } else {
+                    buf[i++] = '+';
+                }
+                offset /= 60000;
+                i = put2(buf, i, offset/60);
+                buf[i++] = ':';
+                i = put2(buf, i, offset%60);
+            }
+        }
+        return new String(buf, 0, i);
+    }
+
+    /**
+     * The instant of the calendar if its fields follow the Gregorian rules there,
+     * otherwise {@link #UNKNOWN}.
+     */
+    private static long gregorianMillis(Calendar cal) {
+        if(!(cal instanceof GregorianCalendar))
+            return UNKNOWN;
+        long millis = cal.getTimeInMillis();
+        if(millis<GREGORIAN_CUTOVER || millis<((GregorianCalendar)cal).getGregorianChange().getTime())
+            return UNKNOWN;
+        return millis;
+    }
+
+    private static int digits(CharSequence s, int start, int n) {
+        int v = 0;
+        for( int i=start; i<start+n; i++ ) {
+            int d = s.charAt(i)-'0';
+            if(d<0 || d>9)
+                return -1;
+            v = v*10+d;
+        }
+        return v;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch(month) {
+        case 2:
+            return (year%4==0 && (year%100!=0 || year%400==0)) ? 29 : 28;
+        case 4: case 6: case 9: case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date.
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month<=2 ? year-1 : year;
+        long era = (y>=0 ? y : y-399)/400;
+        long yoe = y-era*400;
+        long doy = (153*(month>2 ? month-3 : month+9)+2)/5+day-1;
+        long doe = yoe*365+yoe/4-yoe/100+doy;
+        return era*146097+doe-719468;
+    }
+
+    private static long floorDiv(long x, long y) {
+        long q = x/y;
+        if((x%y!=0) && ((x<0)!=(y<0)))
+            q--;
+        return q;
+    }
+
+    private static int put2(char[] buf, int i, int v) {
+        buf[i++] = (char)('0'+v/10);
+        buf[i++] = (char)('0'+v%10);
+        return i;
+    }
+
+    private static int put4(char[] buf, int i, int v) {
+        buf[i++] = (char)('0'+v/1000);
+        buf[i++] = (char)('0'+v/100%10);
+        buf[i++] = (char)('0'+v/10%10);
+        buf[i++] = (char)('0'+v%10);
+        return i;
+    }
+}
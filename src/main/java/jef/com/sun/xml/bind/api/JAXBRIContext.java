@@ -464,4 +464,24 @@ public abstract class JAXBRIContext extends JAXBContext {
      */
     public static final String RETAIN_REFERENCE_TO_INFO = "retainReferenceToInfo";
 
+    /**
+     * The property that you can specify to {@link JAXBContext#newInstance}
+     * to choose how property accessors are optimized: "auto" (the default),
+     * "generate", "inject" or "reflection". See
+     * {@link jef.com.sun.xml.bind.v2.runtime.reflect.opt.AccessorBackend}.
+     *
+     * <p>
+     * The same name can be given as a system property, which sets the default
+     * of all contexts.
+     */
+    public static final String ACCESSOR_BACKEND = "jef.com.sun.xml.bind.accessorBackend";
+
+    /**
+     * The property that you can specify to {@link JAXBContext#newInstance}
+     * to generate a specialized serializer for each bound class and to let the
+     * unmarshaller follow the expected order of the child elements. Boolean,
+     * off unless the system property of the same name is "true".
+     */
+    public static final String GENERATED_CODECS = "jef.com.sun.xml.bind.generatedCodecs";
+
 }
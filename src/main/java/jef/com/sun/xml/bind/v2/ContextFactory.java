@@ -62,6 +62,7 @@ import jef.com.sun.xml.bind.api.JAXBRIContext;
 import jef.com.sun.xml.bind.api.TypeReference;
 import jef.com.sun.xml.bind.v2.model.annotation.RuntimeAnnotationReader;
 import jef.com.sun.xml.bind.v2.runtime.JAXBContextImpl;
+import jef.com.sun.xml.bind.v2.runtime.reflect.opt.AccessorBackend;
 import jef.com.sun.xml.bind.v2.util.TypeCast;
 
 /**
@@ -114,6 +115,20 @@ public class ContextFactory {
                 "is not active.  Using JAXB's implementation");
         }
 
+        AccessorBackend accessorBackend = AccessorBackend.getDefault();
+        String backendName = getPropertyValue(properties,JAXBRIContext.ACCESSOR_BACKEND,String.class);
+        if(backendName!=null) {
+            try {
+                accessorBackend = AccessorBackend.parse(backendName);
+            } catch (IllegalArgumentException e) {
+                throw new JAXBException(Messages.INVALID_PROPERTY_VALUE.format(JAXBRIContext.ACCESSOR_BACKEND,backendName));
+            }
+        }
+
+        Boolean generatedCodecs = getPropertyValue(properties,JAXBRIContext.GENERATED_CODECS,Boolean.class);
+        if(generatedCodecs==null)
+            generatedCodecs = JAXBContextImpl.JAXBContextBuilder.defaultGeneratedCodecs();
+
         RuntimeAnnotationReader ar = getPropertyValue(properties,JAXBRIContext.ANNOTATION_READER,RuntimeAnnotationReader.class);
 
         Map<Class,Class> subclassReplacements;
@@ -129,7 +144,7 @@ public class ContextFactory {
         }
 
         return createContext(classes,Collections.<TypeReference>emptyList(),
-                subclassReplacements,defaultNsUri,c14nSupport,ar,xmlAccessorFactorySupport,allNillable, retainPropertyInfo);
+                subclassReplacements,defaultNsUri,c14nSupport,ar,xmlAccessorFactorySupport,allNillable, retainPropertyInfo, accessorBackend, generatedCodecs);
     }
 
     /**
@@ -155,6 +170,15 @@ public class ContextFactory {
             Collection<TypeReference> typeRefs, Map<Class,Class> subclassReplacements, 
             String defaultNsUri, boolean c14nSupport, RuntimeAnnotationReader ar, 
             boolean xmlAccessorFactorySupport, boolean allNillable, boolean retainPropertyInfo) throws JAXBException {
+        return createContext(classes,typeRefs,subclassReplacements,defaultNsUri,c14nSupport,ar,xmlAccessorFactorySupport,allNillable,retainPropertyInfo,
+                AccessorBackend.getDefault(),JAXBContextImpl.JAXBContextBuilder.defaultGeneratedCodecs());
+    }
+
+    public static JAXBRIContext createContext( Type[] classes, 
+            Collection<TypeReference> typeRefs, Map<Class,Class> subclassReplacements, 
+            String defaultNsUri, boolean c14nSupport, RuntimeAnnotationReader ar, 
+            boolean xmlAccessorFactorySupport, boolean allNillable, boolean retainPropertyInfo,
+            AccessorBackend accessorBackend, boolean generatedCodecs) throws JAXBException {
 
         JAXBContextImpl.JAXBContextBuilder builder = new JAXBContextImpl.JAXBContextBuilder();
         builder.setClasses(classes);
@@ -166,6 +190,8 @@ public class ContextFactory {
         builder.setXmlAccessorFactorySupport(xmlAccessorFactorySupport);
         builder.setAllNillable(allNillable);
         builder.setRetainPropertyInfo(retainPropertyInfo);
+        builder.setAccessorBackend(accessorBackend);
+        builder.setGeneratedCodecs(generatedCodecs);
         return builder.build();
     }
 
@@ -0,0 +1,109 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ * 
+ * Copyright 1997-2007 Sun Microsystems, Inc. All rights reserved.
+ * 
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License. You can obtain
+ * a copy of the License at https://glassfish.dev.java.net/public/CDDL+GPL.html
+ * or glassfish/bootstrap/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ * 
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ * Sun designates this particular file as subject to the "Classpath" exception
+ * as provided by Sun in the GPL Version 2 section of the License file that
+ * accompanied this code.  If applicable, add the following below the License
+ * Header, with the fields enclosed by brackets [] replaced by your own
+ * identifying information: "Portions Copyrighted [year]
+ * [name of copyright owner]"
+ * 
+ * Contributor(s):
+ * 
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package jef.com.sun.xml.bind.v2.bytecode;
+
+import java.lang.ref.WeakReference;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Defines classes generated at runtime in a private child of an application class loader.
+ *
+ * <p>
+ * The classes go through the ordinary protected {@link ClassLoader#defineClass} path,
+ * nothing is injected into the application loader. They resolve application classes
+ * through the parent and, when the parent doesn't see this library (a shared JAXB on a
+ * container class path), the JAXB runtime through the loader of this class. One loader
+ * is kept per parent. Both the parent and the loader are held weakly: the loader holds
+ * its parent, so a strong value would keep the key of the {@link WeakHashMap} alive.
+ * The loader lives as long as one of its classes is in use, and the generated classes
+ * go away with the application.
+ */
+public final class GeneratedClassLoader extends ClassLoader {
+
+    private static final Map<ClassLoader,WeakReference<GeneratedClassLoader>> loaders = new WeakHashMap<ClassLoader,WeakReference<GeneratedClassLoader>>();
+
+    private GeneratedClassLoader(ClassLoader parent) {
+        super(parent);
+    }
+
+    /**
+     * Defines the class next to the loader of {@code host}, or returns the class
+     * defined earlier under the same name.
+     *
+     * @throws LinkageError
+     *      if the bytes are not a valid class.
+     */
+    public static Class<?> define(Class<?> host, String className, byte[] bytes) {
+        return get(host).defineOnce(className, bytes);
+    }
+
+    private static GeneratedClassLoader get(Class<?> host) {
+        ClassLoader parent = host.getClassLoader();
+        if(parent==null)
+            parent = GeneratedClassLoader.class.getClassLoader();
+        synchronized(loaders) {
+            WeakReference<GeneratedClassLoader> ref = loaders.get(parent);
+            GeneratedClassLoader loader = ref==null ? null : ref.get();
+            if(loader==null) {
+                final ClassLoader p = parent;
+                loader = AccessController.doPrivileged(new PrivilegedAction<GeneratedClassLoader>() {
+                    public GeneratedClassLoader run() {
+                        return new GeneratedClassLoader(p);
+                    }
+                });
+                loaders.put(parent,new WeakReference<GeneratedClassLoader>(loader));
+            }
+            return loader;
+        }
+    }
+
+    private synchronized Class<?> defineOnce(String className, byte[] bytes) {
+        // a second context over the same class asks for the same class
+        Class<?> c = findLoadedClass(className);
+        if(c==null)
+            c = defineClass(className, bytes, 0, bytes.length, GeneratedClassLoader.class.getProtectionDomain());
+        return c;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        return Class.forName(name, false, GeneratedClassLoader.class.getClassLoader());
+    }
+}
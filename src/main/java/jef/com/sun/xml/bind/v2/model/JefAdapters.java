@@ -23,6 +23,13 @@ public class JefAdapters {
 	private static Map<Class, XmlJavaTypeAdapter> jefTypeAdapters;
 	public static Set<String> jefQualified;
 	
+	/**
+	 * 为true时，标注了&#64;XmlElement的Map属性（包括方法参数和返回值）直接按Map逐项序列化，
+	 * 不再经过SimpleMapAdapter复制。XML格式为JAXB标准的entry/key/value结构，和SimpleMap不同，
+	 * 因此需要服务端和客户端同时开启。
+	 */
+	public static final boolean DIRECT_MAP = "true".equals(System.getProperty("jef.ws.directMap"));
+	
 	static{
 		try {
 			initCustomTypes();
@@ -81,6 +81,7 @@ import javax.xml.namespace.QName;
 import jef.com.sun.istack.FinalArrayList;
 import jef.com.sun.xml.bind.annotation.OverrideAnnotationOf;
 import jef.com.sun.xml.bind.annotation.XmlLocation;
+import jef.com.sun.xml.bind.v2.model.JefAdapters;
 import jef.com.sun.xml.bind.v2.model.annotation.Locatable;
 import jef.com.sun.xml.bind.v2.model.annotation.MethodLocatable;
 import jef.com.sun.xml.bind.v2.model.core.ClassInfo;
@@ -826,6 +827,12 @@ class ClassInfoImpl<T,C,F,M> extends TypeInfoImpl<T,C,F,M> implements ClassInfo<
                     group = PropertyGroup.MAP;
                 else
                     group = PropertyGroup.ELEMENT;
+            } else if(group==PropertyGroup.ELEMENT && e1!=null && JefAdapters.DIRECT_MAP
+                && nav().isSubClassOf( seed.getRawType(), nav().ref(Map.class) )
+                && !seed.hasAnnotation(XmlJavaTypeAdapter.class)
+                && (secondaryAnnotations&PropertyGroup.MAP.allowedsecondaryAnnotations)==0) {
+                // jef: write the Map entry by entry instead of adapting it to a SimpleMap
+                group = PropertyGroup.MAP;
             }
 
             // group determined by now
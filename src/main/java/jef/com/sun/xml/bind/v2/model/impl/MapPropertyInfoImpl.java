@@ -40,6 +40,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 
+import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.namespace.QName;
 
@@ -67,8 +68,15 @@ class MapPropertyInfoImpl<T,C,F,M> extends PropertyInfoImpl<T,C,F,M> implements
         super(ci, seed);
 
         XmlElementWrapper xe = seed.readAnnotation(XmlElementWrapper.class);
-        xmlName = calcXmlName(xe);
-        nil = xe!=null && xe.nillable();
+        // @XmlElement only gets here when JefAdapters.DIRECT_MAP is on
+        XmlElement e = xe==null ? seed.readAnnotation(XmlElement.class) : null;
+        if(e!=null) {
+            xmlName = calcXmlName(e);
+            nil = e.nillable();
+        } else {
+            xmlName = calcXmlName(xe);
+            nil = xe!=null && xe.nillable();
+        }
 
         T raw = getRawType();
         T bt = nav().getBaseClass(raw, nav().asDecl(Map.class) );
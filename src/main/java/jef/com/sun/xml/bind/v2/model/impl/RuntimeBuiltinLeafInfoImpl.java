@@ -63,7 +63,10 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.activation.DataHandler;
 import javax.activation.DataSource;
@@ -93,6 +96,7 @@ import org.xml.sax.SAXException;
 
 import jef.com.sun.istack.ByteArrayDataSource;
 import jef.com.sun.xml.bind.DatatypeConverterImpl;
+import jef.com.sun.xml.bind.IsoDateTime;
 import jef.com.sun.xml.bind.WhiteSpaceProcessor;
 import jef.com.sun.xml.bind.api.AccessorException;
 import jef.com.sun.xml.bind.v2.TODO;
@@ -236,6 +240,27 @@ public abstract class RuntimeBuiltinLeafInfoImpl<T> extends BuiltinLeafInfoImpl<
     	}
     }
 
+    /**
+     * Prints a {@link Date} as xs:dateTime, or as xs:date if the property asks for it.
+     */
+    private static String printDate(Date v) {
+        XMLSerializer xs = XMLSerializer.getInstance();
+        QName type = xs.getSchemaType();
+        boolean date = (type != null) && (WellKnownNamespace.XML_SCHEMA.equals(type.getNamespaceURI())) &&
+                DATE.equals(type.getLocalPart());
+        String s = IsoDateTime.print(v.getTime(), TimeZone.getDefault(), !date);
+        if (s != null) {
+            return s;
+        }
+        GregorianCalendar cal = new GregorianCalendar(0,0,0);
+        cal.setTime(v);
+        if (date) {
+            return DatatypeConverterImpl._printDate(cal);
+        } else {
+            return DatatypeConverterImpl._printDateTime(cal);
+        }
+    }
+
     private static byte[] decodeBase64(CharSequence text) {
         if (text instanceof Base64Data) {
             Base64Data base64Data = (Base64Data) text;
@@ -301,7 +326,7 @@ public abstract class RuntimeBuiltinLeafInfoImpl<T> extends BuiltinLeafInfoImpl<
         secondaryList.add(
             new StringImpl<Calendar>(Calendar.class, DatatypeConstants.DATETIME) {
                 public Calendar parse(CharSequence text) {
-                    return DatatypeConverterImpl._parseDateTime(text.toString());
+                    return DatatypeConverterImpl._parseDateTime(text);
                 }
                 public String print(Calendar v) {
                     return DatatypeConverterImpl._printDateTime(v);
@@ -310,7 +335,7 @@ public abstract class RuntimeBuiltinLeafInfoImpl<T> extends BuiltinLeafInfoImpl<
         secondaryList.add(
             new StringImpl<GregorianCalendar>(GregorianCalendar.class, DatatypeConstants.DATETIME) {
                 public GregorianCalendar parse(CharSequence text) {
-                    return DatatypeConverterImpl._parseDateTime(text.toString());
+                    return DatatypeConverterImpl._parseDateTime(text);
                 }
                 public String print(GregorianCalendar v) {
                     return DatatypeConverterImpl._printDateTime(v);
@@ -319,21 +344,50 @@ public abstract class RuntimeBuiltinLeafInfoImpl<T> extends BuiltinLeafInfoImpl<
         secondaryList.add(
             new StringImpl<Date>(Date.class, DatatypeConstants.DATETIME) {
                 public Date parse(CharSequence text) {
-                    return DatatypeConverterImpl._parseDateTime(text.toString()).getTime();
+                    return new Date(DatatypeConverterImpl._parseDateTimeMillis(text));
                 }
                 public String print(Date v) {
-                    XMLSerializer xs = XMLSerializer.getInstance();
-                    QName type = xs.getSchemaType();
-                    GregorianCalendar cal = new GregorianCalendar(0,0,0);
-                    cal.setTime(v);
-                    if ((type != null) && (WellKnownNamespace.XML_SCHEMA.equals(type.getNamespaceURI())) &&
-                            DATE.equals(type.getLocalPart())) {
-                        return DatatypeConverterImpl._printDate(cal);
-                    } else {
-                        return DatatypeConverterImpl._printDateTime(cal);
-                    }
+                    return printDate(v);
                 }
             });
+        /*
+            types which JefAdapters used to map through jaxb-types.properties.
+            Same lexical forms as the adapters (dateTime for the java.sql types,
+            the decimal digits as xs:string for the atomics), but without the
+            intermediate object and the adapter lock on every value.
+        */
+        secondaryList.add(
+            new StringImpl<java.sql.Timestamp>(java.sql.Timestamp.class, DatatypeConstants.DATETIME) {
+                public java.sql.Timestamp parse(CharSequence text) {
+                    if(text.length()==0)return null;
+                    return new java.sql.Timestamp(DatatypeConverterImpl._parseDateTimeMillis(text));
+                }
+                public String print(java.sql.Timestamp v) {
+                    return printDate(v);
+                }
+            });
+        secondaryList.add(
+            new StringImpl<java.sql.Time>(java.sql.Time.class, DatatypeConstants.DATETIME) {
+                public java.sql.Time parse(CharSequence text) {
+                    if(text.length()==0)return null;
+                    return new java.sql.Time(DatatypeConverterImpl._parseDateTimeMillis(text));
+                }
+                public String print(java.sql.Time v) {
+                    return printDate(v);
+                }
+            });
+        secondaryList.add(
+            new StringImpl<java.sql.Date>(java.sql.Date.class, DatatypeConstants.DATETIME) {
+                public java.sql.Date parse(CharSequence text) {
+                    if(text.length()==0)return null;
+                    return new java.sql.Date(DatatypeConverterImpl._parseDateTimeMillis(text));
+                }
+                public String print(java.sql.Date v) {
+                    return printDate(v);
+                }
+            });
+        secondaryList.add(new AtomicIntegerImpl());
+        secondaryList.add(new AtomicLongImpl());
         secondaryList.add(
             new StringImpl<File>(File.class, createXS("string")) {
                 public File parse(CharSequence text) {
@@ -611,6 +665,10 @@ public abstract class RuntimeBuiltinLeafInfoImpl<T> extends BuiltinLeafInfoImpl<
 
                 public XMLGregorianCalendar parse(CharSequence lexical) throws SAXException {
                     try {
+                        XMLGregorianCalendar cal = IsoDateTime.parseXMLGregorianCalendar(lexical, datatypeFactory);
+                        if (cal != null) {
+                            return cal;
+                        }
                         return datatypeFactory.newXMLGregorianCalendar(lexical.toString().trim()); // (.trim() - issue 396)
                     } catch (Exception e) {
                         UnmarshallingContext.getInstance().handleError(e);
@@ -1041,6 +1099,58 @@ public abstract class RuntimeBuiltinLeafInfoImpl<T> extends BuiltinLeafInfoImpl<
         }
     }
 
+    /**
+     * {@link AtomicInteger} written as digits straight into the output.
+     */
+    private static class AtomicIntegerImpl extends RuntimeBuiltinLeafInfoImpl<AtomicInteger> {
+        public AtomicIntegerImpl() {
+            super(AtomicInteger.class, RuntimeBuiltinLeafInfoImpl.createXS("string"));
+        }
+
+        public AtomicInteger parse(CharSequence text) {
+            if(text.length()==0)return null;
+            return new AtomicInteger(DatatypeConverterImpl._parseInt(text));
+        }
+
+        public String print(AtomicInteger v) {
+            return String.valueOf(v.get());
+        }
+
+        public void writeText(XMLSerializer w, AtomicInteger o, String fieldName) throws IOException, SAXException, XMLStreamException {
+            w.text(o.get(), fieldName);
+        }
+
+        public void writeLeafElement(XMLSerializer w, Name tagName, AtomicInteger o, String fieldName) throws IOException, SAXException, XMLStreamException {
+            w.leafElement(tagName, o.get(), fieldName);
+        }
+    }
+
+    /**
+     * {@link AtomicLong} written as digits straight into the output.
+     */
+    private static class AtomicLongImpl extends RuntimeBuiltinLeafInfoImpl<AtomicLong> {
+        public AtomicLongImpl() {
+            super(AtomicLong.class, RuntimeBuiltinLeafInfoImpl.createXS("string"));
+        }
+
+        public AtomicLong parse(CharSequence text) {
+            if(text.length()==0)return null;
+            return new AtomicLong(DatatypeConverterImpl._parseLong(text));
+        }
+
+        public String print(AtomicLong v) {
+            return String.valueOf(v.get());
+        }
+
+        public void writeText(XMLSerializer w, AtomicLong o, String fieldName) throws IOException, SAXException, XMLStreamException {
+            w.text(o.get(), fieldName);
+        }
+
+        public void writeLeafElement(XMLSerializer w, Name tagName, AtomicLong o, String fieldName) throws IOException, SAXException, XMLStreamException {
+            w.leafElement(tagName, o.get(), fieldName);
+        }
+    }
+
     private static class StringImplImpl extends StringImpl<String> {
 
         public StringImplImpl(Class type, QName[] typeNames) {
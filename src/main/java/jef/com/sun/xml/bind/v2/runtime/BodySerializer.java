@@ -0,0 +1,320 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ * 
+ * Copyright 1997-2007 Sun Microsystems, Inc. All rights reserved.
+ * 
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License. You can obtain
+ * a copy of the License at https://glassfish.dev.java.net/public/CDDL+GPL.html
+ * or glassfish/bootstrap/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ * 
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ * Sun designates this particular file as subject to the "Classpath" exception
+ * as provided by Sun in the GPL Version 2 section of the License file that
+ * accompanied this code.  If applicable, add the following below the License
+ * Header, with the fields enclosed by brackets [] replaced by your own
+ * identifying information: "Portions Copyrighted [year]
+ * [name of copyright owner]"
+ * 
+ * Contributor(s):
+ * 
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package jef.com.sun.xml.bind.v2.runtime;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.stream.XMLStreamException;
+
+import jef.accelerator.asm.ClassWriter;
+import jef.accelerator.asm.Label;
+import jef.accelerator.asm.MethodVisitor;
+import jef.accelerator.asm.Opcodes;
+import jef.accelerator.asm.Type;
+
+import jef.com.sun.xml.bind.Util;
+import jef.com.sun.xml.bind.api.AccessorException;
+import jef.com.sun.xml.bind.api.JAXBRIContext;
+import jef.com.sun.xml.bind.v2.bytecode.GeneratedClassLoader;
+import jef.com.sun.xml.bind.v2.runtime.property.LeafElement;
+import jef.com.sun.xml.bind.v2.runtime.property.Property;
+import jef.com.sun.xml.bind.v2.runtime.reflect.Accessor;
+import jef.com.sun.xml.bind.v2.runtime.reflect.TransducedAccessor;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Serializes the properties of one {@link ClassBeanInfoImpl}, without its super class.
+ *
+ * <p>
+ * The implementations are generated per bound class when
+ * {@link JAXBRIContext#GENERATED_CODECS} is on. The loop over
+ * {@link ClassBeanInfoImpl#properties} is unrolled into one block per property, each
+ * calling through its own fields, so every call site only ever sees one receiver
+ * class and the JIT can inline it, instead of the megamorphic sites shared by all
+ * the properties of all the classes:
+ * <ul>
+ * <li>A leaf element over a plain accessor and transducer (a String or a primitive
+ *     field, for instance) calls {@link Accessor#get} and
+ *     {@link Transducer#writeLeafElement} itself.
+ * <li>Another leaf element calls its own {@link TransducedAccessor}.
+ * <li>Everything else calls {@link Property#serializeBody}.
+ * </ul>
+ * The code only depends on this layout, the accessors, transducers and names come
+ * from the context through the constructor. The class is named after the bean class
+ * and the layout, so contexts which lay a class out the same way share one class,
+ * and a context with another layout gets its own.
+ *
+ * @see ClassBeanInfoImpl#serializeBody(Object, XMLSerializer)
+ */
+public abstract class BodySerializer<BeanT> {
+
+    private static final Logger logger = Util.getClassLogger();
+
+    /**
+     * Above this many properties the loop is kept, generated methods must stay small
+     * enough to be compiled.
+     */
+    private static final int MAX_PROPERTIES = 256;
+
+    /**
+     * Layout codes, one per property.
+     */
+    private static final char PROPERTY = 'P';
+    private static final char LEAF = 'L';
+    private static final char NILLABLE_LEAF = 'l';
+    private static final char COMPOSITE = 'C';
+    private static final char NILLABLE_COMPOSITE = 'c';
+
+    private static final String SUPER = Type.getInternalName(BodySerializer.class);
+    private static final String PROPERTY_TYPE = Type.getInternalName(Property.class);
+    private static final String LEAF_TYPE = Type.getInternalName(LeafElement.class);
+    private static final String XACC_TYPE = Type.getInternalName(TransducedAccessor.class);
+    private static final String ACCESSOR_TYPE = Type.getInternalName(Accessor.class);
+    private static final String TRANSDUCER_TYPE = Type.getInternalName(Transducer.class);
+    private static final String SERIALIZER_TYPE = Type.getInternalName(XMLSerializer.class);
+
+    private static final String PROPERTY_DESC = Type.getDescriptor(Property.class);
+    private static final String XACC_DESC = Type.getDescriptor(TransducedAccessor.class);
+    private static final String ACCESSOR_DESC = Type.getDescriptor(Accessor.class);
+    private static final String TRANSDUCER_DESC = Type.getDescriptor(Transducer.class);
+    private static final String NAME_DESC = Type.getDescriptor(Name.class);
+    private static final String STRING_DESC = Type.getDescriptor(String.class);
+    private static final String SERIALIZER_DESC = Type.getDescriptor(XMLSerializer.class);
+    private static final String WRITE_LEAF_DESC = "("+SERIALIZER_DESC+NAME_DESC+"Ljava/lang/Object;"+STRING_DESC+")V";
+
+    public abstract void serializeBody(BeanT bean, XMLSerializer target) throws SAXException, AccessorException, IOException, XMLStreamException;
+
+    /**
+     * Generates the serializer of the given bean.
+     *
+     * @return null
+     *      if the class has nothing to unroll or if the generation fails, in which case
+     *      the interpreted loop is used.
+     */
+    static <BeanT> BodySerializer<BeanT> create(ClassBeanInfoImpl<BeanT> bi) {
+        Property<BeanT>[] properties = bi.properties;
+        if(properties.length==0 || properties.length>MAX_PROPERTIES)
+            return null;
+
+        LeafElement[] leaves = new LeafElement[properties.length];
+        char[] layout = new char[properties.length];
+        for( int i=0; i<properties.length; i++ ) {
+            leaves[i] = LeafElement.of(properties[i]);
+            if(leaves[i]==null)
+                layout[i] = PROPERTY;
+            else if(leaves[i].accessor!=null)
+                layout[i] = leaves[i].nillable ? NILLABLE_COMPOSITE : COMPOSITE;
+            else
+                layout[i] = leaves[i].nillable ? NILLABLE_LEAF : LEAF;
+        }
+
+        String className = "jef/com/sun/xml/bind/v2/runtime/gen/"+Type.getInternalName(bi.jaxbType)+"$Body$"+new String(layout);
+        try {
+            Class<?> c = GeneratedClassLoader.define(bi.jaxbType, className.replace('/','.'), generate(className, layout));
+            return (BodySerializer<BeanT>)c.getConstructor(Property[].class, LeafElement[].class).newInstance(properties, leaves);
+        } catch (LinkageError e) {
+            logger.log(Level.FINE,"failed to load a generated serializer",e);
+        } catch (Exception e) {
+            logger.log(Level.WARNING,"failed to load a generated serializer",e);
+        }
+        return null;
+    }
+
+    private static byte[] generate(String className, char[] layout) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC + Opcodes.ACC_SUPER + Opcodes.ACC_FINAL + Opcodes.ACC_SYNTHETIC,
+                className, null, SUPER, null);
+        for( int i=0; i<layout.length; i++ ) {
+            switch(layout[i]) {
+            case PROPERTY:
+                field(cw, "p"+i, PROPERTY_DESC);
+                break;
+            case LEAF:
+            case NILLABLE_LEAF:
+                field(cw, "x"+i, XACC_DESC);
+                field(cw, "n"+i, NAME_DESC);
+                field(cw, "f"+i, STRING_DESC);
+                break;
+            default:
+                field(cw, "a"+i, ACCESSOR_DESC);
+                field(cw, "t"+i, TRANSDUCER_DESC);
+                field(cw, "n"+i, NAME_DESC);
+                field(cw, "f"+i, STRING_DESC);
+            }
+        }
+
+        // public <init>(Property[] properties, LeafElement[] leaves)
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "(["+PROPERTY_DESC+"[L"+LEAF_TYPE+";)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, SUPER, "<init>", "()V");
+        for( int i=0; i<layout.length; i++ ) {
+            switch(layout[i]) {
+            case PROPERTY:
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitVarInsn(Opcodes.ALOAD, 1);
+                mv.visitLdcInsn(Integer.valueOf(i));
+                mv.visitInsn(Opcodes.AALOAD);
+                mv.visitFieldInsn(Opcodes.PUTFIELD, className, "p"+i, PROPERTY_DESC);
+                break;
+            case LEAF:
+            case NILLABLE_LEAF:
+                copyLeaf(mv, className, i, "xacc", "x", XACC_DESC);
+                copyLeaf(mv, className, i, "tagName", "n", NAME_DESC);
+                copyLeaf(mv, className, i, "fieldName", "f", STRING_DESC);
+                break;
+            default:
+                copyLeaf(mv, className, i, "accessor", "a", ACCESSOR_DESC);
+                copyLeaf(mv, className, i, "transducer", "t", TRANSDUCER_DESC);
+                copyLeaf(mv, className, i, "tagName", "n", NAME_DESC);
+                copyLeaf(mv, className, i, "fieldName", "f", STRING_DESC);
+            }
+        }
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        // public void serializeBody(Object bean, XMLSerializer target)
+        mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "serializeBody", "(Ljava/lang/Object;"+SERIALIZER_DESC+")V", null, null);
+        mv.visitCode();
+        for( int i=0; i<layout.length; i++ ) {
+            switch(layout[i]) {
+            case PROPERTY:
+                // p.serializeBody(bean,target,null)
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitFieldInsn(Opcodes.GETFIELD, className, "p"+i, PROPERTY_DESC);
+                mv.visitVarInsn(Opcodes.ALOAD, 1);
+                mv.visitVarInsn(Opcodes.ALOAD, 2);
+                mv.visitInsn(Opcodes.ACONST_NULL);
+                mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, PROPERTY_TYPE, "serializeBody",
+                        "(Ljava/lang/Object;"+SERIALIZER_DESC+"Ljava/lang/Object;)V");
+                break;
+            case LEAF:
+            case NILLABLE_LEAF: {
+                // if(xacc.hasValue(bean)) xacc.writeLeafElement(target,tagName,bean,fieldName)
+                Label absent = new Label();
+                Label end = new Label();
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitFieldInsn(Opcodes.GETFIELD, className, "x"+i, XACC_DESC);
+                mv.visitVarInsn(Opcodes.ALOAD, 1);
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, XACC_TYPE, "hasValue", "(Ljava/lang/Object;)Z");
+                mv.visitJumpInsn(Opcodes.IFEQ, absent);
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitFieldInsn(Opcodes.GETFIELD, className, "x"+i, XACC_DESC);
+                mv.visitVarInsn(Opcodes.ALOAD, 2);
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitFieldInsn(Opcodes.GETFIELD, className, "n"+i, NAME_DESC);
+                mv.visitVarInsn(Opcodes.ALOAD, 1);
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitFieldInsn(Opcodes.GETFIELD, className, "f"+i, STRING_DESC);
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, XACC_TYPE, "writeLeafElement", WRITE_LEAF_DESC);
+                mv.visitJumpInsn(Opcodes.GOTO, end);
+                mv.visitLabel(absent);
+                if(layout[i]==NILLABLE_LEAF)
+                    writeNil(mv, className, i);
+                mv.visitLabel(end);
+                break;
+            }
+            default: {
+                // Object v = acc.get(bean); if(v!=null) xducer.writeLeafElement(target,tagName,v,fieldName)
+                Label absent = new Label();
+                Label end = new Label();
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitFieldInsn(Opcodes.GETFIELD, className, "a"+i, ACCESSOR_DESC);
+                mv.visitVarInsn(Opcodes.ALOAD, 1);
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, ACCESSOR_TYPE, "get", "(Ljava/lang/Object;)Ljava/lang/Object;");
+                mv.visitVarInsn(Opcodes.ASTORE, 3);
+                mv.visitVarInsn(Opcodes.ALOAD, 3);
+                mv.visitJumpInsn(Opcodes.IFNULL, absent);
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitFieldInsn(Opcodes.GETFIELD, className, "t"+i, TRANSDUCER_DESC);
+                mv.visitVarInsn(Opcodes.ALOAD, 2);
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitFieldInsn(Opcodes.GETFIELD, className, "n"+i, NAME_DESC);
+                mv.visitVarInsn(Opcodes.ALOAD, 3);
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitFieldInsn(Opcodes.GETFIELD, className, "f"+i, STRING_DESC);
+                mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, TRANSDUCER_TYPE, "writeLeafElement", WRITE_LEAF_DESC);
+                mv.visitJumpInsn(Opcodes.GOTO, end);
+                mv.visitLabel(absent);
+                if(layout[i]==NILLABLE_COMPOSITE)
+                    writeNil(mv, className, i);
+                mv.visitLabel(end);
+            }
+            }
+        }
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void field(ClassWriter cw, String name, String desc) {
+        cw.visitField(Opcodes.ACC_PRIVATE + Opcodes.ACC_FINAL, name, desc, null, null).visitEnd();
+    }
+
+    /**
+     * this.{prefix}{i} = leaves[i].{leafField}
+     */
+    private static void copyLeaf(MethodVisitor mv, String className, int i, String leafField, String prefix, String desc) {
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitLdcInsn(Integer.valueOf(i));
+        mv.visitInsn(Opcodes.AALOAD);
+        mv.visitFieldInsn(Opcodes.GETFIELD, LEAF_TYPE, leafField, desc);
+        mv.visitFieldInsn(Opcodes.PUTFIELD, className, prefix+i, desc);
+    }
+
+    /**
+     * target.startElement(tagName,null); target.writeXsiNilTrue(); target.endElement();
+     */
+    private static void writeNil(MethodVisitor mv, String className, int i) {
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, className, "n"+i, NAME_DESC);
+        mv.visitInsn(Opcodes.ACONST_NULL);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SERIALIZER_TYPE, "startElement", "("+NAME_DESC+"Ljava/lang/Object;)V");
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SERIALIZER_TYPE, "writeXsiNilTrue", "()V");
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SERIALIZER_TYPE, "endElement", "()V");
+    }
+}
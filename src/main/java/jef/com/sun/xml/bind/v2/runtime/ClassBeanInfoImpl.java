@@ -132,6 +132,13 @@ public final class ClassBeanInfoImpl<BeanT> extends JaxBeanInfo<BeanT> implement
      */
     private /*final*/ Property<BeanT>[] uriProperties;
 
+    /**
+     * Generated replacement of the loop in {@link #serializeBody(Object, XMLSerializer)},
+     * null when {@link JAXBContextImpl#generatedCodecs} is off or the generation failed.
+     * Set from the link method, but considered final.
+     */
+    private BodySerializer<BeanT> bodySerializer;
+
     private final Method factoryMethod;
     
     /*package*/ ClassBeanInfoImpl(JAXBContextImpl owner, RuntimeClassInfo ci) {
@@ -241,6 +248,10 @@ public final class ClassBeanInfoImpl<BeanT> extends JaxBeanInfo<BeanT> implement
             uriProperties = EMPTY_PROPERTIES;
         else
             uriProperties = uriProps.toArray(new Property[uriProps.size()]);
+
+        // the generated code doesn't track the current property
+        if(grammar.generatedCodecs && !retainPropertyInfo)
+            bodySerializer = BodySerializer.create(this);
     }
 
     public void wrapUp() {
@@ -333,6 +344,10 @@ public final class ClassBeanInfoImpl<BeanT> extends JaxBeanInfo<BeanT> implement
         if(superClazz!=null)
             superClazz.serializeBody(bean,target);
         try {
+            if(bodySerializer!=null) {
+                bodySerializer.serializeBody(bean,target);
+                return;
+            }
             for( Property<BeanT> p : properties ) {
                 if (retainPropertyInfo) {
                 target.currentProperty.set(p);
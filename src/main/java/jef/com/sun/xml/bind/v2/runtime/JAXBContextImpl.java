@@ -118,6 +118,7 @@ import jef.com.sun.xml.bind.v2.runtime.output.Encoded;
 import jef.com.sun.xml.bind.v2.runtime.property.AttributeProperty;
 import jef.com.sun.xml.bind.v2.runtime.property.Property;
 import jef.com.sun.xml.bind.v2.runtime.reflect.Accessor;
+import jef.com.sun.xml.bind.v2.runtime.reflect.opt.AccessorBackend;
 import jef.com.sun.xml.bind.v2.runtime.unmarshaller.Loader;
 import jef.com.sun.xml.bind.v2.runtime.unmarshaller.TagName;
 import jef.com.sun.xml.bind.v2.runtime.unmarshaller.UnmarshallerImpl;
@@ -256,6 +257,21 @@ public final class JAXBContextImpl extends JAXBRIContext {
      */
     public final boolean fastBoot;
 
+    /**
+     * How the reflection accessors of this context are optimized.
+     *
+     * @see JAXBRIContext#ACCESSOR_BACKEND
+     */
+    public final AccessorBackend accessorBackend;
+
+    /**
+     * If true, each {@link ClassBeanInfoImpl} gets a generated {@link BodySerializer}
+     * and its loader predicts the order of the child elements.
+     *
+     * @see JAXBRIContext#GENERATED_CODECS
+     */
+    public final boolean generatedCodecs;
+
     private Set<XmlNs> xmlNsSet = null;
 
     /**
@@ -286,6 +302,8 @@ public final class JAXBContextImpl extends JAXBRIContext {
         this.classes = builder.classes;
         this.xmlAccessorFactorySupport = builder.xmlAccessorFactorySupport;
         this.allNillable = builder.allNillable;
+        this.accessorBackend = builder.accessorBackend;
+        this.generatedCodecs = builder.generatedCodecs;
 
         Collection<TypeReference> typeRefs = builder.typeRefs;
 
@@ -1075,6 +1093,8 @@ public final class JAXBContextImpl extends JAXBRIContext {
         private Collection<TypeReference> typeRefs;
         private boolean xmlAccessorFactorySupport = false;
         private boolean allNillable;
+        private AccessorBackend accessorBackend = AccessorBackend.getDefault();
+        private boolean generatedCodecs = defaultGeneratedCodecs();
 
         public JAXBContextBuilder() {};
 
@@ -1088,6 +1108,8 @@ public final class JAXBContextImpl extends JAXBRIContext {
             this.typeRefs = baseImpl.bridges.keySet();
             this.xmlAccessorFactorySupport = baseImpl.xmlAccessorFactorySupport;
             this.allNillable = baseImpl.allNillable;
+            this.accessorBackend = baseImpl.accessorBackend;
+            this.generatedCodecs = baseImpl.generatedCodecs;
         }
 
         public JAXBContextBuilder setRetainPropertyInfo(boolean val) {
@@ -1115,6 +1137,27 @@ public final class JAXBContextImpl extends JAXBRIContext {
             return this;
         }
 
+        public JAXBContextBuilder setAccessorBackend(AccessorBackend val) {
+            this.accessorBackend = val;
+            return this;
+        }
+
+        public JAXBContextBuilder setGeneratedCodecs(boolean val) {
+            this.generatedCodecs = val;
+            return this;
+        }
+
+        /**
+         * The value of the system property {@link JAXBRIContext#GENERATED_CODECS}.
+         */
+        public static boolean defaultGeneratedCodecs() {
+            try {
+                return Boolean.getBoolean(JAXBRIContext.GENERATED_CODECS);
+            } catch (SecurityException e) {
+                return false;
+            }
+        }
+
         public JAXBContextBuilder setClasses(Type[] val) {
             this.classes = val;
             return this;
@@ -79,6 +79,7 @@ import jef.com.sun.xml.bind.v2.runtime.output.C14nXmlOutput;
 import jef.com.sun.xml.bind.v2.runtime.output.Encoded;
 import jef.com.sun.xml.bind.v2.runtime.output.ForkXmlOutput;
 import jef.com.sun.xml.bind.v2.runtime.output.IndentingUTF8XmlOutput;
+import jef.com.sun.xml.bind.v2.runtime.output.OctetBufferPool;
 import jef.com.sun.xml.bind.v2.runtime.output.NamespaceContextImpl;
 import jef.com.sun.xml.bind.v2.runtime.output.SAXOutput;
 import jef.com.sun.xml.bind.v2.runtime.output.UTF8XmlOutput;
@@ -117,6 +118,9 @@ public /*to make unit tests happy*/ final class MarshallerImpl extends AbstractM
     /** XML BLOB written after the XML declaration. */
     private String header=null;
 
+    /** Size of the octet buffer of {@link UTF8XmlOutput}, see {@link #OUTPUT_BUFFER_SIZE}. */
+    private int outputBufferSize = SYSTEM_OUTPUT_BUFFER_SIZE;
+
     /** reference to the context that created this object */
     final JAXBContextImpl context;
 
@@ -441,6 +445,8 @@ public /*to make unit tests happy*/ final class MarshallerImpl extends AbstractM
             else {
                 if(c14nSupport)
                     out = new C14nXmlOutput(os, table, context.c14nSupport, escapeHandler);
+                else if(outputBufferSize>DEFAULT_OUTPUT_BUFFER_SIZE)
+                    out = new UTF8XmlOutput(os, table, escapeHandler, OctetBufferPool.get(outputBufferSize));
                 else
                     out = new UTF8XmlOutput(os, table, escapeHandler);
             }
@@ -476,6 +482,8 @@ public /*to make unit tests happy*/ final class MarshallerImpl extends AbstractM
             return c14nSupport;
         if ( OBJECT_IDENTITY_CYCLE_DETECTION.equals(name)) 
         	return serializer.getObjectIdentityCycleDetection();
+        if( OUTPUT_BUFFER_SIZE.equals(name) )
+            return outputBufferSize;
 ;
 
         return super.getProperty(name);
@@ -529,6 +537,16 @@ public /*to make unit tests happy*/ final class MarshallerImpl extends AbstractM
             serializer.setObjectIdentityCycleDetection((Boolean)value);
             return;
         }
+        if( OUTPUT_BUFFER_SIZE.equals(name) ) {
+            if(!(value instanceof Integer))
+                throw new PropertyException(
+                    Messages.MUST_BE_X.format(
+                            name,
+                            Integer.class.getName(),
+                            value.getClass().getName() ) );
+            outputBufferSize = Math.max((Integer)value, DEFAULT_OUTPUT_BUFFER_SIZE);
+            return;
+        }
 
         super.setProperty(name, value);
     }
@@ -618,4 +636,24 @@ public /*to make unit tests happy*/ final class MarshallerImpl extends AbstractM
     protected static final String XML_HEADERS = "com.sun.xml.bind.xmlHeaders";
     protected static final String C14N = JAXBRIContext.CANONICALIZATION_SUPPORT;
     protected static final String OBJECT_IDENTITY_CYCLE_DETECTION = "com.sun.xml.bind.objectIdentitityCycleDetection";
+
+    /**
+     * Size in bytes of the buffer used when marshalling UTF-8 to an {@link OutputStream},
+     * an {@link Integer}. Larger buffers mean fewer writes to the stream for large
+     * documents; they are pooled. The system property of the same name sets the default.
+     */
+    public static final String OUTPUT_BUFFER_SIZE = "jef.com.sun.xml.bind.outputBufferSize";
+
+    private static final int DEFAULT_OUTPUT_BUFFER_SIZE = 1024;
+
+    private static final int SYSTEM_OUTPUT_BUFFER_SIZE;
+    static {
+        int size;
+        try {
+            size = Integer.getInteger(OUTPUT_BUFFER_SIZE, DEFAULT_OUTPUT_BUFFER_SIZE);
+        } catch (SecurityException e) {
+            size = DEFAULT_OUTPUT_BUFFER_SIZE;
+        }
+        SYSTEM_OUTPUT_BUFFER_SIZE = Math.max(size, DEFAULT_OUTPUT_BUFFER_SIZE);
+    }
 }
@@ -77,6 +77,7 @@ import jef.com.sun.xml.bind.v2.runtime.output.XmlOutput;
 import jef.com.sun.xml.bind.v2.runtime.property.Property;
 import jef.com.sun.xml.bind.v2.runtime.unmarshaller.Base64Data;
 import jef.com.sun.xml.bind.v2.runtime.unmarshaller.IntData;
+import jef.com.sun.xml.bind.v2.runtime.unmarshaller.LongData;
 import jef.com.sun.xml.bind.v2.util.CollisionCheckStack;
 
 import org.xml.sax.SAXException;
@@ -195,6 +196,11 @@ public final class XMLSerializer extends Coordinator {
      */
     private final IntData intData = new IntData();
 
+    /**
+     * Cached instance of {@link LongData}.
+     */
+    private final LongData longData = new LongData();
+
     public AttachmentMarshaller attachmentMarshaller;
 
     /*package*/ XMLSerializer( MarshallerImpl _owner ) {
@@ -361,6 +367,11 @@ public final class XMLSerializer extends Coordinator {
         leafElement(tagName,intData,fieldName);
     }
 
+    public void leafElement( Name tagName, long data, String fieldName ) throws SAXException, IOException, XMLStreamException {
+        longData.reset(data);
+        leafElement(tagName,longData,fieldName);
+    }
+
     // TODO: consider some of these in future if we expand the writer to use something other than SAX
 //    void leafElement( QName tagName, byte value, String fieldName ) throws SAXException;
 //    void leafElement( QName tagName, char value, String fieldName ) throws SAXException;
@@ -422,6 +433,24 @@ public final class XMLSerializer extends Coordinator {
         textHasAlreadyPrinted = true;
     }
 
+    /**
+     * The {@link #text(String, String)} method that takes an int, printed without
+     * creating a String.
+     */
+    public void text( int value, String fieldName ) throws SAXException, IOException, XMLStreamException {
+        intData.reset(value);
+        text(intData,fieldName);
+    }
+
+    /**
+     * The {@link #text(String, String)} method that takes a long, printed without
+     * creating a String.
+     */
+    public void text( long value, String fieldName ) throws SAXException, IOException, XMLStreamException {
+        longData.reset(value);
+        text(longData,fieldName);
+    }
+
     public void attribute(String uri, String local, String value) throws SAXException {
         int prefix;
         if(uri.length()==0) {
@@ -0,0 +1,107 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ * 
+ * Copyright 1997-2007 Sun Microsystems, Inc. All rights reserved.
+ * 
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License. You can obtain
+ * a copy of the License at https://glassfish.dev.java.net/public/CDDL+GPL.html
+ * or glassfish/bootstrap/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ * 
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ * Sun designates this particular file as subject to the "Classpath" exception
+ * as provided by Sun in the GPL Version 2 section of the License file that
+ * accompanied this code.  If applicable, add the following below the License
+ * Header, with the fields enclosed by brackets [] replaced by your own
+ * identifying information: "Portions Copyrighted [year]
+ * [name of copyright owner]"
+ * 
+ * Contributor(s):
+ * 
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package jef.com.sun.xml.bind.v2.runtime.output;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of the octet buffers of {@link UTF8XmlOutput}, one pool per buffer size.
+ *
+ * <p>
+ * A large buffer means few writes to the underlying stream for a large document, but
+ * allocating it for every marshalling would cost more than it saves, so the buffers
+ * are taken from here and given back by {@link UTF8XmlOutput#endDocument(boolean)}.
+ * A buffer lost to an exception is simply collected.
+ *
+ * @see jef.com.sun.xml.bind.v2.runtime.MarshallerImpl#OUTPUT_BUFFER_SIZE
+ */
+public final class OctetBufferPool {
+    /**
+     * Number of idle buffers kept per size.
+     */
+    public static final int MAX_IDLE = 32;
+
+    private static final ConcurrentMap<Integer,OctetBufferPool> pools = new ConcurrentHashMap<Integer,OctetBufferPool>();
+
+    private final int bufferSize;
+    private final Queue<byte[]> idle = new ConcurrentLinkedQueue<byte[]>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    private OctetBufferPool(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Gets the shared pool of buffers of the given size.
+     */
+    public static OctetBufferPool get(int bufferSize) {
+        OctetBufferPool pool = pools.get(bufferSize);
+        if(pool==null) {
+            pool = new OctetBufferPool(bufferSize);
+            OctetBufferPool old = pools.putIfAbsent(bufferSize,pool);
+            if(old!=null)
+                pool = old;
+        }
+        return pool;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public byte[] take() {
+        byte[] buf = idle.poll();
+        if(buf==null)
+            return new byte[bufferSize];
+        idleCount.decrementAndGet();
+        return buf;
+    }
+
+    public void recycle(byte[] buf) {
+        if(buf==null || buf.length!=bufferSize)
+            return;
+        if(idleCount.incrementAndGet()>MAX_IDLE) {
+            idleCount.decrementAndGet();
+            return;
+        }
+        idle.offer(buf);
+    }
+}
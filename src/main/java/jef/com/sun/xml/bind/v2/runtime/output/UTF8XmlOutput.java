@@ -81,9 +81,31 @@ public class UTF8XmlOutput extends XmlOutputAbstractImpl {
      */
     private final Encoded textBuffer = new Encoded();
 
+    /**
+     * Reused by {@link #writeEscaped(String, boolean)}.
+     */
+    private char[] charBuffer;
+
+    /**
+     * Longest encoding of one character: an entity like {@code &quot;}.
+     */
+    private static final int MAX_BYTES_PER_CHAR = 6;
+
+    /**
+     * Texts are encoded straight into octet buffers of at least this size.
+     */
+    private static final int MIN_DIRECT_BUFFER = 64;
+
+    private static final int MAX_CHAR_BUFFER = 8192;
+
     /** Buffer of octets for writing. */
-    // TODO: Obtain buffer size from property on the JAXB context
-    protected final byte[] octetBuffer = new byte[1024];
+    protected final byte[] octetBuffer;
+
+    /**
+     * Where {@link #octetBuffer} goes back to at the end of the document, null if it
+     * was not taken from a pool.
+     */
+    private OctetBufferPool bufferPool;
     
     /** Index in buffer to write to. */
     protected int octetBufferIndex;
@@ -108,7 +130,21 @@ public class UTF8XmlOutput extends XmlOutputAbstractImpl {
      *      local names encoded in UTF-8.
      */
     public UTF8XmlOutput(OutputStream out, Encoded[] localNames, CharacterEscapeHandler escapeHandler) {
+        this(out, localNames, escapeHandler, new byte[1024]);
+    }
+
+    /**
+     * Writes through a buffer taken from the pool. The buffer is returned by
+     * {@link #endDocument(boolean)}, the instance must not be used after that.
+     */
+    public UTF8XmlOutput(OutputStream out, Encoded[] localNames, CharacterEscapeHandler escapeHandler, OctetBufferPool pool) {
+        this(out, localNames, escapeHandler, pool.take());
+        this.bufferPool = pool;
+    }
+
+    private UTF8XmlOutput(OutputStream out, Encoded[] localNames, CharacterEscapeHandler escapeHandler, byte[] octetBuffer) {
         this.out = out;
+        this.octetBuffer = octetBuffer;
         this.localNames = localNames;
         for( int i=0; i<prefixes.length; i++ )
             prefixes[i] = new Encoded();
@@ -136,6 +172,10 @@ public class UTF8XmlOutput extends XmlOutputAbstractImpl {
     public void endDocument(boolean fragment) throws IOException, SAXException, XMLStreamException {
         flushBuffer();
         super.endDocument(fragment);
+        if(bufferPool!=null) {
+            bufferPool.recycle(octetBuffer);
+            bufferPool = null;
+        }
     }
 
     /**
@@ -311,6 +351,9 @@ public class UTF8XmlOutput extends XmlOutputAbstractImpl {
             StringWriter sw = new StringWriter();
             escapeHandler.escape(value.toCharArray(), 0, value.length(), isAttribute, sw);
             textBuffer.setEscape(sw.toString(), isAttribute);
+        } else if (octetBuffer.length >= MIN_DIRECT_BUFFER) {
+            writeEscaped(value, isAttribute);
+            return;
         } else {
             textBuffer.setEscape(value, isAttribute);
         }
@@ -318,6 +361,82 @@ public class UTF8XmlOutput extends XmlOutputAbstractImpl {
         textBuffer.write(this);
     }
 
+    /**
+     * Encodes and escapes the text straight into {@link #octetBuffer}, with the
+     * same output as {@link Encoded#setEscape(String, boolean)}.
+     *
+     * <p>
+     * Runs of ASCII characters which need no escaping, the vast majority of the
+     * text, are copied by a tight loop bounded by the free space of the buffer;
+     * only the characters which end such a run take the per-character path.
+     */
+    private void writeEscaped(String value, boolean isAttribute) throws IOException {
+        final int len = value.length();
+        final char[] chars = chars(len);
+        value.getChars(0, len, chars, 0);
+        final byte[][] entities = isAttribute ? Encoded.attributeEntities : Encoded.entities;
+        final byte[] b = octetBuffer;
+
+        int o = octetBufferIndex;
+        int i = 0;
+        while (i < len) {
+            if (b.length-o < MAX_BYTES_PER_CHAR) {
+                octetBufferIndex = o;
+                flushBuffer();
+                o = 0;
+            }
+            // at most one byte per character in the plain run
+            final int end = Math.min(len, i+b.length-o);
+            while (i < end) {
+                final char chr = chars[i];
+                if (chr >= 0x80 || entities[chr] != null)
+                    break;
+                b[o++] = (byte)chr;
+                i++;
+            }
+            if (i == end)
+                continue;
+
+            if (b.length-o < MAX_BYTES_PER_CHAR) {
+                octetBufferIndex = o;
+                flushBuffer();
+                o = 0;
+            }
+            final char chr = chars[i++];
+            if (chr < 0x80) {
+                byte[] ent = entities[chr];
+                System.arraycopy(ent, 0, b, o, ent.length);
+                o += ent.length;
+            } else if (chr < 0x800) {
+                b[o++] = (byte)(0xC0 + (chr >> 6));
+                b[o++] = (byte)(0x80 + (chr & 0x3F));
+            } else if (Character.MIN_HIGH_SURROGATE <= chr && chr <= Character.MAX_LOW_SURROGATE) {
+                // surrogate, takes the next character whatever it is (like Encoded)
+                int uc = (((chr & 0x3ff) << 10) | (value.charAt(i++) & 0x3ff)) + 0x10000;
+                b[o++] = (byte)(0xF0 | ((uc >> 18)));
+                b[o++] = (byte)(0x80 | ((uc >> 12) & 0x3F));
+                b[o++] = (byte)(0x80 | ((uc >> 6) & 0x3F));
+                b[o++] = (byte)(0x80 + (uc & 0x3F));
+            } else {
+                b[o++] = (byte)(0xE0 + (chr >> 12));
+                b[o++] = (byte)(0x80 + ((chr >> 6) & 0x3F));
+                b[o++] = (byte)(0x80 + (chr & 0x3F));
+            }
+        }
+        octetBufferIndex = o;
+    }
+
+    /**
+     * Scratch array for the characters of a text, long texts get a temporary one.
+     */
+    private char[] chars(int len) {
+        if (len > MAX_CHAR_BUFFER)
+            return new char[len];
+        if (charBuffer == null || charBuffer.length < len)
+            charBuffer = new char[Math.max(len, 256)];
+        return charBuffer;
+    }
+
     public final void text(int value) throws IOException {
         closeStartTag();
         /*
@@ -343,6 +462,34 @@ public class UTF8XmlOutput extends XmlOutputAbstractImpl {
         write(buf,idx,11-idx);
     }
 
+    /**
+     * Writes a long as decimal digits straight into the octet buffer.
+     */
+    public final void text(long value) throws IOException {
+        closeStartTag();
+
+        // max is -9223372036854775808, 20 characters
+        if(octetBufferIndex+20>octetBuffer.length)
+            flushBuffer();
+
+        int len = 1;
+        for( long v=value/10; v!=0; v/=10 )
+            len++;
+        if(value<0) {
+            octetBuffer[octetBufferIndex] = (byte)'-';
+            len++;
+        }
+
+        int idx = octetBufferIndex+len;
+        octetBufferIndex = idx;
+        do {
+            int r = (int)(value%10);
+            if(r<0) r = -r;
+            octetBuffer[--idx] = (byte)('0'|r);
+            value /= 10;
+        } while(value!=0);
+    }
+
     /**
      * Writes the given byte[] as base64 encoded binary to the output.
      *
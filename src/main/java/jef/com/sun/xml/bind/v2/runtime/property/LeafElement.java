@@ -0,0 +1,97 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 1997-2007 Sun Microsystems, Inc. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License. You can obtain
+ * a copy of the License at https://glassfish.dev.java.net/public/CDDL+GPL.html
+ * or glassfish/bootstrap/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ * Sun designates this particular file as subject to the "Classpath" exception
+ * as provided by Sun in the GPL Version 2 section of the License file that
+ * accompanied this code.  If applicable, add the following below the License
+ * Header, with the fields enclosed by brackets [] replaced by your own
+ * identifying information: "Portions Copyrighted [year]
+ * [name of copyright owner]"
+ *
+ * Contributor(s):
+ *
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package jef.com.sun.xml.bind.v2.runtime.property;
+
+import jef.com.sun.xml.bind.v2.runtime.BodySerializer;
+import jef.com.sun.xml.bind.v2.runtime.Name;
+import jef.com.sun.xml.bind.v2.runtime.Transducer;
+import jef.com.sun.xml.bind.v2.runtime.reflect.Accessor;
+import jef.com.sun.xml.bind.v2.runtime.reflect.TransducedAccessor;
+
+/**
+ * What a generated {@link BodySerializer} needs to write a leaf element property
+ * by itself, instead of calling {@link Property#serializeBody}.
+ *
+ * <p>
+ * Only leaf properties whose value can never need an <tt>xsi:type</tt> are described
+ * this way, everything else goes through the property.
+ *
+ * @see SingleElementLeafProperty
+ */
+public final class LeafElement {
+    public final Name tagName;
+    public final String fieldName;
+    public final boolean nillable;
+    /**
+     * Writes the element when {@link #accessor} is null.
+     */
+    public final TransducedAccessor xacc;
+    /**
+     * The accessor and transducer {@link #xacc} combines, null when it is
+     * not a plain {@link TransducedAccessor.CompositeTransducedAccessorImpl}.
+     */
+    public final Accessor accessor;
+    public final Transducer transducer;
+
+    LeafElement(Name tagName, String fieldName, boolean nillable, TransducedAccessor xacc) {
+        this.tagName = tagName;
+        this.fieldName = fieldName;
+        this.nillable = nillable;
+        this.xacc = xacc;
+        if(xacc.getClass()==TransducedAccessor.CompositeTransducedAccessorImpl.class) {
+            TransducedAccessor.CompositeTransducedAccessorImpl c = (TransducedAccessor.CompositeTransducedAccessorImpl)xacc;
+            // hasValue() looks at the unadapted value, the same as get() only without an adapter
+            if(!c.getAccessor().isAdapted()) {
+                this.accessor = c.getAccessor();
+                this.transducer = c.getTransducer();
+                return;
+            }
+        }
+        this.accessor = null;
+        this.transducer = null;
+    }
+
+    /**
+     * @return null
+     *      if the property is not a leaf element, or if it is written some other way.
+     */
+    public static LeafElement of(Property<?> p) {
+        if(p instanceof SingleElementLeafProperty)
+            return ((SingleElementLeafProperty<?>)p).toLeafElement();
+        return null;
+    }
+}
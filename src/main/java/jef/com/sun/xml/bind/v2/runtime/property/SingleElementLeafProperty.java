@@ -37,6 +37,7 @@
 package jef.com.sun.xml.bind.v2.runtime.property;
 
 import java.io.IOException;
+import java.lang.reflect.Modifier;
 
 import javax.xml.stream.XMLStreamException;
 
@@ -127,6 +128,20 @@ final class SingleElementLeafProperty<BeanT> extends PropertyImpl<BeanT> {
         }
     }
 
+    /**
+     * Describes this property for a generated serializer, unless {@link #serializeBody}
+     * may have to write an <tt>xsi:type</tt>.
+     */
+    LeafElement toLeafElement() {
+        Class valueType = acc.getValueType();
+        if (acc.isAdapted())
+            return null;
+        // a value of a final class never differs from the declared type
+        if (!valueType.isPrimitive() && acc.isValueTypeAbstractable() && !Modifier.isFinal(valueType.getModifiers()))
+            return null;
+        return new LeafElement(tagName, fieldName, nillable, xacc);
+    }
+
     public void buildChildElementUnmarshallers(UnmarshallerChain chain, QNameMap<ChildLoader> handlers) {
         Loader l = new LeafPropertyLoader(xacc);
         if (defaultValue != null)
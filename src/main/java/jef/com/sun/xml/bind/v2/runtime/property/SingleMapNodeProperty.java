@@ -52,12 +52,16 @@ import javax.xml.namespace.QName;
 import jef.com.sun.xml.bind.api.AccessorException;
 import jef.com.sun.xml.bind.v2.ClassFactory;
 import jef.com.sun.xml.bind.v2.util.QNameMap;
+import jef.com.sun.xml.bind.v2.model.JefAdapters;
 import jef.com.sun.xml.bind.v2.model.core.PropertyKind;
 import jef.com.sun.xml.bind.v2.model.nav.ReflectionNavigator;
+import jef.com.sun.xml.bind.v2.model.runtime.RuntimeLeafInfo;
 import jef.com.sun.xml.bind.v2.model.runtime.RuntimeMapPropertyInfo;
+import jef.com.sun.xml.bind.v2.model.runtime.RuntimeNonElement;
 import jef.com.sun.xml.bind.v2.runtime.JAXBContextImpl;
 import jef.com.sun.xml.bind.v2.runtime.JaxBeanInfo;
 import jef.com.sun.xml.bind.v2.runtime.Name;
+import jef.com.sun.xml.bind.v2.runtime.Transducer;
 import jef.com.sun.xml.bind.v2.runtime.XMLSerializer;
 import jef.com.sun.xml.bind.v2.runtime.reflect.Accessor;
 import jef.com.sun.xml.bind.v2.runtime.unmarshaller.ChildLoader;
@@ -91,6 +95,14 @@ final class SingleMapNodeProperty<BeanT,ValueT extends Map> extends PropertyImpl
     private JaxBeanInfo keyBeanInfo;
     private JaxBeanInfo valueBeanInfo;
 
+    /**
+     * Transducers of the key and value types when they are plain leaves (String,
+     * numbers...), used to write entries of exactly that type without the xsi:type
+     * machinery. Null otherwise.
+     */
+    private final Transducer keyXducer;
+    private final Transducer valueXducer;
+
     /**
      * The implementation class for this property.
      * If the property is null, we create an instance of this class.
@@ -107,10 +119,12 @@ final class SingleMapNodeProperty<BeanT,ValueT extends Map> extends PropertyImpl
         this.nillable = prop.isCollectionNillable();
         this.keyBeanInfo = context.getOrCreate(prop.getKeyType());
         this.valueBeanInfo = context.getOrCreate(prop.getValueType());
+        this.keyXducer = leafTransducer(prop.getKeyType());
+        this.valueXducer = leafTransducer(prop.getValueType());
 
         // infer the implementation class
         Class<ValueT> sig = ReflectionNavigator.REFLECTION.erasure(prop.getRawType());
-        mapImplClass = ClassFactory.inferImplClass(sig,knownImplClasses);
+        mapImplClass = ClassFactory.inferImplClass(sig,JefAdapters.DIRECT_MAP ? directMapImplClasses : knownImplClasses);
         // TODO: error check for mapImplClass==null
         // what is the error reporting path for this part of the code?
     }
@@ -119,6 +133,24 @@ final class SingleMapNodeProperty<BeanT,ValueT extends Map> extends PropertyImpl
         HashMap.class, TreeMap.class, LinkedHashMap.class
     };
 
+    /**
+     * Used instead of {@link #knownImplClasses} under {@link JefAdapters#DIRECT_MAP}:
+     * LinkedHashMap first, so that a plain Map keeps the order of the document
+     * as SimpleMapAdapter did.
+     */
+    private static final Class[] directMapImplClasses = {
+        LinkedHashMap.class, HashMap.class, TreeMap.class
+    };
+
+    private static Transducer leafTransducer(RuntimeNonElement type) {
+        if(!(type instanceof RuntimeLeafInfo))
+            return null;
+        Transducer xducer = type.getTransducer();
+        if(xducer==null || xducer.useNamespace())
+            return null;
+        return xducer;
+    }
+
     public void reset(BeanT bean) throws AccessorException {
         acc.set(bean,null);
     }
@@ -261,16 +293,24 @@ final class SingleMapNodeProperty<BeanT,ValueT extends Map> extends PropertyImpl
 
                 Object key = e.getKey();
                 if(key!=null) {
-                    w.startElement(keyTag,key);
-                    w.childAsXsiType(key,fieldName,keyBeanInfo, false);
-                    w.endElement();
+                    if(keyXducer!=null && key.getClass()==keyBeanInfo.jaxbType) {
+                        keyXducer.writeLeafElement(w,keyTag,key,fieldName);
+                    } else {
+                        w.startElement(keyTag,key);
+                        w.childAsXsiType(key,fieldName,keyBeanInfo, false);
+                        w.endElement();
+                    }
                 }
 
                 Object value = e.getValue();
                 if(value!=null) {
-                    w.startElement(valueTag,value);
-                    w.childAsXsiType(value,fieldName,valueBeanInfo, false);
-                    w.endElement();
+                    if(valueXducer!=null && value.getClass()==valueBeanInfo.jaxbType) {
+                        valueXducer.writeLeafElement(w,valueTag,value,fieldName);
+                    } else {
+                        w.startElement(valueTag,value);
+                        w.childAsXsiType(value,fieldName,valueBeanInfo, false);
+                        w.endElement();
+                    }
                 }
 
                 w.endElement();
@@ -64,7 +64,7 @@ import jef.com.sun.xml.bind.api.JAXBRIContext;
 import jef.com.sun.xml.bind.v2.model.core.Adapter;
 import jef.com.sun.xml.bind.v2.model.impl.RuntimeModelBuilder;
 import jef.com.sun.xml.bind.v2.runtime.JAXBContextImpl;
-import jef.com.sun.xml.bind.v2.runtime.reflect.opt.OptimizedAccessorFactory;
+import jef.com.sun.xml.bind.v2.runtime.reflect.opt.AccessorBackend;
 import jef.com.sun.xml.bind.v2.runtime.unmarshaller.Loader;
 import jef.com.sun.xml.bind.v2.runtime.unmarshaller.Receiver;
 import jef.com.sun.xml.bind.v2.runtime.unmarshaller.UnmarshallingContext;
@@ -271,7 +271,8 @@ public abstract class Accessor<BeanT,ValueT> implements Receiver {
             if(context!=null && context.fastBoot)
                 // let's not waste time on doing this for the sake of faster boot.
                 return this;
-            Accessor<BeanT,ValueT> acc = OptimizedAccessorFactory.get(f);
+            AccessorBackend backend = context!=null ? context.accessorBackend : AccessorBackend.getDefault();
+            Accessor<BeanT,ValueT> acc = backend.optimize(f);
             if(acc!=null)
                 return acc;
             else
@@ -384,7 +385,8 @@ public abstract class Accessor<BeanT,ValueT> implements Receiver {
                 // let's not waste time on doing this for the sake of faster boot.
                 return this;
 
-            Accessor<BeanT,ValueT> acc = OptimizedAccessorFactory.get(getter,setter);
+            AccessorBackend backend = context!=null ? context.accessorBackend : AccessorBackend.getDefault();
+            Accessor<BeanT,ValueT> acc = backend.optimize(getter,setter);
             if(acc!=null)
                 return acc;
             else
@@ -68,6 +68,7 @@ import jef.com.sun.xml.bind.v2.model.core.Adapter;
 import jef.com.sun.xml.bind.v2.model.core.ID;
 import jef.com.sun.xml.bind.v2.model.nav.Navigator;
 import jef.com.sun.xml.bind.v2.runtime.XMLSerializer;
+import jef.com.sun.xml.bind.v2.runtime.unmarshaller.ElementSink;
 import jef.com.sun.xml.bind.v2.runtime.unmarshaller.LocatorEx;
 import jef.com.sun.xml.bind.v2.runtime.unmarshaller.Patcher;
 import jef.com.sun.xml.bind.v2.runtime.unmarshaller.UnmarshallingContext;
@@ -289,6 +290,11 @@ public abstract class Lister<BeanT,PropT,ItemT,PackT> {
         }
 
         public T startPacking(BeanT bean, Accessor<BeanT, T> acc) throws AccessorException {
+            ElementSink sink = ElementSink.get();
+            if(sink!=null && !acc.isAdapted() && acc.valueType.isAssignableFrom(List.class) && sink.accepts(bean)) {
+                // the items go to the sink, the property stays empty
+                return (T)sink.asList();
+            }
             T collection = acc.get(bean);
             if(collection==null) {
                 collection = ClassFactory.create(implClass);
@@ -233,6 +233,20 @@ public abstract class TransducedAccessor<BeanT> {
             this.acc = acc.optimize(context);
         }
 
+        /**
+         * The accessor combined by this object, for generated code which calls it directly.
+         */
+        public Accessor<BeanT,ValueT> getAccessor() {
+            return acc;
+        }
+
+        /**
+         * The transducer combined by this object, for generated code which calls it directly.
+         */
+        public Transducer<ValueT> getTransducer() {
+            return xducer;
+        }
+
         public CharSequence print(BeanT bean) throws AccessorException {
             ValueT o = acc.get(bean);
             if(o==null)     return null;
@@ -0,0 +1,148 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ * 
+ * Copyright 1997-2007 Sun Microsystems, Inc. All rights reserved.
+ * 
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License. You can obtain
+ * a copy of the License at https://glassfish.dev.java.net/public/CDDL+GPL.html
+ * or glassfish/bootstrap/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ * 
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ * Sun designates this particular file as subject to the "Classpath" exception
+ * as provided by Sun in the GPL Version 2 section of the License file that
+ * accompanied this code.  If applicable, add the following below the License
+ * Header, with the fields enclosed by brackets [] replaced by your own
+ * identifying information: "Portions Copyrighted [year]
+ * [name of copyright owner]"
+ * 
+ * Contributor(s):
+ * 
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package jef.com.sun.xml.bind.v2.runtime.reflect.opt;
+
+import jef.tools.reflect.FieldEx;
+import jef.tools.reflect.MethodEx;
+
+import jef.com.sun.xml.bind.api.JAXBRIContext;
+import jef.com.sun.xml.bind.v2.runtime.reflect.Accessor;
+
+/**
+ * How the reflection based {@link Accessor}s of a context are optimized.
+ *
+ * @see JAXBRIContext#ACCESSOR_BACKEND
+ */
+public enum AccessorBackend {
+    /**
+     * Generated accessors where possible, then injected ones. The default.
+     */
+    AUTO {
+        public <B,V> Accessor<B,V> optimize(FieldEx field) {
+            Accessor<B,V> acc = GeneratedAccessorFactory.get(field);
+            return acc!=null ? acc : OptimizedAccessorFactory.<B,V>get(field);
+        }
+        public <B,V> Accessor<B,V> optimize(MethodEx getter, MethodEx setter) {
+            Accessor<B,V> acc = GeneratedAccessorFactory.get(getter,setter);
+            return acc!=null ? acc : OptimizedAccessorFactory.<B,V>get(getter,setter);
+        }
+    },
+    /**
+     * Accessors generated by {@link GeneratedAccessorFactory} only. Nothing is
+     * injected into the class loaders of the application.
+     */
+    GENERATE {
+        public <B,V> Accessor<B,V> optimize(FieldEx field) {
+            return GeneratedAccessorFactory.get(field);
+        }
+        public <B,V> Accessor<B,V> optimize(MethodEx getter, MethodEx setter) {
+            return GeneratedAccessorFactory.get(getter,setter);
+        }
+    },
+    /**
+     * The templates of {@link OptimizedAccessorFactory}, injected next to the bean class.
+     */
+    INJECT {
+        public <B,V> Accessor<B,V> optimize(FieldEx field) {
+            return OptimizedAccessorFactory.get(field);
+        }
+        public <B,V> Accessor<B,V> optimize(MethodEx getter, MethodEx setter) {
+            return OptimizedAccessorFactory.get(getter,setter);
+        }
+    },
+    /**
+     * No optimization, plain reflection.
+     */
+    REFLECTION {
+        public <B,V> Accessor<B,V> optimize(FieldEx field) {
+            return null;
+        }
+        public <B,V> Accessor<B,V> optimize(MethodEx getter, MethodEx setter) {
+            return null;
+        }
+    };
+
+    private static final AccessorBackend DEFAULT;
+
+    static {
+        AccessorBackend b = AUTO;
+        try {
+            String s = System.getProperty(JAXBRIContext.ACCESSOR_BACKEND);
+            if(s!=null && s.length()>0)
+                b = parse(s);
+        } catch (SecurityException e) {
+            // use the default
+        } catch (IllegalArgumentException e) {
+            // use the default
+        }
+        DEFAULT = b;
+    }
+
+    /**
+     * Gets the optimized {@link Accessor} for the given field.
+     *
+     * @return null
+     *      if this backend cannot, or does not, optimize it.
+     */
+    public abstract <B,V> Accessor<B,V> optimize(FieldEx field);
+
+    /**
+     * Gets the optimized {@link Accessor} for the given getter/setter pair.
+     *
+     * @return null
+     *      if this backend cannot, or does not, optimize it.
+     */
+    public abstract <B,V> Accessor<B,V> optimize(MethodEx getter, MethodEx setter);
+
+    /**
+     * The backend given by the system property {@link JAXBRIContext#ACCESSOR_BACKEND},
+     * {@link #AUTO} if it is not set.
+     */
+    public static AccessorBackend getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Parses the value of {@link JAXBRIContext#ACCESSOR_BACKEND}, case insensitive.
+     *
+     * @throws IllegalArgumentException
+     *      if the value isn't the name of a backend.
+     */
+    public static AccessorBackend parse(String value) {
+        return valueOf(value.trim().toUpperCase(java.util.Locale.ENGLISH));
+    }
+}
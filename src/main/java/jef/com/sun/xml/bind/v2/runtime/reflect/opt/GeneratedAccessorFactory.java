@@ -0,0 +1,332 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ * 
+ * Copyright 1997-2007 Sun Microsystems, Inc. All rights reserved.
+ * 
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License. You can obtain
+ * a copy of the License at https://glassfish.dev.java.net/public/CDDL+GPL.html
+ * or glassfish/bootstrap/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ * 
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ * Sun designates this particular file as subject to the "Classpath" exception
+ * as provided by Sun in the GPL Version 2 section of the License file that
+ * accompanied this code.  If applicable, add the following below the License
+ * Header, with the fields enclosed by brackets [] replaced by your own
+ * identifying information: "Portions Copyrighted [year]
+ * [name of copyright owner]"
+ * 
+ * Contributor(s):
+ * 
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package jef.com.sun.xml.bind.v2.runtime.reflect.opt;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jef.accelerator.asm.ClassWriter;
+import jef.accelerator.asm.Label;
+import jef.accelerator.asm.MethodVisitor;
+import jef.accelerator.asm.Opcodes;
+import jef.accelerator.asm.Type;
+import jef.tools.reflect.FieldEx;
+import jef.tools.reflect.MethodEx;
+
+import jef.com.sun.xml.bind.Util;
+import jef.com.sun.xml.bind.v2.bytecode.GeneratedClassLoader;
+import jef.com.sun.xml.bind.v2.runtime.RuntimeUtil;
+import jef.com.sun.xml.bind.v2.runtime.reflect.Accessor;
+
+/**
+ * Generates {@link Accessor}s which read and write a property with plain
+ * bytecode instead of reflection.
+ *
+ * <p>
+ * Unlike {@link OptimizedAccessorFactory} nothing is injected into the class loader
+ * of the bean: each accessor is a new class, defined by a {@link GeneratedClassLoader}
+ * next to the bean's loader.
+ * This works where {@link Injector} can't (a JVM that refuses reflective access to
+ * {@code ClassLoader}, or a bean in a named module), at the price that the generated
+ * class lives in a runtime package of its own. Only public members of public classes
+ * can be optimized this way, the rest keep using reflection.
+ *
+ * @see AccessorBackend
+ */
+public abstract class GeneratedAccessorFactory {
+    private GeneratedAccessorFactory() {} // no instanciation please
+
+    private static final Logger logger = Util.getClassLogger();
+
+    /**
+     * Package of the generated classes, followed by the name of the bean class.
+     */
+    private static final String PACKAGE_PREFIX = "jef/com/sun/xml/bind/v2/runtime/reflect/opt/gen/";
+
+    private static final String ACCESSOR = Type.getInternalName(Accessor.class);
+
+    /**
+     * Gets the generated {@link Accessor} that accesses the given getter/setter.
+     *
+     * @return null
+     *      if for some reason it fails to create an optimized version.
+     */
+    public static <B,V> Accessor<B,V> get(MethodEx getterEx, MethodEx setterEx) {
+        Method getter = getterEx.getJavaMethod();
+        Method setter = setterEx.getJavaMethod();
+        if(getter.getParameterTypes().length!=0)
+            return null;
+        Class<?>[] sparams = setter.getParameterTypes();
+        if(sparams.length!=1 || sparams[0]!=getter.getReturnType())
+            return null;
+        if(setter.getReturnType()!=Void.TYPE)
+            return null;
+        Class<?> bean = getter.getDeclaringClass();
+        if(bean!=setter.getDeclaringClass())
+            return null;
+        if(!isAccessible(bean, getter.getModifiers()) || !isAccessible(bean, setter.getModifiers()))
+            return null;
+
+        Class<?> t = getter.getReturnType();
+        String className = PACKAGE_PREFIX+Type.getInternalName(bean)+"$M_"+getter.getName()+'_'+setter.getName();
+        String owner = Type.getInternalName(bean);
+        boolean itf = bean.isInterface();
+
+        ClassWriter cw = begin(className);
+
+        // public Object get(Object bean)
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "get", "(Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+        mv.visitMethodInsn(itf ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL, owner, getter.getName(), Type.getMethodDescriptor(getter));
+        box(mv, t);
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        // public void set(Object bean, Object value)
+        mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "set", "(Ljava/lang/Object;Ljava/lang/Object;)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+        unbox(mv, t);
+        mv.visitMethodInsn(itf ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL, owner, setter.getName(), Type.getMethodDescriptor(setter));
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        Accessor<B,V> acc = instanciate(bean, className, cw, t);
+        if(acc!=null)
+            logger.log(Level.FINE,"Using generated Accessor for "+getter+" and "+setter);
+        return acc;
+    }
+
+    /**
+     * Gets the generated {@link Accessor} that accesses the given field.
+     *
+     * @return null
+     *      if for some reason it fails to create an optimized version.
+     */
+    public static <B,V> Accessor<B,V> get(FieldEx fieldEx) {
+        Field field = fieldEx.getJavaField();
+        int mods = field.getModifiers();
+        Class<?> bean = field.getDeclaringClass();
+        if(Modifier.isFinal(mods) || Modifier.isStatic(mods) || !isAccessible(bean, mods))
+            return null;
+
+        Class<?> t = field.getType();
+        String className = PACKAGE_PREFIX+Type.getInternalName(bean)+"$F_"+field.getName();
+        String owner = Type.getInternalName(bean);
+        String desc = Type.getDescriptor(t);
+
+        ClassWriter cw = begin(className);
+
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "get", "(Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+        mv.visitFieldInsn(Opcodes.GETFIELD, owner, field.getName(), desc);
+        box(mv, t);
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "set", "(Ljava/lang/Object;Ljava/lang/Object;)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+        unbox(mv, t);
+        mv.visitFieldInsn(Opcodes.PUTFIELD, owner, field.getName(), desc);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        Accessor<B,V> acc = instanciate(bean, className, cw, t);
+        if(acc!=null)
+            logger.log(Level.FINE,"Using generated Accessor for "+field);
+        return acc;
+    }
+
+    /**
+     * The generated class can only link against public members of public classes
+     * in a package visible to everyone.
+     */
+    private static boolean isAccessible(Class<?> bean, int memberModifiers) {
+        if(!Modifier.isPublic(memberModifiers) || Modifier.isStatic(memberModifiers))
+            return false;
+        if(!Modifier.isPublic(bean.getModifiers()) || bean.getName().startsWith("java."))
+            return false;
+        return ModuleSupport.isExported(bean);
+    }
+
+    /**
+     * Starts a subclass of {@link Accessor} with a constructor taking the value type.
+     */
+    private static ClassWriter begin(String className) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC + Opcodes.ACC_SUPER + Opcodes.ACC_FINAL + Opcodes.ACC_SYNTHETIC,
+                className, null, ACCESSOR, null);
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "(Ljava/lang/Class;)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, ACCESSOR, "<init>", "(Ljava/lang/Class;)V");
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        return cw;
+    }
+
+    /**
+     * Converts the value on the stack to an object.
+     */
+    private static void box(MethodVisitor mv, Class<?> t) {
+        if(!t.isPrimitive())
+            return;
+        Class<?> box = RuntimeUtil.primitiveToBox.get(t);
+        String boxName = Type.getInternalName(box);
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, boxName, "valueOf", "("+Type.getDescriptor(t)+")L"+boxName+";");
+    }
+
+    /**
+     * Pushes the value argument converted to the property type. As with
+     * {@link Accessor.FieldReflection}, null sets a primitive to its default value.
+     */
+    private static void unbox(MethodVisitor mv, Class<?> t) {
+        if(!t.isPrimitive()) {
+            mv.visitVarInsn(Opcodes.ALOAD, 2);
+            if(t!=Object.class)
+                mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(t));
+            return;
+        }
+        Class<?> box = RuntimeUtil.primitiveToBox.get(t);
+        String boxName = Type.getInternalName(box);
+        Type type = Type.getType(t);
+        Label notNull = new Label();
+        Label done = new Label();
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitJumpInsn(Opcodes.IFNONNULL, notNull);
+        switch(type.getSort()) {
+        case Type.LONG:
+            mv.visitInsn(Opcodes.LCONST_0);
+            break;
+        case Type.FLOAT:
+            mv.visitInsn(Opcodes.FCONST_0);
+            break;
+        case Type.DOUBLE:
+            mv.visitInsn(Opcodes.DCONST_0);
+            break;
+        default:
+            mv.visitInsn(Opcodes.ICONST_0);
+        }
+        mv.visitJumpInsn(Opcodes.GOTO, done);
+        mv.visitLabel(notNull);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, boxName);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, boxName, t.getName()+"Value", "()"+type.getDescriptor());
+        mv.visitLabel(done);
+    }
+
+    private static <B,V> Accessor<B,V> instanciate(Class<?> bean, String className, ClassWriter cw, Class<?> valueType) {
+        cw.visitEnd();
+        byte[] bytes = cw.toByteArray();
+        try {
+            Class<?> opt = GeneratedClassLoader.define(bean, className.replace('/','.'), bytes);
+            Class<?> v = valueType.isPrimitive() ? RuntimeUtil.primitiveToBox.get(valueType) : valueType;
+            return (Accessor<B,V>)opt.getConstructor(Class.class).newInstance(v);
+        } catch (LinkageError e) {
+            logger.log(Level.FINE,"failed to load a generated Accessor",e);
+        } catch (InstantiationException e) {
+            logger.log(Level.INFO,"failed to load a generated Accessor",e);
+        } catch (IllegalAccessException e) {
+            logger.log(Level.INFO,"failed to load a generated Accessor",e);
+        } catch (InvocationTargetException e) {
+            logger.log(Level.INFO,"failed to load a generated Accessor",e);
+        } catch (NoSuchMethodException e) {
+            logger.log(Level.INFO,"failed to load a generated Accessor",e);
+        } catch (SecurityException e) {
+            logger.log(Level.INFO,"failed to load a generated Accessor",e);
+        }
+        return null;
+    }
+
+    /**
+     * Checks through reflection whether the package of a class is exported to
+     * everyone, so that the generated code can link against it. Always true before
+     * Java 9.
+     */
+    private static final class ModuleSupport {
+        private static final Method getModule;
+        private static final Method isExported;
+
+        static {
+            Method m1 = null;
+            Method m2 = null;
+            try {
+                m1 = Class.class.getMethod("getModule");
+                m2 = m1.getReturnType().getMethod("isExported", String.class);
+            } catch (NoSuchMethodException e) {
+                // pre-module JVM
+            } catch (SecurityException e) {
+                // treat as pre-module JVM
+            }
+            getModule = m1;
+            isExported = m2;
+        }
+
+        static boolean isExported(Class<?> c) {
+            if(getModule==null)
+                return true;
+            String name = c.getName();
+            int idx = name.lastIndexOf('.');
+            String pkg = idx<0 ? "" : name.substring(0,idx);
+            try {
+                Object module = getModule.invoke(c);
+                return (Boolean)isExported.invoke(module, pkg);
+            } catch (IllegalAccessException e) {
+                return false;
+            } catch (InvocationTargetException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -294,8 +294,43 @@ public final class Base64Data extends Pcdata {
     }
 
     public void writeTo(UTF8XmlOutput output) throws IOException {
-        // TODO: this is inefficient if the data source is note byte[] but DataHandler
-        get();
+        if(data==null && dataHandler!=null) {
+            // stream the DataHandler in chunks instead of buffering the whole content,
+            // so inlining a large file takes constant memory
+            InputStream is = dataHandler.getDataSource().getInputStream();
+            try {
+                byte[] buf = new byte[STREAM_CHUNK];
+                int len;
+                while((len=readChunk(is,buf))>0) {
+                    output.text(buf,len);
+                    if(len<buf.length)
+                        break;
+                }
+            } finally {
+                is.close();
+            }
+            return;
+        }
         output.text(data,dataLen);
     }
+
+    /**
+     * Size of the chunks a {@link DataHandler} is encoded with. Must be a multiple
+     * of 3 so that the base64 of consecutive chunks can simply be concatenated.
+     */
+    private static final int STREAM_CHUNK = 3*1024*8;
+
+    /**
+     * Fills the buffer unless the stream ends first.
+     */
+    private static int readChunk(InputStream is, byte[] buf) throws IOException {
+        int len = 0;
+        while(len<buf.length) {
+            int n = is.read(buf,len,buf.length-len);
+            if(n<0)
+                break;
+            len += n;
+        }
+        return len;
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ * 
+ * Copyright 1997-2007 Sun Microsystems, Inc. All rights reserved.
+ * 
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License. You can obtain
+ * a copy of the License at https://glassfish.dev.java.net/public/CDDL+GPL.html
+ * or glassfish/bootstrap/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ * 
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ * Sun designates this particular file as subject to the "Classpath" exception
+ * as provided by Sun in the GPL Version 2 section of the License file that
+ * accompanied this code.  If applicable, add the following below the License
+ * Header, with the fields enclosed by brackets [] replaced by your own
+ * identifying information: "Portions Copyrighted [year]
+ * [name of copyright owner]"
+ * 
+ * Contributor(s):
+ * 
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package jef.com.sun.xml.bind.v2.runtime.unmarshaller;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Receives the items of a collection property one at a time while they are
+ * unmarshalled, instead of having them added to the collection.
+ *
+ * <p>
+ * A sink is bound to the current thread for the duration of one unmarshalling.
+ * When {@link jef.com.sun.xml.bind.v2.runtime.reflect.Lister} starts packing a
+ * collection property of a bean the sink {@link #accepts(Object) accepts}, the
+ * property gets the {@link #asList() forwarding list} of the sink: every item is
+ * passed to {@link #add(Object)} as soon as it is complete and the property is
+ * left empty. Nested collections of the items are not affected.
+ */
+public abstract class ElementSink {
+    private static final ThreadLocal<ElementSink> current = new ThreadLocal<ElementSink>();
+
+    private final List<Object> list = new AbstractList<Object>() {
+        @Override
+        public boolean add(Object o) {
+            ElementSink.this.add(o);
+            return true;
+        }
+
+        @Override
+        public Object get(int index) {
+            throw new IndexOutOfBoundsException("The items were passed to "+ElementSink.this);
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+    };
+
+    /**
+     * Gets the sink bound to the current thread, or null.
+     */
+    public static ElementSink get() {
+        return current.get();
+    }
+
+    /**
+     * Binds the sink to the current thread, null unbinds.
+     */
+    public static void set(ElementSink sink) {
+        if(sink==null)
+            current.remove();
+        else
+            current.set(sink);
+    }
+
+    /**
+     * Whether the items of the collection owned by the given object are streamed.
+     * The owner is the bean of the collection property, or whatever the caller
+     * of {@link #asList()} uses to identify the collection.
+     */
+    public abstract boolean accepts(Object owner);
+
+    /**
+     * Receives one item.
+     */
+    public abstract void add(Object item);
+
+    /**
+     * The always empty list which passes what is added to {@link #add(Object)}.
+     */
+    public final List<Object> asList() {
+        return list;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ * 
+ * Copyright 1997-2007 Sun Microsystems, Inc. All rights reserved.
+ * 
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License. You can obtain
+ * a copy of the License at https://glassfish.dev.java.net/public/CDDL+GPL.html
+ * or glassfish/bootstrap/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ * 
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ * Sun designates this particular file as subject to the "Classpath" exception
+ * as provided by Sun in the GPL Version 2 section of the License file that
+ * accompanied this code.  If applicable, add the following below the License
+ * Header, with the fields enclosed by brackets [] replaced by your own
+ * identifying information: "Portions Copyrighted [year]
+ * [name of copyright owner]"
+ * 
+ * Contributor(s):
+ * 
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package jef.com.sun.xml.bind.v2.runtime.unmarshaller;
+
+import java.io.IOException;
+
+import jef.com.sun.xml.bind.v2.runtime.output.Pcdata;
+import jef.com.sun.xml.bind.v2.runtime.output.UTF8XmlOutput;
+
+/**
+ * {@link Pcdata} that represents a single long.
+ *
+ * @see IntData
+ */
+public class LongData extends Pcdata {
+    /**
+     * The long value that this {@link Pcdata} represents.
+     *
+     * Modifiable.
+     */
+    private long data;
+
+    /**
+     * Length of the {@link #data} in ASCII string.
+     */
+    private int length;
+
+    public void reset(long l) {
+        this.data = l;
+        if(l==Long.MIN_VALUE)
+            length = 20;
+        else
+            length = (l < 0) ? stringSizeOfLong(-l) + 1 : stringSizeOfLong(l);
+    }
+
+    // Requires positive x
+    private static int stringSizeOfLong(long x) {
+        long p = 10;
+        for (int i=1; i<19; i++) {
+            if (x < p)
+                return i;
+            p = 10*p;
+        }
+        return 19;
+    }
+
+    public String toString() {
+        return String.valueOf(data);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start,end);
+    }
+
+    public void writeTo(UTF8XmlOutput output) throws IOException {
+        output.text(data);
+    }
+}
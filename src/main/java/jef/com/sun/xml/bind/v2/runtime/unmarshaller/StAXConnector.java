@@ -82,24 +82,29 @@ abstract class StAXConnector {
      */
     protected abstract String getCurrentQName();
 
+    /**
+     * Reads the location lazily, so one instance serves every document of a reused connector.
+     */
+    private final LocatorEx locator = new LocatorEx() {
+        public ValidationEventLocator getLocation() {
+            return new ValidationEventLocatorImpl(this);
+        }
+        public int getColumnNumber() {
+            return getCurrentLocation().getColumnNumber();
+        }
+        public int getLineNumber() {
+            return getCurrentLocation().getLineNumber();
+        }
+        public String getPublicId() {
+            return getCurrentLocation().getPublicId();
+        }
+        public String getSystemId() {
+            return getCurrentLocation().getSystemId();
+        }
+    };
+
     protected final void handleStartDocument(NamespaceContext nsc) throws SAXException {
-        visitor.startDocument(new LocatorEx() {
-            public ValidationEventLocator getLocation() {
-                return new ValidationEventLocatorImpl(this);
-            }
-            public int getColumnNumber() {
-                return getCurrentLocation().getColumnNumber();
-            }
-            public int getLineNumber() {
-                return getCurrentLocation().getLineNumber();
-            }
-            public String getPublicId() {
-                return getCurrentLocation().getPublicId();
-            }
-            public String getSystemId() {
-                return getCurrentLocation().getSystemId();
-            }
-        },nsc);
+        visitor.startDocument(locator,nsc);
     }
 
     protected final void handleEndDocument() throws SAXException {
@@ -69,6 +69,17 @@ class StAXStreamConnector extends StAXConnector {
      * This method checks if the parser is FI parser and acts accordingly.
      */
     public static StAXConnector create(XMLStreamReader reader, XmlVisitor visitor) {
+        return create(reader,visitor,null);
+    }
+
+    /**
+     * Same as {@link #create(XMLStreamReader, XmlVisitor)}, but reuses {@code previous}
+     * when it is a plain {@link StAXStreamConnector} created for the very same visitor
+     * and which fits the new reader. Validating and MTOM visitors are created per
+     * document, so only the plain unmarshalling context gets its connector back. An {@link Unmarshaller} keeps its last connector this way, so
+     * the text buffer and the rest are not allocated again for every document.
+     */
+    public static StAXConnector create(XMLStreamReader reader, XmlVisitor visitor, StAXStreamConnector previous) {
         // try optimized codepath
         final Class readerClass = reader.getClass();
         if (FI_STAX_READER_CLASS != null && FI_STAX_READER_CLASS.isAssignableFrom(readerClass) && FI_CONNECTOR_CTOR!=null) {
@@ -78,28 +89,34 @@ class StAXStreamConnector extends StAXConnector {
             }
         }
 
-        // Quick hack until SJSXP fixes 6270116
-        boolean isZephyr = readerClass.getName().equals("com.sun.xml.stream.XMLReaderImpl");
-        if (getBoolProp(reader,"org.codehaus.stax2.internNames") &&
-            getBoolProp(reader,"org.codehaus.stax2.internNsUris"))
-            ; // no need for interning
-        else
-        if (isZephyr)
-            ; // no need for interning
-        else
-        if (checkImplementaionNameOfSjsxp(reader))
-            ; // no need for interning.
-        else
-            visitor = new InterningXmlVisitor(visitor);
+        boolean interning = needsInterning(reader);
 
         if (STAX_EX_READER_CLASS!=null && STAX_EX_READER_CLASS.isAssignableFrom(readerClass)) {
             try {
-                return STAX_EX_CONNECTOR_CTOR.newInstance(reader,visitor);
+                return STAX_EX_CONNECTOR_CTOR.newInstance(reader,interning ? new InterningXmlVisitor(visitor) : visitor);
             } catch (Exception t) {
             }
         }
 
-        return new StAXStreamConnector(reader,visitor);
+        if (previous!=null && previous.getClass()==StAXStreamConnector.class
+                && previous.interning==interning && previous.origin==visitor) {
+            previous.reset(reader);
+            return previous;
+        }
+        return new StAXStreamConnector(reader,interning ? new InterningXmlVisitor(visitor) : visitor, visitor, interning);
+    }
+
+    private static boolean needsInterning(XMLStreamReader reader) {
+        // Quick hack until SJSXP fixes 6270116
+        boolean isZephyr = reader.getClass().getName().equals("com.sun.xml.stream.XMLReaderImpl");
+        if (getBoolProp(reader,"org.codehaus.stax2.internNames") &&
+            getBoolProp(reader,"org.codehaus.stax2.internNsUris"))
+            return false; // no need for interning
+        if (isZephyr)
+            return false; // no need for interning
+        if (checkImplementaionNameOfSjsxp(reader))
+            return false; // no need for interning.
+        return true;
     }
 
     private static boolean checkImplementaionNameOfSjsxp(XMLStreamReader reader) {
@@ -126,8 +143,25 @@ class StAXStreamConnector extends StAXConnector {
     }
 
 
+    /**
+     * Above this many chars the text buffer is not kept from one document to the next.
+     */
+    private static final int MAX_RETAINED_BUFFER = 64*1024;
+
     // StAX event source
-    private final XMLStreamReader staxStreamReader;
+    private XMLStreamReader staxStreamReader;
+
+    /**
+     * True if {@link #visitor} is an {@link InterningXmlVisitor} added by {@link #create}.
+     */
+    private final boolean interning;
+
+    /**
+     * The visitor given to {@link #create}, before any wrapping. The connector is
+     * reused only for this visitor, as {@link #visitor}, {@link #context} and
+     * {@link #predictor} all derive from it.
+     */
+    private final XmlVisitor origin;
 
     /**
      * SAX may fire consective characters event, but we don't allow it.
@@ -142,8 +176,34 @@ class StAXStreamConnector extends StAXConnector {
     protected boolean textReported = false;
 
     protected StAXStreamConnector(XMLStreamReader staxStreamReader, XmlVisitor visitor) {
+        this(staxStreamReader,visitor,visitor,false);
+    }
+
+    private StAXStreamConnector(XMLStreamReader staxStreamReader, XmlVisitor visitor, XmlVisitor origin, boolean interning) {
         super(visitor);
         this.staxStreamReader = staxStreamReader;
+        this.origin = origin;
+        this.interning = interning;
+    }
+
+    /**
+     * Prepares this connector for the next document.
+     */
+    private void reset(XMLStreamReader reader) {
+        this.staxStreamReader = reader;
+        this.textReported = false;
+        buffer.setLength(0);
+    }
+
+    /**
+     * Drops the reference to the reader once the document is done, and a text
+     * buffer which grew unusually large.
+     */
+    public void release() {
+        this.staxStreamReader = null;
+        buffer.setLength(0);
+        if(buffer.capacity()>MAX_RETAINED_BUFFER)
+            buffer.trimToSize();
     }
 
     public void bridge() throws XMLStreamException {
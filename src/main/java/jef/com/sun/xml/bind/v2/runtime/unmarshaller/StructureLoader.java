@@ -36,8 +36,10 @@
 
 package jef.com.sun.xml.bind.v2.runtime.unmarshaller;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.xml.namespace.QName;
@@ -101,6 +103,26 @@ public final class StructureLoader extends Loader {
 
     private final JaxBeanInfo beanInfo;
 
+    /**
+     * The child elements in the order of the properties, super class first, when
+     * {@link JAXBContextImpl#generatedCodecs} is on. Otherwise null.
+     */
+    private String[] sequenceUri;
+    private String[] sequenceLocal;
+    private ChildLoader[] sequenceLoader;
+
+    /**
+     * Index of each child element in the sequence above.
+     */
+    private QNameMap<Integer> sequenceIndex;
+
+    /**
+     * How many elements of the sequence are tried, starting at the last matched one,
+     * before falling back to the lookup. Covers repeated elements and a couple of
+     * absent optional ones.
+     */
+    private static final int PREDICTION_WINDOW = 4;
+
     /**
      * The number of scopes this dispatcher needs to keep active.
      */
@@ -123,6 +145,8 @@ public final class StructureLoader extends Loader {
      */
     public void init( JAXBContextImpl context, ClassBeanInfoImpl beanInfo, Accessor<?,Map<QName,String>> attWildcard) {
         UnmarshallerChain chain = new UnmarshallerChain(context);
+        // keys of the child elements in reverse document order
+        List<QNameMap.Entry<ChildLoader>> reversed = context.generatedCodecs ? new ArrayList<QNameMap.Entry<ChildLoader>>() : null;
         for (ClassBeanInfoImpl bi = beanInfo; bi != null; bi = bi.superClazz) {
             for (int i = bi.properties.length - 1; i >= 0; i--) {
                 Property p = bi.properties[i];
@@ -138,7 +162,14 @@ public final class StructureLoader extends Loader {
                 case REFERENCE:
                 case MAP:
                 case VALUE:
-                    p.buildChildElementUnmarshallers(chain,childUnmarshallers);
+                    if(reversed==null) {
+                        p.buildChildElementUnmarshallers(chain,childUnmarshallers);
+                    } else {
+                        QNameMap<ChildLoader> m = new QNameMap<ChildLoader>();
+                        p.buildChildElementUnmarshallers(chain,m);
+                        reversed.addAll(m.entrySet());
+                        childUnmarshallers.putAll(m);
+                    }
                     break;
                 }
             }
@@ -146,6 +177,9 @@ public final class StructureLoader extends Loader {
 
         this.frameSize = chain.getScopeSize();
 
+        if(reversed!=null)
+            buildSequence(reversed);
+
         textHandler = childUnmarshallers.get(StructureLoaderBuilder.TEXT_HANDLER);
         catchAll = childUnmarshallers.get(StructureLoaderBuilder.CATCH_ALL);
 
@@ -160,6 +194,34 @@ public final class StructureLoader extends Loader {
         }
     }
 
+    private void buildSequence(List<QNameMap.Entry<ChildLoader>> reversed) {
+        QNameMap<Integer> index = new QNameMap<Integer>();
+        List<QNameMap.Entry<ChildLoader>> seq = new ArrayList<QNameMap.Entry<ChildLoader>>();
+        for (int i = reversed.size() - 1; i >= 0; i--) {
+            QNameMap.Entry<ChildLoader> e = reversed.get(i);
+            if(e.createQName().equals(StructureLoaderBuilder.TEXT_HANDLER))
+                continue;
+            if(e.createQName().equals(StructureLoaderBuilder.CATCH_ALL))
+                continue;
+            if(index.containsKey(e.nsUri,e.localName))
+                continue;
+            index.put(e.nsUri,e.localName,seq.size());
+            seq.add(e);
+        }
+        int len = seq.size();
+        sequenceUri = new String[len];
+        sequenceLocal = new String[len];
+        sequenceLoader = new ChildLoader[len];
+        for (int i = 0; i < len; i++) {
+            QNameMap.Entry<ChildLoader> e = seq.get(i);
+            sequenceUri[i] = e.nsUri;
+            sequenceLocal[i] = e.localName;
+            // the loader which won in childUnmarshallers, should two properties share a name
+            sequenceLoader[i] = childUnmarshallers.get(e.nsUri,e.localName);
+        }
+        sequenceIndex = index;
+    }
+
     @Override
     public void startElement(UnmarshallingContext.State state, TagName ea) throws SAXException {
         UnmarshallingContext context = state.getContext();
@@ -183,6 +245,7 @@ public final class StructureLoader extends Loader {
         context.recordInnerPeer(child);
 
         state.target = child;
+        state.childIndex = 0;
 
         fireBeforeUnmarshal(beanInfo, child, state);
 
@@ -236,7 +299,7 @@ public final class StructureLoader extends Loader {
 
     @Override
     public void childElement(UnmarshallingContext.State state, TagName arg) throws SAXException {
-        ChildLoader child = childUnmarshallers.get(arg.uri,arg.local);
+        ChildLoader child = sequenceIndex!=null ? nextInSequence(state.prev,arg) : childUnmarshallers.get(arg.uri,arg.local);
         if(child==null) {
             child = catchAll;
             if(child==null) {
@@ -249,6 +312,27 @@ public final class StructureLoader extends Loader {
         state.receiver = child.receiver;
     }
 
+    /**
+     * Looks for the child at and after the position of the previous one, which is
+     * where it is when the document follows the schema, then in the index.
+     */
+    private ChildLoader nextInSequence(UnmarshallingContext.State parent, TagName arg) {
+        String[] locals = sequenceLocal;
+        int i = parent.childIndex;
+        int end = Math.min(i + PREDICTION_WINDOW, locals.length);
+        for (; i < end; i++) {
+            if(locals[i].equals(arg.local) && sequenceUri[i].equals(arg.uri)) {
+                parent.childIndex = i;
+                return sequenceLoader[i];
+            }
+        }
+        Integer idx = sequenceIndex.get(arg.uri,arg.local);
+        if(idx==null)
+            return null;
+        parent.childIndex = idx;
+        return sequenceLoader[idx];
+    }
+
     @Override
     public Collection<QName> getExpectedChildElements() {
         return childUnmarshallers.keySet();
@@ -0,0 +1,1277 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ * 
+ * Copyright 1997-2007 Sun Microsystems, Inc. All rights reserved.
+ * 
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License. You can obtain
+ * a copy of the License at https://glassfish.dev.java.net/public/CDDL+GPL.html
+ * or glassfish/bootstrap/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ * 
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at glassfish/bootstrap/legal/LICENSE.txt.
+ * Sun designates this particular file as subject to the "Classpath" exception
+ * as provided by Sun in the GPL Version 2 section of the License file that
+ * accompanied this code.  If applicable, add the following below the License
+ * Header, with the fields enclosed by brackets [] replaced by your own
+ * identifying information: "Portions Copyrighted [year]
+ * [name of copyright owner]"
+ * 
+ * Contributor(s):
+ * 
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package jef.com.sun.xml.bind.v2.runtime.unmarshaller;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UnsupportedEncodingException;
+
+import javax.xml.bind.ValidationEventLocator;
+import javax.xml.bind.helpers.ValidationEventLocatorImpl;
+
+import jef.com.sun.xml.bind.WhiteSpaceProcessor;
+import jef.com.sun.xml.bind.v2.runtime.NameList;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * Reads UTF-8 encoded XML from an {@link InputStream} and feeds events to {@link XmlVisitor},
+ * without a SAX or StAX parser in between.
+ *
+ * <p>
+ * This is the input side counterpart of
+ * {@link jef.com.sun.xml.bind.v2.runtime.output.UTF8XmlOutput}. Element and attribute
+ * names are looked up by their bytes in a table seeded with the {@link NameList} of the
+ * context, so the names the loaders know come out as the interned strings they compare
+ * against, without creating a String. Text is decoded into a reused char window, which
+ * is what {@link XmlVisitor#text(CharSequence)} receives.
+ *
+ * <p>
+ * Only the common case is read here: a UTF-8 (or ASCII) document without a DTD.
+ * {@link #readProlog(InputStream, String)} looks at everything before the root element
+ * and returns false for anything else, in which case {@link #replay()} gives back the
+ * bytes read so far followed by the rest of the stream, for the SAX parser.
+ * Well-formedness is checked as far as it matters for the events: duplicate attributes
+ * are not detected, and comments and processing instructions are skipped without
+ * looking at their characters.
+ *
+ * <p>
+ * An instance is kept by its {@link UnmarshallerImpl} and reused for every document,
+ * together with the names it has learned.
+ *
+ * @see UnmarshallerImpl#UTF8_PARSER
+ */
+final class UTF8XmlConnector implements LocatorEx {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8*1024;
+
+    /**
+     * Above this size the buffers are not kept from one document to the next.
+     */
+    private static final int MAX_RETAINED_BUFFER = 64*1024;
+
+    /**
+     * Longest character reference accepted, like {@code &#x0000010FFFF;}.
+     */
+    private static final int MAX_REFERENCE = 32;
+
+    private static final String XML_NS = "http://www.w3.org/XML/1998/namespace";
+
+    private static final byte[] XMLNS = {'x','m','l','n','s'};
+    private static final byte[] COMMENT_END = {'-','-','>'};
+    private static final byte[] PI_END = {'?','>'};
+    private static final byte[] CDATA_START = {'<','!','[','C','D','A','T','A','['};
+
+    private final NameTable names;
+
+    private InputStream in;
+    private String systemId;
+    private boolean eof;
+
+    private byte[] buf = new byte[DEFAULT_BUFFER_SIZE];
+    private int pos;
+    private int limit;
+
+    /**
+     * Start of the bytes {@link #fill()} has to keep, or -1 to keep from {@link #pos}.
+     */
+    private int mark = -1;
+
+    /**
+     * Line and column of {@code buf[0]}.
+     */
+    private int line;
+    private int column;
+
+    private XmlVisitor visitor;
+    private XmlVisitor.TextPredictor predictor;
+
+    private final Text text = new Text();
+    private final TagNameImpl tagName = new TagNameImpl();
+    private final AttributesExImpl attributes = new AttributesExImpl();
+
+    /**
+     * Attributes of the start tag being read, {@link #ATTR_SIZE} ints each:
+     * start and end of the name, position of the colon or -1,
+     * start and end of the value and whether the value can be used as is.
+     */
+    private int[] rawAttributes = new int[8*ATTR_SIZE];
+    private static final int ATTR_SIZE = 6;
+
+    /**
+     * The open elements, with the number of namespace bindings before each.
+     */
+    private String[] elementPrefixes = new String[16];
+    private String[] elementLocals = new String[16];
+    private String[] elementUris = new String[16];
+    private int[] elementBindings = new int[16];
+    private int depth;
+
+    /**
+     * Namespace bindings in scope.
+     */
+    private String[] nsPrefixes = new String[16];
+    private String[] nsUris = new String[16];
+    private int nsLen;
+
+    /**
+     * Used to decode attribute values.
+     */
+    private char[] scratch = new char[64];
+
+    /**
+     * Position after the last character decoded by {@link #decode(int, int)}
+     * or {@link #reference(int, int)}.
+     */
+    private int next;
+
+    UTF8XmlConnector(NameList nameList) {
+        this.names = new NameTable(nameList);
+    }
+
+    /**
+     * Returns true if the encoding is one this connector reads.
+     */
+    static boolean isUTF8(String encoding) {
+        return encoding.equalsIgnoreCase("UTF-8") || encoding.equalsIgnoreCase("UTF8")
+            || encoding.equalsIgnoreCase("US-ASCII") || encoding.equalsIgnoreCase("ASCII");
+    }
+
+    /**
+     * Reads the stream up to the root element.
+     *
+     * @return
+     *      true if the document is one this connector reads, and {@link #bridge(XmlVisitor)}
+     *      can be called. false if it has to go to another parser through {@link #replay()}:
+     *      the XML declaration names another encoding or version, there is a DTD, the
+     *      stream doesn't look like UTF-8 at all or the prolog is malformed.
+     */
+    public boolean readProlog(InputStream in, String systemId) throws IOException {
+        this.in = in;
+        this.systemId = systemId;
+        eof = false;
+        pos = limit = 0;
+        line = column = 1;
+        depth = nsLen = 0;
+        text.length = 0;
+        // keep everything until we know
+        mark = 0;
+
+        ensure(4);
+        if(limit>=3 && buf[0]==(byte)0xEF && buf[1]==(byte)0xBB && buf[2]==(byte)0xBF)
+            pos = 3;
+        final int start = pos;
+
+        while(true) {
+            while(pos<limit || fill()) {
+                if(!isSpace(buf[pos]))
+                    break;
+                pos++;
+            }
+            if(!ensure(2) || buf[pos]!='<')
+                return false;
+            byte b = buf[pos+1];
+            if(b=='?') {
+                if(ensure(6) && match(XMLNS,pos+2,3) && isSpace(buf[pos+5])) {
+                    // the XML declaration, and not some '<?xml-stylesheet'
+                    if(pos!=start)
+                        return false;
+                    int declStart = pos+5;
+                    pos += 2;
+                    if(!skipPast(PI_END) || !checkDeclaration(declStart,pos-2))
+                        return false;
+                } else {
+                    pos += 2;
+                    if(!skipPast(PI_END))
+                        return false;
+                }
+            } else
+            if(b=='!') {
+                // a DOCTYPE or anything else goes to the parser which knows it
+                if(!ensure(4) || buf[pos+2]!='-' || buf[pos+3]!='-')
+                    return false;
+                pos += 4;
+                if(!skipPast(COMMENT_END))
+                    return false;
+            } else {
+                // the root element, unless the bytes are not UTF-8 at all
+                if(!(b<0 || b=='_' || b==':' || (b>='a' && b<='z') || (b>='A' && b<='Z')))
+                    return false;
+                mark = -1;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Checks the version and encoding of the XML declaration.
+     */
+    private boolean checkDeclaration(int p, int end) {
+        while(true) {
+            while(p<end && isSpace(buf[p]))
+                p++;
+            if(p==end)
+                return true;
+            int nameStart = p;
+            while(p<end && buf[p]!='=' && !isSpace(buf[p]))
+                p++;
+            String name = ascii(nameStart,p);
+            while(p<end && isSpace(buf[p]))
+                p++;
+            if(p==end || buf[p]!='=')
+                return false;
+            p++;
+            while(p<end && isSpace(buf[p]))
+                p++;
+            if(p==end || (buf[p]!='"' && buf[p]!='\''))
+                return false;
+            byte quote = buf[p++];
+            int valueStart = p;
+            while(p<end && buf[p]!=quote)
+                p++;
+            if(p==end)
+                return false;
+            String value = ascii(valueStart,p++);
+            if(name.equals("version")) {
+                if(!value.equals("1.0"))
+                    return false;
+            } else
+            if(name.equals("encoding")) {
+                if(!isUTF8(value))
+                    return false;
+            } else
+            if(!name.equals("standalone"))
+                return false;
+        }
+    }
+
+    /**
+     * Gives the bytes read by {@link #readProlog(InputStream, String)} followed by the
+     * rest of the stream, so that another parser can start over.
+     */
+    public InputStream replay() {
+        byte[] read = new byte[limit];
+        System.arraycopy(buf,0,read,0,limit);
+        if(eof)
+            return new ByteArrayInputStream(read);
+        return new SequenceInputStream(new ByteArrayInputStream(read),in);
+    }
+
+    /**
+     * Reads the document from the root element to its end tag, which must follow
+     * a successful {@link #readProlog(InputStream, String)}.
+     * Like {@link StAXStreamConnector}, nothing after the end tag is read.
+     */
+    public void bridge(XmlVisitor visitor) throws IOException, SAXException {
+        this.visitor = visitor;
+        this.predictor = visitor.getPredictor();
+
+        visitor.startDocument(this,null);
+        if(readStartTag()) {
+            while(depth>0) {
+                readText();
+                // at '<'
+                if(!ensure(2))
+                    throw error(PREMATURE_END);
+                byte b = buf[pos+1];
+                if(b=='/')
+                    readEndTag();
+                else
+                if(b=='!')
+                    readMarkup();
+                else
+                if(b=='?') {
+                    pos += 2;
+                    if(!skipPast(PI_END))
+                        throw error(PREMATURE_END);
+                } else
+                    readStartTag();
+            }
+        }
+        visitor.endDocument();
+    }
+
+    /**
+     * Drops the references to the stream and the visitor once the document is done,
+     * and the buffers if they grew unusually large.
+     */
+    public void release() {
+        in = null;
+        visitor = null;
+        predictor = null;
+        pos = limit = 0;
+        mark = -1;
+        text.length = 0;
+        attributes.clear();
+        if(buf.length>MAX_RETAINED_BUFFER)
+            buf = new byte[DEFAULT_BUFFER_SIZE];
+        if(text.chars.length>MAX_RETAINED_BUFFER)
+            text.chars = new char[256];
+        if(scratch.length>MAX_RETAINED_BUFFER)
+            scratch = new char[64];
+    }
+
+    /**
+     * Reads a start tag at {@link #pos} and fires its events.
+     *
+     * @return false for an empty-element tag, whose end has been reported as well.
+     */
+    private boolean readStartTag() throws IOException, SAXException {
+        processText(true);
+
+        final int end = findTagEnd();
+        final byte[] buf = this.buf;
+        int p = pos+1;
+
+        final int nameStart = p;
+        p = scanName(p,end);
+        final int nameColon = next;
+        final int nameEnd = p;
+
+        // attributes
+        int attCount = 0;
+        boolean empty = false;
+        while(true) {
+            int s = p;
+            while(isSpace(buf[p]))
+                p++;
+            byte b = buf[p];
+            if(b=='>')
+                break;
+            if(b=='/') {
+                if(p+1!=end)
+                    throw error("Expected '>' after '/'.");
+                empty = true;
+                break;
+            }
+            if(p==s)
+                throw error("Whitespace is required between attributes.");
+
+            int[] atts = rawAttributes;
+            if(atts.length<(attCount+1)*ATTR_SIZE) {
+                atts = new int[atts.length*2];
+                System.arraycopy(rawAttributes,0,atts,0,rawAttributes.length);
+                rawAttributes = atts;
+            }
+            int a = attCount*ATTR_SIZE;
+            atts[a] = p;
+            p = scanName(p,end);
+            atts[a+1] = p;
+            atts[a+2] = next;
+
+            while(isSpace(buf[p]))
+                p++;
+            if(buf[p]!='=')
+                throw error("Expected '=' after the attribute name.");
+            p++;
+            while(isSpace(buf[p]))
+                p++;
+            byte quote = buf[p];
+            if(quote!='"' && quote!='\'')
+                throw error("Expected a quoted attribute value.");
+            atts[a+3] = ++p;
+            boolean plain = true;
+            for( byte v; (v=buf[p])!=quote; p++ ) {
+                if(v=='<')
+                    throw error("'<' is not allowed in attribute values.");
+                if(v=='&' || (v>=0 && v<0x20))
+                    plain = false;
+            }
+            atts[a+4] = p++;
+            atts[a+5] = plain ? 1 : 0;
+            attCount++;
+        }
+
+        // namespace declarations first, they apply to the element and its attributes
+        final int bindings = nsLen;
+        final int[] atts = rawAttributes;
+        for( int i=0; i<attCount; i++ ) {
+            int a = i*ATTR_SIZE;
+            int s = atts[a], e = atts[a+1], colon = atts[a+2];
+            String prefix;
+            if(colon<0 && e-s==5 && match(XMLNS,s,5))
+                prefix = "";
+            else
+            if(colon==s+5 && match(XMLNS,s,5))
+                prefix = names.get(buf,colon+1,e-colon-1);
+            else
+                continue;
+            String uri;
+            if(atts[a+5]!=0)
+                uri = names.get(buf,atts[a+3],atts[a+4]-atts[a+3]);
+            else
+                uri = value(atts[a+3],atts[a+4]).intern();
+            declare(prefix,uri);
+            visitor.startPrefixMapping(prefix,uri);
+        }
+
+        String prefix;
+        String local;
+        if(nameColon<0) {
+            prefix = "";
+            local = names.get(buf,nameStart,nameEnd-nameStart);
+        } else {
+            prefix = names.get(buf,nameStart,nameColon-nameStart);
+            local = names.get(buf,nameColon+1,nameEnd-nameColon-1);
+        }
+        String uri = resolve(prefix);
+
+        attributes.clear();
+        for( int i=0; i<attCount; i++ ) {
+            int a = i*ATTR_SIZE;
+            int s = atts[a], e = atts[a+1], colon = atts[a+2];
+            if(match(XMLNS,s,5) && (colon==s+5 || (colon<0 && e-s==5)))
+                continue;
+            String attUri, attLocal, attQName;
+            if(colon<0) {
+                attUri = "";
+                attLocal = attQName = names.get(buf,s,e-s);
+            } else {
+                attUri = resolve(names.get(buf,s,colon-s));
+                attLocal = names.get(buf,colon+1,e-colon-1);
+                attQName = names.get(buf,s,e-s);
+            }
+            attributes.addAttribute(attUri,attLocal,attQName,"CDATA",value(atts[a+3],atts[a+4]));
+        }
+
+        // push the element
+        if(depth==elementUris.length) {
+            elementPrefixes = grow(elementPrefixes);
+            elementLocals = grow(elementLocals);
+            elementUris = grow(elementUris);
+            int[] n = new int[depth*2];
+            System.arraycopy(elementBindings,0,n,0,depth);
+            elementBindings = n;
+        }
+        elementPrefixes[depth] = prefix;
+        elementLocals[depth] = local;
+        elementUris[depth] = uri;
+        elementBindings[depth] = bindings;
+        depth++;
+
+        tagName.prefix = prefix;
+        tagName.uri = uri;
+        tagName.local = local;
+        tagName.atts = attributes;
+        visitor.startElement(tagName);
+
+        pos = end+1;
+        if(empty) {
+            endElement();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads an end tag at {@link #pos} and fires its events.
+     */
+    private void readEndTag() throws IOException, SAXException {
+        final int end = findTagEnd();
+        int s = pos+2;
+        int p = scanName(s,end);
+        int colon = next;
+        String prefix, local;
+        if(colon<0) {
+            prefix = "";
+            local = names.get(buf,s,p-s);
+        } else {
+            prefix = names.get(buf,s,colon-s);
+            local = names.get(buf,colon+1,p-colon-1);
+        }
+        // names from the table are interned
+        if(prefix!=elementPrefixes[depth-1] || local!=elementLocals[depth-1])
+            throw error("The element type \""+qname(elementPrefixes[depth-1],elementLocals[depth-1])
+                +"\" must be terminated by the matching end-tag \"</"+qname(elementPrefixes[depth-1],elementLocals[depth-1])+">\".");
+        while(isSpace(buf[p]))
+            p++;
+        if(p!=end)
+            throw error("Expected '>' at the end of the end tag.");
+        pos = end+1;
+        endElement();
+    }
+
+    private void endElement() throws SAXException {
+        processText(false);
+
+        depth--;
+        tagName.prefix = elementPrefixes[depth];
+        tagName.uri = elementUris[depth];
+        tagName.local = elementLocals[depth];
+        visitor.endElement(tagName);
+
+        // end namespace bindings
+        int bindings = elementBindings[depth];
+        for( int i=nsLen-1; i>=bindings; i-- )
+            visitor.endPrefixMapping(nsPrefixes[i]);
+        nsLen = bindings;
+    }
+
+    /**
+     * Reads a comment or a CDATA section at {@link #pos}.
+     */
+    private void readMarkup() throws IOException, SAXException {
+        if(ensure(4) && buf[pos+2]=='-' && buf[pos+3]=='-') {
+            pos += 4;
+            if(!skipPast(COMMENT_END))
+                throw error(PREMATURE_END);
+            return;
+        }
+        if(!ensure(CDATA_START.length) || !match(CDATA_START,pos,CDATA_START.length))
+            throw error("Markup declarations are only allowed before the root element.");
+        pos += CDATA_START.length;
+
+        final boolean collect = predictor.expectText();
+        while(true) {
+            if(!ensure(3))
+                throw error(PREMATURE_END);
+            byte b = buf[pos];
+            if(b==']' && buf[pos+1]==']' && buf[pos+2]=='>') {
+                pos += 3;
+                return;
+            }
+            if(!collect) {
+                pos++;
+            } else
+            if(b>=0x20) {
+                text.append((char)b);
+                pos++;
+            } else
+            if(b<0) {
+                ensure(4);
+                text.appendCodePoint(decode(pos,limit));
+                pos = next;
+            } else
+            if(b=='\r') {
+                // ensure(3) above, so the next byte is there
+                pos += buf[pos+1]=='\n' ? 2 : 1;
+                text.append('\n');
+            } else
+            if(b=='\n' || b=='\t') {
+                text.append((char)b);
+                pos++;
+            } else
+                throw error(INVALID_CHARACTER);
+        }
+    }
+
+    /**
+     * Reads the character data up to the next '<' into {@link #text}. Text the
+     * visitor doesn't expect is checked all the same, and dropped by
+     * {@link #processText(boolean)}.
+     */
+    private void readText() throws IOException, SAXException {
+        final Text t = text;
+        while(true) {
+            // one byte makes at most one char
+            t.ensureCapacity(t.length+limit-pos);
+            final char[] chars = t.chars;
+            final byte[] buf = this.buf;
+            final int l = limit;
+            int n = t.length;
+            int p = pos;
+
+            // plain ASCII, the common case
+            while(p<l) {
+                int b = buf[p];
+                if(b<0x20 || b=='<' || b=='&' || b==']')
+                    break;
+                chars[n++] = (char)b;
+                p++;
+            }
+            t.length = n;
+            pos = p;
+
+            if(p==l) {
+                if(!fill())
+                    throw error(PREMATURE_END);
+                continue;
+            }
+            byte b = buf[p];
+            if(b=='<')
+                return;
+            if(b<0) {
+                ensure(4);
+                t.appendCodePoint(decode(pos,limit));
+                pos = next;
+            } else
+            if(b=='&') {
+                ensureReference();
+                t.appendCodePoint(reference(pos,limit));
+                pos = next;
+            } else
+            if(b=='\r') {
+                // line breaks are normalized to '\n'
+                ensure(2);
+                pos += pos+1<limit && this.buf[pos+1]=='\n' ? 2 : 1;
+                t.append('\n');
+            } else
+            if(b==']') {
+                ensure(3);
+                if(pos+2<limit && this.buf[pos+1]==']' && this.buf[pos+2]=='>')
+                    throw error(CDATA_END);
+                t.append(']');
+                pos++;
+            } else
+            if(b=='\n' || b=='\t') {
+                t.append((char)b);
+                pos++;
+            } else
+                throw error(INVALID_CHARACTER);
+        }
+    }
+
+    private void processText( boolean ignorable ) throws SAXException {
+        if( predictor.expectText() && (!ignorable || !WhiteSpaceProcessor.isWhiteSpace(text)))
+            visitor.text(text);
+        text.length = 0;
+    }
+
+    /**
+     * Decodes an attribute value, normalizing whitespace.
+     */
+    private String value(int p, int end) throws SAXException {
+        // one byte makes at most one char, so does a reference
+        if(scratch.length<end-p)
+            scratch = new char[Math.max(end-p,scratch.length*2)];
+        final char[] chars = scratch;
+        final byte[] buf = this.buf;
+        int n = 0;
+        while(p<end) {
+            int b = buf[p];
+            if(b>=0x20 && b!='&') {
+                chars[n++] = (char)b;
+                p++;
+            } else
+            if(b<0) {
+                n = put(chars,n,decode(p,end));
+                p = next;
+            } else
+            if(b=='&') {
+                n = put(chars,n,reference(p,end));
+                p = next;
+            } else
+            if(b=='\r') {
+                chars[n++] = ' ';
+                p++;
+                if(p<end && buf[p]=='\n')
+                    p++;
+            } else
+            if(b=='\n' || b=='\t') {
+                chars[n++] = ' ';
+                p++;
+            } else
+                throw error(INVALID_CHARACTER);
+        }
+        return new String(chars,0,n);
+    }
+
+    private static int put(char[] chars, int n, int cp) {
+        if(cp<0x10000) {
+            chars[n++] = (char)cp;
+        } else {
+            cp -= 0x10000;
+            chars[n++] = (char)(0xD800+(cp>>10));
+            chars[n++] = (char)(0xDC00+(cp&0x3FF));
+        }
+        return n;
+    }
+
+    /**
+     * Decodes the UTF-8 sequence at p, which starts with a byte above 0x7F, and sets
+     * {@link #next} to the position after it.
+     */
+    private int decode(int p, int end) throws SAXException {
+        final byte[] buf = this.buf;
+        int b = buf[p]&0xFF;
+        int n;
+        if(b>=0xF0)     n = b<0xF5 ? 4 : 0;
+        else if(b>=0xE0) n = 3;
+        else if(b>=0xC2) n = 2;
+        else            n = 0;  // continuation byte or overlong form
+        if(n==0)
+            throw error(INVALID_UTF8);
+        if(p+n>end)
+            throw error(eof ? PREMATURE_END : INVALID_UTF8);
+
+        int cp = b&(0x7F>>n);
+        for( int i=1; i<n; i++ ) {
+            int c = buf[p+i];
+            if((c&0xC0)!=0x80)
+                throw error(INVALID_UTF8);
+            cp = (cp<<6)|(c&0x3F);
+        }
+        if(n==3 && (cp<0x800 || (cp>=0xD800 && cp<=0xDFFF) || cp>=0xFFFE))
+            throw error(INVALID_UTF8);
+        if(n==4 && (cp<0x10000 || cp>0x10FFFF))
+            throw error(INVALID_UTF8);
+        next = p+n;
+        return cp;
+    }
+
+    /**
+     * Makes sure the ';' of the reference at {@link #pos} is in the buffer.
+     */
+    private void ensureReference() throws IOException, SAXException {
+        for( int i=1; ; i++ ) {
+            if(pos+i>=limit && !fill())
+                throw error(PREMATURE_END);
+            byte b = buf[pos+i];
+            if(b==';')
+                return;
+            if(i>MAX_REFERENCE || b=='<' || isSpace(b))
+                throw error("The reference must end with ';'.");
+        }
+    }
+
+    /**
+     * Resolves the character or predefined entity reference at p and sets
+     * {@link #next} to the position after it.
+     */
+    private int reference(int p, int end) throws SAXException {
+        final byte[] buf = this.buf;
+        int q = p+1;
+        if(q<end && buf[q]=='#') {
+            int radix = 10;
+            q++;
+            if(q<end && buf[q]=='x') {
+                radix = 16;
+                q++;
+            }
+            int start = q;
+            int cp = 0;
+            for( ; q<end && buf[q]!=';'; q++ ) {
+                int d = digit(buf[q]);
+                if(d<0 || d>=radix)
+                    throw error("Invalid character reference.");
+                cp = cp*radix+d;
+                if(cp>0x10FFFF)
+                    throw error("Invalid character reference.");
+            }
+            if(q==start || q==end)
+                throw error("Invalid character reference.");
+            if(!(cp==0x9 || cp==0xA || cp==0xD || (cp>=0x20 && cp<=0xD7FF)
+                    || (cp>=0xE000 && cp<=0xFFFD) || cp>=0x10000))
+                throw error("Character reference \"&#"+cp+";\" is an invalid XML character.");
+            next = q+1;
+            return cp;
+        }
+
+        int start = q;
+        while(q<end && buf[q]!=';')
+            q++;
+        if(q==end)
+            throw error("The reference must end with ';'.");
+        next = q+1;
+        switch(q-start) {
+        case 2:
+            if(buf[start+1]=='t') {
+                if(buf[start]=='l')     return '<';
+                if(buf[start]=='g')     return '>';
+            }
+            break;
+        case 3:
+            if(buf[start]=='a' && buf[start+1]=='m' && buf[start+2]=='p')
+                return '&';
+            break;
+        case 4:
+            if(buf[start]=='a' && buf[start+1]=='p' && buf[start+2]=='o' && buf[start+3]=='s')
+                return '\'';
+            if(buf[start]=='q' && buf[start+1]=='u' && buf[start+2]=='o' && buf[start+3]=='t')
+                return '"';
+            break;
+        }
+        // without a DTD nothing else is declared
+        throw error("The entity \""+ascii(start,q)+"\" was referenced, but not declared.");
+    }
+
+    private static int digit(byte b) {
+        if(b>='0' && b<='9')    return b-'0';
+        if(b>='a' && b<='f')    return b-'a'+10;
+        if(b>='A' && b<='F')    return b-'A'+10;
+        return -1;
+    }
+
+    /**
+     * Scans a name starting at p within a tag ending at end, and sets {@link #next} to
+     * the position of its colon, or -1.
+     *
+     * @return the position after the name.
+     */
+    private int scanName(int p, int end) throws SAXException {
+        final byte[] buf = this.buf;
+        final int start = p;
+        int colon = -1;
+        for( ; p<end; p++ ) {
+            byte b = buf[p];
+            if(b<0 || NAME_CHARS[b])
+                continue;
+            if(b==' ' || b=='\n' || b=='\t' || b=='\r' || b=='/' || b=='=')
+                break;
+            if(b!=':')
+                throw error("Invalid character in a name.");
+            if(colon>=0)
+                throw error("A name may contain only one ':'.");
+            colon = p;
+        }
+        if(p==start)
+            throw error("Expected a name.");
+        byte first = buf[start];
+        if(first=='-' || first=='.' || (first>='0' && first<='9'))
+            throw error("Invalid character at the start of a name.");
+        if(colon==start || colon==p-1)
+            throw error("Invalid qualified name \""+ascii(start,p)+"\".");
+        next = colon;
+        return p;
+    }
+
+    /**
+     * Finds the '>' of the tag at {@link #pos}, reading until the whole tag is in the buffer.
+     * A '>' in an attribute value doesn't count.
+     */
+    private int findTagEnd() throws IOException, SAXException {
+        byte quote = 0;
+        int i = 1;  // relative to pos, which fill() may move
+        while(true) {
+            if(pos+i>=limit && !fill())
+                throw error(PREMATURE_END);
+            byte b = buf[pos+i];
+            if(quote!=0) {
+                if(b==quote)
+                    quote = 0;
+            } else
+            if(b=='>')
+                return pos+i;
+            else
+            if(b=='"' || b=='\'')
+                quote = b;
+            else
+            if(b=='<')
+                throw error("Expected '>' at the end of the tag.");
+            i++;
+        }
+    }
+
+    /**
+     * Moves {@link #pos} after the given terminator.
+     *
+     * @return false at the end of the stream.
+     */
+    private boolean skipPast(byte[] terminator) throws IOException {
+        final int n = terminator.length;
+        while(ensure(n)) {
+            if(buf[pos]==terminator[0] && match(terminator,pos,n)) {
+                pos += n;
+                return true;
+            }
+            pos++;
+        }
+        return false;
+    }
+
+    private boolean match(byte[] bytes, int p, int n) {
+        for( int i=0; i<n; i++ )
+            if(buf[p+i]!=bytes[i])
+                return false;
+        return true;
+    }
+
+    private void declare(String prefix, String uri) {
+        if(nsLen==nsPrefixes.length) {
+            nsPrefixes = grow(nsPrefixes);
+            nsUris = grow(nsUris);
+        }
+        nsPrefixes[nsLen] = prefix;
+        nsUris[nsLen] = uri;
+        nsLen++;
+    }
+
+    private String resolve(String prefix) throws SAXException {
+        for( int i=nsLen-1; i>=0; i-- )
+            if(nsPrefixes[i]==prefix)
+                return nsUris[i];
+        if(prefix.length()==0)
+            return "";
+        if(prefix.equals("xml"))
+            return XML_NS;
+        throw error("The prefix \""+prefix+"\" is not bound.");
+    }
+
+    private static String[] grow(String[] a) {
+        String[] n = new String[a.length*2];
+        System.arraycopy(a,0,n,0,a.length);
+        return n;
+    }
+
+    /**
+     * ASCII characters allowed in a name, other than ':'. All the bytes of
+     * multi-byte characters are accepted.
+     */
+    private static final boolean[] NAME_CHARS = new boolean[128];
+    static {
+        for( char c='a'; c<='z'; c++ )
+            NAME_CHARS[c] = true;
+        for( char c='A'; c<='Z'; c++ )
+            NAME_CHARS[c] = true;
+        for( char c='0'; c<='9'; c++ )
+            NAME_CHARS[c] = true;
+        NAME_CHARS['_'] = NAME_CHARS['-'] = NAME_CHARS['.'] = true;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b==' ' || b=='\n' || b=='\t' || b=='\r';
+    }
+
+    private static String qname(String prefix, String local) {
+        if(prefix.length()==0)
+            return local;
+        return prefix+':'+local;
+    }
+
+    private String ascii(int start, int end) {
+        char[] chars = new char[end-start];
+        for( int i=0; i<chars.length; i++ )
+            chars[i] = (char)(buf[start+i]&0xFF);
+        return new String(chars);
+    }
+
+    /**
+     * Makes sure at least n bytes are buffered after {@link #pos}.
+     *
+     * @return false if the stream ends before.
+     */
+    private boolean ensure(int n) throws IOException {
+        while(limit-pos<n) {
+            if(!fill())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads more bytes, after moving the ones still needed to the start of
+     * the buffer or growing it.
+     *
+     * @return false at the end of the stream.
+     */
+    private boolean fill() throws IOException {
+        if(eof)
+            return false;
+        if(limit==buf.length) {
+            int keep = mark>=0 ? mark : pos;
+            if(keep>0) {
+                advance(keep);
+                System.arraycopy(buf,keep,buf,0,limit-keep);
+                limit -= keep;
+                pos -= keep;
+                if(mark>=0)
+                    mark -= keep;
+            }
+            if(limit>buf.length/2) {
+                // a long token, or the prolog
+                byte[] n = new byte[buf.length*2];
+                System.arraycopy(buf,0,n,0,limit);
+                buf = n;
+            }
+        }
+        int n = in.read(buf,limit,buf.length-limit);
+        if(n<0) {
+            eof = true;
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+
+    /**
+     * Moves the location of {@code buf[0]} forward by n bytes.
+     */
+    private void advance(int n) {
+        for( int i=0; i<n; i++ ) {
+            if(buf[i]=='\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+    }
+
+    private static final String PREMATURE_END = "XML document structures must start and end within the same entity.";
+    private static final String INVALID_CHARACTER = "An invalid XML character was found in the document.";
+    private static final String CDATA_END = "The character sequence \"]]>\" must not appear in content unless used to mark the end of a CDATA section.";
+    private static final String INVALID_UTF8 = "Invalid byte sequence in the UTF-8 document.";
+
+    /**
+     * Reports a well-formedness error to the unmarshaller, like a SAX parser would,
+     * and returns it to be thrown.
+     */
+    private SAXParseException error(String message) throws SAXException {
+        SAXParseException e = new SAXParseException(message,null,systemId,getLineNumber(),getColumnNumber());
+        if(visitor!=null && visitor.getContext()!=null)
+            visitor.getContext().fatalError(e);
+        return e;
+    }
+
+    //
+    // LocatorEx, computed from the position on demand
+    //
+    public ValidationEventLocator getLocation() {
+        return new ValidationEventLocatorImpl(this);
+    }
+
+    public int getLineNumber() {
+        int l = line;
+        int end = Math.min(pos,limit);
+        for( int i=0; i<end; i++ )
+            if(buf[i]=='\n')
+                l++;
+        return l;
+    }
+
+    public int getColumnNumber() {
+        int end = Math.min(pos,limit);
+        for( int i=end-1; i>=0; i-- )
+            if(buf[i]=='\n')
+                return end-i;
+        return column+end;
+    }
+
+    public String getPublicId() {
+        return null;
+    }
+
+    public String getSystemId() {
+        return systemId;
+    }
+
+    private static final class TagNameImpl extends TagName {
+        String prefix;
+
+        public String getQname() {
+            return qname(prefix,local);
+        }
+
+        @Override
+        public String getPrefix() {
+            return prefix;
+        }
+    }
+
+    /**
+     * The text of the current element, a window over a reused char array.
+     * Like the buffers of the other connectors, it is only valid during the
+     * {@link XmlVisitor#text(CharSequence)} call.
+     */
+    private static final class Text implements CharSequence {
+        char[] chars = new char[256];
+        int length;
+
+        void ensureCapacity(int n) {
+            if(n>chars.length) {
+                char[] c = new char[Math.max(n,chars.length*2)];
+                System.arraycopy(chars,0,c,0,length);
+                chars = c;
+            }
+        }
+
+        void append(char c) {
+            if(length==chars.length)
+                ensureCapacity(length+1);
+            chars[length++] = c;
+        }
+
+        void appendCodePoint(int cp) {
+            ensureCapacity(length+2);
+            length = put(chars,length,cp);
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public char charAt(int index) {
+            if(index>=length)
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            return chars[index];
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            if(end>length)
+                throw new IndexOutOfBoundsException(String.valueOf(end));
+            return new String(chars,start,end-start);
+        }
+
+        public String toString() {
+            return new String(chars,0,length);
+        }
+    }
+
+    /**
+     * Open addressing hash table from the UTF-8 bytes of a name to the interned String.
+     * Names which are not in the {@link NameList} are added as they are seen, up to
+     * {@link #MAX_LEARNED} of them, so that prefixes and foreign names are not decoded
+     * again for every document either.
+     */
+    private static final class NameTable {
+        private static final int MAX_LEARNED = 4096;
+
+        private byte[][] keys;
+        private String[] values;
+        private int size;
+        private int learned;
+
+        NameTable(NameList nameList) {
+            int n = 16;
+            if(nameList!=null)
+                n += nameList.localNames.length+nameList.namespaceURIs.length;
+            int capacity = 64;
+            while(capacity<n*2)
+                capacity <<= 1;
+            keys = new byte[capacity][];
+            values = new String[capacity];
+
+            add("");
+            add("xml");
+            add("xmlns");
+            if(nameList!=null) {
+                for( String s : nameList.localNames )
+                    add(s);
+                for( String s : nameList.namespaceURIs )
+                    add(s);
+            }
+        }
+
+        private void add(String s) {
+            byte[] b = utf8(s);
+            if(lookup(b,0,b.length)==null)
+                put(b,s.intern());
+        }
+
+        /**
+         * Gets the interned String for the bytes.
+         */
+        String get(byte[] buf, int off, int len) {
+            String s = lookup(buf,off,len);
+            if(s!=null)
+                return s;
+            s = decode(buf,off,len).intern();
+            if(learned<MAX_LEARNED) {
+                learned++;
+                byte[] key = new byte[len];
+                System.arraycopy(buf,off,key,0,len);
+                put(key,s);
+            }
+            return s;
+        }
+
+        private String lookup(byte[] buf, int off, int len) {
+            final byte[][] keys = this.keys;
+            final int mask = keys.length-1;
+            for( int i=hash(buf,off,len)&mask; ; i=(i+1)&mask ) {
+                byte[] k = keys[i];
+                if(k==null)
+                    return null;
+                if(k.length==len && equals(k,buf,off))
+                    return values[i];
+            }
+        }
+
+        private void put(byte[] key, String value) {
+            if((size+1)*2>keys.length)
+                rehash();
+            final int mask = keys.length-1;
+            int i = hash(key,0,key.length)&mask;
+            while(keys[i]!=null)
+                i = (i+1)&mask;
+            keys[i] = key;
+            values[i] = value;
+            size++;
+        }
+
+        private void rehash() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new byte[oldKeys.length*2][];
+            values = new String[oldKeys.length*2];
+            final int mask = keys.length-1;
+            for( int j=0; j<oldKeys.length; j++ ) {
+                byte[] k = oldKeys[j];
+                if(k==null)
+                    continue;
+                int i = hash(k,0,k.length)&mask;
+                while(keys[i]!=null)
+                    i = (i+1)&mask;
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+
+        private static int hash(byte[] buf, int off, int len) {
+            int h = 0;
+            for( int i=off+len-1; i>=off; i-- )
+                h = 31*h+buf[i];
+            return h^(h>>>16);
+        }
+
+        private static boolean equals(byte[] key, byte[] buf, int off) {
+            for( int i=key.length-1; i>=0; i-- )
+                if(key[i]!=buf[off+i])
+                    return false;
+            return true;
+        }
+
+        private static String decode(byte[] buf, int off, int len) {
+            try {
+                return new String(buf,off,len,"UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new AssertionError(e);    // impossible
+            }
+        }
+
+        private static byte[] utf8(String s) {
+            try {
+                return s.getBytes("UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new AssertionError(e);    // impossible
+            }
+        }
+    }
+}
@@ -101,6 +101,39 @@ public final class UnmarshallerImpl extends AbstractUnmarshallerImpl implements
 
     public final UnmarshallingContext coordinator;
 
+    /**
+     * The connector of the last {@link XMLStreamReader} unmarshalled, reused by the next one.
+     */
+    private StAXStreamConnector staxConnector;
+
+    /**
+     * Whether XML read from an {@link InputStream} is parsed by {@link UTF8XmlConnector}
+     * instead of the SAX parser, a {@link Boolean}. Documents in another encoding or
+     * with a DTD still go to the SAX parser, and so does everything given together with
+     * an {@link XMLReader} of the caller, whose features and entity resolver the
+     * connector would not honor. The system property of the same name sets
+     * the default, which is false.
+     */
+    public static final String UTF8_PARSER = "jef.com.sun.xml.bind.utf8Parser";
+
+    private static final boolean SYSTEM_UTF8_PARSER;
+    static {
+        boolean b;
+        try {
+            b = Boolean.getBoolean(UTF8_PARSER);
+        } catch (SecurityException e) {
+            b = false;
+        }
+        SYSTEM_UTF8_PARSER = b;
+    }
+
+    private boolean utf8Parser = SYSTEM_UTF8_PARSER;
+
+    /**
+     * Created on first use and kept, with the names it has learned, for the next documents.
+     */
+    private UTF8XmlConnector utf8Connector;
+
     /** Unmarshaller.Listener */
     private Listener externalListener;
 
@@ -190,6 +223,35 @@ public final class UnmarshallerImpl extends AbstractUnmarshallerImpl implements
         return (JAXBElement)unmarshal0(reader,source,getBeanInfo(expectedType));
     }
     private Object unmarshal0( XMLReader reader, InputSource source, JaxBeanInfo expectedType ) throws JAXBException {
+        // only in place of our own reader; one of the caller may be configured differently
+        if(utf8Parser && reader==getXMLReader()
+                && source.getCharacterStream()==null && source.getByteStream()!=null
+                && (source.getEncoding()==null || UTF8XmlConnector.isUTF8(source.getEncoding()))) {
+            UTF8XmlConnector connector = utf8Connector;
+            if(connector==null)
+                connector = utf8Connector = new UTF8XmlConnector(context.nameList);
+            try {
+                if(connector.readProlog(source.getByteStream(),source.getSystemId())) {
+                    XmlVisitor h = createUnmarshallerHandler(null,false,expectedType);
+                    connector.bridge(h);
+                    Object result = h.getContext().getResult();
+                    h.getContext().clearResult();
+                    return result;
+                }
+                // not for the connector, let the SAX parser start over from the first byte
+                InputSource replay = new InputSource(connector.replay());
+                replay.setSystemId(source.getSystemId());
+                replay.setPublicId(source.getPublicId());
+                replay.setEncoding(source.getEncoding());
+                source = replay;
+            } catch( IOException e ) {
+                throw new UnmarshalException(e);
+            } catch( SAXException e ) {
+                throw createUnmarshalException(e);
+            } finally {
+                connector.release();
+            }
+        }
 
         SAXConnector connector = getUnmarshallerHandler(needsInterning(reader),expectedType);
 
@@ -354,12 +416,17 @@ public final class UnmarshallerImpl extends AbstractUnmarshallerImpl implements
         }
 
         XmlVisitor h = createUnmarshallerHandler(null,false,expectedType);
-        StAXConnector connector=StAXStreamConnector.create(reader,h);
+        StAXConnector connector=StAXStreamConnector.create(reader,h,staxConnector);
 
         try {
             connector.bridge();
         } catch (XMLStreamException e) {
             throw handleStreamException(e);
+        } finally {
+            if(connector instanceof StAXStreamConnector)
+                ((StAXStreamConnector)connector).release();
+            if(connector.getClass()==StAXStreamConnector.class)
+                staxConnector = (StAXStreamConnector)connector;
         }
 
         Object retVal = h.getContext().getResult();
@@ -430,6 +497,9 @@ public final class UnmarshallerImpl extends AbstractUnmarshallerImpl implements
         if(name.equals(IDResolver.class.getName())) {
             return idResolver;
         }
+        if(name.equals(UTF8_PARSER)) {
+            return utf8Parser;
+        }
         return super.getProperty(name);
     }
 
@@ -450,6 +520,12 @@ public final class UnmarshallerImpl extends AbstractUnmarshallerImpl implements
             coordinator.classLoader = (ClassLoader)value;
             return;
         }
+        if(name.equals(UTF8_PARSER)) {
+            if(!(value instanceof Boolean))
+                throw new PropertyException(name,value);
+            utf8Parser = (Boolean)value;
+            return;
+        }
         super.setProperty(name, value);
     }
 
@@ -265,6 +265,12 @@ public final class UnmarshallingContext extends Coordinator
 
         public boolean nil = false;
 
+        /**
+         * Position of the last child element matched in the expected order of
+         * the children, see {@link StructureLoader#childElement(State, TagName)}.
+         */
+        public int childIndex;
+
         /**
          * Gets the context.
          */
@@ -9,6 +9,7 @@ import jef.tools.IOUtils;
 /**
  * Jaxws适配器。可以将File类型的参数转为byte[]使用XML进行传输.
  * 只传输文件内容，文件路径将被忽略。
+ * 文件会被完整读入内存，大文件请使用{@link FileDataHandlerCodec}。
  * @author jiyi
  *
  */
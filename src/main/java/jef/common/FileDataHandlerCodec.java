@@ -0,0 +1,61 @@
+package jef.common;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.activation.DataHandler;
+import javax.activation.FileDataSource;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+
+/**
+ * Jaxws适配器。将File类型的参数以DataHandler传输，用于大文件。
+ * <p>
+ * 服务启用MTOM时文件作为附件直接从磁盘发送，接收端从附件流直接写入临时文件，
+ * 不会将整个文件读入内存。未启用MTOM时按块进行base64编码，内存占用同样与文件大小无关。
+ * 和{@link FileContentCodec}一样，只传输文件内容，文件路径将被忽略。
+ * 
+ * <pre>
+ * &#64;XmlJavaTypeAdapter(FileDataHandlerCodec.class) File file
+ * </pre>
+ */
+public class FileDataHandlerCodec extends XmlAdapter<DataHandler, File> {
+	private static final int BUFFER_SIZE = 8192;
+
+	public File unmarshal(DataHandler v) throws Exception {
+		if (v == null)
+			return null;
+		File file = File.createTempFile("~wstemp", "tmp");
+		spool(v.getInputStream(), file);
+		return file;
+	}
+
+	public DataHandler marshal(File v) throws Exception {
+		if (v == null || !v.isFile()) {
+			return null;
+		}
+		return new DataHandler(new FileDataSource(v));
+	}
+
+	/**
+	 * 将流按块写入文件，完成后关闭输入流
+	 */
+	static void spool(InputStream in, File file) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			byte[] buf = new byte[BUFFER_SIZE];
+			int n;
+			while ((n = in.read(buf)) != -1) {
+				out.write(buf, 0, n);
+			}
+		} finally {
+			try {
+				in.close();
+			} finally {
+				out.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package jef.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.UnknownServiceException;
+
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+
+/**
+ * Jaxws适配器。将InputStream类型的参数以DataHandler传输。
+ * <p>
+ * 启用MTOM时，发送端直接从流中读取写入附件，接收端得到的是附件的流，由调用者负责读取和关闭。
+ * 流只能被读取一次。
+ */
+public class InputStreamDataHandlerCodec extends XmlAdapter<DataHandler, InputStream> {
+	private static final String CONTENT_TYPE = "application/octet-stream";
+
+	public InputStream unmarshal(DataHandler v) throws Exception {
+		return v == null ? null : v.getInputStream();
+	}
+
+	public DataHandler marshal(final InputStream v) throws Exception {
+		if (v == null)
+			return null;
+		return new DataHandler(new DataSource() {
+			public String getContentType() {
+				return CONTENT_TYPE;
+			}
+
+			public InputStream getInputStream() throws IOException {
+				return v;
+			}
+
+			public String getName() {
+				return null;
+			}
+
+			public OutputStream getOutputStream() throws IOException {
+				throw new UnknownServiceException("The stream to send is read only.");
+			}
+		});
+	}
+}
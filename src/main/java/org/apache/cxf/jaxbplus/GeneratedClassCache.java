@@ -0,0 +1,242 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxbplus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.cxf.common.logging.LogUtils;
+
+/**
+ * Persistent cache for the bytecode of the classes generated at runtime: the
+ * request/response wrappers of PlusWrapperClassGenerator, the helpers of
+ * WrapperHelperCompiler and the namespace mapper of JAXBUtils.
+ * <p>
+ * Class bytes are stored under {@code <className>-<hash>.class} where the hash is
+ * computed from everything the generator reads (for wrappers this includes the
+ * signature of the whole service interface), so a changed SEI simply produces a new
+ * entry and stale ones are never loaded. Entries are looked up first as classpath
+ * resources under {@value #RESOURCE_PREFIX} (classes prepared at build time and
+ * packaged in a jar), then in the directory given by the system property
+ * {@value #DIRECTORY_PROPERTY}. Newly generated classes are written to that
+ * directory. Without the property only packaged classes are used.
+ */
+public final class GeneratedClassCache {
+    public static final String DIRECTORY_PROPERTY = "org.apache.cxf.jaxbplus.classCacheDir";
+    public static final String RESOURCE_PREFIX = "META-INF/cxf-plus/classes/";
+
+    /*
+     * Part of every hash, change it whenever the generators emit different code.
+     */
+    private static final String FORMAT_VERSION = "1";
+
+    private static final Logger LOG = LogUtils.getLogger(GeneratedClassCache.class);
+
+    private static final Map<Class<?>, String> INTERFACE_SIGNATURES
+        = new ConcurrentHashMap<Class<?>, String>();
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong STORES = new AtomicLong();
+
+    private static volatile File directory;
+    static {
+        String dir = System.getProperty(DIRECTORY_PROPERTY);
+        if (dir != null && dir.length() > 0) {
+            directory = new File(dir);
+        }
+    }
+
+    private GeneratedClassCache() {
+        //utility class
+    }
+
+    public static File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Sets the directory generated classes are read from and written to, null
+     * disables the directory cache.
+     */
+    public static void setDirectory(File dir) {
+        directory = dir;
+    }
+
+    /**
+     * Returns the cached bytes of the class, or null when it has to be generated.
+     */
+    public static byte[] load(String className, String signature, ClassLoader loader) {
+        String name = entryName(className, signature);
+        byte bytes[] = null;
+        try {
+            if (loader != null) {
+                InputStream in = loader.getResourceAsStream(RESOURCE_PREFIX + name);
+                if (in != null) {
+                    bytes = readFully(in);
+                }
+            }
+            File dir = directory;
+            if (bytes == null && dir != null) {
+                File file = new File(dir, name);
+                if (file.isFile()) {
+                    bytes = readFully(new FileInputStream(file));
+                }
+            }
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Could not read cached class " + name, e);
+            bytes = null;
+        }
+        if (bytes == null) {
+            MISSES.incrementAndGet();
+        } else {
+            HITS.incrementAndGet();
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the generated bytes to the cache directory, if there is one. The file
+     * appears atomically so a concurrent start never reads a partial class.
+     */
+    public static void store(String className, String signature, byte bytes[]) {
+        File dir = directory;
+        if (dir == null || bytes == null) {
+            return;
+        }
+        String name = entryName(className, signature);
+        File file = new File(dir, name);
+        if (file.exists()) {
+            return;
+        }
+        File tmp = null;
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+                LOG.fine("Could not create the class cache directory " + dir);
+                return;
+            }
+            tmp = File.createTempFile(className, ".tmp", dir);
+            FileOutputStream out = new FileOutputStream(tmp);
+            try {
+                out.write(bytes);
+            } finally {
+                out.close();
+            }
+            if (tmp.renameTo(file)) {
+                tmp = null;
+                STORES.incrementAndGet();
+            }
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Could not write cached class " + name, e);
+        } finally {
+            if (tmp != null) {
+                tmp.delete();
+            }
+        }
+    }
+
+    /**
+     * Describes a service interface: the declared methods with their generic
+     * signatures and annotations. Any change of the SEI changes this string.
+     */
+    public static String getInterfaceSignature(Class<?> sei) {
+        String sig = INTERFACE_SIGNATURES.get(sei);
+        if (sig != null) {
+            return sig;
+        }
+        StringBuilder sb = new StringBuilder(sei.getName());
+        sb.append(Arrays.toString(sei.getAnnotations()));
+        Method methods[] = sei.getMethods();
+        Arrays.sort(methods, new Comparator<Method>() {
+            public int compare(Method o1, Method o2) {
+                return o1.toGenericString().compareTo(o2.toGenericString());
+            }
+        });
+        for (Method m : methods) {
+            sb.append('\n').append(m.toGenericString());
+            sb.append(Arrays.toString(m.getAnnotations()));
+            sb.append(Arrays.deepToString(m.getParameterAnnotations()));
+        }
+        sig = hash(sb.toString());
+        INTERFACE_SIGNATURES.put(sei, sig);
+        return sig;
+    }
+
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+
+    public static long getStoreCount() {
+        return STORES.get();
+    }
+
+    static String entryName(String className, String signature) {
+        return className + "-" + hash(FORMAT_VERSION + ':' + className + ':' + signature) + ".class";
+    }
+
+    static String hash(String s) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            byte digest[] = md.digest(s.getBytes("UTF-8"));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(s.hashCode());
+        } catch (IOException e) {
+            return Integer.toHexString(s.hashCode());
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+            byte buf[] = new byte[4096];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
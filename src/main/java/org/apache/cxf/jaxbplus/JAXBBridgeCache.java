@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxbplus;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.jaxbplus.JAXBUtils.BridgeWrapper;
+
+/**
+ * Bounded LRU cache of the JAXB bridges used for RPC/lit parts annotated with
+ * &#64;XmlList, &#64;XmlAttachmentRef or &#64;XmlJavaTypeAdapter (including the
+ * JefAdapters types). Building a bridge creates a whole RI context, so it must
+ * not happen on every message. One instance is held by each JAXBDataBinding.
+ * The context of the binding is part of the key, by identity, so a binding whose
+ * context is replaced does not get the bridges built for the old one; the binding
+ * also clears the cache when that happens.
+ */
+public final class JAXBBridgeCache {
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private final Map<BridgeKey, BridgeWrapper> bridges;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final int maxSize;
+
+    public JAXBBridgeCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    @SuppressWarnings("serial")
+    public JAXBBridgeCache(int size) {
+        this.maxSize = size < 1 ? 1 : size;
+        this.bridges = new LinkedHashMap<BridgeKey, BridgeWrapper>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<BridgeKey, BridgeWrapper> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the bridge for the given part name, type and annotations, creating it
+     * on the first request from the classes of the context.
+     */
+    public BridgeWrapper getBridge(JAXBContext context, QName qname, Class<?> cls, Annotation anns[],
+                                   Set<Type> ctxClasses) throws JAXBException {
+        BridgeKey key = new BridgeKey(context, qname, cls, anns);
+        BridgeWrapper bridge;
+        synchronized (bridges) {
+            bridge = bridges.get(key);
+        }
+        if (bridge != null) {
+            hits.incrementAndGet();
+            return bridge;
+        }
+        misses.incrementAndGet();
+        // built outside the lock, a concurrent miss on the same key just builds twice
+        bridge = JAXBUtils.createBridge(ctxClasses, qname, cls, anns);
+        synchronized (bridges) {
+            BridgeWrapper old = bridges.get(key);
+            if (old != null) {
+                return old;
+            }
+            bridges.put(key, bridge);
+        }
+        return bridge;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int size() {
+        synchronized (bridges) {
+            return bridges.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (bridges) {
+            bridges.clear();
+        }
+    }
+
+    public String toString() {
+        return "JAXBBridgeCache[size=" + size() + ", max=" + maxSize
+            + ", hits=" + hits.get() + ", misses=" + misses.get() + "]";
+    }
+
+    private static final class BridgeKey {
+        private final JAXBContext context;
+        private final QName qname;
+        private final Class<?> cls;
+        private final Annotation anns[];
+        private final int hash;
+
+        BridgeKey(JAXBContext context, QName qname, Class<?> cls, Annotation anns[]) {
+            this.context = context;
+            this.qname = qname;
+            this.cls = cls;
+            this.anns = anns;
+            int h = System.identityHashCode(context);
+            h = 31 * h + (qname == null ? 0 : qname.hashCode());
+            h = 31 * h + (cls == null ? 0 : cls.hashCode());
+            this.hash = 31 * h + Arrays.hashCode(anns);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof BridgeKey)) {
+                return false;
+            }
+            BridgeKey o = (BridgeKey)obj;
+            return hash == o.hash
+                && context == o.context
+                && cls == o.cls
+                && (qname == null ? o.qname == null : qname.equals(o.qname))
+                && Arrays.equals(anns, o.anns);
+        }
+    }
+}
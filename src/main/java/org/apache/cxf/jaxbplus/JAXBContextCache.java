@@ -22,14 +22,20 @@ package org.apache.cxf.jaxbplus;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 import javax.xml.bind.JAXBContext;
@@ -46,27 +52,41 @@ import org.apache.cxf.common.util.CachedClass;
 import org.apache.cxf.common.util.StringUtils;
 
 /**
- * 
+ * Process wide cache of JAXBContexts keyed by the set of bound classes.
+ * <p>
+ * Lookups never lock: exact hits are a single ConcurrentHashMap read, superset
+ * lookups go through a class-to-key index and only inspect the keys sharing the
+ * rarest class of the request. A context for a given class set is built by a
+ * single thread, concurrent callers asking for the same set wait for that build
+ * instead of creating a second context.
+ * <p>
+ * Contexts are held strongly and evicted least-recently-used once the number of
+ * entries exceeds {@link #setMaxSize(int)} or the total number of bound classes
+ * exceeds {@link #setMaxWeight(long)}. Defaults can be given with the system
+ * properties {@value #MAX_SIZE_PROPERTY} and {@value #MAX_WEIGHT_PROPERTY}.
  */
 public final class JAXBContextCache {
+    public static final String MAX_SIZE_PROPERTY = "org.apache.cxf.jaxbplus.contextCache.maxSize";
+    public static final String MAX_WEIGHT_PROPERTY = "org.apache.cxf.jaxbplus.contextCache.maxWeight";
+
     public static final class CachedContextAndSchemas {
-        private WeakReference<JAXBContext> context;
-        private WeakReference<Set<Type>> classes;
-        private Collection<DOMSource> schemas;
+        private final JAXBContext context;
+        private volatile Set<Type> classes;
+        private volatile Collection<DOMSource> schemas;
 
         CachedContextAndSchemas(JAXBContext context, Set<Type> classes) {
-            this.context = new WeakReference<JAXBContext>(context);
-            this.classes = new WeakReference<Set<Type>>(classes);
+            this.context = context;
+            this.classes = classes;
         }
 
         public JAXBContext getContext() {
-            return context.get();
+            return context;
         }
         public Set<Type> getClasses() {
-            return classes.get();
+            return classes;
         }
         public void setClasses(Set<Type> cls) {
-            classes = new WeakReference<Set<Type>>(cls);
+            classes = cls;
         }
         
         public Collection<DOMSource> getSchemas() {
@@ -77,13 +97,80 @@ public final class JAXBContextCache {
             this.schemas = schemas;
         }
     } 
-    
-    private static final Map<Set<Type>, CachedContextAndSchemas> JAXBCONTEXT_CACHE
-        = new CacheMap<Set<Type>, CachedContextAndSchemas>();
+
+    private static final class CacheEntry {
+        final Set<Type> key;
+        final FutureTask<CachedContextAndSchemas> task;
+        volatile long lastAccess;
+
+        CacheEntry(Set<Type> key, Callable<CachedContextAndSchemas> builder) {
+            this.key = key;
+            this.task = new FutureTask<CachedContextAndSchemas>(builder);
+            this.lastAccess = TICK.incrementAndGet();
+        }
+
+        CachedContextAndSchemas get() throws JAXBException {
+            lastAccess = TICK.incrementAndGet();
+            try {
+                return task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JAXBException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof JAXBException) {
+                    throw (JAXBException)cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException)cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error)cause;
+                }
+                throw new JAXBException(cause);
+            }
+        }
+
+        /*
+         * A finished entry whose context was built successfully.
+         */
+        CachedContextAndSchemas getIfReady() {
+            if (!task.isDone()) {
+                return null;
+            }
+            try {
+                return task.get();
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+
+    private static final AtomicLong TICK = new AtomicLong();
+
+    private static final ConcurrentMap<Set<Type>, CacheEntry> JAXBCONTEXT_CACHE
+        = new ConcurrentHashMap<Set<Type>, CacheEntry>();
+
+    /*
+     * class -> keys of the cached class sets containing it, for superset lookups
+     */
+    private static final ConcurrentMap<Type, Set<Set<Type>>> CLASS_INDEX
+        = new ConcurrentHashMap<Type, Set<Set<Type>>>();
 
     private static final Map<Package, CachedClass> OBJECT_FACTORY_CACHE
         = new CacheMap<Package, CachedClass>(); 
-    
+
+    private static final Object EVICTION_LOCK = new Object();
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+    private static final AtomicLong BUILD_NANOS = new AtomicLong();
+    private static final AtomicLong WEIGHT = new AtomicLong();
+
+    private static volatile int maxSize = Integer.getInteger(MAX_SIZE_PROPERTY, 256);
+    private static volatile long maxWeight = Long.getLong(MAX_WEIGHT_PROPERTY, 50000L);
+
     private JAXBContextCache() {
         //utility class
     }
@@ -92,14 +179,74 @@ public final class JAXBContextCache {
      * Clear any caches to make sure new contexts are created
      */
     public static void clearCaches() {
-        synchronized (JAXBCONTEXT_CACHE) {
+        synchronized (EVICTION_LOCK) {
             JAXBCONTEXT_CACHE.clear();
+            CLASS_INDEX.clear();
+            WEIGHT.set(0);
         }
         synchronized (OBJECT_FACTORY_CACHE) {
             OBJECT_FACTORY_CACHE.clear();
         }
     }
 
+    /**
+     * Sets the maximum number of cached contexts.
+     */
+    public static void setMaxSize(int size) {
+        maxSize = size < 1 ? 1 : size;
+        evictIfNeeded(null);
+    }
+
+    public static int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum total number of classes bound by the cached contexts.
+     */
+    public static void setMaxWeight(long weight) {
+        maxWeight = weight < 1 ? 1 : weight;
+        evictIfNeeded(null);
+    }
+
+    public static long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public static int getSize() {
+        return JAXBCONTEXT_CACHE.size();
+    }
+
+    public static long getWeight() {
+        return WEIGHT.get();
+    }
+
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+
+    public static long getEvictionCount() {
+        return EVICTIONS.get();
+    }
+
+    /**
+     * Total time spent creating contexts, in milliseconds.
+     */
+    public static long getBuildTime() {
+        return BUILD_NANOS.get() / 1000000L;
+    }
+
+    public static String getStatistics() {
+        return "JAXBContextCache[size=" + getSize() + "/" + maxSize
+            + ", weight=" + getWeight() + "/" + maxWeight
+            + ", hits=" + HITS.get() + ", misses=" + MISSES.get()
+            + ", evictions=" + EVICTIONS.get() + ", buildTime=" + getBuildTime() + "ms]";
+    }
+
     public static void scanPackages(Set<Type> classes) {
         JAXBUtils.scanPackages(classes, OBJECT_FACTORY_CACHE);
     }
@@ -120,10 +267,10 @@ public final class JAXBContextCache {
         return getCachedContextAndSchemas(classes, null, props, null, true);
     }
     
-    public static CachedContextAndSchemas getCachedContextAndSchemas(Set<Type> classes,
+    public static CachedContextAndSchemas getCachedContextAndSchemas(final Set<Type> classes,
                                                                      String defaultNs,
                                                                      Map<String, Object> props,
-                                                                     Collection<Object> typeRefs,
+                                                                     final Collection<Object> typeRefs,
                                                                      boolean exact)
         throws JAXBException {
         for (Type type : classes) {
@@ -136,65 +283,172 @@ public final class JAXBContextCache {
             }
         }
 
-        Map<String, Object> map = new HashMap<String, Object>();
+        final Map<String, Object> map = new HashMap<String, Object>();
         if (defaultNs != null) {
             map.put("com.sun.xml.bind.defaultNamespaceRemap", defaultNs);
         }
         if (props != null) {
             map.putAll(props);
         }
-        CachedContextAndSchemas cachedContextAndSchemas = null;
-        JAXBContext context = null;
-        if (typeRefs == null || typeRefs.isEmpty()) {
-            synchronized (JAXBCONTEXT_CACHE) {
-                if (exact) {
-                    cachedContextAndSchemas = JAXBCONTEXT_CACHE.get(classes);
-                } else {
-                    for (Map.Entry<Set<Type>, CachedContextAndSchemas> k : JAXBCONTEXT_CACHE.entrySet()) {
-                        Set<Type> key = k.getKey();
-                        if (key != null && key.containsAll(classes)) {
-                            cachedContextAndSchemas = k.getValue();
-                            break;
-                        }
-                    }
-                }
+        if (typeRefs != null && !typeRefs.isEmpty()) {
+            // contexts with type references are specific to the caller, never shared
+            MISSES.incrementAndGet();
+            return buildContext(classes, map, typeRefs);
+        }
+
+        Set<Type> key = Collections.unmodifiableSet(new HashSet<Type>(classes));
+        CacheEntry entry = JAXBCONTEXT_CACHE.get(key);
+        if (entry == null && !exact) {
+            CachedContextAndSchemas found = findSuperset(key);
+            if (found != null) {
+                HITS.incrementAndGet();
+                return found;
             }
         }
-        if (cachedContextAndSchemas != null) {
-            context = cachedContextAndSchemas.getContext();
-            if (context ==  null) {
-                JAXBCONTEXT_CACHE.remove(cachedContextAndSchemas.getClasses());
-                cachedContextAndSchemas = null;
+        if (entry != null) {
+            HITS.incrementAndGet();
+            return entry.get();
+        }
+
+        CacheEntry created = new CacheEntry(key, new Callable<CachedContextAndSchemas>() {
+            public CachedContextAndSchemas call() throws Exception {
+                return buildContext(classes, map, typeRefs);
             }
+        });
+        entry = JAXBCONTEXT_CACHE.putIfAbsent(key, created);
+        if (entry != null) {
+            // someone else is building (or has built) the same class set
+            HITS.incrementAndGet();
+            return entry.get();
+        }
+        MISSES.incrementAndGet();
+        created.task.run();
+        try {
+            CachedContextAndSchemas result = created.get();
+            index(created);
+            evictIfNeeded(created);
+            return result;
+        } catch (JAXBException ex) {
+            JAXBCONTEXT_CACHE.remove(key, created);
+            throw ex;
+        } catch (RuntimeException ex) {
+            JAXBCONTEXT_CACHE.remove(key, created);
+            throw ex;
         }
-        if (context == null) {
+    }
+
+    private static CachedContextAndSchemas buildContext(Set<Type> classes,
+                                                        Map<String, Object> map,
+                                                        Collection<Object> typeRefs)
+        throws JAXBException {
+        long start = System.nanoTime();
+        JAXBContext context;
+        try {
+            context = createContext(classes, map, typeRefs);
+        } catch (JAXBException ex) {
+            // load jaxb needed class and try to create jaxb context 
+            if (!addJaxbObjectFactory(ex, classes)) {
+                throw ex;
+            }
             try {
-                context = createContext(classes, map, typeRefs);
-            } catch (JAXBException ex) {
-                // load jaxb needed class and try to create jaxb context 
-                boolean added = addJaxbObjectFactory(ex, classes);
-                while (cachedContextAndSchemas == null && added) {
-                    try {
-                        context = JAXBContext.newInstance(classes
-                                                      .toArray(new Class[classes.size()]), null);
-                    } catch (JAXBException e) {
-                        //second attempt failed as well, rethrow the original exception
-                        throw ex;
-                    }
+                context = JAXBContext.newInstance(classes.toArray(new Class[classes.size()]), null);
+            } catch (JAXBException e) {
+                //second attempt failed as well, rethrow the original exception
+                throw ex;
+            }
+        } finally {
+            BUILD_NANOS.addAndGet(System.nanoTime() - start);
+        }
+        return new CachedContextAndSchemas(context, classes);
+    }
+
+    /*
+     * Looks for a built context whose classes contain all the requested ones. Only
+     * the keys indexed under the least shared requested class need to be checked.
+     */
+    private static CachedContextAndSchemas findSuperset(Set<Type> classes) {
+        Set<Set<Type>> candidates = null;
+        for (Type type : classes) {
+            Set<Set<Type>> keys = CLASS_INDEX.get(type);
+            if (keys == null) {
+                return null;
+            }
+            if (candidates == null || keys.size() < candidates.size()) {
+                candidates = keys;
+            }
+        }
+        if (candidates == null) {
+            return null;
+        }
+        for (Set<Type> key : candidates) {
+            if (key.containsAll(classes)) {
+                CacheEntry entry = JAXBCONTEXT_CACHE.get(key);
+                CachedContextAndSchemas ready = entry == null ? null : entry.getIfReady();
+                if (ready != null) {
+                    entry.lastAccess = TICK.incrementAndGet();
+                    return ready;
                 }
-                if (context == null) {
-                    throw ex;
+            }
+        }
+        return null;
+    }
+
+    private static void index(CacheEntry entry) {
+        for (Type type : entry.key) {
+            Set<Set<Type>> keys = CLASS_INDEX.get(type);
+            if (keys == null) {
+                keys = Collections.newSetFromMap(new ConcurrentHashMap<Set<Type>, Boolean>());
+                Set<Set<Type>> old = CLASS_INDEX.putIfAbsent(type, keys);
+                if (old != null) {
+                    keys = old;
                 }
             }
-            cachedContextAndSchemas = new CachedContextAndSchemas(context, classes);
-            synchronized (JAXBCONTEXT_CACHE) {
-                if (typeRefs == null || typeRefs.isEmpty()) {
-                    JAXBCONTEXT_CACHE.put(classes, cachedContextAndSchemas);
+            keys.add(entry.key);
+        }
+        WEIGHT.addAndGet(entry.key.size());
+    }
+
+    private static void unindex(CacheEntry entry) {
+        for (Type type : entry.key) {
+            Set<Set<Type>> keys = CLASS_INDEX.get(type);
+            if (keys != null) {
+                keys.remove(entry.key);
+                if (keys.isEmpty()) {
+                    CLASS_INDEX.remove(type, keys);
                 }
             }
         }
+        WEIGHT.addAndGet(-entry.key.size());
+    }
 
-        return cachedContextAndSchemas;
+    /*
+     * Drops the least recently used finished entries until the size and weight
+     * limits are met again. Only the insertion path gets here, lookups stay lock free.
+     */
+    private static void evictIfNeeded(CacheEntry keep) {
+        if (JAXBCONTEXT_CACHE.size() <= maxSize && WEIGHT.get() <= maxWeight) {
+            return;
+        }
+        synchronized (EVICTION_LOCK) {
+            while (JAXBCONTEXT_CACHE.size() > maxSize || WEIGHT.get() > maxWeight) {
+                CacheEntry eldest = null;
+                for (CacheEntry e : JAXBCONTEXT_CACHE.values()) {
+                    if (e == keep || !e.task.isDone()) {
+                        continue;
+                    }
+                    if (eldest == null || e.lastAccess < eldest.lastAccess) {
+                        eldest = e;
+                    }
+                }
+                if (eldest == null) {
+                    return;
+                }
+                if (JAXBCONTEXT_CACHE.remove(eldest.key, eldest)) {
+                    unindex(eldest);
+                    EVICTIONS.incrementAndGet();
+                }
+            }
+        }
     }
     
     private static boolean checkObjectFactoryNamespaces(ClassEx clz) {
@@ -0,0 +1,245 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxbplus;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import jef.com.sun.xml.bind.v2.runtime.JAXBContextImpl;
+
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.jaxbplus.JAXBContextCache.CachedContextAndSchemas;
+
+/**
+ * One JAXB context shared by all the services of a group.
+ * <p>
+ * Services whose JAXBDataBinding is given the same group name (and which use the
+ * same target namespace, the default namespace of a context) share a single
+ * context built for the union of their classes, together with the schemas
+ * generated from it. Each service then carries the schemas of the whole group in
+ * its WSDL.
+ * <p>
+ * The union is best known before the first context is built: the class sets are
+ * collected by initializing the service models with
+ * {@link JAXBDataBinding#setCollectContextClasses(boolean)}, which walks the
+ * services without creating any context. A service which brings classes the
+ * current context does not know makes the group build a new context for the
+ * larger union; services initialized before keep the old one.
+ */
+public final class JAXBContextGroup {
+    private static final Logger LOG = LogUtils.getLogger(JAXBContextGroup.class);
+
+    private static final Map<String, JAXBContextGroup> GROUPS = new LinkedHashMap<String, JAXBContextGroup>();
+
+    private final String name;
+    private final String namespace;
+    private final Set<Type> classes = new LinkedHashSet<Type>();
+    private final List<Object> typeRefs = new ArrayList<Object>();
+
+    private CachedContextAndSchemas current;
+    private int members;
+    private long memberClasses;
+    private int builds;
+    private long buildMillis;
+
+    private JAXBContextGroup(String name, String namespace) {
+        this.name = name;
+        this.namespace = namespace;
+    }
+
+    /**
+     * Gets the group of the given name and target namespace, creating it if needed.
+     */
+    public static JAXBContextGroup getGroup(String name, String namespace) {
+        String key = name + '|' + namespace;
+        synchronized (GROUPS) {
+            JAXBContextGroup group = GROUPS.get(key);
+            if (group == null) {
+                group = new JAXBContextGroup(name, namespace);
+                GROUPS.put(key, group);
+            }
+            return group;
+        }
+    }
+
+    public static Collection<JAXBContextGroup> getGroups() {
+        synchronized (GROUPS) {
+            return new ArrayList<JAXBContextGroup>(GROUPS.values());
+        }
+    }
+
+    /**
+     * Drops all groups, the services keep the contexts they already use.
+     */
+    public static void clearGroups() {
+        synchronized (GROUPS) {
+            GROUPS.clear();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * Adds the classes of a service to the union, without building anything.
+     */
+    public synchronized void collect(Set<Type> serviceClasses, Collection<Object> serviceTypeRefs) {
+        classes.addAll(serviceClasses);
+        addTypeRefs(serviceTypeRefs);
+    }
+
+    /**
+     * Gets the shared context for a service, building it on the first request or
+     * when the service needs classes the current context was not built with.
+     */
+    public synchronized CachedContextAndSchemas getContextAndSchemas(JAXBDataBinding databinding,
+                                                                     Set<Type> serviceClasses,
+                                                                     Collection<Object> serviceTypeRefs)
+        throws JAXBException {
+        members++;
+        memberClasses += serviceClasses.size();
+        classes.addAll(serviceClasses);
+        addTypeRefs(serviceTypeRefs);
+        if (current != null && current.getClasses().containsAll(classes)) {
+            return current;
+        }
+        if (current != null) {
+            LOG.info("Rebuilding the shared JAXB context of group " + name
+                + ", the classes of a service were not collected beforehand.");
+        }
+        long start = System.currentTimeMillis();
+        Set<Type> union = new LinkedHashSet<Type>(classes);
+        CachedContextAndSchemas built = JAXBContextCache.getCachedContextAndSchemas(union, namespace,
+                                                                  databinding.getContextProperties(),
+                                                                  typeRefs, true);
+        buildMillis += System.currentTimeMillis() - start;
+        builds++;
+        if (built.getClasses() == null) {
+            built.setClasses(union);
+        }
+        current = built;
+        return current;
+    }
+
+    private void addTypeRefs(Collection<Object> refs) {
+        if (refs == null) {
+            return;
+        }
+        for (Object ref : refs) {
+            if (!typeRefs.contains(ref)) {
+                typeRefs.add(ref);
+            }
+        }
+    }
+
+    public synchronized JAXBContext getContext() {
+        return current == null ? null : current.getContext();
+    }
+
+    public synchronized Set<Type> getClasses() {
+        return Collections.unmodifiableSet(new LinkedHashSet<Type>(classes));
+    }
+
+    /**
+     * Number of services using the group.
+     */
+    public synchronized int getMemberCount() {
+        return members;
+    }
+
+    /**
+     * Number of contexts the group has built, 1 when all classes were collected.
+     */
+    public synchronized int getBuildCount() {
+        return builds;
+    }
+
+    /**
+     * Prints, for every group, the classes bound by the shared context against the
+     * classes separate contexts would have bound. Every class bound once instead of
+     * once per service is a bean info, with its accessors, loaders and names, that
+     * is not duplicated; the heap that amounts to is not measured. The build time
+     * saved is a rough estimate from what the shared builds took, assuming the cost
+     * of a context grows with the number of classes it binds.
+     */
+    public static void writeReport(Appendable out) throws IOException {
+        long totalSaved = 0;
+        for (JAXBContextGroup group : getGroups()) {
+            totalSaved += group.writeReportLine(out);
+        }
+        out.append("Class bindings saved by shared JAXB contexts: ")
+            .append(String.valueOf(totalSaved)).append("\n");
+    }
+
+    public static String getReport() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeReport(sb);
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+        }
+        return sb.toString();
+    }
+
+    private synchronized long writeReportLine(Appendable out) throws IOException {
+        int shared = classes.size();
+        long savedClasses = 0;
+        long savedMillis = 0;
+        if (shared > 0 && memberClasses > shared) {
+            savedClasses = memberClasses - shared;
+            savedMillis = buildMillis * savedClasses / shared;
+        }
+        out.append("group=").append(name)
+            .append(" namespace=").append(String.valueOf(namespace))
+            .append(" services=").append(String.valueOf(members))
+            .append(" contexts=").append(String.valueOf(builds))
+            .append(" classes=").append(String.valueOf(shared))
+            .append(" separateClasses=").append(String.valueOf(memberClasses));
+        JAXBContext ctx = getContext();
+        if (ctx instanceof JAXBContextImpl) {
+            JAXBContextImpl impl = (JAXBContextImpl)ctx;
+            out.append(" names=").append(String.valueOf(impl.getNumberOfLocalNames()));
+        }
+        out.append(" buildTime=").append(String.valueOf(buildMillis)).append("ms")
+            .append(" savedClasses=").append(String.valueOf(savedClasses))
+            .append(" roughlySavedTime=").append(String.valueOf(savedMillis)).append("ms\n");
+        return savedClasses;
+    }
+
+    public String toString() {
+        return "JAXBContextGroup[" + name + ", " + namespace + "]";
+    }
+}
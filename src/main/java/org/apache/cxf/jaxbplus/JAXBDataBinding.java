@@ -181,6 +181,14 @@ public class JAXBDataBinding extends AbstractDataBinding
 
     private boolean qualifiedSchemas;
 
+    private JAXBBridgeCache bridgeCache = new JAXBBridgeCache();
+
+    private int marshallerPoolSize = JAXBMarshallerPool.DEFAULT_MAX_IDLE;
+    private volatile JAXBMarshallerPool marshallerPool;
+    private int outputBufferSize;
+    private String contextGroup;
+    private boolean collectContextClasses;
+
     private ModCountCopyOnWriteArrayList<Interceptor<? extends Message>> in
         = new ModCountCopyOnWriteArrayList<Interceptor<? extends Message>>();
     private ModCountCopyOnWriteArrayList<Interceptor<? extends Message>> out
@@ -214,6 +222,86 @@ public class JAXBDataBinding extends AbstractDataBinding
 
     public final void setContext(JAXBContext ctx) {
         context = ctx;
+        marshallerPool = null;
+        // the bridges of the old context are not used any more
+        bridgeCache.clear();
+    }
+
+    /**
+     * Returns the pool of pre-configured Marshallers/Unmarshallers used by the
+     * DataReaders and DataWriters of this databinding.
+     * @return
+     */
+    public JAXBMarshallerPool getMarshallerPool() {
+        JAXBMarshallerPool pool = marshallerPool;
+        if (pool == null || pool.getContext() != context) {
+            pool = new JAXBMarshallerPool(this, marshallerPoolSize);
+            marshallerPool = pool;
+        }
+        return pool;
+    }
+
+    public int getMarshallerPoolSize() {
+        return marshallerPoolSize;
+    }
+
+    /**
+     * Sets how many idle Marshallers and Unmarshallers are kept each. 0 disables
+     * the pooling, a new instance is then configured for every message.
+     * @param size
+     */
+    public void setMarshallerPoolSize(int size) {
+        this.marshallerPoolSize = size;
+        marshallerPool = null;
+    }
+
+    public int getOutputBufferSize() {
+        return outputBufferSize;
+    }
+
+    /**
+     * Sets the size in bytes of the pooled buffer the Marshallers write through when
+     * the output is an OutputStream. Useful for large responses; 0 keeps the default
+     * of the JAXB runtime.
+     * @param size
+     */
+    public void setOutputBufferSize(int size) {
+        this.outputBufferSize = size;
+        marshallerPool = null;
+    }
+
+    public String getContextGroup() {
+        return contextGroup;
+    }
+
+    /**
+     * Makes the databinding use the JAXB context shared by all the services of the
+     * group with the same target namespace, see {@link JAXBContextGroup}. Null (the
+     * default) gives the service a context of its own.
+     * @param group
+     */
+    public void setContextGroup(String group) {
+        this.contextGroup = group;
+    }
+
+    public boolean isCollectContextClasses() {
+        return collectContextClasses;
+    }
+
+    /**
+     * When a context group is set, makes {@link #initialize(Service)} only add the
+     * classes of the service to the group instead of creating the context. The
+     * service model initialized this way is meant to be thrown away.
+     * @param collect
+     */
+    public void setCollectContextClasses(boolean collect) {
+        this.collectContextClasses = collect;
+    }
+
+    @Override
+    public void setNamespaceMap(Map<String, String> namespaceMap) {
+        super.setNamespaceMap(namespaceMap);
+        marshallerPool = null;
     }
 
     @SuppressWarnings("unchecked")
@@ -291,7 +379,17 @@ public class JAXBDataBinding extends AbstractDataBinding
         CachedContextAndSchemas cachedContextAndSchemas = null;
         JAXBContext ctx = null;
         try {
-            cachedContextAndSchemas = createJAXBContextAndSchemas(contextClasses, tns);
+            if (contextGroup != null) {
+                prepareContextClasses(contextClasses);
+                JAXBContextGroup group = JAXBContextGroup.getGroup(contextGroup, tns);
+                if (collectContextClasses) {
+                    group.collect(contextClasses, typeRefs);
+                    return;
+                }
+                cachedContextAndSchemas = group.getContextAndSchemas(this, contextClasses, typeRefs);
+            } else {
+                cachedContextAndSchemas = createJAXBContextAndSchemas(contextClasses, tns);
+            }
         } catch (JAXBException e1) {
             throw new ServiceConstructionException(e1);
         }
@@ -411,6 +509,19 @@ public class JAXBDataBinding extends AbstractDataBinding
     public CachedContextAndSchemas createJAXBContextAndSchemas(Set<Type> classes,
                                                                String defaultNs)
         throws JAXBException {
+        prepareContextClasses(classes);
+        return org.apache.cxf.jaxbplus.JAXBContextCache.getCachedContextAndSchemas(classes, defaultNs,  
+                                                          contextProperties, 
+                                                          typeRefs, true);
+
+    }
+
+
+    /*
+     * Adds the user extra classes, the ObjectFactories of the packages and the
+     * ws-addressing types to the classes of the context.
+     */
+    private void prepareContextClasses(Set<Type> classes) {
         //add user extra class into jaxb context
         if (extraClass != null && extraClass.length > 0) {
             for (Type clz : extraClass) {
@@ -419,14 +530,8 @@ public class JAXBDataBinding extends AbstractDataBinding
         }
         org.apache.cxf.jaxbplus.JAXBContextCache.scanPackages(classes);
         addWsAddressingTypes(classes);
-
-        return org.apache.cxf.jaxbplus.JAXBContextCache.getCachedContextAndSchemas(classes, defaultNs,  
-                                                          contextProperties, 
-                                                          typeRefs, true);
-
     }
 
-
     private void addWsAddressingTypes(Set<Type> classes) {
         if (classes.contains(ObjectFactory.class)) {
             // ws-addressing is used, lets add the specific types
@@ -488,6 +593,7 @@ public class JAXBDataBinding extends AbstractDataBinding
      */
     public void setMarshallerProperties(Map<String, Object> marshallerProperties) {
         this.marshallerProperties = marshallerProperties;
+        marshallerPool = null;
     }
 
 
@@ -511,6 +617,7 @@ public class JAXBDataBinding extends AbstractDataBinding
      */
     public void setUnmarshallerProperties(Map<String, Object> unmarshallerProperties) {
         this.unmarshallerProperties = unmarshallerProperties;
+        marshallerPool = null;
     }
 
     /**
@@ -527,6 +634,7 @@ public class JAXBDataBinding extends AbstractDataBinding
      */
     public void setUnmarshallerListener(Unmarshaller.Listener unmarshallerListener) {
         this.unmarshallerListener = unmarshallerListener;
+        marshallerPool = null;
     }
     /**
      * Returns the Marshaller.Listener that will be registered on the Marshallers
@@ -542,6 +650,7 @@ public class JAXBDataBinding extends AbstractDataBinding
      */
     public void setMarshallerListener(Marshaller.Listener marshallerListener) {
         this.marshallerListener = marshallerListener;
+        marshallerPool = null;
     }
 
 
@@ -551,9 +660,29 @@ public class JAXBDataBinding extends AbstractDataBinding
 
     public void setValidationEventHandler(ValidationEventHandler validationEventHandler) {
         this.validationEventHandler = validationEventHandler;
+        marshallerPool = null;
     }
 
 
+    /**
+     * Returns the cache of JAXB bridges used for RpcLit parts annotated with
+     * &#64;XmlList, &#64;XmlAttachmentRef or &#64;XmlJavaTypeAdapter. The hit and
+     * miss counters of the cache can be used to check it is effective.
+     * @return
+     */
+    public JAXBBridgeCache getBridgeCache() {
+        return bridgeCache;
+    }
+
+    /**
+     * Sets the maximum number of bridges kept by this databinding. The current
+     * cache content is discarded.
+     * @param size
+     */
+    public void setBridgeCacheSize(int size) {
+        this.bridgeCache = new JAXBBridgeCache(size);
+    }
+
     public boolean isUnwrapJAXBElement() {
         return unwrapJAXBElement;
     }
@@ -62,6 +62,9 @@ import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 import javax.xml.stream.util.StreamReaderDelegate;
 import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import jef.com.sun.xml.bind.v2.runtime.unmarshaller.ElementSink;
 
 import org.apache.cxf.common.i18n.Message;
 import org.apache.cxf.common.logging.LogUtils;
@@ -257,16 +260,29 @@ public final class JAXBEncoderDecoder {
             }
         }
     }
-    //TODO: cache the JAXBRIContext
     public static void marshalWithBridge(QName qname,
                                          Class<?> cls,
                                          Annotation anns[],
                                          Set<Type> ctxClasses,
                                          Object elValue,
                                          Object source, AttachmentMarshaller am) {
+        org.apache.cxf.jaxbplus.JAXBUtils.BridgeWrapper bridge;
         try {
-        	org.apache.cxf.jaxbplus.JAXBUtils.BridgeWrapper bridge = org.apache.cxf.jaxbplus.JAXBUtils.createBridge(ctxClasses, qname, cls, anns);
+            bridge = org.apache.cxf.jaxbplus.JAXBUtils.createBridge(ctxClasses, qname, cls, anns);
+        } catch (JAXBException ex) {
+            throw new Fault(new Message("MARSHAL_ERROR", LOG, ex.getMessage()), ex);
+        }
+        marshalWithBridge(bridge, elValue, source, am);
+    }
 
+    /**
+     * Marshals with a bridge obtained beforehand, typically from the
+     * {@link JAXBBridgeCache} of the databinding.
+     */
+    public static void marshalWithBridge(org.apache.cxf.jaxbplus.JAXBUtils.BridgeWrapper bridge,
+                                         Object elValue,
+                                         Object source, AttachmentMarshaller am) {
+        try {
             if (source instanceof XMLStreamWriter) {
                 bridge.marshal(elValue, (XMLStreamWriter)source, am);
             } else if (source instanceof OutputStream) {
@@ -294,17 +310,29 @@ public final class JAXBEncoderDecoder {
 
     }
     
-//  TODO: cache the JAXBRIContext
     public static Object unmarshalWithBridge(QName qname,
                                              Class<?> cls,
                                              Annotation anns[],
                                              Set<Type> ctxClasses,
                                              Object source,
                                              AttachmentUnmarshaller am) {
-        
+        org.apache.cxf.jaxbplus.JAXBUtils.BridgeWrapper bridge;
+        try {
+            bridge = org.apache.cxf.jaxbplus.JAXBUtils.createBridge(ctxClasses, qname, cls, anns);
+        } catch (JAXBException ex) {
+            throw new Fault(new Message("MARSHAL_ERROR", LOG, ex.getMessage()), ex);
+        }
+        return unmarshalWithBridge(bridge, source, am);
+    }
+
+    /**
+     * Unmarshals with a bridge obtained beforehand, typically from the
+     * {@link JAXBBridgeCache} of the databinding.
+     */
+    public static Object unmarshalWithBridge(org.apache.cxf.jaxbplus.JAXBUtils.BridgeWrapper bridge,
+                                             Object source,
+                                             AttachmentUnmarshaller am) {
         try {
-        	org.apache.cxf.jaxbplus.JAXBUtils.BridgeWrapper bridge = org.apache.cxf.jaxbplus.JAXBUtils.createBridge(ctxClasses, qname, cls, anns);
-           
             if (source instanceof XMLStreamReader) {
                 //DOMUtils.writeXml(StaxUtils.read((XMLStreamReader)source), System.out);
                 return bridge.unmarshal((XMLStreamReader)source, am);               
@@ -397,16 +425,15 @@ public final class JAXBEncoderDecoder {
         if (mObj == null) {
             return;
         }
-        Object objArray;
-        Class cls = null;
-        if (mObj instanceof List) {
-            List<?> l = (List)mObj;
-            objArray = l.toArray(new Object[l.size()]);
-            cls = null;
-        } else {
-            objArray = mObj;
-            cls = objArray.getClass().getComponentType();
+        if (mObj instanceof Iterable) {
+            // no copy, a lazily produced list is written while it is iterated
+            for (Object o : (Iterable<?>)mObj) {
+                writeObject(marshaller, source, new JAXBElement(mname, o.getClass(), o));
+            }
+            return;
         }
+        Object objArray = mObj;
+        Class cls = objArray.getClass().getComponentType();
         int len = Array.getLength(objArray);
         for (int x = 0; x < len; x++) {
             Object o = Array.get(objArray, x);
@@ -597,6 +624,7 @@ public final class JAXBEncoderDecoder {
                 // must read ourselves....
                 List<Object> ret = unmarshallArray(u, source, elName, clazz.getComponentType(),
                                                    createList(part));
+                ret = streamed(ret);
                 Object o = ret;
                 if (!isList(part)) {
                     if (isSet(part)) {
@@ -627,7 +655,7 @@ public final class JAXBEncoderDecoder {
         if (o != null && o.getClass().isArray() && isList(part)) {
             List<Object> ret = createList(part);
             ret.addAll(Arrays.asList((Object[])o));
-            o = ret;
+            o = streamed(ret);
         }
         return o;
     }
@@ -679,9 +707,25 @@ public final class JAXBEncoderDecoder {
     }
 
     private static List<Object> createList(MessagePartInfo part) {
+        ElementSink sink = ElementSink.get();
+        if (sink != null && sink.accepts(part)) {
+            return sink.asList();
+        }
         Type genericType = (Type)part.getProperty("generic.type");
         return createList(genericType); 
     }
+    /*
+     * The items of a list which went to the element sink are gone, the caller
+     * gets an empty list it can modify.
+     */
+    private static List<Object> streamed(List<Object> ret) {
+        ElementSink sink = ElementSink.get();
+        if (sink != null && ret == sink.asList()) {
+            return new ArrayList<Object>();
+        }
+        return ret;
+    }
+
     private static List<Object> createList(Type genericType) {
         if (genericType instanceof ParameterizedType) {
             Type tp2 = ((ParameterizedType)genericType).getRawType();
@@ -772,6 +816,10 @@ public final class JAXBEncoderDecoder {
             } else if (source instanceof XMLEventReader) {
                 obj = unmarshalWithClass ? u.unmarshal((XMLEventReader)source, clazz) : u
                     .unmarshal((XMLEventReader)source);
+            } else if (source instanceof InputStream) {
+                // parsed by the unmarshaller itself, see UnmarshallerImpl.UTF8_PARSER
+                StreamSource ss = new StreamSource((InputStream)source);
+                obj = unmarshalWithClass ? u.unmarshal(ss, clazz) : u.unmarshal(ss);
             } else {
                 throw new Fault(new Message("UNKNOWN_SOURCE", LOG, source.getClass().getName()));
             }
@@ -0,0 +1,237 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxbplus;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.PropertyException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.ValidationEventHandler;
+
+import jef.com.sun.xml.bind.v2.runtime.MarshallerImpl;
+
+import org.apache.cxf.common.logging.LogUtils;
+
+/**
+ * Pool of pre-configured Marshallers and Unmarshallers of a JAXBDataBinding.
+ * <p>
+ * Everything which is fixed for the databinding (encoding, fragment, listeners,
+ * namespace mapper and the marshaller/unmarshaller properties) is set once when the
+ * instance is created. The per-message state (schema, attachment marshaller and
+ * event handler) is set by the DataReader/DataWriter after {@code take} and cleared
+ * again by {@code recycle}, so a pooled instance never keeps a reference to a
+ * message.
+ * <p>
+ * The pool is dropped by the databinding whenever one of the settings above changes.
+ */
+public final class JAXBMarshallerPool {
+    public static final int DEFAULT_MAX_IDLE = 64;
+
+    private static final Logger LOG = LogUtils.getLogger(JAXBDataBinding.class);
+
+    private final JAXBDataBinding databinding;
+    private final JAXBContext context;
+    private final int maxIdle;
+
+    private final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<Marshaller>();
+    private final Queue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<Unmarshaller>();
+    private final AtomicInteger idleMarshallers = new AtomicInteger();
+    private final AtomicInteger idleUnmarshallers = new AtomicInteger();
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+
+    public JAXBMarshallerPool(JAXBDataBinding databinding, int maxIdle) {
+        this.databinding = databinding;
+        this.context = databinding.getContext();
+        this.maxIdle = maxIdle < 0 ? 0 : maxIdle;
+    }
+
+    public JAXBContext getContext() {
+        return context;
+    }
+
+    /**
+     * Gets a configured Marshaller, creating one if the pool is empty.
+     */
+    public Marshaller takeMarshaller() throws JAXBException {
+        Marshaller m = marshallers.poll();
+        if (m != null) {
+            idleMarshallers.decrementAndGet();
+            reused.incrementAndGet();
+            return m;
+        }
+        created.incrementAndGet();
+        return createMarshaller();
+    }
+
+    /**
+     * Clears the per-message state of the Marshaller and returns it to the pool.
+     */
+    public void recycle(Marshaller m) {
+        if (m == null) {
+            return;
+        }
+        try {
+            m.setAttachmentMarshaller(null);
+            m.setSchema(null);
+            m.setEventHandler(defaultHandler(m, databinding.getValidationEventHandler()));
+        } catch (JAXBException e) {
+            // cannot be reset safely, just drop it
+            return;
+        }
+        if (idleMarshallers.incrementAndGet() > maxIdle) {
+            idleMarshallers.decrementAndGet();
+            return;
+        }
+        marshallers.offer(m);
+    }
+
+    /**
+     * Gets a configured Unmarshaller, creating one if the pool is empty.
+     */
+    public Unmarshaller takeUnmarshaller() throws JAXBException {
+        Unmarshaller um = unmarshallers.poll();
+        if (um != null) {
+            idleUnmarshallers.decrementAndGet();
+            reused.incrementAndGet();
+            return um;
+        }
+        created.incrementAndGet();
+        return createUnmarshaller();
+    }
+
+    /**
+     * Clears the per-message state of the Unmarshaller and returns it to the pool.
+     */
+    public void recycle(Unmarshaller um) {
+        if (um == null) {
+            return;
+        }
+        try {
+            um.setAttachmentUnmarshaller(null);
+            um.setSchema(null);
+            um.setEventHandler(defaultHandler(um, null));
+        } catch (JAXBException e) {
+            return;
+        }
+        if (idleUnmarshallers.incrementAndGet() > maxIdle) {
+            idleUnmarshallers.decrementAndGet();
+            return;
+        }
+        unmarshallers.offer(um);
+    }
+
+    /**
+     * Number of Marshallers and Unmarshallers created so far.
+     */
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    /**
+     * Number of times a pooled instance was handed out instead of a new one.
+     */
+    public long getReusedCount() {
+        return reused.get();
+    }
+
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    public String toString() {
+        return "JAXBMarshallerPool[created=" + created.get() + ", reused=" + reused.get()
+            + ", idleMarshallers=" + idleMarshallers.get()
+            + ", idleUnmarshallers=" + idleUnmarshallers.get() + "]";
+    }
+
+    /*
+     * The RI marshallers and unmarshallers are their own default event handler,
+     * other implementations go back to the JAXB default with null.
+     */
+    private static ValidationEventHandler defaultHandler(Object o, ValidationEventHandler configured) {
+        if (configured != null) {
+            return configured;
+        }
+        if (o instanceof ValidationEventHandler) {
+            return (ValidationEventHandler)o;
+        }
+        return null;
+    }
+
+    private Marshaller createMarshaller() throws JAXBException {
+        Marshaller marshaller = context.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
+        marshaller.setListener(databinding.getMarshallerListener());
+        if (databinding.getValidationEventHandler() != null) {
+            marshaller.setEventHandler(databinding.getValidationEventHandler());
+        }
+
+        if (databinding.getOutputBufferSize() > 0 && marshaller instanceof MarshallerImpl) {
+            marshaller.setProperty(MarshallerImpl.OUTPUT_BUFFER_SIZE, databinding.getOutputBufferSize());
+        }
+
+        final Map<String, String> nspref = databinding.getDeclaredNamespaceMappings();
+        if (nspref != null) {
+            JAXBUtils.setNamespaceWrapper(nspref, marshaller);
+        }
+        if (databinding.getMarshallerProperties() != null) {
+            for (Map.Entry<String, Object> propEntry
+                : databinding.getMarshallerProperties().entrySet()) {
+                try {
+                    marshaller.setProperty(propEntry.getKey(), propEntry.getValue());
+                } catch (PropertyException pe) {
+                    LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
+                }
+            }
+        }
+        return marshaller;
+    }
+
+    private Unmarshaller createUnmarshaller() throws JAXBException {
+        Unmarshaller um = context.createUnmarshaller();
+        if (databinding.getUnmarshallerListener() != null) {
+            um.setListener(databinding.getUnmarshallerListener());
+        }
+        if (databinding.getUnmarshallerProperties() != null) {
+            for (Map.Entry<String, Object> propEntry
+                : databinding.getUnmarshallerProperties().entrySet()) {
+                try {
+                    um.setProperty(propEntry.getKey(), propEntry.getValue());
+                } catch (PropertyException pe) {
+                    LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
+                }
+            }
+        }
+        return um;
+    }
+}
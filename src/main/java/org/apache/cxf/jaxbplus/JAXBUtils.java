@@ -999,13 +999,24 @@ public final class JAXBUtils {
         String fullName();
     }
  
+    /*
+     * The generated namespace mapper has no input, only the generator version matters.
+     */
+    private static final String NAMESPACE_WRAPPER_SIGNATURE = "NamespaceMapperInternal";
+
     private static synchronized Object createNamespaceWrapper(Map<String, String> map) {
         ASMHelper helper = new ASMHelper();
         String className = "org.apache.cxf.jaxb.NamespaceMapperInternal";
         Class<?> cls = helper.findClass(className, JAXBUtils.class);
         if (cls == null) {
-            ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
-            cls = createNamespaceWrapperInternal(helper, cw);
+            byte cached[] = GeneratedClassCache.load(className, NAMESPACE_WRAPPER_SIGNATURE,
+                                                     JAXBUtils.class.getClassLoader());
+            if (cached != null) {
+                cls = helper.loadClass(className, getNamespaceWrapperLoaderClass(), cached);
+            } else {
+                ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+                cls = createNamespaceWrapperInternal(helper, cw);
+            }
         }
         try {
             return cls.getConstructor(Map.class).newInstance(map);
@@ -1102,8 +1113,13 @@ public final class JAXBUtils {
         cw.visitEnd();
 
         byte bts[] = cw.toByteArray();
+        GeneratedClassCache.store(className, NAMESPACE_WRAPPER_SIGNATURE, bts);
         
-        
+        return helper.loadClass(className,
+                                getNamespaceWrapperLoaderClass(), bts);
+    }
+
+    private static Class<?> getNamespaceWrapperLoaderClass() {
         Class<?> cls;
         try {
             cls = Class.forName("com.sun.xml.bind.api.JAXBRIContext");
@@ -1115,9 +1131,7 @@ public final class JAXBUtils {
                 cls = JAXBUtils.class;
             }
         }
-        
-        return helper.loadClass(className,
-                                cls, bts);
+        return cls;
     }
 
 	private static Label createLabel() {
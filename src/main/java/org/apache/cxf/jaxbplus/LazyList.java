@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxbplus;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * List return value of a service method whose items are produced while the
+ * response is written. The JAXB databinding iterates List parts and List
+ * properties without copying them first, so a service can return rows straight
+ * from a cursor:
+ * <pre>
+ * return new LazyList&lt;Order&gt;(cursor);
+ * </pre>
+ * The first {@link #iterator()} hands out the source itself, which is what the
+ * marshaller does, so the items are never held in memory. Any other read
+ * (size, get, contains, toString...) made before that copies the remaining
+ * items into the list, and later iterations walk the copy. Once the source has
+ * been handed out the items are gone and every further read throws
+ * IllegalStateException.
+ */
+public class LazyList<T> extends AbstractList<T> {
+    private Iterator<T> source;
+    private boolean streamed;
+    private final List<T> items = new ArrayList<T>();
+
+    public LazyList(Iterator<T> source) {
+        this.source = source;
+    }
+
+    public synchronized Iterator<T> iterator() {
+        if (source != null) {
+            Iterator<T> it = source;
+            source = null;
+            streamed = true;
+            return it;
+        }
+        return items().iterator();
+    }
+
+    public T get(int index) {
+        return items().get(index);
+    }
+
+    public int size() {
+        return items().size();
+    }
+
+    public synchronized boolean isEmpty() {
+        if (source != null) {
+            return !source.hasNext();
+        }
+        return items().isEmpty();
+    }
+
+    public boolean contains(Object o) {
+        return items().contains(o);
+    }
+
+    public boolean containsAll(Collection<?> c) {
+        return items().containsAll(c);
+    }
+
+    public Object[] toArray() {
+        return items().toArray();
+    }
+
+    public <E> E[] toArray(E[] a) {
+        return items().toArray(a);
+    }
+
+    public boolean equals(Object o) {
+        return o == this || items().equals(o);
+    }
+
+    public int hashCode() {
+        return items().hashCode();
+    }
+
+    public String toString() {
+        return items().toString();
+    }
+
+    /*
+     * The items read so far, the rest of the source is copied in first.
+     */
+    private synchronized List<T> items() {
+        if (streamed) {
+            throw new IllegalStateException("The items of the LazyList were already iterated");
+        }
+        if (source != null) {
+            while (source.hasNext()) {
+                items.add(source.next());
+            }
+            source = null;
+        }
+        return items;
+    }
+}
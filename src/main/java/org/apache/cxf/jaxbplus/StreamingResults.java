@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxbplus;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Streams the items of a List or array return value to a callback while the
+ * response is unmarshalled, so a large result never has to be held in memory as
+ * a whole:
+ * <pre>
+ * StreamingResults.forEach(new ElementHandler&lt;Order&gt;() {
+ *     public void handle(Order o) {
+ *         ...
+ *     }
+ * }, new Callable&lt;List&lt;Order&gt;&gt;() {
+ *     public List&lt;Order&gt; call() {
+ *         return client.findOrders(query);
+ *     }
+ * });
+ * </pre>
+ * The handler applies to the synchronous calls of JAXB databinding clients made
+ * by the callable on the current thread. Every item of a List or array part of the
+ * response (or of the List property of the response wrapper) goes to the handler
+ * and the call itself returns an empty list or array. Collections nested inside
+ * the items are unmarshalled as usual. Responses are read by the calling thread
+ * only once the whole message has arrived at the transport, so there is no lazy
+ * iterator view of a result: the callback is the streaming contract.
+ */
+public final class StreamingResults {
+    private static final ThreadLocal<ElementHandler<?>> HANDLER = new ThreadLocal<ElementHandler<?>>();
+
+    private StreamingResults() {
+        //utility class
+    }
+
+    /**
+     * Runs the call with the handler active and returns its (emptied) result.
+     */
+    public static <T, R> R forEach(ElementHandler<T> handler, Callable<R> call) throws Exception {
+        ElementHandler<?> old = HANDLER.get();
+        HANDLER.set(handler);
+        try {
+            return call.call();
+        } finally {
+            if (old == null) {
+                HANDLER.remove();
+            } else {
+                HANDLER.set(old);
+            }
+        }
+    }
+
+    /**
+     * The handler active on the current thread, or null.
+     */
+    public static ElementHandler<?> getHandler() {
+        return HANDLER.get();
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.cxf.jaxbplus;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.xml.bind.JAXBElement;
@@ -106,8 +107,17 @@ final class WrapperHelperCompiler extends ASMHelper {
                 return null;
             }
         }
-        
-        
+        String cacheSignature = computeCacheSignature();
+        byte cached[] = GeneratedClassCache.load(newClassName.replace('/', '.'), cacheSignature,
+                                                 wrapperType.getClassLoader());
+        if (cached != null) {
+            try {
+                Class<?> cl = loadClass(newClassName.replace('/', '.'), wrapperType, cached);
+                return WrapperHelper.class.cast(cl.newInstance());
+            } catch (Throwable e) {
+                return null;
+            }
+        }
         
         cw.visit(Opcodes.V1_5,
                  Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER,
@@ -132,6 +142,7 @@ final class WrapperHelperCompiler extends ASMHelper {
                 byte bt[] = cw.toByteArray();                
                 Class<?> cl = loadClass(newClassName.replace('/', '.'), wrapperType, bt);
                 Object o = cl.newInstance();
+                GeneratedClassCache.store(newClassName.replace('/', '.'), cacheSignature, bt);
                 return WrapperHelper.class.cast(o);
             }
         } catch (Throwable e) {
@@ -154,6 +165,21 @@ final class WrapperHelperCompiler extends ASMHelper {
         return b.toString();
     }
     
+    /*
+     * The helper bytecode depends on the accessors and the ObjectFactory, not only
+     * on the getters covered by computeSignature().
+     */
+    private String computeCacheSignature() {
+        StringBuilder b = new StringBuilder(computeSignature());
+        b.append('|').append(wrapperType.getName());
+        b.append('|').append(Arrays.toString(setMethods));
+        b.append('|').append(Arrays.toString(getMethods));
+        b.append('|').append(Arrays.toString(jaxbMethods));
+        b.append('|').append(Arrays.toString(fields));
+        b.append('|').append(objectFactory == null ? null : objectFactory.getClass().getName());
+        return b.toString();
+    }
+    
     private boolean addSignature() {
         String sig = computeSignature();
         jef.accelerator.asm.MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC,
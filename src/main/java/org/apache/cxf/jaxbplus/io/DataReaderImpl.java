@@ -20,12 +20,9 @@
 package org.apache.cxf.jaxbplus.io;
 
 import java.lang.annotation.Annotation;
-import java.util.Map;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.PropertyException;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.ValidationEvent;
 import javax.xml.bind.ValidationEventHandler;
@@ -33,15 +30,20 @@ import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 import javax.xml.namespace.QName;
 
 import jef.com.sun.xml.bind.v2.model.JefAdapters;
+import jef.com.sun.xml.bind.v2.runtime.unmarshaller.ElementSink;
 
 import org.apache.cxf.common.i18n.Message;
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.databinding.DataReader;
 import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.jaxb.JAXBDataBase;
+import org.apache.cxf.jaxbplus.ElementHandler;
 import org.apache.cxf.jaxbplus.JAXBDataBinding;
 import org.apache.cxf.jaxbplus.JAXBEncoderDecoder;
+import org.apache.cxf.jaxbplus.JAXBUtils.BridgeWrapper;
+import org.apache.cxf.jaxbplus.StreamingResults;
 import org.apache.cxf.message.MessageUtils;
+import org.apache.cxf.service.model.MessageInfo;
 import org.apache.cxf.service.model.MessagePartInfo;
 
 
@@ -105,24 +107,11 @@ public class DataReaderImpl<T> extends JAXBDataBase implements DataReader<T> {
     }
     private Unmarshaller createUnmarshaller() {
         try {
-            Unmarshaller um = null;
-            um = context.createUnmarshaller();
-            if (databinding.getUnmarshallerListener() != null) {
-                um.setListener(databinding.getUnmarshallerListener());
-            }
+            // listener and properties are applied by the pool, only the per-message state is set here
+            Unmarshaller um = databinding.getMarshallerPool().takeUnmarshaller();
             if (setEventHandler) {
                 um.setEventHandler(new WSUIDValidationHandler(veventHandler));
             }
-            if (databinding.getUnmarshallerProperties() != null) {
-                for (Map.Entry<String, Object> propEntry 
-                    : databinding.getUnmarshallerProperties().entrySet()) {
-                    try {
-                        um.setProperty(propEntry.getKey(), propEntry.getValue());
-                    } catch (PropertyException pe) {
-                        LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
-                    }
-                }
-            }
             um.setSchema(schema);
             um.setAttachmentUnmarshaller(getAttachmentUnmarshaller());
             return um;
@@ -150,26 +139,76 @@ public class DataReaderImpl<T> extends JAXBDataBase implements DataReader<T> {
             if (anns.length > 0) {
                 // RpcLit will use the JAXB Bridge to unmarshall part message when it is
                 // annotated with @XmlList,@XmlAttachmentRef,@XmlJavaTypeAdapter
-                // TODO:Cache the JAXBRIContext
                 QName qname = new QName(null, part.getConcreteName().getLocalPart());
-
-                return JAXBEncoderDecoder.unmarshalWithBridge(qname, 
-                                                              part.getTypeClass(), 
-                                                              anns, 
-                                                              databinding.getContextClasses(), 
+                BridgeWrapper bridge;
+                try {
+                    bridge = databinding.getBridgeCache().getBridge(databinding.getContext(),
+                                                                    qname,
+                                                                    part.getTypeClass(),
+                                                                    anns,
+                                                                    databinding.getContextClasses());
+                } catch (JAXBException ex) {
+                    throw new Fault(new Message("UNMARSHAL_ERROR", LOG, ex.getMessage()), ex);
+                }
+                return JAXBEncoderDecoder.unmarshalWithBridge(bridge, 
                                                               reader, 
                                                               getAttachmentUnmarshaller());
             }
         }
         
-        return JAXBEncoderDecoder.unmarshall(createUnmarshaller(), reader, part, 
-                                             unwrapJAXBElement);
+        Unmarshaller um = createUnmarshaller();
+        ElementSink sink = createSink(part);
+        if (sink != null) {
+            ElementSink.set(sink);
+        }
+        try {
+            return JAXBEncoderDecoder.unmarshall(um, reader, part, 
+                                                 unwrapJAXBElement);
+        } finally {
+            if (sink != null) {
+                ElementSink.set(null);
+            }
+            databinding.getMarshallerPool().recycle(um);
+        }
+    }
+
+    /*
+     * Items of the List/array parts of a response, or of the List properties of
+     * the response wrapper, go to the handler of StreamingResults.
+     */
+    private static ElementSink createSink(final MessagePartInfo part) {
+        final ElementHandler<?> handler = StreamingResults.getHandler();
+        if (handler == null || !(part.getMessageInfo() instanceof MessageInfo)
+            || ((MessageInfo)part.getMessageInfo()).getType() != MessageInfo.Type.OUTPUT) {
+            return null;
+        }
+        return new ElementSink() {
+            public boolean accepts(Object owner) {
+                return owner == part || (owner != null && owner.getClass() == part.getTypeClass());
+            }
+
+            @SuppressWarnings("unchecked")
+            public void add(Object item) {
+                try {
+                    ((ElementHandler<Object>)handler).handle(item);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new Fault(e);
+                }
+            }
+        };
     }
 
     public Object read(QName name, T input, Class<?> type) {
-        return JAXBEncoderDecoder.unmarshall(createUnmarshaller(), input,
-                                             name, type, 
-                                             unwrapJAXBElement);
+        Unmarshaller um = createUnmarshaller();
+        try {
+            return JAXBEncoderDecoder.unmarshall(um, input,
+                                                 name, type, 
+                                                 unwrapJAXBElement);
+        } finally {
+            databinding.getMarshallerPool().recycle(um);
+        }
     }
 
 }
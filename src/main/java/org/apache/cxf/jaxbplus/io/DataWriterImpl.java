@@ -23,13 +23,10 @@ package org.apache.cxf.jaxbplus.io;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
 import java.util.Collection;
-import java.util.Map;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
-import javax.xml.bind.PropertyException;
 import javax.xml.bind.ValidationEvent;
 import javax.xml.bind.ValidationEventHandler;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
@@ -47,7 +44,7 @@ import org.apache.cxf.jaxb.JAXBDataBase;
 import org.apache.cxf.jaxb.attachment.JAXBAttachmentMarshaller;
 import org.apache.cxf.jaxbplus.JAXBDataBinding;
 import org.apache.cxf.jaxbplus.JAXBEncoderDecoder;
-import org.apache.cxf.jaxbplus.JAXBUtils;
+import org.apache.cxf.jaxbplus.JAXBUtils.BridgeWrapper;
 import org.apache.cxf.service.model.MessagePartInfo;
 import org.apache.ws.commons.schema.XmlSchemaElement;
 
@@ -104,31 +101,8 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
         }
         Marshaller marshaller;
         try {
-            
-            marshaller = context.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
-            marshaller.setListener(databinding.getMarshallerListener());
-            if (databinding.getValidationEventHandler() != null) {
-                marshaller.setEventHandler(databinding.getValidationEventHandler());
-            }
-            
-            final Map<String, String> nspref = databinding.getDeclaredNamespaceMappings();
-            if (nspref != null) {
-                JAXBUtils.setNamespaceWrapper(nspref, marshaller);
-            }
-            if (databinding.getMarshallerProperties() != null) {
-                for (Map.Entry<String, Object> propEntry 
-                    : databinding.getMarshallerProperties().entrySet()) {
-                    try {
-                        marshaller.setProperty(propEntry.getKey(), propEntry.getValue());
-                    } catch (PropertyException pe) {
-                        LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
-                    }
-                }
-            }
-            
+            // static settings are applied by the pool, only the per-message state is set here
+            marshaller = databinding.getMarshallerPool().takeMarshaller();
             marshaller.setSchema(schema);
             AttachmentMarshaller atmarsh = getAttachmentMarshaller();
             marshaller.setAttachmentMarshaller(atmarsh);
@@ -151,6 +125,14 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
         }
         return marshaller;
     }
+
+    /**
+     * Hands a Marshaller obtained from {@link #createMarshaller(Object, MessagePartInfo)}
+     * back to the pool of the databinding.
+     */
+    public void releaseMarshaller(Marshaller marshaller) {
+        databinding.getMarshallerPool().recycle(marshaller);
+    }
     
     public void write(Object obj, MessagePartInfo part, T output) {
         boolean honorJaxbAnnotation = honorJAXBAnnotations(part);
@@ -165,10 +147,15 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
                 && part != null
                 && Boolean.TRUE.equals(part.getProperty(JAXBDataBinding.class.getName() 
                                                         + ".CUSTOM_EXCEPTION"))) {
-                JAXBEncoderDecoder.marshallException(createMarshaller(obj, part),
-                                                     (Exception)obj,
-                                                     part, 
-                                                     output);                
+                Marshaller marshaller = createMarshaller(obj, part);
+                try {
+                    JAXBEncoderDecoder.marshallException(marshaller,
+                                                         (Exception)obj,
+                                                         part, 
+                                                         output);
+                } finally {
+                    releaseMarshaller(marshaller);
+                }
             } else {
                 Annotation[] anns = getJAXBAnnotation(part);
                 XmlJavaTypeAdapter adapter=JefAdapters.get(part.getTypeClass());
@@ -177,25 +164,39 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
                 	honorJaxbAnnotation=true;
                 }
                 if (!honorJaxbAnnotation || anns.length == 0) {
-                    JAXBEncoderDecoder.marshall(createMarshaller(obj, part), obj, part, output);
+                    Marshaller marshaller = createMarshaller(obj, part);
+                    try {
+                        JAXBEncoderDecoder.marshall(marshaller, obj, part, output);
+                    } finally {
+                        releaseMarshaller(marshaller);
+                    }
                 } else if (honorJaxbAnnotation && anns.length > 0) {
                     //RpcLit will use the JAXB Bridge to marshall part message when it is 
                     //annotated with @XmlList,@XmlAttachmentRef,@XmlJavaTypeAdapter
-                    //TODO:Cache the JAXBRIContext
                     QName qname = new QName(null, part.getConcreteName().getLocalPart());
-                    
-                    JAXBEncoderDecoder.marshalWithBridge(qname,
-                                                         part.getTypeClass(),
-                                                         anns, 
-                                                         databinding.getContextClasses(), 
+                    BridgeWrapper bridge;
+                    try {
+                        bridge = databinding.getBridgeCache().getBridge(databinding.getContext(),
+                                                                        qname,
+                                                                        part.getTypeClass(),
+                                                                        anns,
+                                                                        databinding.getContextClasses());
+                    } catch (JAXBException ex) {
+                        throw new Fault(new Message("MARSHAL_ERROR", LOG, ex.getMessage()), ex);
+                    }
+                    JAXBEncoderDecoder.marshalWithBridge(bridge,
                                                          obj, 
                                                          output, 
                                                          getAttachmentMarshaller());
                 }
             }
         } else if (obj == null && needToRender(obj, part)) {
-            JAXBEncoderDecoder.marshallNullElement(createMarshaller(obj, part),
-                                                   output, part);
+            Marshaller marshaller = createMarshaller(obj, part);
+            try {
+                JAXBEncoderDecoder.marshallNullElement(marshaller, output, part);
+            } finally {
+                releaseMarshaller(marshaller);
+            }
         }
     }
 
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxws;
+
+import org.apache.cxf.common.util.ClassHelper;
+import org.apache.cxf.jaxws.support.CXFPlusServiceFactoryBean;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.factory.ReflectionServiceFactoryBean;
+
+/**
+ * JAX-WS server factory which can build the service model ahead of {@link #create()}.
+ * <p>
+ * {@link #prepareService()} runs the expensive part of the publication (service model,
+ * wrapper classes, JAXB context and schemas) without touching the bus registries, so
+ * several services can be prepared concurrently and then created one after the other.
+ */
+public class CXFPlusServerFactoryBean extends JaxWsServerFactoryBean {
+
+    public CXFPlusServerFactoryBean() {
+        super(new CXFPlusServiceFactoryBean());
+    }
+
+    /**
+     * Builds the service model, the same way {@link #create()} would. A later
+     * create() reuses it and only sets up the endpoint and the destination.
+     */
+    public Service prepareService() {
+        ReflectionServiceFactoryBean factory = getServiceFactory();
+        if (factory.getService() != null) {
+            return factory.getService();
+        }
+        configureServiceFactory();
+        return factory.create();
+    }
+
+    private void configureServiceFactory() {
+        ReflectionServiceFactoryBean factory = getServiceFactory();
+        if (getServiceBean() != null && getServiceClass() == null) {
+            setServiceClass(ClassHelper.getRealClass(getServiceBean()));
+        }
+        if (getInvoker() == null && getServiceBean() != null) {
+            setInvoker(createInvoker());
+        }
+        if (getInvoker() != null) {
+            factory.setInvoker(getInvoker());
+        }
+        factory.setFeatures(getFeatures());
+        if (getServiceName() != null) {
+            factory.setServiceName(getServiceName());
+        }
+        if (getEndpointName() != null) {
+            factory.setEndpointName(getEndpointName());
+        }
+        initializeServiceFactory();
+    }
+
+    /**
+     * Makes the service use the JAXB context shared by its group, see
+     * {@link org.apache.cxf.jaxbplus.JAXBContextGroup}.
+     */
+    public void setContextGroup(String group) {
+        ((CXFPlusServiceFactoryBean)getServiceFactory()).setContextGroup(group);
+    }
+
+    /**
+     * Adds the JAXB classes of the service to its context group without building
+     * a context. Only the interface, the wrapper classes and the class walk of the
+     * databinding are done, the rest of the service model is skipped, see
+     * {@link CXFPlusServiceFactoryBean#collectContextClasses()}.
+     */
+    public void collectContextClasses(String group) {
+        CXFPlusServiceFactoryBean factory = (CXFPlusServiceFactoryBean)getServiceFactory();
+        factory.setContextGroup(group);
+        configureServiceFactory();
+        factory.collectContextClasses();
+    }
+}
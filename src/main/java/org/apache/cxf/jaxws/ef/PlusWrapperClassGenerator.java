@@ -25,6 +25,7 @@ import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -47,6 +48,7 @@ import org.apache.cxf.common.util.ASMHelper;
 import org.apache.cxf.common.util.PackageUtils;
 import org.apache.cxf.common.util.StringUtils;
 import org.apache.cxf.helpers.JavaUtils;
+import org.apache.cxf.jaxbplus.GeneratedClassCache;
 import org.apache.cxf.jaxbplus.JAXBUtils;
 import org.apache.cxf.jaxws.WrapperClassGenerator;
 import org.apache.cxf.jaxws.support.CXFPlusServiceFactoryBean;
@@ -194,6 +196,14 @@ public final class PlusWrapperClassGenerator extends ASMHelper {
                 return;
             }
         }
+        String signature = computeSignature(messageInfo, method, wrapperElement, anonymous);
+        byte cached[] = GeneratedClassCache.load(className, signature, method.getDeclaringClass().getClassLoader());
+        if (cached != null) {
+            Class<?> clz = loadClass(className, method.getDeclaringClass(), cached);
+            wrapperPart.setTypeClass(clz);
+            wrapperBeans.add(clz);
+            return;
+        }
         String classFileName = periodToSlashes(className);
         cw.visit(jef.accelerator.asm.Opcodes.V1_5, jef.accelerator.asm.Opcodes.ACC_PUBLIC + jef.accelerator.asm.Opcodes.ACC_SUPER, classFileName, null,
                  "java/lang/Object", null);
@@ -236,11 +246,36 @@ public final class PlusWrapperClassGenerator extends ASMHelper {
 
         cw.visitEnd();
 
-        Class<?> clz = loadClass(className, method.getDeclaringClass(), cw.toByteArray());
+        byte bytes[] = cw.toByteArray();
+        Class<?> clz = loadClass(className, method.getDeclaringClass(), bytes);
+        GeneratedClassCache.store(className, signature, bytes);
         wrapperPart.setTypeClass(clz);
         wrapperBeans.add(clz);
     }
 
+    /*
+     * Everything the wrapper bytecode depends on, used as key of the persistent class cache.
+     */
+    private String computeSignature(MessageInfo messageInfo, Method method, QName wrapperElement, boolean anonymous) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(GeneratedClassCache.getInterfaceSignature(method.getDeclaringClass()));
+        sb.append('|').append(method.toGenericString());
+        sb.append('|').append(wrapperElement).append('|').append(anonymous);
+        for (MessagePartInfo mpi : messageInfo.getMessageParts()) {
+            sb.append('|').append(mpi.getName());
+            sb.append(',').append(mpi.getConcreteName());
+            sb.append(',').append(mpi.getTypeClass());
+            sb.append(',').append(mpi.getProperty(ReflectionServiceFactoryBean.RAW_CLASS));
+            sb.append(',').append(mpi.getProperty(ReflectionServiceFactoryBean.GENERIC_TYPE));
+            sb.append(',').append(mpi.getProperty(ReflectionServiceFactoryBean.HEADER));
+            sb.append(',').append(getJaxbAnnos(mpi));
+            sb.append(',').append(factory.isWrapperPartQualified(mpi));
+            sb.append(',').append(factory.isWrapperPartNillable(mpi));
+            sb.append(',').append(factory.getWrapperPartMinOccurs(mpi));
+        }
+        return sb.toString();
+    }
+
     private jef.accelerator.asm.ClassWriter createClassWriter1() {
 		return new jef.accelerator.asm.ClassWriter(jef.accelerator.asm.ClassWriter.COMPUTE_FRAMES|jef.accelerator.asm.ClassWriter.COMPUTE_MAXS);
 	}
@@ -260,6 +295,15 @@ public final class PlusWrapperClassGenerator extends ASMHelper {
         if (si != null) {
             q = si.isElementFormQualified();
         }
+        String signature = ns + "|" + q;
+        if (clz.getPackage() != null) {
+            signature += "|" + Arrays.toString(clz.getPackage().getAnnotations());
+        }
+        byte cached[] = GeneratedClassCache.load(className, signature, clz.getClassLoader());
+        if (cached != null) {
+            loadClass(className, clz, cached);
+            return;
+        }
         jef.accelerator.asm.AnnotationVisitor av0 = cw.visitAnnotation("Ljavax/xml/bind/annotation/XmlSchema;", true);
         av0.visit("namespace", ns);
         av0.visitEnum("elementFormDefault",
@@ -284,7 +328,9 @@ public final class PlusWrapperClassGenerator extends ASMHelper {
         }
         cw.visitEnd();
         
-        loadClass(className, clz, cw.toByteArray());
+        byte bytes[] = cw.toByteArray();
+        loadClass(className, clz, bytes);
+        GeneratedClassCache.store(className, signature, bytes);
     }
 
     private void generateXmlJavaTypeAdapters(jef.accelerator.asm.AnnotationVisitor av, XmlJavaTypeAdapters adapters) {
@@ -52,6 +52,7 @@ import org.apache.cxf.jaxbplus.JAXBDataBinding;
 import org.apache.cxf.jaxws.ef.PlusWrapperClassGenerator;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.resource.ResourceManager;
+import org.apache.cxf.service.ServiceImpl;
 import org.apache.cxf.service.factory.AbstractServiceConfiguration;
 import org.apache.cxf.service.factory.FactoryBeanListener.Event;
 import org.apache.cxf.service.factory.ReflectionServiceFactoryBean;
@@ -71,8 +72,62 @@ import org.apache.cxf.wsdl11.WSDLServiceBuilder;
 public class CXFPlusServiceFactoryBean extends org.apache.cxf.jaxws.support.JaxWsServiceFactoryBean {
     private boolean wrapperBeanGenerated;
     private Set<Class<?>> wrapperClasses;
+    private String contextGroup;
     private static final Logger LOG = LogUtils.getLogger(JaxWsServiceFactoryBean.class);
 
+    public String getContextGroup() {
+        return contextGroup;
+    }
+
+    /**
+     * Group of services sharing one JAXB context, see
+     * {@link org.apache.cxf.jaxbplus.JAXBContextGroup}. Applies to the default
+     * JAXB databinding only.
+     */
+    public void setContextGroup(String contextGroup) {
+        this.contextGroup = contextGroup;
+    }
+
+    /**
+     * Adds the JAXB classes of the service to its context group without building
+     * the service model, which needs the schemas of the context. Only the interface,
+     * the wrapper classes and the class walk of the default databinding are done,
+     * see {@link JAXBDataBinding#setCollectContextClasses(boolean)}. The partial
+     * model is dropped afterwards, a later {@link #create()} starts over.
+     */
+    public void collectContextClasses() {
+        if (contextGroup == null) {
+            throw new IllegalStateException("The service has no context group.");
+        }
+        reset();
+        try {
+            DataBinding db = getDataBinding();
+            if (!(db instanceof JAXBDataBinding) || ((JAXBDataBinding)db).getContextGroup() == null) {
+                return;
+            }
+            initializeServiceConfigurations();
+            ServiceInfo serviceInfo = new ServiceInfo();
+            setService(new ServiceImpl(serviceInfo));
+            setServiceProperties();
+            serviceInfo.setName(getServiceQName());
+            serviceInfo.setTargetNamespace(serviceInfo.getName().getNamespaceURI());
+            createInterface(serviceInfo);
+            Set<Class<?>> extraClasses = getExtraClass();
+            if (extraClasses != null && !extraClasses.isEmpty()) {
+                serviceInfo.setProperty(EXTRA_CLASS, extraClasses);
+            }
+            JAXBDataBinding jaxb = (JAXBDataBinding)db;
+            jaxb.setCollectContextClasses(true);
+            try {
+                jaxb.initialize(getService());
+            } finally {
+                jaxb.setCollectContextClasses(false);
+            }
+        } finally {
+            reset();
+        }
+    }
+
     @Override
     public void reset() {
         super.reset();
@@ -382,6 +437,7 @@ public class CXFPlusServiceFactoryBean extends org.apache.cxf.jaxws.support.JaxW
                 Type[] extraClass = (Type[])o;
                 db.setExtraClass(extraClass);
             }
+            db.setContextGroup(contextGroup);
             retVal = db;
         }
         return retVal;
@@ -1,11 +1,25 @@
 package org.easyframe.cxfplus;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.xml.namespace.QName;
 
 import jef.common.log.LogUtil;
@@ -15,16 +29,22 @@ import jef.tools.reflect.BeanUtils;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.BusFactory;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.endpoint.ServerLifeCycleManager;
 import org.apache.cxf.frontend.ServerFactoryBean;
 import org.apache.cxf.interceptor.LoggingInInterceptor;
 import org.apache.cxf.interceptor.LoggingOutInterceptor;
+import org.apache.cxf.jaxbplus.JAXBContextGroup;
 import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
 import org.apache.cxf.jaxrs.lifecycle.ResourceProvider;
 import org.apache.cxf.jaxrs.lifecycle.SingletonResourceProvider;
-import org.apache.cxf.jaxws.JaxWsServerFactoryBean;
-import org.apache.cxf.jaxws.support.CXFPlusServiceFactoryBean;
+import org.apache.cxf.jaxws.CXFPlusServerFactoryBean;
 import org.apache.cxf.service.factory.CXFPlusServiceBean;
 import org.apache.cxf.transport.servlet.CXFNonSpringServlet;
+import org.easyframe.cxfplus.batch.BatchProvider;
+import org.easyframe.cxfplus.metrics.MetricsFeature;
+import org.easyframe.cxfplus.metrics.MetricsRegistry;
+import org.easyframe.cxfplus.metrics.MetricsServlet;
 import org.easyframe.cxfplus.support.DefaultImpl;
 import org.easyframe.cxfplus.support.IWebService;
 import org.easyframe.cxfplus.support.ServiceDefinition;
@@ -33,6 +53,8 @@ import org.easyframe.cxfplus.support.ServiceProcessor;
 import org.easyframe.cxfplus.support.SpringServletServcieLookup;
 import org.easyframe.jaxrs.FastJSONProvider;
 import org.easyframe.jaxrs.IRestfulService;
+import org.easyframe.jaxws.interceptors.AsyncLogWriter;
+import org.easyframe.jaxws.interceptors.SamplingLoggingInInterceptor;
 import org.easyframe.jaxws.interceptors.TraceHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +74,39 @@ public class CXFPlusServlet extends CXFNonSpringServlet {
 	private ServiceProcessor serviceUtill;
 	private String httpPrefix="";
 	private boolean trace;
+	/**
+	 * 大于0时trace使用采样日志，每traceSample个请求记录一个，且只记录报文的前traceLimit字节
+	 */
+	private int traceSample;
+	private int traceLimit = SamplingLoggingInInterceptor.DEFAULT_LIMIT;
+	private String[] traceOperations;
+	private AsyncLogWriter logWriter;
+	/**
+	 * 是否记录各操作的耗时和报文大小，以及输出统计报告的路径
+	 */
+	private boolean metrics;
+	private String metricsPath;
+	/**
+	 * 是否为每个WebService发布批量调用服务(地址为服务地址加/batch)，并行执行批量调用的线程数，以及一个批量请求最多包含的调用数
+	 */
+	private boolean batch;
+	private int batchThreads;
+	private int batchMaxCalls = BatchProvider.DEFAULT_MAX_CALLS;
+	private ExecutorService batchExecutor;
+	/**
+	 * 缓存?wsdl和?xsd=的结果，服务重新发布时失效。init-param: wsdl-cache=true时启用
+	 */
+	private WsdlCache wsdlCache;
+	/**
+	 * 共享JAXB上下文：同一组(且命名空间相同)的服务使用一个JAXB上下文。
+	 * 分组格式为 组名=服务名模式|服务名模式,组名=...，未匹配的服务都在default组中
+	 */
+	private boolean sharedContext;
+	private Map<String, String[]> contextGroups = new LinkedHashMap<String, String[]>();
+	/**
+	 * 并行构建服务模型的线程数，小于等于1时按顺序发布
+	 */
+	private int publishThreads = 1;
 	
 	public String getRestBasePath() {
 		return restBasePath;
@@ -70,6 +125,7 @@ public class CXFPlusServlet extends CXFNonSpringServlet {
 	
 	private int restUseFastJson=1; //0 不使用 1 使用写 2 使用读写
 	private boolean restJsonWithClassname;
+	private boolean restJsonStreaming;
 	private String restBasePath="/rest";
 	private String[] restNamePattern;
 
@@ -87,6 +143,38 @@ public class CXFPlusServlet extends CXFNonSpringServlet {
 		super.init();
 	}
 
+	/*
+	 * 配置了metrics-path时，由这个Servlet直接输出统计报告。WSDL/XSD查询从缓存输出
+	 */
+	@Override
+	protected void invoke(HttpServletRequest request, HttpServletResponse response) throws ServletException {
+		if (metricsPath != null && metricsPath.equals(request.getPathInfo())) {
+			try {
+				MetricsServlet.writeReport(MetricsRegistry.getDefault(), response);
+			} catch (IOException e) {
+				throw new ServletException(e);
+			}
+			return;
+		}
+		if (wsdlCache != null && WsdlCache.isWsdlQuery(request)) {
+			try {
+				wsdlCache.service(request, response, new WsdlCache.Chain() {
+					public void invoke(HttpServletRequest req, HttpServletResponse resp) throws ServletException {
+						CXFPlusServlet.super.invoke(req, resp);
+					}
+				});
+			} catch (IOException e) {
+				throw new ServletException(e);
+			}
+			return;
+		}
+		super.invoke(request, response);
+	}
+
+	public WsdlCache getWsdlCache() {
+		return wsdlCache;
+	}
+
 	protected void loadBus(ServletConfig sc) {
 		super.loadBus(sc);
 		initLookup(sc);
@@ -95,6 +183,12 @@ public class CXFPlusServlet extends CXFNonSpringServlet {
 			return;
 		}
 		initParam(sc);
+		if (wsdlCache != null) {
+			ServerLifeCycleManager manager = getBus().getExtension(ServerLifeCycleManager.class);
+			if (manager != null) {
+				manager.registerListener(wsdlCache);
+			}
+		}
 		processWebservice();
 		processJaxRs();
 	}
@@ -148,9 +242,11 @@ public class CXFPlusServlet extends CXFNonSpringServlet {
 				}
 			}
 		}
-		//计算完成开始发布
+		//计算完成开始发布。所有资源共用一个JAX-RS服务，因此只能整体计时
 		if (!resProviders.isEmpty()) {
+			long start = System.currentTimeMillis();
 			doPublishRestful(resProviders);
+			log.info("{} Restful-Services published in {}ms.", resProviders.size(), System.currentTimeMillis() - start);
 		}
 	}
 
@@ -161,17 +257,124 @@ public class CXFPlusServlet extends CXFNonSpringServlet {
 		 * "jef.com.sun.xml.bind.v2.ContextFactory");
 		 */
 		log.debug("Start processing the WebServices.");
+		long start = System.currentTimeMillis();
+		List<ServiceDefinition> services = new ArrayList<ServiceDefinition>();
 		for (ServiceDefinition def : WSlookup.getServices()) {
 			if (def.getServiceClass() == null)
 				continue;
 			if (canPublish(def.getName(),wsNamePattern)) {
+				services.add(def);
+			}
+		}
+		if (sharedContext && !wsSimpleMode) {
+			collectContextClasses(services);
+		}
+		if (publishThreads > 1 && services.size() > 1 && !wsSimpleMode) {
+			publishParallel(services);
+		} else {
+			for (ServiceDefinition def : services) {
+				long begin = System.currentTimeMillis();
 				try {
 					doPublishWebservice(serviceUtill.processServiceDef(def));
+					log.info("Service {} published in {}ms.", def.getName(), System.currentTimeMillis() - begin);
 				} catch (Throwable e) {
 					this.log.error("The service " + def.getServiceClass() + " can not publish as a WebService.", e);
 				}
 			}
 		}
+		log.info("{} WebServices processed in {}ms.", services.size(), System.currentTimeMillis() - start);
+		if (sharedContext && !wsSimpleMode) {
+			log.info("Shared JAXB contexts:\n{}", JAXBContextGroup.getReport());
+		}
+	}
+
+	/*
+	 * 共享上下文的第一步：只生成接口和包装类，收集各组的JAXB类，不创建上下文，也不构建其余的服务模型。
+	 * 这样每个组在发布时只需要创建一次上下文和Schema
+	 */
+	private void collectContextClasses(List<ServiceDefinition> services) {
+		long start = System.currentTimeMillis();
+		for (ServiceDefinition def : services) {
+			try {
+				createJaxWsServerFactory(def).collectContextClasses(getContextGroup(def.getName()));
+			} catch (Throwable e) {
+				// 发布时会再次报告
+				log.debug("Can not collect the JAXB classes of " + def.getServiceClass(), e);
+			}
+		}
+		log.info("JAXB classes of {} WebServices collected in {}ms.", services.size(), System.currentTimeMillis() - start);
+	}
+
+	private String getContextGroup(String serviceName) {
+		for (Map.Entry<String, String[]> e : contextGroups.entrySet()) {
+			for (String key : e.getValue()) {
+				if (StringUtils.matches(serviceName, key, true)) {
+					return e.getKey();
+				}
+			}
+		}
+		return "default";
+	}
+
+	/*
+	 * 并行发布：各服务的模型、包装类、JAXB上下文和Schema在线程池中构建，
+	 * 然后按查找到的顺序依次在Bus上注册，保证发布顺序确定。
+	 */
+	private void publishParallel(List<ServiceDefinition> services) {
+		List<ServiceDefinition> defs = new ArrayList<ServiceDefinition>(services.size());
+		for (ServiceDefinition def : services) {
+			try {
+				// ServiceProcessor可能是用户实现，不保证线程安全，所以仍然顺序调用
+				defs.add(serviceUtill.processServiceDef(def));
+			} catch (Throwable e) {
+				this.log.error("The service " + def.getServiceClass() + " can not publish as a WebService.", e);
+				defs.add(null);
+			}
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(publishThreads, defs.size()), new PublishThreadFactory());
+		List<Future<Long>> builds = new ArrayList<Future<Long>>(defs.size());
+		List<CXFPlusServerFactoryBean> factories = new ArrayList<CXFPlusServerFactoryBean>(defs.size());
+		try {
+			for (ServiceDefinition def : defs) {
+				if (def == null) {
+					factories.add(null);
+					builds.add(null);
+					continue;
+				}
+				final CXFPlusServerFactoryBean sf = createJaxWsServerFactory(def);
+				factories.add(sf);
+				builds.add(pool.submit(new Callable<Long>() {
+					public Long call() {
+						long begin = System.currentTimeMillis();
+						sf.prepareService();
+						return System.currentTimeMillis() - begin;
+					}
+				}));
+			}
+			for (int i = 0; i < defs.size(); i++) {
+				ServiceDefinition def = defs.get(i);
+				if (def == null)
+					continue;
+				try {
+					long buildTime = builds.get(i).get();
+					long begin = System.currentTimeMillis();
+					Server server = factories.get(i).create();
+					publishBatch(factories.get(i), server);
+					LogUtil.show("Starting Webservice: " + factories.get(i).getAddress());
+					log.info("Service {} published, build {}ms, register {}ms.", new Object[] { def.getName(), buildTime, System.currentTimeMillis() - begin });
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					this.log.error("Publishing of the WebServices was interrupted.", e);
+					return;
+				} catch (ExecutionException e) {
+					this.log.error("The service " + def.getServiceClass() + " can not publish as a WebService.", e.getCause());
+				} catch (Throwable e) {
+					this.log.error("The service " + def.getServiceClass() + " can not publish as a WebService.", e);
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
 	}
 
 	public void initParam() {
@@ -184,6 +387,32 @@ public class CXFPlusServlet extends CXFNonSpringServlet {
 			this.wsSimpleMode=false;
 		}else{
 			this.trace = StringUtils.toBoolean(sc.getInitParameter("trace"), false);
+			this.traceSample = StringUtils.toInt(sc.getInitParameter("trace-sample"), 0);
+			this.traceLimit = StringUtils.toInt(sc.getInitParameter("trace-limit"), SamplingLoggingInInterceptor.DEFAULT_LIMIT);
+			this.traceOperations = StringUtils.split(sc.getInitParameter("trace-operations"), ',');
+			this.metrics = StringUtils.toBoolean(sc.getInitParameter("metrics"), false);
+			this.batch = StringUtils.toBoolean(sc.getInitParameter("batch"), false);
+			this.batchThreads = StringUtils.toInt(sc.getInitParameter("batch-threads"), 0);
+			this.batchMaxCalls = StringUtils.toInt(sc.getInitParameter("batch-max-calls"), BatchProvider.DEFAULT_MAX_CALLS);
+			String metricsPath = sc.getInitParameter("metrics-path");
+			if (StringUtils.isNotEmpty(metricsPath)) {
+				this.metricsPath = metricsPath;
+			}
+			this.publishThreads = StringUtils.toInt(sc.getInitParameter("publish-threads"), 1);
+			this.sharedContext = StringUtils.toBoolean(sc.getInitParameter("shared-context"), false);
+			String[] groups = StringUtils.split(sc.getInitParameter("shared-context-groups"), ',');
+			if (groups != null) {
+				for (String group : groups) {
+					int n = group.indexOf('=');
+					if (n > 0) {
+						contextGroups.put(group.substring(0, n).trim(), StringUtils.split(group.substring(n + 1).trim(), '|'));
+					}
+				}
+			}
+			if (StringUtils.toBoolean(sc.getInitParameter("wsdl-cache"), false)) {
+				this.wsdlCache = new WsdlCache();
+				this.wsdlCache.setGzip(StringUtils.toBoolean(sc.getInitParameter("wsdl-gzip"), true));
+			}
 			this.wsSimpleMode = StringUtils.toBoolean(sc.getInitParameter("simpleMode"), false);
 			this.wsNamePattern = StringUtils.split(sc.getInitParameter("ws-service-name"), ',');
 			
@@ -193,6 +422,7 @@ public class CXFPlusServlet extends CXFNonSpringServlet {
 			}
 			this.restUseFastJson=StringUtils.toInt(sc.getInitParameter("rest-use-fastjson"), 2);
 			this.restJsonWithClassname=StringUtils.toBoolean(sc.getInitParameter("rest-json-withclassname"), false);
+			this.restJsonStreaming=StringUtils.toBoolean(sc.getInitParameter("rest-json-streaming"), false);
 			this.restNamePattern = StringUtils.split(sc.getInitParameter("rest-service-name"), ',');
 		}
 		if (WSlookup instanceof SpringServletServcieLookup) {
@@ -244,22 +474,21 @@ public class CXFPlusServlet extends CXFNonSpringServlet {
 			sf.setServiceBean(serviceBean);
 			sf.setServiceName(new QName("http://" + StringUtils.join(packageName, ".") + "/", servName));
 			sf.setAddress(address);
+			if (this.metrics) {
+				sf.getFeatures().add(new MetricsFeature());
+			}
 			if (this.trace) {
-				sf.getInInterceptors().add(new LoggingInInterceptor());
-				sf.getOutInterceptors().add(new LoggingOutInterceptor());
+				if (traceSample > 0) {
+					sf.getInInterceptors().add(createSamplingInterceptor());
+				} else {
+					sf.getInInterceptors().add(new LoggingInInterceptor());
+					sf.getOutInterceptors().add(new LoggingOutInterceptor());
+				}
 			}
-			sf.create();
+			publishBatch(sf, sf.create());
 		} else {
-			JaxWsServerFactoryBean sf=new JaxWsServerFactoryBean(new CXFPlusServiceFactoryBean());
-			sf.setBus(getBus());
-			sf.setServiceBean(serviceBean);
-			sf.setServiceClass(serviceClass);
-			sf.setAddress(address);
-			sf.setServiceName(new QName("http://" + StringUtils.join(packageName, ".") + "/", servName));
-			if(trace){
-				sf.getHandlers().add(new TraceHandler());
-			}
-			sf.create();
+			CXFPlusServerFactoryBean sf = createJaxWsServerFactory(service);
+			publishBatch(sf, sf.create());
 			
 //			org.apache.cxf.jaxws.EndpointImpl epimpl = new org.apache.cxf.jaxws22.EndpointImpl(getBus(), serviceBean, new JaxWsServerFactoryBean(new CXFPlusServiceFactoryBean()));
 //			epimpl.setServiceName(new QName("http://" + StringUtils.join(packageName, ".") + "/", servName));
@@ -272,6 +501,119 @@ public class CXFPlusServlet extends CXFNonSpringServlet {
 		}
 	}
 	
+	private CXFPlusServerFactoryBean createJaxWsServerFactory(ServiceDefinition service) {
+		Class<?> serviceClass = service.getServiceClass();
+		String[] packageName = StringUtils.split(serviceClass.getPackage().getName(), ".");
+		ArrayUtils.reverse(packageName);
+		CXFPlusServerFactoryBean sf = new CXFPlusServerFactoryBean();
+		sf.setBus(getBus());
+		sf.setServiceBean(service.getServiceBean());
+		sf.setServiceClass(serviceClass);
+		sf.setAddress(httpPrefix + service.getPath());
+		sf.setServiceName(new QName("http://" + StringUtils.join(packageName, ".") + "/", serviceClass.getSimpleName()));
+		if (sharedContext) {
+			sf.setContextGroup(getContextGroup(service.getName()));
+		}
+		if (metrics) {
+			sf.getFeatures().add(new MetricsFeature());
+		}
+		if (trace) {
+			if (traceSample > 0) {
+				sf.getInInterceptors().add(createSamplingInterceptor());
+			} else {
+				sf.getHandlers().add(new TraceHandler());
+			}
+		}
+		return sf;
+	}
+
+	/*
+	 * 采样日志：不复制整个报文，格式化和输出在后台线程中完成
+	 */
+	private SamplingLoggingInInterceptor createSamplingInterceptor() {
+		SamplingLoggingInInterceptor interceptor = new SamplingLoggingInInterceptor();
+		interceptor.setWriter(getLogWriter());
+		interceptor.setSampleInterval(traceSample);
+		interceptor.setLimit(traceLimit);
+		if (traceOperations != null && traceOperations.length > 0) {
+			interceptor.setOperations(Arrays.asList(traceOperations));
+		}
+		return interceptor;
+	}
+
+	/*
+	 * 每个Servlet使用自己的日志线程，destroy时关闭，不影响同一ClassLoader中的其他Servlet
+	 */
+	private synchronized AsyncLogWriter getLogWriter() {
+		if (logWriter == null) {
+			logWriter = new AsyncLogWriter(AsyncLogWriter.DEFAULT_LOGGER, AsyncLogWriter.DEFAULT_CAPACITY);
+		}
+		return logWriter;
+	}
+
+	/*
+	 * 在服务地址加/batch上发布批量调用服务，参数和返回值使用目标服务的数据绑定，拦截器、Handler和Feature从目标服务复制
+	 */
+	private void publishBatch(ServerFactoryBean sf, Server server) {
+		if (!batch) {
+			return;
+		}
+		if (batchThreads > 0 && batchExecutor == null) {
+			batchExecutor = Executors.newFixedThreadPool(batchThreads, new PublishThreadFactory("cxf-plus-batch-"));
+		}
+		BatchProvider.publish(sf, server, batchExecutor, batchMaxCalls);
+		LogUtil.show("Starting batch Webservice: " + sf.getAddress() + "/batch");
+	}
+
+	@Override
+	public void destroy() {
+		if (batchExecutor != null) {
+			batchExecutor.shutdown();
+		}
+		// MetricsFeature注册的MBean引用了本应用的类，不注销会导致重新部署时ClassLoader无法回收
+		MetricsRegistry.getDefault().unregisterMBean();
+		// 共享的JAXB上下文同样引用了本应用的类
+		if (sharedContext) {
+			JAXBContextGroup.clearGroups();
+		}
+		AsyncLogWriter writer;
+		synchronized (this) {
+			writer = logWriter;
+			logWriter = null;
+		}
+		if (writer != null) {
+			writer.shutdown(1000);
+		}
+		super.destroy();
+	}
+
+	public int getPublishThreads() {
+		return publishThreads;
+	}
+
+	public void setPublishThreads(int publishThreads) {
+		this.publishThreads = publishThreads;
+	}
+
+	private static class PublishThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+		private final String prefix;
+
+		PublishThreadFactory() {
+			this("cxf-plus-publish-");
+		}
+
+		PublishThreadFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, prefix + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		}
+	}
+
 	private void doPublishRestful(Map<Class<?>, ResourceProvider> springResources) {
 		JAXRSServerFactoryBean sf = new JAXRSServerFactoryBean();
 		sf.setBus(getBus());
@@ -281,14 +623,19 @@ public class CXFPlusServlet extends CXFNonSpringServlet {
 			LogUtil.show("Publishing JAX-RS Service "+ e+" at "+ httpPrefix+restBasePath);
 		}
 		sf.setAddress(httpPrefix+restBasePath);
-		if(restUseFastJson==1){
-			sf.setProvider(new FastJSONProvider(false,restJsonWithClassname));
-		}else{
-			sf.setProvider(new FastJSONProvider(true,restJsonWithClassname));
+		FastJSONProvider json = new FastJSONProvider(restUseFastJson != 1, restJsonWithClassname);
+		json.setStreaming(restJsonStreaming);
+		sf.setProvider(json);
+		if (metrics) {
+			sf.getFeatures().add(new MetricsFeature());
 		}
 		if(trace){
-			sf.getInInterceptors().add(new LoggingInInterceptor());
-			sf.getOutInterceptors().add(new LoggingOutInterceptor());	
+			if (traceSample > 0) {
+				sf.getInInterceptors().add(createSamplingInterceptor());
+			} else {
+				sf.getInInterceptors().add(new LoggingInInterceptor());
+				sf.getOutInterceptors().add(new LoggingOutInterceptor());
+			}
 		}
 		sf.create();
 
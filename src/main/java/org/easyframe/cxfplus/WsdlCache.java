@@ -0,0 +1,413 @@
+package org.easyframe.cxfplus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.endpoint.ServerLifeCycleListener;
+
+/**
+ * ?wsdl、?xsd=和?wsdl=查询结果的缓存。
+ * <p>
+ * 每个文档第一次被请求时仍由CXF生成，生成的字节(和可选的gzip压缩结果)保存下来，之后的请求直接输出，
+ * 不再序列化DOM。响应带有强ETag，请求的If-None-Match匹配时返回304。
+ * <p>
+ * 缓存以服务路径加文档标识(wsdl、wsdl=名称或xsd=名称)为键，带其他参数的查询不缓存，因此缓存项数不超过发布的文档数。
+ * 文档中的地址是按请求的URL改写的，缓存项记录生成时请求的URL，以其他主机名或端口请求时重新生成并替换该项。
+ * 超过上限时淘汰最久未使用的文档。作为{@link ServerLifeCycleListener}注册到Bus上，服务重新发布或停止时，
+ * 只清除该服务地址的缓存。
+ */
+public class WsdlCache implements ServerLifeCycleListener {
+	/**
+	 * 缓存的文档数上限，超出后淘汰最久未使用的文档
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, WsdlCache.Entry> eldest) {
+			return size() > maxEntries;
+		}
+	};
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong notModified = new AtomicLong();
+	private boolean gzip = true;
+	private volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+
+	/**
+	 * 判断是否是WSDL/XSD查询
+	 */
+	public static boolean isWsdlQuery(HttpServletRequest request) {
+		if (!"GET".equals(request.getMethod())) {
+			return false;
+		}
+		String query = request.getQueryString();
+		if (query == null) {
+			return false;
+		}
+		query = query.toLowerCase();
+		return query.equals("wsdl") || query.startsWith("wsdl=") || query.startsWith("xsd=");
+	}
+
+	/**
+	 * 输出缓存的文档，未缓存时由chain生成并缓存。
+	 */
+	public void service(HttpServletRequest request, HttpServletResponse response, Chain chain) throws ServletException, IOException {
+		String document = getDocument(request.getQueryString());
+		if (document == null) {
+			chain.invoke(request, response);
+			return;
+		}
+		String key = request.getRequestURI() + '?' + document;
+		String url = request.getRequestURL().toString();
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+		}
+		if (entry == null || !entry.url.equals(url)) {
+			misses.incrementAndGet();
+			CapturingResponse capture = new CapturingResponse(response);
+			chain.invoke(request, capture);
+			if (!capture.isCacheable()) {
+				capture.flushTo(response);
+				return;
+			}
+			entry = new Entry(url, request.getRequestURI(), request.getPathInfo(), capture.getContentType(), capture.toByteArray(), gzip);
+			synchronized (entries) {
+				entries.put(key, entry);
+			}
+		} else {
+			hits.incrementAndGet();
+		}
+		write(entry, request, response);
+	}
+
+	/*
+	 * 查询对应的文档标识，只有一个wsdl、wsdl=或xsd=参数的查询才有标识
+	 */
+	private static String getDocument(String query) {
+		if (query == null || query.indexOf('&') >= 0) {
+			return null;
+		}
+		String lower = query.toLowerCase();
+		if (lower.equals("wsdl")) {
+			return "wsdl";
+		} else if (lower.startsWith("wsdl=")) {
+			return "wsdl=" + query.substring(5);
+		} else if (lower.startsWith("xsd=")) {
+			return "xsd=" + query.substring(4);
+		}
+		return null;
+	}
+
+	private void write(Entry entry, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		response.setHeader("ETag", entry.etag);
+		if (entry.gzipped != null) {
+			response.setHeader("Vary", "Accept-Encoding");
+		}
+		if (matches(request.getHeader("If-None-Match"), entry.etag)) {
+			notModified.incrementAndGet();
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		if (entry.contentType != null) {
+			response.setContentType(entry.contentType);
+		}
+		byte[] body = entry.bytes;
+		String accept = request.getHeader("Accept-Encoding");
+		if (entry.gzipped != null && accept != null && accept.toLowerCase().indexOf("gzip") >= 0) {
+			response.setHeader("Content-Encoding", "gzip");
+			body = entry.gzipped;
+		}
+		response.setContentLength(body.length);
+		ServletOutputStream out = response.getOutputStream();
+		out.write(body);
+		out.flush();
+	}
+
+	/*
+	 * If-None-Match可以是*或逗号分隔的多个ETag，比较时忽略弱标记W/
+	 */
+	private static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String tag : ifNoneMatch.split(",")) {
+			tag = tag.trim();
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if (tag.equals("*") || tag.equals(etag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 清除指定地址的缓存，地址可以是相对于CXF Servlet的(/path)也可以是完整的URL
+	 */
+	public void invalidate(String address) {
+		if (address == null) {
+			return;
+		}
+		String uri = null;
+		int n = address.indexOf("://");
+		if (n > 0) {
+			int slash = address.indexOf('/', n + 3);
+			uri = slash < 0 ? "/" : address.substring(slash);
+		}
+		synchronized (entries) {
+			for (Iterator<Entry> iter = entries.values().iterator(); iter.hasNext();) {
+				Entry entry = iter.next();
+				if (address.equals(entry.path) || entry.uri.equals(uri)) {
+					iter.remove();
+				}
+			}
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	public void startServer(Server server) {
+		invalidate(server.getEndpoint().getEndpointInfo().getAddress());
+	}
+
+	public void stopServer(Server server) {
+		invalidate(server.getEndpoint().getEndpointInfo().getAddress());
+	}
+
+	public boolean isGzip() {
+		return gzip;
+	}
+
+	/**
+	 * 是否同时缓存gzip压缩的结果，客户端支持时输出压缩后的文档。默认为true
+	 */
+	public void setGzip(boolean gzip) {
+		this.gzip = gzip;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public long getNotModifiedCount() {
+		return notModified.get();
+	}
+
+	@Override
+	public String toString() {
+		return "WsdlCache[size=" + size() + ", hits=" + hits.get() + ", misses=" + misses.get() + ", notModified=" + notModified.get() + "]";
+	}
+
+	/**
+	 * 生成文档的原始处理过程
+	 */
+	public interface Chain {
+		void invoke(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException;
+	}
+
+	/*
+	 * 不可变的缓存项
+	 */
+	private static final class Entry {
+		final String url;
+		final String uri;
+		final String path;
+		final String contentType;
+		final byte[] bytes;
+		final byte[] gzipped;
+		final String etag;
+
+		Entry(String url, String uri, String path, String contentType, byte[] bytes, boolean gzip) throws IOException {
+			this.url = url;
+			this.uri = uri;
+			this.path = path;
+			this.contentType = contentType;
+			this.bytes = bytes;
+			this.gzipped = gzip ? gzip(bytes) : null;
+			this.etag = '"' + digest(bytes) + '"';
+		}
+
+		private static byte[] gzip(byte[] bytes) throws IOException {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+			GZIPOutputStream gz = new GZIPOutputStream(out);
+			gz.write(bytes);
+			gz.close();
+			return out.toByteArray();
+		}
+
+		private static String digest(byte[] bytes) {
+			try {
+				byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+				StringBuilder sb = new StringBuilder(digest.length * 2);
+				for (byte b : digest) {
+					sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+					sb.append(Character.forDigit(b & 0xF, 16));
+				}
+				return sb.toString();
+			} catch (NoSuchAlgorithmException e) {
+				return Integer.toHexString(Arrays.hashCode(bytes)) + "-" + bytes.length;
+			}
+		}
+	}
+
+	/*
+	 * 把CXF输出的文档保存在内存中，只有状态为200且未出错的结果才会缓存
+	 */
+	private static final class CapturingResponse extends HttpServletResponseWrapper {
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+		private int status = SC_OK;
+		private boolean error;
+		private String contentType;
+		private ServletOutputStream out;
+		private PrintWriter writer;
+
+		CapturingResponse(HttpServletResponse response) {
+			super(response);
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() {
+			if (out == null) {
+				out = new ServletOutputStream() {
+					@Override
+					public void write(int b) {
+						buffer.write(b);
+					}
+
+					@Override
+					public void write(byte[] b, int off, int len) {
+						buffer.write(b, off, len);
+					}
+				};
+			}
+			return out;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (writer == null) {
+				String enc = getCharacterEncoding();
+				writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), enc == null ? "ISO-8859-1" : enc));
+			}
+			return writer;
+		}
+
+		@Override
+		public void flushBuffer() {
+			// 内容全部保存在内存中，由缓存统一输出
+		}
+
+		@Override
+		public void setContentType(String type) {
+			this.contentType = type;
+			super.setContentType(type);
+		}
+
+		@Override
+		public String getContentType() {
+			String type = super.getContentType();
+			return type == null ? contentType : type;
+		}
+
+		@Override
+		public void setStatus(int sc) {
+			this.status = sc;
+			super.setStatus(sc);
+		}
+
+		@Override
+		@SuppressWarnings("deprecation")
+		public void setStatus(int sc, String sm) {
+			this.status = sc;
+			super.setStatus(sc, sm);
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			this.error = true;
+			super.sendError(sc);
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			this.error = true;
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			this.error = true;
+			super.sendRedirect(location);
+		}
+
+		boolean isCacheable() {
+			if (writer != null) {
+				writer.flush();
+			}
+			return !error && status == SC_OK && buffer.size() > 0;
+		}
+
+		byte[] toByteArray() {
+			if (writer != null) {
+				writer.flush();
+			}
+			return buffer.toByteArray();
+		}
+
+		/*
+		 * 不缓存时原样输出
+		 */
+		void flushTo(HttpServletResponse response) throws IOException {
+			byte[] bytes = toByteArray();
+			if (bytes.length > 0 && !error) {
+				ServletOutputStream o = response.getOutputStream();
+				o.write(bytes);
+				o.flush();
+			}
+		}
+	}
+}
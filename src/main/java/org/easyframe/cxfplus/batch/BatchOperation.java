@@ -0,0 +1,150 @@
+package org.easyframe.cxfplus.batch;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.ws.Holder;
+
+import org.apache.cxf.databinding.DataReader;
+import org.apache.cxf.databinding.DataWriter;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.service.invoker.MethodDispatcher;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.service.model.MessageInfo;
+import org.apache.cxf.service.model.MessagePartInfo;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * 批量调用中的一个操作。参数和返回值按服务本身的数据绑定逐个part读写，和普通调用中wrapper元素的子元素格式相同，
+ * 因此Map、泛型等CXFPlusServiceBean支持的类型都可以使用。
+ * <p>
+ * 不支持Holder参数。
+ */
+final class BatchOperation {
+	public static final String NAMESPACE = "http://cxfplus.easyframe.org/batch";
+
+	private final String name;
+	private final Method method;
+	private final MessagePartInfo[] inParts;
+	private final MessagePartInfo returnPart;
+
+	private BatchOperation(String name, Method method, MessagePartInfo[] inParts, MessagePartInfo returnPart) {
+		this.name = name;
+		this.method = method;
+		this.inParts = inParts;
+		this.returnPart = returnPart;
+	}
+
+	/**
+	 * 按操作名查找，找不到或不支持时返回null
+	 */
+	static BatchOperation forName(Endpoint endpoint, String name) {
+		for (BindingOperationInfo bop : endpoint.getEndpointInfo().getBinding().getOperations()) {
+			if (bop.getName().getLocalPart().equals(name)) {
+				return create(endpoint, bop);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 按服务接口的方法查找，找不到或不支持时返回null
+	 */
+	static BatchOperation forMethod(Endpoint endpoint, Method method) {
+		MethodDispatcher dispatcher = (MethodDispatcher) endpoint.getService().get(MethodDispatcher.class.getName());
+		BindingOperationInfo bop = dispatcher == null ? null : dispatcher.getBindingOperation(method, endpoint);
+		return bop == null ? null : create(endpoint, bop);
+	}
+
+	private static BatchOperation create(Endpoint endpoint, BindingOperationInfo bop) {
+		MethodDispatcher dispatcher = (MethodDispatcher) endpoint.getService().get(MethodDispatcher.class.getName());
+		Method method = dispatcher == null ? null : dispatcher.getMethod(bop);
+		if (method == null || bop.getOperationInfo().isOneWay()) {
+			return null;
+		}
+		for (Class<?> type : method.getParameterTypes()) {
+			if (type == Holder.class) {
+				return null;
+			}
+		}
+		BindingOperationInfo op = bop.isUnwrappedCapable() ? bop.getUnwrappedOperation() : bop;
+		MessagePartInfo[] in = new MessagePartInfo[method.getParameterTypes().length];
+		MessageInfo input = op.getOperationInfo().getInput();
+		if (input != null) {
+			for (MessagePartInfo part : input.getMessageParts()) {
+				if (part.getIndex() >= 0 && part.getIndex() < in.length) {
+					in[part.getIndex()] = part;
+				}
+			}
+		}
+		MessagePartInfo ret = null;
+		MessageInfo output = op.getOperationInfo().getOutput();
+		if (output != null && method.getReturnType() != void.class) {
+			for (MessagePartInfo part : output.getMessageParts()) {
+				if (part.getIndex() == 0) {
+					ret = part;
+				}
+			}
+		}
+		return new BatchOperation(bop.getName().getLocalPart(), method, in, ret);
+	}
+
+	String getName() {
+		return name;
+	}
+
+	Method getMethod() {
+		return method;
+	}
+
+	void writeArguments(Object[] args, Element call, DataWriter<Node> writer) {
+		for (int i = 0; i < inParts.length; i++) {
+			if (inParts[i] != null && args != null && args[i] != null) {
+				writer.write(args[i], inParts[i], call);
+			}
+		}
+	}
+
+	Object[] readArguments(Element call, DataReader<Node> reader) {
+		Object[] args = new Object[inParts.length];
+		for (Element e : children(call)) {
+			for (int i = 0; i < inParts.length; i++) {
+				if (inParts[i] != null && inParts[i].getConcreteName().getLocalPart().equals(localName(e))) {
+					args[i] = reader.read(inParts[i], e);
+					break;
+				}
+			}
+		}
+		return args;
+	}
+
+	void writeResult(Object result, Element parent, DataWriter<Node> writer) {
+		if (returnPart != null && result != null) {
+			writer.write(result, returnPart, parent);
+		}
+	}
+
+	Object readResult(Element parent, DataReader<Node> reader) {
+		if (returnPart == null) {
+			return null;
+		}
+		List<Element> values = children(parent);
+		return values.isEmpty() ? null : reader.read(returnPart, values.get(0));
+	}
+
+	static List<Element> children(Element parent) {
+		List<Element> result = new ArrayList<Element>();
+		for (Node n = parent.getFirstChild(); n != null; n = n.getNextSibling()) {
+			if (n.getNodeType() == Node.ELEMENT_NODE) {
+				result.add((Element) n);
+			}
+		}
+		return result;
+	}
+
+	static String localName(Node n) {
+		return n.getLocalName() == null ? n.getNodeName() : n.getLocalName();
+	}
+}
@@ -0,0 +1,288 @@
+package org.easyframe.cxfplus.batch;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.ws.Provider;
+import javax.xml.ws.Service;
+import javax.xml.ws.ServiceMode;
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.WebServiceProvider;
+
+import org.apache.cxf.databinding.DataBinding;
+import org.apache.cxf.databinding.DataReader;
+import org.apache.cxf.databinding.DataWriter;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.frontend.ServerFactoryBean;
+import org.apache.cxf.interceptor.AnnotationInterceptors;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.jaxws.JaxWsServerFactoryBean;
+import org.apache.cxf.jaxws.support.JaxWsEndpointImpl;
+import org.apache.cxf.message.Message;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * 批量调用的服务端。
+ * <p>
+ * 一个请求中包含多个(操作, 参数)，依次(或在线程池中并行)调用服务对象，按顺序返回每个调用的结果或异常。报文格式：
+ * 
+ * <pre>
+ * &lt;batch xmlns="http://cxfplus.easyframe.org/batch" parallel="true"&gt;
+ *   &lt;call operation="echoOrder"&gt;...参数...&lt;/call&gt;
+ * &lt;/batch&gt;
+ * 
+ * &lt;batchResponse xmlns="http://cxfplus.easyframe.org/batch"&gt;
+ *   &lt;result&gt;...返回值...&lt;/result&gt;
+ *   &lt;fault type="java.lang.IllegalArgumentException"&gt;message&lt;/fault&gt;
+ * &lt;/batchResponse&gt;
+ * </pre>
+ * 
+ * 参数和返回值使用目标服务的数据绑定读写。批量服务由{@link #publish}发布，带有目标服务的全部拦截器、Handler和Feature
+ * (包括服务类上的注解声明的)，因此认证等检查对整个批量请求执行一次，和单个调用相同。服务对象是直接调用的，
+ * 按操作名授权的拦截器看到的是批量服务的操作，而不是每个调用的操作。
+ */
+@WebServiceProvider(serviceName = "BatchService", portName = "BatchPort", targetNamespace = BatchOperation.NAMESPACE)
+@ServiceMode(Service.Mode.PAYLOAD)
+public class BatchProvider implements Provider<DOMSource> {
+	private static final DocumentBuilderFactory DOCUMENTS = DocumentBuilderFactory.newInstance();
+	static {
+		DOCUMENTS.setNamespaceAware(true);
+	}
+
+	/**
+	 * 一个批量请求默认最多包含的调用数
+	 */
+	public static final int DEFAULT_MAX_CALLS = 256;
+
+	private final Endpoint endpoint;
+	private final Object serviceBean;
+	private final Executor executor;
+	private final int maxCalls;
+	private final ConcurrentHashMap<String, BatchOperation> operations = new ConcurrentHashMap<String, BatchOperation>();
+
+	/**
+	 * @param endpoint
+	 *            目标服务的Endpoint，提供服务模型和数据绑定
+	 * @param serviceBean
+	 *            目标服务对象
+	 * @param executor
+	 *            并行执行时使用的线程池，null表示总是顺序执行
+	 */
+	public BatchProvider(Endpoint endpoint, Object serviceBean, Executor executor) {
+		this(endpoint, serviceBean, executor, DEFAULT_MAX_CALLS);
+	}
+
+	/**
+	 * @param endpoint
+	 *            目标服务的Endpoint，提供服务模型和数据绑定
+	 * @param serviceBean
+	 *            目标服务对象
+	 * @param executor
+	 *            并行执行时使用的线程池，null表示总是顺序执行
+	 * @param maxCalls
+	 *            一个批量请求最多包含的调用数，超过时整个请求返回Fault
+	 */
+	public BatchProvider(Endpoint endpoint, Object serviceBean, Executor executor, int maxCalls) {
+		this.endpoint = endpoint;
+		this.serviceBean = serviceBean;
+		this.executor = executor;
+		this.maxCalls = maxCalls < 1 ? DEFAULT_MAX_CALLS : maxCalls;
+	}
+
+	/**
+	 * 在目标服务地址加/batch上发布批量调用服务。目标服务工厂上配置的拦截器、Handler、Feature以及服务类上注解声明的拦截器和Feature
+	 * 都复制到批量服务上，不能绕过目标服务的安全检查。
+	 * 
+	 * @param target
+	 *            发布目标服务的工厂
+	 * @param server
+	 *            目标服务
+	 * @param executor
+	 *            并行执行时使用的线程池，null表示总是顺序执行
+	 * @return 批量调用服务
+	 */
+	public static Server publish(ServerFactoryBean target, Server server, Executor executor) {
+		return publish(target, server, executor, DEFAULT_MAX_CALLS);
+	}
+
+	/**
+	 * 同{@link #publish(ServerFactoryBean, Server, Executor)}，可以指定一个批量请求最多包含的调用数。
+	 * 
+	 * @param maxCalls
+	 *            一个批量请求最多包含的调用数，超过时整个请求返回Fault
+	 */
+	public static Server publish(ServerFactoryBean target, Server server, Executor executor, int maxCalls) {
+		Object serviceBean = target.getServiceBean();
+		JaxWsServerFactoryBean bf = new JaxWsServerFactoryBean();
+		bf.setBus(target.getBus());
+		bf.setServiceClass(BatchProvider.class);
+		bf.setServiceBean(new BatchProvider(server.getEndpoint(), serviceBean, executor, maxCalls));
+		bf.setAddress(target.getAddress() + "/batch");
+		bf.getInInterceptors().addAll(target.getInInterceptors());
+		bf.getOutInterceptors().addAll(target.getOutInterceptors());
+		bf.getInFaultInterceptors().addAll(target.getInFaultInterceptors());
+		bf.getOutFaultInterceptors().addAll(target.getOutFaultInterceptors());
+		bf.getFeatures().addAll(target.getFeatures());
+
+		AnnotationInterceptors annotations = serviceBean == null ? new AnnotationInterceptors(target.getServiceClass()) : new AnnotationInterceptors(target.getServiceClass(), serviceBean.getClass());
+		addAll(bf.getInInterceptors(), annotations.getInInterceptors());
+		addAll(bf.getOutInterceptors(), annotations.getOutInterceptors());
+		addAll(bf.getInFaultInterceptors(), annotations.getInFaultInterceptors());
+		addAll(bf.getOutFaultInterceptors(), annotations.getOutFaultInterceptors());
+		if (annotations.getFeatures() != null) {
+			bf.getFeatures().addAll(annotations.getFeatures());
+		}
+		// 目标服务的Handler链，包括工厂上设置的和@HandlerChain声明的
+		if (server.getEndpoint() instanceof JaxWsEndpointImpl) {
+			bf.getHandlers().addAll(((JaxWsEndpointImpl) server.getEndpoint()).getJaxwsBinding().getHandlerChain());
+		}
+		return bf.create();
+	}
+
+	private static void addAll(List<Interceptor<? extends Message>> to, List<Interceptor<? extends Message>> from) {
+		if (from != null) {
+			to.addAll(from);
+		}
+	}
+
+	public DOMSource invoke(DOMSource request) {
+		Node node = request.getNode();
+		Element batch = node instanceof Document ? ((Document) node).getDocumentElement() : (Element) node;
+		if (batch == null || !"batch".equals(BatchOperation.localName(batch))) {
+			throw new WebServiceException("The request is not a batch.");
+		}
+		List<Element> calls = BatchOperation.children(batch);
+		int size = calls.size();
+		// 在读取任何参数之前拒绝过大的请求
+		if (size > maxCalls) {
+			throw new WebServiceException("The batch contains " + size + " calls, at most " + maxCalls + " allowed.");
+		}
+		DataBinding binding = endpoint.getService().getDataBinding();
+		DataReader<Node> reader = binding.createReader(Node.class);
+		BatchOperation[] ops = new BatchOperation[size];
+		Object[][] args = new Object[size][];
+		Object[] results = new Object[size];
+		Throwable[] errors = new Throwable[size];
+
+		// 读取参数需要访问请求的DOM，在当前线程中完成
+		for (int i = 0; i < size; i++) {
+			Element call = calls.get(i);
+			ops[i] = getOperation(call.getAttribute("operation"));
+			if (ops[i] == null) {
+				errors[i] = new UnsupportedOperationException("Operation " + call.getAttribute("operation") + " can not be invoked in a batch.");
+				continue;
+			}
+			try {
+				args[i] = ops[i].readArguments(call, reader);
+			} catch (RuntimeException e) {
+				errors[i] = e;
+			}
+		}
+		if (executor != null && size > 1 && "true".equals(batch.getAttribute("parallel"))) {
+			invokeParallel(ops, args, results, errors);
+		} else {
+			for (int i = 0; i < size; i++) {
+				if (errors[i] == null) {
+					invoke(ops[i], args[i], results, errors, i);
+				}
+			}
+		}
+		return new DOMSource(writeResponse(binding, ops, results, errors));
+	}
+
+	private BatchOperation getOperation(String name) {
+		BatchOperation op = operations.get(name);
+		if (op == null) {
+			op = BatchOperation.forName(endpoint, name);
+			if (op != null) {
+				operations.put(name, op);
+			}
+		}
+		return op;
+	}
+
+	private void invokeParallel(final BatchOperation[] ops, final Object[][] args, final Object[] results, final Throwable[] errors) {
+		final CountDownLatch latch = new CountDownLatch(ops.length);
+		for (int i = 0; i < ops.length; i++) {
+			if (errors[i] != null) {
+				latch.countDown();
+				continue;
+			}
+			final int index = i;
+			Runnable task = new Runnable() {
+				public void run() {
+					try {
+						invoke(ops[index], args[index], results, errors, index);
+					} finally {
+						latch.countDown();
+					}
+				}
+			};
+			try {
+				executor.execute(task);
+			} catch (RejectedExecutionException e) {
+				task.run();
+			}
+		}
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new WebServiceException(e);
+		}
+	}
+
+	private void invoke(BatchOperation op, Object[] args, Object[] results, Throwable[] errors, int index) {
+		try {
+			results[index] = op.getMethod().invoke(serviceBean, args);
+		} catch (InvocationTargetException e) {
+			errors[index] = e.getTargetException();
+		} catch (Throwable t) {
+			errors[index] = t;
+		}
+	}
+
+	private Document writeResponse(DataBinding binding, BatchOperation[] ops, Object[] results, Throwable[] errors) {
+		Document doc;
+		try {
+			synchronized (DOCUMENTS) {
+				doc = DOCUMENTS.newDocumentBuilder().newDocument();
+			}
+		} catch (ParserConfigurationException e) {
+			throw new WebServiceException(e);
+		}
+		DataWriter<Node> writer = binding.createWriter(Node.class);
+		Element root = doc.createElementNS(BatchOperation.NAMESPACE, "batchResponse");
+		doc.appendChild(root);
+		for (int i = 0; i < ops.length; i++) {
+			if (errors[i] == null) {
+				Element result = doc.createElementNS(BatchOperation.NAMESPACE, "result");
+				root.appendChild(result);
+				try {
+					ops[i].writeResult(results[i], result, writer);
+					continue;
+				} catch (RuntimeException e) {
+					root.removeChild(result);
+					errors[i] = e;
+				}
+			}
+			Element fault = doc.createElementNS(BatchOperation.NAMESPACE, "fault");
+			fault.setAttribute("type", errors[i].getClass().getName());
+			if (errors[i].getMessage() != null) {
+				fault.setTextContent(errors[i].getMessage());
+			}
+			root.appendChild(fault);
+		}
+		return doc;
+	}
+}
@@ -0,0 +1,305 @@
+package org.easyframe.cxfplus.batch;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.ws.BindingProvider;
+import javax.xml.ws.Dispatch;
+import javax.xml.ws.Service;
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.soap.SOAPBinding;
+
+import org.apache.cxf.databinding.DataBinding;
+import org.apache.cxf.databinding.DataReader;
+import org.apache.cxf.databinding.DataWriter;
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.jaxws.DispatchImpl;
+import org.easyframe.cxfplus.client.ClientFuture;
+import org.easyframe.cxfplus.client.ConnectionSettings;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * 合并调用的客户端代理。
+ * <p>
+ * 在一个时间窗口内各线程发出的调用合并为一个批量请求发送到服务端的{@link BatchProvider}，调用方线程阻塞直到自己的结果返回。
+ * 窗口内第一个调用的线程负责等待窗口结束并发送请求，不需要额外的线程。窗口内只有一个调用时直接使用普通代理。
+ * 调用时没有其他调用正在进行(包括等待结果的)时不等待窗口，立即使用普通代理发送，因此只有一个线程调用时不会增加延迟；
+ * 有并发调用时第一个调用才等待窗口，这部分调用最多增加windowMillis的延迟。
+ */
+public final class BatchingProxy implements InvocationHandler {
+	private static final DocumentBuilderFactory DOCUMENTS = DocumentBuilderFactory.newInstance();
+	static {
+		DOCUMENTS.setNamespaceAware(true);
+	}
+
+	private final Object target;
+	private final Endpoint endpoint;
+	private final Dispatch<DOMSource> dispatch;
+	private final long windowMillis;
+	private final int maxBatch;
+	private final boolean parallel;
+	private final Map<Method, BatchOperation> operations = new ConcurrentHashMap<Method, BatchOperation>();
+
+	private final Object lock = new Object();
+	private List<PendingCall> pending = new ArrayList<PendingCall>();
+	/*
+	 * 已进入invoke还没有返回的调用数
+	 */
+	private int active;
+
+	private BatchingProxy(Object target, Endpoint endpoint, Dispatch<DOMSource> dispatch, long windowMillis, int maxBatch, boolean parallel) {
+		this.target = target;
+		this.endpoint = endpoint;
+		this.dispatch = dispatch;
+		this.windowMillis = windowMillis;
+		this.maxBatch = maxBatch < 2 ? 2 : maxBatch;
+		this.parallel = parallel;
+	}
+
+	/**
+	 * @param target
+	 *            普通的客户端代理
+	 * @param client
+	 *            代理对应的CXF客户端
+	 * @param batchAddress
+	 *            服务端批量调用的地址
+	 * @param windowMillis
+	 *            合并调用的时间窗口。只在有其他调用正在进行时等待，最多增加这么多的延迟
+	 * @param maxBatch
+	 *            一个批量请求最多包含的调用数，达到后立即发送
+	 * @param parallel
+	 *            是否要求服务端并行执行
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T create(T target, Client client, Class<T> serviceInterface, String batchAddress, long windowMillis, int maxBatch, boolean parallel, ConnectionSettings connection) {
+		QName serviceName = new QName(BatchOperation.NAMESPACE, "BatchService");
+		QName portName = new QName(BatchOperation.NAMESPACE, "BatchPort");
+		Service service = Service.create(serviceName);
+		service.addPort(portName, SOAPBinding.SOAP11HTTP_BINDING, batchAddress);
+		Dispatch<DOMSource> dispatch = service.createDispatch(portName, DOMSource.class, Service.Mode.PAYLOAD);
+		dispatch.getRequestContext().put("thread.local.request.context", "true");
+		if (connection != null && dispatch instanceof DispatchImpl) {
+			connection.apply(((DispatchImpl<?>) dispatch).getClient().getConduit());
+		}
+		BatchingProxy handler = new BatchingProxy(target, client.getEndpoint(), dispatch, windowMillis, maxBatch, parallel);
+		return (T) Proxy.newProxyInstance(serviceInterface.getClassLoader(), new Class<?>[] { serviceInterface }, handler);
+	}
+
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		if (method.getDeclaringClass() == Object.class) {
+			return invokeObjectMethod(proxy, method, args);
+		}
+		BatchOperation op = getOperation(method);
+		if (op == null) {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		}
+		PendingCall call = new PendingCall(op, args);
+		boolean leader;
+		List<PendingCall> batch = null;
+		synchronized (lock) {
+			active++;
+			pending.add(call);
+			leader = pending.size() == 1;
+			if (leader && active == 1) {
+				// 没有其他调用正在进行，不值得等待窗口
+				batch = pending;
+				pending = new ArrayList<PendingCall>();
+			} else if (pending.size() >= maxBatch) {
+				lock.notifyAll();
+			}
+		}
+		boolean interrupted = false;
+		try {
+			if (leader) {
+				if (batch == null) {
+					synchronized (lock) {
+						long deadline = System.currentTimeMillis() + windowMillis;
+						long remaining = windowMillis;
+						while (pending.size() < maxBatch && remaining > 0) {
+							try {
+								lock.wait(remaining);
+							} catch (InterruptedException e) {
+								// 窗口内其他线程在等待这个批量请求，立即发送，返回前再恢复中断状态
+								interrupted = true;
+								break;
+							}
+							remaining = deadline - System.currentTimeMillis();
+						}
+						batch = pending;
+						pending = new ArrayList<PendingCall>();
+					}
+				}
+				send(batch);
+			}
+			try {
+				return call.future.get();
+			} catch (InterruptedException e) {
+				interrupted = true;
+				throw new WebServiceException("Interrupted while waiting for the batch response.", e);
+			} catch (ExecutionException e) {
+				throw unwrap(method, e.getCause());
+			}
+		} finally {
+			synchronized (lock) {
+				active--;
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private BatchOperation getOperation(Method method) {
+		BatchOperation op = operations.get(method);
+		if (op == null) {
+			op = BatchOperation.forMethod(endpoint, method);
+			if (op != null) {
+				operations.put(method, op);
+			}
+		}
+		return op;
+	}
+
+	private void send(List<PendingCall> batch) {
+		if (batch.size() == 1) {
+			PendingCall call = batch.get(0);
+			try {
+				call.future.set(call.op.getMethod().invoke(target, call.args));
+			} catch (InvocationTargetException e) {
+				call.future.setException(e.getTargetException());
+			} catch (Throwable t) {
+				call.future.setException(t);
+			}
+			return;
+		}
+		try {
+			DataBinding binding = endpoint.getService().getDataBinding();
+			Document doc = newDocument();
+			Element root = doc.createElementNS(BatchOperation.NAMESPACE, "batch");
+			if (parallel) {
+				root.setAttribute("parallel", "true");
+			}
+			doc.appendChild(root);
+			DataWriter<Node> writer = binding.createWriter(Node.class);
+			for (PendingCall call : batch) {
+				Element e = doc.createElementNS(BatchOperation.NAMESPACE, "call");
+				e.setAttribute("operation", call.op.getName());
+				root.appendChild(e);
+				call.op.writeArguments(call.args, e, writer);
+			}
+			Element response = toElement(dispatch.invoke(new DOMSource(doc)));
+			List<Element> results = BatchOperation.children(response);
+			if (results.size() != batch.size()) {
+				throw new WebServiceException("The batch response contains " + results.size() + " results, " + batch.size() + " expected.");
+			}
+			DataReader<Node> reader = binding.createReader(Node.class);
+			for (int i = 0; i < results.size(); i++) {
+				PendingCall call = batch.get(i);
+				Element result = results.get(i);
+				try {
+					if ("fault".equals(BatchOperation.localName(result))) {
+						call.future.setException(createFault(call.op.getMethod(), result));
+					} else {
+						call.future.set(call.op.readResult(result, reader));
+					}
+				} catch (RuntimeException e) {
+					call.future.setException(e);
+				}
+			}
+		} catch (Throwable t) {
+			for (PendingCall call : batch) {
+				call.future.setException(t);
+			}
+		}
+	}
+
+	private static Document newDocument() throws ParserConfigurationException {
+		synchronized (DOCUMENTS) {
+			return DOCUMENTS.newDocumentBuilder().newDocument();
+		}
+	}
+
+	private static Element toElement(DOMSource source) throws TransformerException {
+		Node node = source.getNode();
+		if (node == null) {
+			DOMResult result = new DOMResult();
+			TransformerFactory.newInstance().newTransformer().transform(source, result);
+			node = result.getNode();
+		}
+		return node instanceof Document ? ((Document) node).getDocumentElement() : (Element) node;
+	}
+
+	/*
+	 * 方法声明了该异常并且有(String)构造时还原为原异常，否则作为WebServiceException抛出
+	 */
+	private static Throwable createFault(Method method, Element fault) {
+		String type = fault.getAttribute("type");
+		String message = fault.getTextContent();
+		for (Class<?> declared : method.getExceptionTypes()) {
+			if (declared.getName().equals(type)) {
+				try {
+					return (Throwable) declared.getConstructor(String.class).newInstance(message);
+				} catch (Exception e) {
+					break;
+				}
+			}
+		}
+		return new WebServiceException(type + ": " + message);
+	}
+
+	private static Throwable unwrap(Method method, Throwable t) {
+		if (t instanceof RuntimeException || t instanceof Error) {
+			return t;
+		}
+		for (Class<?> declared : method.getExceptionTypes()) {
+			if (declared.isInstance(t)) {
+				return t;
+			}
+		}
+		return new WebServiceException(t);
+	}
+
+	private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+		String name = method.getName();
+		if ("equals".equals(name)) {
+			return proxy == args[0];
+		} else if ("hashCode".equals(name)) {
+			return System.identityHashCode(proxy);
+		} else if ("toString".equals(name)) {
+			return "BatchingProxy[" + ((BindingProvider) dispatch).getRequestContext().get(BindingProvider.ENDPOINT_ADDRESS_PROPERTY) + "]";
+		}
+		throw new UnsupportedOperationException(method.toString());
+	}
+
+	private static final class PendingCall {
+		final BatchOperation op;
+		final Object[] args;
+		final ClientFuture<Object> future = new ClientFuture<Object>();
+
+		PendingCall(BatchOperation op, Object[] args) {
+			this.op = op;
+			this.args = args;
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package org.easyframe.cxfplus.client;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.endpoint.ClientCallback;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.service.invoker.MethodDispatcher;
+import org.apache.cxf.service.model.BindingOperationInfo;
+
+/**
+ * 异步视图的实现。
+ * <p>
+ * 异步接口中的每个方法对应服务接口中同名(或去掉Async后缀同名)、参数相同的方法，返回值声明为Future或ClientFuture。
+ * 客户端使用CXF的异步HTTP传输(cxf-rt-transports-http-hc)时，通过ClientCallback发送，不占用线程等待；
+ * 否则在有界线程池中执行同步调用。
+ */
+final class AsyncInvocationHandler implements InvocationHandler {
+	private static final String ASYNC_CONDUIT = "org.apache.cxf.transport.http.asyncclient.AsyncHTTPConduit";
+	private static final int DEFAULT_THREADS = 32;
+	private static final int DEFAULT_QUEUE = 1024;
+
+	private static volatile Executor defaultExecutor;
+
+	private final Object target;
+	private final Client client;
+	private final Executor executor;
+	private final Map<Method, Method> methods;
+
+	private AsyncInvocationHandler(Object target, Client client, Executor executor, Map<Method, Method> methods) {
+		this.target = target;
+		this.client = isAsyncConduit(client) ? client : null;
+		this.executor = executor == null ? getDefaultExecutor() : executor;
+		this.methods = methods;
+	}
+
+	/**
+	 * @param target
+	 *            同步的客户端代理
+	 * @param client
+	 *            代理对应的CXF客户端，JAX-RS代理传入null
+	 */
+	@SuppressWarnings("unchecked")
+	static <A> A create(Object target, Client client, Class<?> serviceInterface, Class<A> asyncInterface, Executor executor) {
+		if (!asyncInterface.isInterface()) {
+			throw new IllegalArgumentException(asyncInterface.getName() + " is not an interface.");
+		}
+		Map<Method, Method> methods = new HashMap<Method, Method>();
+		for (Method m : asyncInterface.getMethods()) {
+			if (!m.getReturnType().isAssignableFrom(ClientFuture.class)) {
+				throw new IllegalArgumentException("The method " + m + " must return java.util.concurrent.Future.");
+			}
+			methods.put(m, findServiceMethod(serviceInterface, m));
+		}
+		AsyncInvocationHandler handler = new AsyncInvocationHandler(target, client, executor, methods);
+		return (A) Proxy.newProxyInstance(asyncInterface.getClassLoader(), new Class<?>[] { asyncInterface }, handler);
+	}
+
+	private static Method findServiceMethod(Class<?> serviceInterface, Method asyncMethod) {
+		String name = asyncMethod.getName();
+		Class<?>[] params = asyncMethod.getParameterTypes();
+		for (Method m : serviceInterface.getMethods()) {
+			if ((m.getName().equals(name) || (m.getName() + "Async").equals(name)) && Arrays.equals(m.getParameterTypes(), params)) {
+				return m;
+			}
+		}
+		throw new IllegalArgumentException("The method " + asyncMethod + " has no counterpart in " + serviceInterface.getName());
+	}
+
+	private static boolean isAsyncConduit(Client client) {
+		return client != null && client.getConduit() != null && ASYNC_CONDUIT.equals(client.getConduit().getClass().getName());
+	}
+
+	/**
+	 * 默认的线程池，最多32个守护线程，队列满时调用直接以RejectedExecutionException失败
+	 */
+	static Executor getDefaultExecutor() {
+		Executor e = defaultExecutor;
+		if (e == null) {
+			synchronized (AsyncInvocationHandler.class) {
+				e = defaultExecutor;
+				if (e == null) {
+					ThreadPoolExecutor pool = new ThreadPoolExecutor(DEFAULT_THREADS, DEFAULT_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(DEFAULT_QUEUE), new AsyncThreadFactory());
+					pool.allowCoreThreadTimeOut(true);
+					defaultExecutor = e = pool;
+				}
+			}
+		}
+		return e;
+	}
+
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		Method serviceMethod = methods.get(method);
+		if (serviceMethod == null) {
+			return invokeObjectMethod(proxy, method, args);
+		}
+		ClientFuture<Object> future = new ClientFuture<Object>();
+		if (client != null) {
+			invokeCallback(future, serviceMethod, args);
+		} else {
+			invokeOnExecutor(future, serviceMethod, args);
+		}
+		return future;
+	}
+
+	private void invokeCallback(final ClientFuture<Object> future, Method method, Object[] args) {
+		Endpoint endpoint = client.getEndpoint();
+		MethodDispatcher dispatcher = (MethodDispatcher) endpoint.getService().get(MethodDispatcher.class.getName());
+		BindingOperationInfo oi = dispatcher.getBindingOperation(method, endpoint);
+		if (oi == null) {
+			invokeOnExecutor(future, method, args);
+			return;
+		}
+		ClientCallback callback = new ClientCallback() {
+			@Override
+			public void handleResponse(Map<String, Object> ctx, Object[] res) {
+				super.handleResponse(ctx, res);
+				future.set(res == null || res.length == 0 ? null : res[0]);
+			}
+
+			@Override
+			public void handleException(Map<String, Object> ctx, Throwable ex) {
+				super.handleException(ctx, ex);
+				future.setException(ex);
+			}
+		};
+		try {
+			client.invoke(callback, oi, args == null ? new Object[0] : args);
+		} catch (Exception e) {
+			future.setException(e);
+		}
+	}
+
+	private void invokeOnExecutor(final ClientFuture<Object> future, final Method method, final Object[] args) {
+		try {
+			executor.execute(new Runnable() {
+				public void run() {
+					if (future.isDone()) {
+						return;
+					}
+					try {
+						future.set(method.invoke(target, args));
+					} catch (InvocationTargetException e) {
+						future.setException(e.getTargetException());
+					} catch (Throwable t) {
+						future.setException(t);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			future.setException(e);
+		}
+	}
+
+	private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+		String name = method.getName();
+		if ("equals".equals(name)) {
+			return proxy == args[0];
+		} else if ("hashCode".equals(name)) {
+			return System.identityHashCode(proxy);
+		} else if ("toString".equals(name)) {
+			return "AsyncProxy[" + target + "]";
+		}
+		throw new UnsupportedOperationException(method.toString());
+	}
+
+	private static final class AsyncThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, "cxf-plus-async-" + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		}
+	}
+}
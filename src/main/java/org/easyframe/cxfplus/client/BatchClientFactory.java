@@ -0,0 +1,15 @@
+package org.easyframe.cxfplus.client;
+
+/**
+ * 支持合并调用的{@link ExtendedClientFactory}。批量调用服务只为WebService发布，因此只有{@link WsClientFactoryImpl}实现了此接口。
+ */
+public interface BatchClientFactory extends ExtendedClientFactory {
+
+	/**
+	 * 创建合并调用的代理，短时间内的多个调用合并为一个批量请求发送到服务端的url/batch。
+	 * 服务端需要在CXFPlusServlet上配置init-param: batch=true
+	 * <p>
+	 * 没有其他调用正在进行时立即发送，不增加延迟；有并发调用时窗口内第一个调用等待窗口结束，最多增加一个窗口的延迟。
+	 */
+	<T> T createBatchProxy(String url, Class<T> clz);
+}
@@ -0,0 +1,134 @@
+package org.easyframe.cxfplus.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 异步调用的结果。除了Future的阻塞获取外，还可以注册回调，在结果返回的线程中执行，避免占用调用方的线程等待。
+ */
+public class ClientFuture<T> implements Future<T> {
+	private static final Logger log = LoggerFactory.getLogger(ClientFuture.class);
+
+	/**
+	 * 调用结果的回调
+	 */
+	public interface Listener<T> {
+		void onSuccess(T result);
+
+		void onFailure(Throwable error);
+	}
+
+	private final CountDownLatch done = new CountDownLatch(1);
+	private List<Listener<? super T>> listeners;
+	private T result;
+	private Throwable error;
+	private boolean completed;
+	private boolean cancelled;
+
+	/**
+	 * 设置调用结果，只有第一次有效
+	 */
+	public boolean set(T value) {
+		return complete(value, null, false);
+	}
+
+	/**
+	 * 设置调用异常，只有第一次有效
+	 */
+	public boolean setException(Throwable t) {
+		return complete(null, t, false);
+	}
+
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		return complete(null, new CancellationException(), true);
+	}
+
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+	public synchronized boolean isDone() {
+		return completed;
+	}
+
+	public T get() throws InterruptedException, ExecutionException {
+		done.await();
+		return report();
+	}
+
+	public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		if (!done.await(timeout, unit)) {
+			throw new TimeoutException();
+		}
+		return report();
+	}
+
+	/**
+	 * 注册回调，已经完成时立即在当前线程中执行
+	 */
+	public void addListener(Listener<? super T> listener) {
+		synchronized (this) {
+			if (!completed) {
+				if (listeners == null) {
+					listeners = new ArrayList<Listener<? super T>>(2);
+				}
+				listeners.add(listener);
+				return;
+			}
+		}
+		notify(listener);
+	}
+
+	private boolean complete(T value, Throwable t, boolean cancel) {
+		List<Listener<? super T>> toNotify;
+		synchronized (this) {
+			if (completed) {
+				return false;
+			}
+			this.result = value;
+			this.error = t;
+			this.cancelled = cancel;
+			this.completed = true;
+			toNotify = listeners;
+			listeners = null;
+		}
+		done.countDown();
+		if (toNotify != null) {
+			for (Listener<? super T> listener : toNotify) {
+				notify(listener);
+			}
+		}
+		return true;
+	}
+
+	private void notify(Listener<? super T> listener) {
+		try {
+			if (error == null) {
+				listener.onSuccess(result);
+			} else {
+				listener.onFailure(error);
+			}
+		} catch (RuntimeException e) {
+			log.warn("Listener of the asynchronous invocation failed", e);
+		}
+	}
+
+	private synchronized T report() throws ExecutionException {
+		if (cancelled) {
+			throw (CancellationException) error;
+		}
+		if (error != null) {
+			throw new ExecutionException(error);
+		}
+		return result;
+	}
+}
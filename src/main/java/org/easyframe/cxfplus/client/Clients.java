@@ -1,6 +1,9 @@
 package org.easyframe.cxfplus.client;
 
 
+/**
+ * 创建WebService客户端代理的快捷方法。代理由默认的{@link WsClientFactoryImpl}缓存，可以在每次调用前获取。
+ */
 public class Clients {
 	public static <T> T createProxy(String url, Class<T> clz) {
 		return WsClientFactoryImpl.getDefault().createProxy(url, clz);
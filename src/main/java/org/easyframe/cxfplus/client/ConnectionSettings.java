@@ -0,0 +1,136 @@
+package org.easyframe.cxfplus.client;
+
+import org.apache.cxf.transport.Conduit;
+import org.apache.cxf.transport.http.HTTPConduit;
+import org.apache.cxf.transports.http.configuration.ConnectionType;
+import org.apache.cxf.transports.http.configuration.HTTPClientPolicy;
+
+/**
+ * 客户端HTTP连接的设置，由ClientFactory应用到每个新建代理的HTTPConduit上。
+ * <p>
+ * HTTPConduit使用JDK的HttpURLConnection，连接池是JVM级别的，最大空闲连接数由系统属性http.maxConnections决定，
+ * 这里不做设置，需要时由应用在启动时自行设置。
+ * <p>
+ * ClientFactory在创建代理时复制一份设置并作为缓存键的一部分，之后修改设置只影响新创建的代理。
+ */
+public class ConnectionSettings {
+	private long connectTimeout;
+	private long receiveTimeout;
+	private boolean keepAlive = true;
+	private boolean allowChunking = true;
+	private int chunkingThreshold;
+
+	public long getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * 连接超时，毫秒，0表示使用CXF的默认值
+	 */
+	public ConnectionSettings setConnectTimeout(long connectTimeout) {
+		this.connectTimeout = connectTimeout;
+		return this;
+	}
+
+	public long getReceiveTimeout() {
+		return receiveTimeout;
+	}
+
+	/**
+	 * 读取超时，毫秒，0表示使用CXF的默认值
+	 */
+	public ConnectionSettings setReceiveTimeout(long receiveTimeout) {
+		this.receiveTimeout = receiveTimeout;
+		return this;
+	}
+
+	public boolean isKeepAlive() {
+		return keepAlive;
+	}
+
+	/**
+	 * 是否保持长连接，默认true
+	 */
+	public ConnectionSettings setKeepAlive(boolean keepAlive) {
+		this.keepAlive = keepAlive;
+		return this;
+	}
+
+	public boolean isAllowChunking() {
+		return allowChunking;
+	}
+
+	public ConnectionSettings setAllowChunking(boolean allowChunking) {
+		this.allowChunking = allowChunking;
+		return this;
+	}
+
+	public int getChunkingThreshold() {
+		return chunkingThreshold;
+	}
+
+	/**
+	 * 请求小于此长度时不使用chunked编码，0表示使用CXF的默认值
+	 */
+	public ConnectionSettings setChunkingThreshold(int chunkingThreshold) {
+		this.chunkingThreshold = chunkingThreshold;
+		return this;
+	}
+
+	/**
+	 * 复制当前的设置
+	 */
+	public ConnectionSettings copy() {
+		ConnectionSettings c = new ConnectionSettings();
+		c.connectTimeout = connectTimeout;
+		c.receiveTimeout = receiveTimeout;
+		c.keepAlive = keepAlive;
+		c.allowChunking = allowChunking;
+		c.chunkingThreshold = chunkingThreshold;
+		return c;
+	}
+
+	/**
+	 * 应用到Conduit上，不是HTTPConduit(例如local://)时忽略
+	 */
+	public void apply(Conduit conduit) {
+		if (!(conduit instanceof HTTPConduit) || isDefaultPolicy()) {
+			return;
+		}
+		HTTPClientPolicy policy = new HTTPClientPolicy();
+		if (connectTimeout > 0) {
+			policy.setConnectionTimeout(connectTimeout);
+		}
+		if (receiveTimeout > 0) {
+			policy.setReceiveTimeout(receiveTimeout);
+		}
+		policy.setConnection(keepAlive ? ConnectionType.KEEP_ALIVE : ConnectionType.CLOSE);
+		policy.setAllowChunking(allowChunking);
+		if (chunkingThreshold > 0) {
+			policy.setChunkingThreshold(chunkingThreshold);
+		}
+		((HTTPConduit) conduit).setClient(policy);
+	}
+
+	private boolean isDefaultPolicy() {
+		return connectTimeout <= 0 && receiveTimeout <= 0 && keepAlive && allowChunking && chunkingThreshold <= 0;
+	}
+
+	@Override
+	public int hashCode() {
+		int h = (int) (connectTimeout ^ (connectTimeout >>> 32));
+		h = h * 31 + (int) (receiveTimeout ^ (receiveTimeout >>> 32));
+		h = h * 31 + chunkingThreshold;
+		return h * 4 + (keepAlive ? 2 : 0) + (allowChunking ? 1 : 0);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof ConnectionSettings)) {
+			return false;
+		}
+		ConnectionSettings o = (ConnectionSettings) obj;
+		return connectTimeout == o.connectTimeout && receiveTimeout == o.receiveTimeout && keepAlive == o.keepAlive && allowChunking == o.allowChunking
+				&& chunkingThreshold == o.chunkingThreshold;
+	}
+}
@@ -0,0 +1,21 @@
+package org.easyframe.cxfplus.client;
+
+/**
+ * {@link ClientFactory}的扩展：异步代理和统计。{@link WsClientFactoryImpl}和{@link RsClientFactoryImpl}都实现了此接口，
+ * 放在单独的接口中是为了不影响ClientFactory已有的实现类。只有WebService支持的合并调用见{@link BatchClientFactory}。
+ */
+public interface ExtendedClientFactory extends ClientFactory {
+
+	/**
+	 * 创建服务接口的异步视图。
+	 * <p>
+	 * asyncInterface中的每个方法对应serviceInterface中同名(或去掉Async后缀后同名)、参数相同的方法，返回值声明为
+	 * {@link java.util.concurrent.Future}或{@link ClientFuture}，泛型参数为原方法的返回类型。
+	 */
+	<A> A createAsyncProxy(String url, Class<?> serviceInterface, Class<A> asyncInterface);
+
+	/**
+	 * 是否将各操作的耗时和报文大小记录到MetricsRegistry中
+	 */
+	ExtendedClientFactory setMetrics(boolean metrics);
+}
@@ -0,0 +1,63 @@
+package org.easyframe.cxfplus.client;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按(url, 接口, 连接设置)缓存已创建的客户端代理。
+ * <p>
+ * 只缓存http/https地址的代理。local://等传输的Conduit在创建时就绑定了服务端的Destination，服务重新发布后不能再使用。
+ */
+final class ProxyCache {
+	private final ConcurrentMap<Key, Object> proxies = new ConcurrentHashMap<Key, Object>();
+
+	static boolean isCacheable(String url) {
+		return url != null && (url.startsWith("http://") || url.startsWith("https://"));
+	}
+
+	Object get(String url, Class<?> clz, ConnectionSettings settings) {
+		return proxies.get(new Key(url, clz, settings));
+	}
+
+	/**
+	 * 并发创建时以先放入的为准。settings必须是不再修改的副本
+	 */
+	Object put(String url, Class<?> clz, ConnectionSettings settings, Object proxy) {
+		Object old = proxies.putIfAbsent(new Key(url, clz, settings), proxy);
+		return old == null ? proxy : old;
+	}
+
+	void clear() {
+		proxies.clear();
+	}
+
+	int size() {
+		return proxies.size();
+	}
+
+	private static final class Key {
+		private final String url;
+		private final Class<?> clz;
+		private final ConnectionSettings settings;
+
+		Key(String url, Class<?> clz, ConnectionSettings settings) {
+			this.url = url;
+			this.clz = clz;
+			this.settings = settings;
+		}
+
+		@Override
+		public int hashCode() {
+			return (url.hashCode() * 31 + clz.hashCode()) * 31 + settings.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key o = (Key) obj;
+			return clz == o.clz && url.equals(o.url) && settings.equals(o.settings);
+		}
+	}
+}
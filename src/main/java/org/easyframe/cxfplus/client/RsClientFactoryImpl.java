@@ -1,12 +1,19 @@
 package org.easyframe.cxfplus.client;
 
+import java.util.concurrent.Executor;
+
 import org.apache.cxf.endpoint.Client;
 import org.apache.cxf.interceptor.LoggingInInterceptor;
 import org.apache.cxf.interceptor.LoggingOutInterceptor;
 import org.apache.cxf.jaxrs.client.JAXRSClientFactoryBean;
+import org.apache.cxf.jaxrs.client.WebClient;
+import org.easyframe.cxfplus.metrics.MetricsFeature;
 import org.easyframe.jaxrs.FastJSONProvider;
 
-public class RsClientFactoryImpl implements ClientFactory{
+/**
+ * JAX-RS客户端工厂，代理的缓存默认关闭，打开后按(url, 接口, 连接设置)缓存，规则同{@link WsClientFactoryImpl}。
+ */
+public class RsClientFactoryImpl implements ExtendedClientFactory{
 
 	private static final ClientFactory DEFAULT=new RsClientFactoryImpl();
 	
@@ -18,31 +25,111 @@ public class RsClientFactoryImpl implements ClientFactory{
 	}
 	
 	private boolean trace;
+	private boolean metrics;
+	private boolean cache;
+	private ConnectionSettings connection = new ConnectionSettings();
+	private Executor asyncExecutor;
+	private final ProxyCache proxies = new ProxyCache();
 	
 	public boolean isTrace() {
 		return trace;
 	}
 
+	public boolean isMetrics() {
+		return metrics;
+	}
+
 	@SuppressWarnings("unchecked")
 	public <T> T createProxy(String url, Class<T> clz) {
+		boolean cacheable = cache && ProxyCache.isCacheable(url);
+		ConnectionSettings settings = connection.copy();
+		if (cacheable) {
+			Object ref = proxies.get(url, clz, settings);
+			if (ref != null) {
+				return (T) ref;
+			}
+		}
 		JAXRSClientFactoryBean proxyFactoryBean = new JAXRSClientFactoryBean();
 		proxyFactoryBean.setAddress(url);
 		proxyFactoryBean.setServiceClass(clz);
 		proxyFactoryBean.setProvider(new FastJSONProvider(true,false));
+		proxyFactoryBean.setThreadSafe(cacheable);
+		if (metrics) {
+			proxyFactoryBean.getFeatures().add(new MetricsFeature());
+		}
 		if (trace) {
 			proxyFactoryBean.getInInterceptors().add(new LoggingInInterceptor());
 			proxyFactoryBean.getOutInterceptors().add(new LoggingOutInterceptor());
 		}
 		T client = (T) proxyFactoryBean.create();
+		settings.apply(WebClient.getConfig(client).getConduit());
+		if (cacheable) {
+			client = (T) proxies.put(url, clz, settings, client);
+		}
 		return client;
 	}
 
+	/**
+	 * JAX-RS代理没有异步的调用方式，总是在线程池中执行
+	 */
+	public <A> A createAsyncProxy(String url, Class<?> serviceInterface, Class<A> asyncInterface) {
+		Object ref = createProxy(url, serviceInterface);
+		return AsyncInvocationHandler.create(ref, null, serviceInterface, asyncInterface, asyncExecutor);
+	}
+
 	public Client createClient(String url, Class<?> clz) {
 		throw new UnsupportedOperationException();
 	}
 
 	public RsClientFactoryImpl setTrace(boolean trace) {
 		this.trace=trace;
+		proxies.clear();
+		return this;
+	}
+
+	public RsClientFactoryImpl setMetrics(boolean metrics) {
+		this.metrics=metrics;
+		proxies.clear();
+		return this;
+	}
+
+	/**
+	 * 是否缓存创建的代理，默认false。缓存的代理是共享的，以线程安全的方式创建
+	 */
+	public RsClientFactoryImpl setCache(boolean cache) {
+		this.cache=cache;
+		proxies.clear();
+		return this;
+	}
+
+	/**
+	 * 修改返回的设置只影响之后创建的代理
+	 */
+	public ConnectionSettings getConnectionSettings() {
+		return connection;
+	}
+
+	/**
+	 * 设置HTTP连接的超时、长连接和连接池参数
+	 */
+	public RsClientFactoryImpl setConnectionSettings(ConnectionSettings connection) {
+		this.connection=connection == null ? new ConnectionSettings() : connection;
+		proxies.clear();
+		return this;
+	}
+
+	/**
+	 * 异步视图执行调用的线程池，null表示使用默认的有界线程池
+	 */
+	public RsClientFactoryImpl setAsyncExecutor(Executor asyncExecutor) {
+		this.asyncExecutor=asyncExecutor;
 		return this;
 	}
+
+	/**
+	 * 清空已缓存的代理
+	 */
+	public void clearCache() {
+		proxies.clear();
+	}
 }
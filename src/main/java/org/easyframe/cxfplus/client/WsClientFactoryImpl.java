@@ -1,5 +1,7 @@
 package org.easyframe.cxfplus.client;
 
+import java.util.concurrent.Executor;
+
 import org.apache.cxf.endpoint.Client;
 import org.apache.cxf.frontend.ClientFactoryBean;
 import org.apache.cxf.frontend.ClientProxy;
@@ -10,18 +12,35 @@ import org.apache.cxf.jaxws.CXFPlusClientFactoryBean;
 import org.apache.cxf.jaxws.JaxWsClientFactoryBean;
 import org.apache.cxf.jaxws.JaxWsProxyFactoryBean;
 import org.apache.cxf.service.factory.CXFPlusServiceBean;
-import org.apache.cxf.transport.http.HTTPConduit;
-import org.apache.cxf.transports.http.configuration.HTTPClientPolicy;
+import org.easyframe.cxfplus.batch.BatchingProxy;
+import org.easyframe.cxfplus.metrics.MetricsFeature;
 import org.easyframe.jaxws.interceptors.TraceHandler;
 
-public class WsClientFactoryImpl implements ClientFactory{
+/**
+ * WebService客户端工厂。
+ * <p>
+ * 可以用{@link #setCache(boolean)}打开代理的缓存(默认关闭)：代理按(url, 接口, 连接设置)缓存，之后直接返回缓存的对象。
+ * 缓存的代理在多个调用方之间共享，因此使用线程独立的RequestContext。修改工厂的任何设置都会清空缓存。
+ */
+public class WsClientFactoryImpl implements BatchClientFactory{
 	private boolean isJaxws;
 	private boolean isCxfPlus;
-	private long connectTimeout;
-	private long receiveTimeout;
 	private boolean trace;
+	private boolean metrics;
+	private boolean cache;
+	private ConnectionSettings connection = new ConnectionSettings();
+	private Executor asyncExecutor;
+	private long batchWindow = 2;
+	private int batchMaxSize = 64;
+	private boolean batchParallel;
+	private final ProxyCache proxies = new ProxyCache();
+	private final ProxyCache clients = new ProxyCache();
 	
-	private static ClientFactory DEFAULT= new WsClientFactoryImpl();
+	private static ClientFactory DEFAULT= new WsClientFactoryImpl().setCache(true);
+
+	/**
+	 * 默认的工厂，打开了代理的缓存，供{@link Clients}使用
+	 */
 	public static ClientFactory getDefault(){
 		return DEFAULT;
 	}
@@ -37,10 +56,103 @@ public class WsClientFactoryImpl implements ClientFactory{
 	
 	public WsClientFactoryImpl setTrace(boolean trace){
 		this.trace=trace;
+		clearCache();
+		return this;
+	}
+	
+	public WsClientFactoryImpl setMetrics(boolean metrics){
+		this.metrics=metrics;
+		clearCache();
+		return this;
+	}
+
+	/**
+	 * 是否缓存创建的代理，默认false。缓存的代理是共享的，对RequestContext的修改只对当前线程有效
+	 */
+	public WsClientFactoryImpl setCache(boolean cache){
+		this.cache=cache;
+		clearCache();
+		return this;
+	}
+
+	public WsClientFactoryImpl setConnectTimeout(long connectTimeout){
+		this.connection.setConnectTimeout(connectTimeout);
+		clearCache();
+		return this;
+	}
+
+	public WsClientFactoryImpl setReceiveTimeout(long receiveTimeout){
+		this.connection.setReceiveTimeout(receiveTimeout);
+		clearCache();
+		return this;
+	}
+
+	/**
+	 * 修改返回的设置只影响之后创建的代理
+	 */
+	public ConnectionSettings getConnectionSettings() {
+		return connection;
+	}
+
+	/**
+	 * 设置HTTP连接的超时、长连接和连接池参数
+	 */
+	public WsClientFactoryImpl setConnectionSettings(ConnectionSettings connection){
+		this.connection=connection == null ? new ConnectionSettings() : connection;
+		clearCache();
+		return this;
+	}
+
+	/**
+	 * 异步视图在不能使用异步HTTP传输时执行调用的线程池，null表示使用默认的有界线程池
+	 */
+	public WsClientFactoryImpl setAsyncExecutor(Executor asyncExecutor){
+		this.asyncExecutor=asyncExecutor;
 		return this;
 	}
+
+	/**
+	 * 合并调用的时间窗口，毫秒，默认2。只在有其他调用正在进行时等待窗口，有并发时每个批量请求最多因此增加这么多的延迟
+	 */
+	public WsClientFactoryImpl setBatchWindow(long batchWindow){
+		this.batchWindow=batchWindow;
+		return this;
+	}
+
+	/**
+	 * 一个批量请求最多包含的调用数，默认64。不能超过服务端的init-param: batch-max-calls(默认256)，否则整个批量请求被拒绝
+	 */
+	public WsClientFactoryImpl setBatchMaxSize(int batchMaxSize){
+		this.batchMaxSize=batchMaxSize;
+		return this;
+	}
+
+	/**
+	 * 是否要求服务端并行执行批量请求中的调用，默认false
+	 */
+	public WsClientFactoryImpl setBatchParallel(boolean batchParallel){
+		this.batchParallel=batchParallel;
+		return this;
+	}
+
+	/**
+	 * 清空已缓存的代理，之后的请求将重新创建
+	 */
+	public void clearCache(){
+		proxies.clear();
+		clients.clear();
+	}
 	
+	@SuppressWarnings("unchecked")
 	public <T> T createProxy(String url, Class<T> clz) {
+		boolean cacheable = cache && ProxyCache.isCacheable(url);
+		ConnectionSettings settings = connection.copy();
+		if (cacheable) {
+			Object ref = proxies.get(url, clz, settings);
+			if (ref != null) {
+				return (T) ref;
+			}
+		}
 		ClientProxyFactoryBean factoryBean;
 		if(isJaxws && isCxfPlus){
 			factoryBean =  new JaxWsProxyFactoryBean(new CXFPlusClientFactoryBean());
@@ -51,6 +163,9 @@ public class WsClientFactoryImpl implements ClientFactory{
 		}else{
 			factoryBean = new ClientProxyFactoryBean();
 		}
+		if(metrics){
+			factoryBean.getFeatures().add(new MetricsFeature());
+		}
 		if(trace){
 			if(factoryBean instanceof JaxWsProxyFactoryBean){
 				((JaxWsProxyFactoryBean) factoryBean).getHandlers().add(new TraceHandler());
@@ -62,20 +177,35 @@ public class WsClientFactoryImpl implements ClientFactory{
 		
 		factoryBean.setAddress(url);
 		factoryBean.setServiceClass(clz);
-		@SuppressWarnings("unchecked")
 		T ref = (T) factoryBean.create();
-		if(connectTimeout>0 || receiveTimeout>0){
-			Client proxy = ClientProxy.getClient(ref);
-			HTTPConduit conduit = (HTTPConduit) proxy.getConduit();
-			HTTPClientPolicy policy = new HTTPClientPolicy();
-			policy.setConnectionTimeout(connectTimeout);
-			policy.setReceiveTimeout(receiveTimeout);
-			conduit.setClient(policy);	
+		Client proxy = ClientProxy.getClient(ref);
+		settings.apply(proxy.getConduit());
+		if (cacheable) {
+			proxy.setThreadLocalRequestContext(true);
+			ref = (T) proxies.put(url, clz, settings, ref);
 		}
 		return ref;
 	}
 
+	public <A> A createAsyncProxy(String url, Class<?> serviceInterface, Class<A> asyncInterface) {
+		Object ref = createProxy(url, serviceInterface);
+		return AsyncInvocationHandler.create(ref, ClientProxy.getClient(ref), serviceInterface, asyncInterface, asyncExecutor);
+	}
+
+	public <T> T createBatchProxy(String url, Class<T> clz) {
+		T ref = createProxy(url, clz);
+		return BatchingProxy.create(ref, ClientProxy.getClient(ref), clz, url + "/batch", batchWindow, batchMaxSize, batchParallel, connection.copy());
+	}
+
 	public Client createClient(String url, Class<?> clz) {
+		boolean cacheable = cache && ProxyCache.isCacheable(url);
+		ConnectionSettings settings = connection.copy();
+		if (cacheable) {
+			Client client = (Client) clients.get(url, clz, settings);
+			if (client != null) {
+				return client;
+			}
+		}
 		ClientFactoryBean factoryBean;
 		if(isJaxws && isCxfPlus){
 			factoryBean =  new CXFPlusClientFactoryBean();
@@ -86,12 +216,21 @@ public class WsClientFactoryImpl implements ClientFactory{
 		}else{
 			factoryBean = new ClientFactoryBean();
 		}
+		if(metrics){
+			factoryBean.getFeatures().add(new MetricsFeature());
+		}
 		if(trace){
 			factoryBean.getInInterceptors().add(new LoggingInInterceptor());
 			factoryBean.getOutInterceptors().add(new LoggingOutInterceptor());
 		}
 		factoryBean.setAddress(url);
 		factoryBean.setServiceClass(clz);
-		return factoryBean.create();
+		Client client = factoryBean.create();
+		settings.apply(client.getConduit());
+		if (cacheable) {
+			client.setThreadLocalRequestContext(true);
+			client = (Client) clients.put(url, clz, settings, client);
+		}
+		return client;
 	}
 }
@@ -0,0 +1,297 @@
+package org.easyframe.cxfplus.metrics;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.feature.AbstractFeature;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageUtils;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+
+/**
+ * 按服务和操作统计反序列化、调用、序列化的耗时，请求和响应的大小，以及Fault的次数。
+ * <p>
+ * 可以用于服务端和客户端，数据记录到{@link MetricsRegistry}中。各阶段的耗时由拦截器在阶段的边界上打点得到：
+ * <ul>
+ * <li>unmarshal: 入站的post-protocol到pre-logical</li>
+ * <li>marshal: 出站的pre-marshal到post-marshal</li>
+ * <li>invoke: 服务端为pre-invoke到出站开始；客户端为请求发出到收到响应</li>
+ * </ul>
+ */
+public class MetricsFeature extends AbstractFeature {
+	private MetricsRegistry registry = MetricsRegistry.getDefault();
+	private boolean jmx = true;
+
+	public MetricsFeature() {
+	}
+
+	public MetricsFeature(MetricsRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	protected void initializeProvider(InterceptorProvider provider, Bus bus) {
+		if (jmx) {
+			registry.registerMBean();
+		}
+		provider.getInInterceptors().add(new ReceiveInterceptor());
+		provider.getInInterceptors().add(new MarkInterceptor(Phase.POST_PROTOCOL, MarkInterceptor.UNMARSHAL_START));
+		provider.getInInterceptors().add(new MarkInterceptor(Phase.PRE_LOGICAL, MarkInterceptor.UNMARSHAL_END));
+		provider.getInInterceptors().add(new MarkInterceptor(Phase.PRE_INVOKE, MarkInterceptor.INVOKE_START));
+		provider.getInInterceptors().add(new MarkInterceptor(Phase.POST_INVOKE, MarkInterceptor.ONE_WAY_END));
+
+		provider.getOutInterceptors().add(new MarkInterceptor(Phase.SETUP, MarkInterceptor.SETUP));
+		provider.getOutInterceptors().add(new MarkInterceptor(Phase.PRE_MARSHAL, MarkInterceptor.MARSHAL_START));
+		provider.getOutInterceptors().add(new MarkInterceptor(Phase.POST_MARSHAL, MarkInterceptor.MARSHAL_END));
+		provider.getOutInterceptors().add(new SendInterceptor());
+
+		provider.getOutFaultInterceptors().add(new FaultInterceptor(Phase.SETUP));
+		provider.getOutFaultInterceptors().add(new SendInterceptor());
+		provider.getInFaultInterceptors().add(new FaultInterceptor(Phase.PRE_LOGICAL));
+	}
+
+	public MetricsRegistry getRegistry() {
+		return registry;
+	}
+
+	public void setRegistry(MetricsRegistry registry) {
+		this.registry = registry;
+	}
+
+	public boolean isJmx() {
+		return jmx;
+	}
+
+	/**
+	 * 是否将MetricsRegistry注册到JMX，默认true
+	 */
+	public void setJmx(boolean jmx) {
+		this.jmx = jmx;
+	}
+
+	private static MetricsRecord getRecord(Message message, boolean create) {
+		Exchange exchange = message.getExchange();
+		MetricsRecord record = exchange.get(MetricsRecord.class);
+		if (record == null && create) {
+			record = new MetricsRecord(MessageUtils.isRequestor(message));
+			exchange.put(MetricsRecord.class, record);
+		}
+		return record;
+	}
+
+	/*
+	 * 入站开始，统计入站报文的字节数
+	 */
+	private final class ReceiveInterceptor extends AbstractPhaseInterceptor<Message> {
+		ReceiveInterceptor() {
+			super(Phase.RECEIVE);
+		}
+
+		public void handleMessage(Message message) throws Fault {
+			MetricsRecord record = getRecord(message, true);
+			if (record.client && record.invokeStart > 0) {
+				record.invoke = System.nanoTime() - record.invokeStart;
+			}
+			InputStream in = message.getContent(InputStream.class);
+			if (in != null) {
+				CountingInputStream counting = new CountingInputStream(in);
+				message.setContent(InputStream.class, counting);
+				message.put(CountingInputStream.class, counting);
+			}
+		}
+	}
+
+	private final class MarkInterceptor extends AbstractPhaseInterceptor<Message> {
+		static final int UNMARSHAL_START = 0;
+		static final int UNMARSHAL_END = 1;
+		static final int INVOKE_START = 2;
+		static final int ONE_WAY_END = 3;
+		static final int SETUP = 4;
+		static final int MARSHAL_START = 5;
+		static final int MARSHAL_END = 6;
+
+		private final int mark;
+
+		MarkInterceptor(String phase, int mark) {
+			super(MarkInterceptor.class.getName() + "." + mark, phase);
+			this.mark = mark;
+		}
+
+		public void handleMessage(Message message) throws Fault {
+			MetricsRecord record = getRecord(message, mark == SETUP);
+			if (record == null) {
+				return;
+			}
+			long now = System.nanoTime();
+			switch (mark) {
+			case UNMARSHAL_START:
+				record.unmarshalStart = now;
+				break;
+			case UNMARSHAL_END:
+				if (record.unmarshalStart > 0) {
+					record.unmarshal = now - record.unmarshalStart;
+				}
+				CountingInputStream counting = (CountingInputStream) message.get(CountingInputStream.class);
+				if (counting != null) {
+					if (record.client) {
+						record.responseBytes = counting.count;
+					} else {
+						record.requestBytes = counting.count;
+					}
+				}
+				if (record.client) {
+					record.complete(registry, message.getExchange());
+				}
+				break;
+			case INVOKE_START:
+				record.invokeStart = now;
+				break;
+			case ONE_WAY_END:
+				if (message.getExchange().isOneWay()) {
+					if (record.invokeStart > 0) {
+						record.invoke = now - record.invokeStart;
+					}
+					record.complete(registry, message.getExchange());
+				}
+				break;
+			case SETUP:
+				if (!record.client && record.invokeStart > 0) {
+					record.invoke = now - record.invokeStart;
+				}
+				break;
+			case MARSHAL_START:
+				record.marshalStart = now;
+				break;
+			case MARSHAL_END:
+				if (record.marshalStart > 0) {
+					record.marshal = now - record.marshalStart;
+				}
+				break;
+			default:
+			}
+		}
+	}
+
+	/*
+	 * 出站报文写完时记录字节数。客户端在关闭流时才真正发送并接收响应，所以在关闭之前打点。
+	 */
+	private final class SendInterceptor extends AbstractPhaseInterceptor<Message> {
+		SendInterceptor() {
+			super(Phase.PRE_STREAM);
+		}
+
+		public void handleMessage(Message message) throws Fault {
+			MetricsRecord record = getRecord(message, false);
+			OutputStream out = message.getContent(OutputStream.class);
+			if (record == null || out == null) {
+				return;
+			}
+			message.setContent(OutputStream.class, new CountingOutputStream(out, record, message.getExchange()));
+		}
+	}
+
+	private final class FaultInterceptor extends AbstractPhaseInterceptor<Message> {
+		FaultInterceptor(String phase) {
+			super(phase);
+		}
+
+		public void handleMessage(Message message) throws Fault {
+			MetricsRecord record = getRecord(message, false);
+			if (record == null) {
+				return;
+			}
+			record.fault = true;
+			if (record.client) {
+				record.complete(registry, message.getExchange());
+			} else if (record.invokeStart > 0 && record.invoke < 0) {
+				record.invoke = System.nanoTime() - record.invokeStart;
+			}
+		}
+	}
+
+	private static final class CountingInputStream extends FilterInputStream {
+		long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = in.read();
+			if (b >= 0) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = in.read(b, off, len);
+			if (n > 0) {
+				count += n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = in.skip(n);
+			count += skipped;
+			return skipped;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+	}
+
+	private final class CountingOutputStream extends FilterOutputStream {
+		private final MetricsRecord record;
+		private final Exchange exchange;
+		private long count;
+		private boolean closed;
+
+		CountingOutputStream(OutputStream out, MetricsRecord record, Exchange exchange) {
+			super(out);
+			this.record = record;
+			this.exchange = exchange;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!closed) {
+				closed = true;
+				if (record.client) {
+					record.requestBytes = count;
+					record.invokeStart = System.nanoTime();
+				} else {
+					record.responseBytes = count;
+					record.complete(registry, exchange);
+				}
+			}
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package org.easyframe.cxfplus.metrics;
+
+import java.lang.reflect.Method;
+
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.model.BindingOperationInfo;
+
+/**
+ * 一次调用过程中采集的数据，保存在Exchange中，调用结束时写入MetricsRegistry。
+ */
+final class MetricsRecord {
+	private static final String RESOURCE_METHOD = "org.apache.cxf.resource.method";
+
+	final boolean client;
+	long unmarshalStart;
+	long unmarshal = -1;
+	long invokeStart;
+	long invoke = -1;
+	long marshalStart;
+	long marshal = -1;
+	long requestBytes = -1;
+	long responseBytes = -1;
+	boolean fault;
+	private boolean completed;
+
+	MetricsRecord(boolean client) {
+		this.client = client;
+	}
+
+	/**
+	 * 只在第一次调用时写入
+	 */
+	void complete(MetricsRegistry registry, Exchange exchange) {
+		if (completed) {
+			return;
+		}
+		completed = true;
+		OperationMetrics metrics = registry.getOperation(serviceName(exchange), operationName(exchange));
+		if (unmarshal >= 0) {
+			metrics.unmarshal.record(unmarshal);
+		}
+		if (invoke >= 0) {
+			metrics.invoke.record(invoke);
+		}
+		if (marshal >= 0) {
+			metrics.marshal.record(marshal);
+		}
+		if (requestBytes >= 0) {
+			metrics.requestBytes.record(requestBytes);
+		}
+		if (responseBytes >= 0) {
+			metrics.responseBytes.record(responseBytes);
+		}
+		if (fault) {
+			metrics.faults.incrementAndGet();
+		}
+	}
+
+	private static String serviceName(Exchange exchange) {
+		Service service = exchange.getService();
+		if (service != null && service.getName() != null) {
+			return service.getName().getLocalPart();
+		}
+		return "unknown";
+	}
+
+	/*
+	 * JAX-WS和简单前端使用BindingOperationInfo，JAX-RS没有，使用资源方法的名称
+	 */
+	private static String operationName(Exchange exchange) {
+		BindingOperationInfo bop = exchange.getBindingOperationInfo();
+		if (bop != null) {
+			return bop.getName().getLocalPart();
+		}
+		Object method = exchange.get(Method.class);
+		if (method == null && exchange.getInMessage() != null) {
+			method = exchange.getInMessage().get(RESOURCE_METHOD);
+		}
+		if (method == null && exchange.getOutMessage() != null) {
+			method = exchange.getOutMessage().get(Method.class.getName());
+		}
+		if (method instanceof Method) {
+			return ((Method) method).getName();
+		}
+		return "unknown";
+	}
+}
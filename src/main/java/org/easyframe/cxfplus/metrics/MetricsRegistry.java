@@ -0,0 +1,177 @@
+package org.easyframe.cxfplus.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 按服务和操作保存统计数据，可以注册到JMX，也可以输出为文本报告。
+ */
+public class MetricsRegistry implements MetricsRegistryMBean {
+	private static final Logger log = LoggerFactory.getLogger(MetricsRegistry.class);
+
+	private static final MetricsRegistry DEFAULT = new MetricsRegistry("default");
+
+	private final String name;
+	private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<String, OperationMetrics>();
+	private volatile ObjectName objectName;
+
+	public MetricsRegistry(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * 全局共享的实例
+	 */
+	public static MetricsRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 得到操作的统计数据，不存在时创建
+	 */
+	public OperationMetrics getOperation(String service, String operation) {
+		String key = service + '#' + operation;
+		OperationMetrics metrics = operations.get(key);
+		if (metrics == null) {
+			metrics = new OperationMetrics(service, operation);
+			OperationMetrics old = operations.putIfAbsent(key, metrics);
+			if (old != null) {
+				metrics = old;
+			}
+		}
+		return metrics;
+	}
+
+	public Collection<OperationMetrics> getOperations() {
+		return Collections.unmodifiableCollection(operations.values());
+	}
+
+	public int getOperationCount() {
+		return operations.size();
+	}
+
+	public void reset() {
+		for (OperationMetrics metrics : operations.values()) {
+			metrics.reset();
+		}
+	}
+
+	/**
+	 * 注册到平台MBeanServer，ObjectName为org.easyframe.cxfplus:type=Metrics,name=&lt;name&gt;。重复调用无副作用。
+	 */
+	public synchronized void registerMBean() {
+		if (objectName != null) {
+			return;
+		}
+		try {
+			ObjectName on = new ObjectName("org.easyframe.cxfplus:type=Metrics,name=" + ObjectName.quote(name));
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (!server.isRegistered(on)) {
+				server.registerMBean(this, on);
+			}
+			objectName = on;
+		} catch (JMException e) {
+			log.warn("Unable to register the metrics MBean " + name, e);
+		}
+	}
+
+	public synchronized void unregisterMBean() {
+		if (objectName == null) {
+			return;
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException e) {
+			log.warn("Unable to unregister the metrics MBean " + name, e);
+		}
+		objectName = null;
+	}
+
+	public String getReport() {
+		StringBuilder sb = new StringBuilder(256 + operations.size() * 512);
+		try {
+			writeReport(sb);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 输出文本报告，耗时单位为微秒，按反序列化和序列化的总耗时从高到低排列
+	 */
+	public void writeReport(Appendable out) throws IOException {
+		List<Row> rows = new ArrayList<Row>(operations.size());
+		for (OperationMetrics metrics : operations.values()) {
+			rows.add(new Row(metrics));
+		}
+		Collections.sort(rows, new Comparator<Row>() {
+			public int compare(Row o1, Row o2) {
+				long t1 = o1.unmarshal.getSum() + o1.marshal.getSum();
+				long t2 = o2.unmarshal.getSum() + o2.marshal.getSum();
+				return t1 < t2 ? 1 : (t1 == t2 ? 0 : -1);
+			}
+		});
+		out.append("# cxf-plus metrics [").append(name).append("], time in microseconds, size in bytes\n");
+		for (Row row : rows) {
+			out.append(row.metrics.getService()).append('#').append(row.metrics.getOperation());
+			out.append(" faults=").append(String.valueOf(row.metrics.getFaultCount())).append('\n');
+			appendHistogram(out, "unmarshal", row.unmarshal, 1000);
+			appendHistogram(out, "invoke", row.invoke, 1000);
+			appendHistogram(out, "marshal", row.marshal, 1000);
+			appendHistogram(out, "requestBytes", row.requestBytes, 1);
+			appendHistogram(out, "responseBytes", row.responseBytes, 1);
+		}
+	}
+
+	private static void appendHistogram(Appendable out, String label, StripedHistogram.Snapshot s, long scale) throws IOException {
+		if (s.getCount() == 0) {
+			return;
+		}
+		out.append("  ").append(label);
+		out.append(" count=").append(String.valueOf(s.getCount()));
+		out.append(" total=").append(String.valueOf(s.getSum() / scale));
+		out.append(" mean=").append(String.valueOf((long) (s.getMean() / scale)));
+		out.append(" p50=").append(String.valueOf(s.getValueAtPercentile(50) / scale));
+		out.append(" p90=").append(String.valueOf(s.getValueAtPercentile(90) / scale));
+		out.append(" p99=").append(String.valueOf(s.getValueAtPercentile(99) / scale));
+		out.append(" max=").append(String.valueOf(s.getMax() / scale));
+		out.append('\n');
+	}
+
+	private static final class Row {
+		final OperationMetrics metrics;
+		final StripedHistogram.Snapshot unmarshal;
+		final StripedHistogram.Snapshot invoke;
+		final StripedHistogram.Snapshot marshal;
+		final StripedHistogram.Snapshot requestBytes;
+		final StripedHistogram.Snapshot responseBytes;
+
+		Row(OperationMetrics metrics) {
+			this.metrics = metrics;
+			this.unmarshal = metrics.unmarshal.snapshot();
+			this.invoke = metrics.invoke.snapshot();
+			this.marshal = metrics.marshal.snapshot();
+			this.requestBytes = metrics.requestBytes.snapshot();
+			this.responseBytes = metrics.responseBytes.snapshot();
+		}
+	}
+}
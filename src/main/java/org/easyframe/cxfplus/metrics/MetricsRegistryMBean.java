@@ -0,0 +1,21 @@
+package org.easyframe.cxfplus.metrics;
+
+/**
+ * MetricsRegistry的JMX接口
+ */
+public interface MetricsRegistryMBean {
+	/**
+	 * 已记录的操作数
+	 */
+	int getOperationCount();
+
+	/**
+	 * 文本格式的统计报告
+	 */
+	String getReport();
+
+	/**
+	 * 清空所有统计数据
+	 */
+	void reset();
+}
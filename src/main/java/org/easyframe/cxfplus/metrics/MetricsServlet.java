@@ -0,0 +1,34 @@
+package org.easyframe.cxfplus.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 以文本形式输出{@link MetricsRegistry#getDefault()}的统计报告。
+ * <p>
+ * 也可以不单独配置这个Servlet，而是在CXFPlusServlet上配置init-param: metrics-path
+ */
+public class MetricsServlet extends HttpServlet {
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		writeReport(MetricsRegistry.getDefault(), resp);
+	}
+
+	/**
+	 * 输出报告到HTTP响应
+	 */
+	public static void writeReport(MetricsRegistry registry, HttpServletResponse resp) throws IOException {
+		resp.setContentType("text/plain;charset=UTF-8");
+		resp.setHeader("Cache-Control", "no-cache");
+		Writer writer = resp.getWriter();
+		registry.writeReport(writer);
+		writer.flush();
+	}
+}
@@ -0,0 +1,76 @@
+package org.easyframe.cxfplus.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一个服务的一个操作的统计数据。
+ * <p>
+ * 服务端的invoke是业务方法的执行时间；客户端的invoke是从请求发出到收到响应的时间。
+ * request/response分别指请求和响应报文，与所处的是服务端还是客户端无关。
+ */
+public final class OperationMetrics {
+	private final String service;
+	private final String operation;
+
+	final StripedHistogram unmarshal = new StripedHistogram();
+	final StripedHistogram invoke = new StripedHistogram();
+	final StripedHistogram marshal = new StripedHistogram();
+	final StripedHistogram requestBytes = new StripedHistogram();
+	final StripedHistogram responseBytes = new StripedHistogram();
+	final AtomicLong faults = new AtomicLong();
+
+	OperationMetrics(String service, String operation) {
+		this.service = service;
+		this.operation = operation;
+	}
+
+	public String getService() {
+		return service;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	/**
+	 * 反序列化耗时，纳秒
+	 */
+	public StripedHistogram getUnmarshal() {
+		return unmarshal;
+	}
+
+	/**
+	 * 调用耗时，纳秒
+	 */
+	public StripedHistogram getInvoke() {
+		return invoke;
+	}
+
+	/**
+	 * 序列化耗时，纳秒
+	 */
+	public StripedHistogram getMarshal() {
+		return marshal;
+	}
+
+	public StripedHistogram getRequestBytes() {
+		return requestBytes;
+	}
+
+	public StripedHistogram getResponseBytes() {
+		return responseBytes;
+	}
+
+	public long getFaultCount() {
+		return faults.get();
+	}
+
+	void reset() {
+		unmarshal.reset();
+		invoke.reset();
+		marshal.reset();
+		requestBytes.reset();
+		responseBytes.reset();
+		faults.set(0);
+	}
+}
@@ -0,0 +1,157 @@
+package org.easyframe.cxfplus.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁的对数分桶直方图，用于记录耗时(纳秒)和报文大小(字节)。
+ * <p>
+ * 和HdrHistogram类似，每个2的幂区间再分成8个子桶，相对误差不超过12.5%，最大记录值为2^41-1，超出的按最大值记录。
+ * 为了减少多线程下对同一缓存行的竞争，按线程分成若干条带(stripe)分别计数，读取时再合并。
+ */
+public final class StripedHistogram {
+	private static final int SUB_BITS = 3;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int MAX_EXPONENT = 40;
+	private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+	static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT;
+
+	/*
+	 * 每个条带的布局：BUCKETS个计数，然后是总和、最大值
+	 */
+	private static final int SUM = BUCKETS;
+	private static final int MAX = BUCKETS + 1;
+	private static final int STRIDE = BUCKETS + 2;
+
+	private static final int STRIPES;
+	static {
+		int cpus = Runtime.getRuntime().availableProcessors();
+		STRIPES = Integer.highestOneBit(Math.max(1, Math.min(cpus, 4)));
+	}
+
+	private final AtomicLongArray cells = new AtomicLongArray(STRIPES * STRIDE);
+
+	/**
+	 * 记录一个值，负数忽略
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			return;
+		}
+		if (value > MAX_VALUE) {
+			value = MAX_VALUE;
+		}
+		int base = (int) (Thread.currentThread().getId() & (STRIPES - 1)) * STRIDE;
+		cells.incrementAndGet(base + bucketOf(value));
+		cells.addAndGet(base + SUM, value);
+		int maxIndex = base + MAX;
+		long max;
+		while (value > (max = cells.get(maxIndex))) {
+			if (cells.compareAndSet(maxIndex, max, value)) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * 合并各条带的计数，得到一个快照。记录和读取并发时快照不是严格一致的，但每个计数本身是准确的。
+	 */
+	public Snapshot snapshot() {
+		long[] counts = new long[BUCKETS];
+		long sum = 0;
+		long max = 0;
+		for (int s = 0; s < STRIPES; s++) {
+			int base = s * STRIDE;
+			for (int i = 0; i < BUCKETS; i++) {
+				counts[i] += cells.get(base + i);
+			}
+			sum += cells.get(base + SUM);
+			max = Math.max(max, cells.get(base + MAX));
+		}
+		return new Snapshot(counts, sum, max);
+	}
+
+	public void reset() {
+		for (int i = 0; i < cells.length(); i++) {
+			cells.set(i, 0);
+		}
+	}
+
+	static int bucketOf(long value) {
+		if (value < SUB_COUNT) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+		return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+	}
+
+	/*
+	 * 桶中可能出现的最大值
+	 */
+	static long highestValueOf(int bucket) {
+		if (bucket < SUB_COUNT) {
+			return bucket;
+		}
+		int shift = (bucket >> SUB_BITS) - 1;
+		long lowest = (long) (SUB_COUNT + (bucket & (SUB_COUNT - 1))) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	/**
+	 * 直方图快照
+	 */
+	public static final class Snapshot {
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		Snapshot(long[] counts, long sum, long max) {
+			long c = 0;
+			for (long n : counts) {
+				c += n;
+			}
+			this.counts = counts;
+			this.count = c;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getSum() {
+			return sum;
+		}
+
+		public long getMax() {
+			return max;
+		}
+
+		public double getMean() {
+			return count == 0 ? 0 : (double) sum / count;
+		}
+
+		/**
+		 * 百分位数，例如99表示P99。返回所在桶的上界，不超过实际的最大值。
+		 */
+		public long getValueAtPercentile(double percentile) {
+			if (count == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(percentile / 100 * count);
+			if (rank < 1) {
+				rank = 1;
+			}
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank) {
+					return Math.min(highestValueOf(i), max);
+				}
+			}
+			return max;
+		}
+	}
+}
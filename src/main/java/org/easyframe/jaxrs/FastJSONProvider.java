@@ -3,11 +3,16 @@ package org.easyframe.jaxrs;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.lang.annotation.Annotation;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Type;
+import java.util.Arrays;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
@@ -32,6 +37,17 @@ public class FastJSONProvider implements MessageBodyWriter<Object>,MessageBodyRe
 	private String encoding="UTF-8";
 	private SerializerFeature[]  feature=new SerializerFeature[0];
 	private boolean writeClassNames = false;
+	/**
+	 * 流式模式：不计算Content-Length（使用chunked传输），读写都不在内存中生成完整的String或byte[]
+	 */
+	private boolean streaming = false;
+	
+	/**
+	 * 读取时复用的字符缓冲区，超过此大小的缓冲区用完即丢弃，避免长期占用内存
+	 */
+	private static final int MAX_RECYCLED_BUFFER = 256 * 1024;
+	private static final int INITIAL_BUFFER = 8192;
+	private static final ThreadLocal<SoftReference<char[]>> READ_BUFFER = new ThreadLocal<SoftReference<char[]>>();
 	
 	public FastJSONProvider(boolean enableRead,boolean writeClassNames){
 		this.enableReader=enableRead;
@@ -60,6 +76,14 @@ public class FastJSONProvider implements MessageBodyWriter<Object>,MessageBodyRe
 		this.encoding = encoding;
 	}
 
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
 	public SerializerFeature[] getFeature() {
 		return feature;
 	}
@@ -74,6 +98,9 @@ public class FastJSONProvider implements MessageBodyWriter<Object>,MessageBodyRe
 	}
 
 	public long getSize(Object t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		if(streaming){
+			return -1;
+		}
 		ObjectJSON json=cache.get();
 		json.obj=t;
 		try {
@@ -88,13 +115,26 @@ public class FastJSONProvider implements MessageBodyWriter<Object>,MessageBodyRe
 		if(writeClassNames){
 			httpHeaders.putSingle("Content-Type", "application/fast-json");	
 		}
+		if(streaming){
+			//OutputStreamWriter自带定长的编码缓冲区，按块直接写入entityStream
+			Writer writer=new OutputStreamWriter(entityStream, encoding);
+			JSON.writeJSONStringTo(t, writer,feature);
+			writer.flush();
+			return;
+		}
 		ObjectJSON json=cache.get();
-		if(json.obj==t){
-			IOUtils.copy(new ByteArrayInputStream(json.json), entityStream);
+		try{
+			if(json.obj==t && json.json!=null){
+				IOUtils.copy(new ByteArrayInputStream(json.json), entityStream);
+			}else{
+				Writer writer=new OutputStreamWriter(entityStream, encoding);
+				JSON.writeJSONStringTo(t, writer,feature);
+				writer.flush();
+			}
+		}finally{
+			//无论成功与否都清除，避免ThreadLocal持有对象
 			json.obj=null;
 			json.json=null;
-		}else{
-			JSON.writeJSONStringTo(t, new OutputStreamWriter(entityStream, encoding),feature);
 		}
 	}
 
@@ -104,7 +144,48 @@ public class FastJSONProvider implements MessageBodyWriter<Object>,MessageBodyRe
 	}
 
 	public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException, WebApplicationException {
+		if(streaming){
+			return readStreaming(genericType, entityStream);
+		}
 		String s=IOUtils.toString(entityStream);
 		return JSON.parseObject(s, genericType);
 	}
+
+	/*
+	 * 直接解码到线程复用的字符缓冲区中再解析，不生成中间的String
+	 */
+	private Object readStreaming(Type genericType, InputStream entityStream) throws IOException {
+		Reader reader=new InputStreamReader(entityStream, encoding);
+		char[] buf=takeBuffer();
+		int len=0;
+		try{
+			while(true){
+				if(len==buf.length){
+					buf=Arrays.copyOf(buf, buf.length*2);
+				}
+				int n=reader.read(buf, len, buf.length-len);
+				if(n<0)break;
+				len+=n;
+			}
+			return JSON.parseObject(buf, len, genericType);
+		}finally{
+			recycleBuffer(buf);
+		}
+	}
+
+	private static char[] takeBuffer() {
+		SoftReference<char[]> ref=READ_BUFFER.get();
+		char[] buf=ref==null?null:ref.get();
+		if(buf==null){
+			return new char[INITIAL_BUFFER];
+		}
+		READ_BUFFER.set(null);
+		return buf;
+	}
+
+	private static void recycleBuffer(char[] buf) {
+		if(buf.length<=MAX_RECYCLED_BUFFER){
+			READ_BUFFER.set(new SoftReference<char[]>(buf));
+		}
+	}
 }
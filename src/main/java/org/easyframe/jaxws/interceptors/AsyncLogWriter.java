@@ -0,0 +1,146 @@
+package org.easyframe.jaxws.interceptors;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 消息日志的后台输出线程。
+ * <p>
+ * 请求线程只把采集到的快照放入有界队列，格式化和写日志都在后台线程中完成。
+ * 队列满时直接丢弃并计数，绝不阻塞请求线程。
+ */
+public class AsyncLogWriter {
+	public static final int DEFAULT_CAPACITY = 1024;
+	public static final String DEFAULT_LOGGER = "org.easyframe.jaxws.MessageLog";
+
+	private static final AsyncLogWriter DEFAULT = new AsyncLogWriter(DEFAULT_LOGGER, DEFAULT_CAPACITY);
+
+	private final Logger log;
+	private final BlockingQueue<SampledMessage> queue;
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong written = new AtomicLong();
+	private volatile Thread worker;
+	private volatile boolean shutdown;
+
+	public AsyncLogWriter(String loggerName, int capacity) {
+		this.log = LoggerFactory.getLogger(loggerName);
+		this.queue = new ArrayBlockingQueue<SampledMessage>(capacity < 1 ? 1 : capacity);
+	}
+
+	/**
+	 * 全局共享的实例，日志输出到org.easyframe.jaxws.MessageLog。共享的实例不应被关闭，
+	 * 需要随应用停止的(如CXFPlusServlet)应当创建自己的实例
+	 */
+	public static AsyncLogWriter getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * 提交一条消息，队列已满或已经关闭时丢弃
+	 * 
+	 * @return 是否已放入队列
+	 */
+	public boolean submit(SampledMessage message) {
+		if (worker == null && !shutdown) {
+			start();
+		}
+		if (!shutdown && queue.offer(message)) {
+			return true;
+		}
+		dropped.incrementAndGet();
+		return false;
+	}
+
+	/**
+	 * 因队列已满而丢弃的消息数
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * 已经写出的消息数
+	 */
+	public long getWrittenCount() {
+		return written.get();
+	}
+
+	public int getQueueSize() {
+		return queue.size();
+	}
+
+	/**
+	 * 写出队列中剩余的消息后停止后台线程，最多等待timeout毫秒。之后提交的消息都被丢弃。
+	 * 应用停止时调用，避免后台线程引用应用的ClassLoader
+	 */
+	public void shutdown(long timeout) {
+		Thread t;
+		synchronized (this) {
+			shutdown = true;
+			t = worker;
+			worker = null;
+		}
+		if (t == null) {
+			return;
+		}
+		t.interrupt();
+		try {
+			t.join(timeout);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	private synchronized void start() {
+		if (worker != null || shutdown) {
+			return;
+		}
+		Thread t = new Thread(new Runnable() {
+			public void run() {
+				drain();
+			}
+		}, "cxf-plus-message-log");
+		t.setDaemon(true);
+		t.setPriority(Thread.MIN_PRIORITY);
+		t.start();
+		worker = t;
+	}
+
+	private void drain() {
+		while (!shutdown) {
+			SampledMessage message;
+			try {
+				message = queue.take();
+			} catch (InterruptedException e) {
+				break;
+			}
+			write(message);
+		}
+		// 关闭时写出剩余的消息
+		for (SampledMessage message; (message = queue.poll()) != null;) {
+			write(message);
+		}
+	}
+
+	private void write(SampledMessage message) {
+		try {
+			log.info(message.format());
+			written.incrementAndGet();
+		} catch (RuntimeException e) {
+			log.warn("Unable to write the message log", e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "AsyncLogWriter[queued=" + queue.size() + ", written=" + written.get() + ", dropped=" + dropped.get() + "]";
+	}
+}
@@ -0,0 +1,131 @@
+package org.easyframe.jaxws.interceptors;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.cxf.interceptor.LoggingMessage;
+
+/**
+ * 请求线程上采集的消息快照，只保存引用和截断后的报文字节，由后台线程格式化。
+ */
+public class SampledMessage {
+	private final String heading;
+	private final String id;
+	private String address;
+	private String httpMethod;
+	private String contentType;
+	private String encoding;
+	private Object headers;
+	private String operation;
+	private byte[] payload;
+	private int payloadLength;
+	private long totalLength = -1;
+
+	public SampledMessage(String heading, String id) {
+		this.heading = heading;
+		this.id = id;
+	}
+
+	public void setAddress(String address) {
+		this.address = address;
+	}
+
+	public void setHttpMethod(String httpMethod) {
+		this.httpMethod = httpMethod;
+	}
+
+	public void setContentType(String contentType) {
+		this.contentType = contentType;
+	}
+
+	public void setEncoding(String encoding) {
+		this.encoding = encoding;
+	}
+
+	/**
+	 * 消息头在后台线程格式化时可能已被修改，这里复制一份
+	 */
+	public void setHeaders(Object headers) {
+		if (headers instanceof Map) {
+			Map<Object, Object> copy = new LinkedHashMap<Object, Object>();
+			for (Map.Entry<?, ?> e : ((Map<?, ?>) headers).entrySet()) {
+				Object value = e.getValue();
+				copy.put(e.getKey(), value instanceof Collection ? new ArrayList<Object>((Collection<?>) value) : value);
+			}
+			headers = copy;
+		}
+		this.headers = headers;
+	}
+
+	public void setOperation(String operation) {
+		this.operation = operation;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	/**
+	 * @param payload
+	 *            报文的前若干字节
+	 * @param length
+	 *            payload中有效的字节数
+	 * @param totalLength
+	 *            报文的实际长度
+	 */
+	public void setPayload(byte[] payload, int length, long totalLength) {
+		this.payload = payload;
+		this.payloadLength = length;
+		this.totalLength = totalLength;
+	}
+
+	/**
+	 * 转换为和LoggingInInterceptor相同的格式，在后台线程中调用
+	 */
+	public String format() {
+		LoggingMessage buffer = new LoggingMessage(heading, id);
+		if (encoding != null) {
+			buffer.getEncoding().append(encoding);
+		}
+		if (httpMethod != null) {
+			buffer.getHttpMethod().append(httpMethod);
+		}
+		if (contentType != null) {
+			buffer.getContentType().append(contentType);
+		}
+		if (headers != null) {
+			buffer.getHeader().append(headers);
+		}
+		if (address != null) {
+			buffer.getAddress().append(address);
+		}
+		if (operation != null) {
+			buffer.getMessage().append("Operation: ").append(operation).append('\n');
+		}
+		if (payload != null) {
+			if (totalLength > payloadLength) {
+				buffer.getMessage().append("(message truncated to " + payloadLength + " of " + totalLength + " bytes)\n");
+			}
+			buffer.getPayload().append(decode());
+		}
+		return buffer.toString();
+	}
+
+	private String decode() {
+		if (encoding != null) {
+			try {
+				return new String(payload, 0, payloadLength, encoding);
+			} catch (UnsupportedEncodingException e) {
+				// 按UTF-8输出
+			}
+		}
+		try {
+			return new String(payload, 0, payloadLength, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,274 @@
+package org.easyframe.jaxws.interceptors;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.LoggingMessage;
+import org.apache.cxf.jaxrs.model.OperationResourceInfo;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.service.model.BindingOperationInfo;
+
+/**
+ * 采样式的报文日志拦截器，用于替代LoggingInInterceptor/TraceHandler。
+ * <p>
+ * <ul>
+ * <li>按比例采样，每sampleInterval个请求记录一个；也可以只记录指定的operation</li>
+ * <li>不复制整个报文，只在业务读取流的同时截取前limit个字节</li>
+ * <li>请求线程只采集引用，格式化和输出由{@link AsyncLogWriter}的后台线程完成，队列满时丢弃</li>
+ * <li>报文在流读完或关闭时提交；流没有读完也没有关闭时(单向调用、出错、StAX只读了一部分等)，
+ * 在调用结束(POST_INVOKE)或出错回滚时提交已截取的部分，每条报文只提交一次</li>
+ * </ul>
+ */
+public class SamplingLoggingInInterceptor extends AbstractPhaseInterceptor<Message> {
+	public static final int DEFAULT_LIMIT = 4096;
+
+	private static final String CAPTURE = SamplingLoggingInInterceptor.class.getName() + ".capture";
+	private static final CompleteInterceptor COMPLETE = new CompleteInterceptor();
+
+	private final AtomicLong counter = new AtomicLong();
+	private int limit = DEFAULT_LIMIT;
+	private int sampleInterval = 1;
+	private Set<String> operations;
+	private AsyncLogWriter writer = AsyncLogWriter.getDefault();
+
+	public SamplingLoggingInInterceptor() {
+		super(Phase.RECEIVE);
+	}
+
+	public void handleMessage(Message message) throws Fault {
+		if (!sample()) {
+			return;
+		}
+		SampledMessage record = snapshot(message);
+		InputStream in = message.getContent(InputStream.class);
+		if (in == null) {
+			submit(message, record, null, 0, 0);
+		} else {
+			CapturingInputStream capture = new CapturingInputStream(in, message, record);
+			message.setContent(InputStream.class, capture);
+			message.put(CAPTURE, capture);
+			if (message.getInterceptorChain() != null) {
+				message.getInterceptorChain().add(COMPLETE);
+			}
+		}
+	}
+
+	/**
+	 * 请求处理出错，链回滚时提交已截取的部分
+	 */
+	@Override
+	public void handleFault(Message message) {
+		complete(message);
+	}
+
+	private static void complete(Message message) {
+		CapturingInputStream capture = (CapturingInputStream) message.get(CAPTURE);
+		if (capture != null) {
+			capture.complete();
+		}
+	}
+
+	private boolean sample() {
+		if (sampleInterval <= 1) {
+			return true;
+		}
+		return counter.getAndIncrement() % sampleInterval == 0;
+	}
+
+	private SampledMessage snapshot(Message message) {
+		String id = (String) message.getExchange().get(LoggingMessage.ID_KEY);
+		if (id == null) {
+			id = LoggingMessage.nextId();
+			message.getExchange().put(LoggingMessage.ID_KEY, id);
+		}
+		SampledMessage record = new SampledMessage("Inbound Message (sampled)\n----------------------------", id);
+		record.setEncoding((String) message.get(Message.ENCODING));
+		record.setHttpMethod((String) message.get(Message.HTTP_REQUEST_METHOD));
+		record.setContentType((String) message.get(Message.CONTENT_TYPE));
+		record.setHeaders(message.get(Message.PROTOCOL_HEADERS));
+		String uri = (String) message.get(Message.REQUEST_URL);
+		if (uri != null) {
+			String query = (String) message.get(Message.QUERY_STRING);
+			record.setAddress(query == null ? uri : uri + "?" + query);
+		}
+		return record;
+	}
+
+	/*
+	 * 报文读完时operation已经确定，在这里按operation过滤
+	 */
+	void submit(Message message, SampledMessage record, byte[] payload, int length, long total) {
+		String operation = getOperation(message.getExchange());
+		if (operations != null && (operation == null || !operations.contains(operation))) {
+			return;
+		}
+		record.setOperation(operation);
+		if (payload != null) {
+			record.setPayload(payload, length, total);
+		}
+		writer.submit(record);
+	}
+
+	/*
+	 * WebService为BindingOperation的名称，JAX-RS没有BindingOperation，使用资源方法的名称
+	 */
+	private static String getOperation(Exchange exchange) {
+		if (exchange == null) {
+			return null;
+		}
+		BindingOperationInfo bop = exchange.getBindingOperationInfo();
+		if (bop != null) {
+			return bop.getName().getLocalPart();
+		}
+		OperationResourceInfo ori = exchange.get(OperationResourceInfo.class);
+		return ori == null ? null : ori.getMethodToInvoke().getName();
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * 每条报文最多记录的字节数
+	 */
+	public void setLimit(int limit) {
+		this.limit = limit < 0 ? 0 : limit;
+	}
+
+	public int getSampleInterval() {
+		return sampleInterval;
+	}
+
+	/**
+	 * 采样间隔，N表示每N个请求记录一个
+	 */
+	public void setSampleInterval(int sampleInterval) {
+		this.sampleInterval = sampleInterval;
+	}
+
+	/**
+	 * 采样比例，例如0.01表示记录1%的请求
+	 */
+	public void setSampleRate(double rate) {
+		this.sampleInterval = rate <= 0 ? Integer.MAX_VALUE : (int) Math.max(1, Math.round(1 / rate));
+	}
+
+	public Set<String> getOperations() {
+		return operations;
+	}
+
+	/**
+	 * 只记录这些operation的报文，null表示全部记录。JAX-RS服务按资源方法的名称匹配
+	 */
+	public void setOperations(Collection<String> operations) {
+		this.operations = operations == null || operations.isEmpty() ? null : new HashSet<String>(operations);
+	}
+
+	public AsyncLogWriter getWriter() {
+		return writer;
+	}
+
+	public void setWriter(AsyncLogWriter writer) {
+		this.writer = writer;
+	}
+
+	/*
+	 * 在业务读取的同时截取前limit个字节，读到结尾或关闭时提交
+	 */
+	private final class CapturingInputStream extends FilterInputStream {
+		private final Message message;
+		private final SampledMessage record;
+		private final byte[] captured;
+		private int length;
+		private long total;
+		private boolean done;
+
+		CapturingInputStream(InputStream in, Message message, SampledMessage record) {
+			super(in);
+			this.message = message;
+			this.record = record;
+			this.captured = new byte[limit];
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = in.read();
+			if (b < 0) {
+				complete();
+			} else {
+				if (length < captured.length) {
+					captured[length++] = (byte) b;
+				}
+				total++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = in.read(b, off, len);
+			if (n < 0) {
+				complete();
+			} else if (n > 0) {
+				int copy = Math.min(n, captured.length - length);
+				if (copy > 0) {
+					System.arraycopy(b, off, captured, length, copy);
+					length += copy;
+				}
+				total += n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = in.skip(n);
+			total += skipped;
+			return skipped;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				in.close();
+			} finally {
+				complete();
+			}
+		}
+
+		synchronized void complete() {
+			if (done) {
+				return;
+			}
+			done = true;
+			submit(message, record, captured, length, total);
+		}
+	}
+
+	/*
+	 * 调用结束时提交业务没有读完或没有关闭的报文
+	 */
+	private static final class CompleteInterceptor extends AbstractPhaseInterceptor<Message> {
+		CompleteInterceptor() {
+			super(Phase.POST_INVOKE);
+		}
+
+		public void handleMessage(Message message) throws Fault {
+			complete(message);
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package jef.com.sun.xml.bind;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 比较IsoDateTime和原来基于DatatypeFactory/格式串的实现，结果必须完全一致
+ */
+public class IsoDateTimeTest {
+	private static final String[] ZONES = { "UTC", "GMT", "Asia/Shanghai", "America/New_York", "Europe/London", "Asia/Kolkata", "Pacific/Chatham", "America/St_Johns" };
+	private static final String[] FRACTIONS = { "", ".0", ".5", ".05", ".123", ".000", ".999", ".1234567" };
+	private static final String[] OFFSETS = { "", "Z", "+08:00", "-05:00", "+05:30", "-00:00", "+14:00", "-14:00", "+00:45", "-09:30" };
+
+	private final DatatypeFactory factory;
+	private final Random random = new Random(20131017L);
+
+	public IsoDateTimeTest() throws Exception {
+		factory = DatatypeFactory.newInstance();
+	}
+
+	@Test
+	public void testParseRandom() {
+		for (int i = 0; i < 20000; i++) {
+			String s = randomDateTime();
+			assertParse(s);
+		}
+	}
+
+	@Test
+	public void testParseEdges() {
+		String[] values = { "0001-01-01T00:00:00", "1582-10-04T12:00:00Z", "1582-10-15T00:00:00", "1600-02-29T23:59:59.999+14:00", "1900-02-28T00:00:00-14:00", "2000-02-29T00:00:00Z",
+				"9999-12-31T23:59:59.999-14:00", "1970-01-01T00:00:00Z", "1969-12-31T23:59:59.999Z", " 2013-10-17T08:30:00+08:00 ", "\n\t2013-10-17T08:30:00\r\n",
+				"2013-03-10T02:30:00", "2013-11-03T01:30:00" };
+		for (String s : values) {
+			assertParse(s);
+		}
+	}
+
+	@Test
+	public void testParseFallback() {
+		// 不是常见格式的都交给原来的实现，结果(包括异常)必须相同
+		String[] values = { "2013-10-17T24:00:00", "-0001-01-01T00:00:00", "12013-01-01T00:00:00Z", "2013-02-29T00:00:00", "2013-13-01T00:00:00", "2013-1-01T00:00:00",
+				"2013-10-17", "2013-10-17T08:30", "2013-10-17T08:30:00.", "2013-10-17T08:30:00+8:00", "2013-10-17T08:30:00+15:00", "2013-10-17T08:30:60",
+				"2013-10-17T08:30:00ZZ", "2013-10-17 08:30:00", "", "abc" };
+		for (String s : values) {
+			assertParse(s);
+		}
+	}
+
+	@Test
+	public void testPrintCalendar() {
+		TimeZone old = TimeZone.getDefault();
+		try {
+			for (String id : ZONES) {
+				TimeZone tz = TimeZone.getTimeZone(id);
+				for (int i = 0; i < 2000; i++) {
+					long millis = randomMillis();
+					GregorianCalendar cal = new GregorianCalendar(tz);
+					cal.setTimeInMillis(millis);
+					Assert.assertEquals(DatatypeConverterImpl.formatCalendar("%Y-%M-%DT%h:%m:%s%z", cal), DatatypeConverterImpl._printDateTime(cal));
+					Assert.assertEquals(DatatypeConverterImpl.formatCalendar("%Y-%M-%D", cal), DatatypeConverterImpl._printDate(cal));
+
+					// java.util.Date以及java.sql.*按默认时区输出
+					TimeZone.setDefault(tz);
+					GregorianCalendar ref = new GregorianCalendar(0, 0, 0);
+					ref.setTime(new Date(millis));
+					Assert.assertEquals(DatatypeConverterImpl.formatCalendar("%Y-%M-%DT%h:%m:%s%z", ref), IsoDateTime.print(millis, TimeZone.getDefault(), true));
+					TimeZone.setDefault(old);
+				}
+			}
+		} finally {
+			TimeZone.setDefault(old);
+		}
+	}
+
+	@Test
+	public void testRoundTrip() {
+		for (int i = 0; i < 5000; i++) {
+			String s = randomDateTime();
+			GregorianCalendar cal = DatatypeConverterImpl._parseDateTime(s);
+			Assert.assertEquals(DatatypeConverterImpl.formatCalendar("%Y-%M-%DT%h:%m:%s%z", cal), DatatypeConverterImpl._printDateTime(cal));
+		}
+	}
+
+	private void assertParse(String s) {
+		GregorianCalendar expected = null;
+		Exception error = null;
+		try {
+			expected = factory.newXMLGregorianCalendar(WhiteSpaceProcessor.trim(s).toString()).toGregorianCalendar();
+		} catch (Exception e) {
+			error = e;
+		}
+		if (error != null) {
+			try {
+				DatatypeConverterImpl._parseDateTime(s);
+				Assert.fail("Expected " + error + " for " + s);
+			} catch (Exception e) {
+				Assert.assertEquals(s, error.getClass(), e.getClass());
+			}
+			try {
+				DatatypeConverterImpl._parseDateTimeMillis(s);
+				Assert.fail("Expected " + error + " for " + s);
+			} catch (Exception e) {
+				Assert.assertEquals(s, error.getClass(), e.getClass());
+			}
+			return;
+		}
+		GregorianCalendar actual = DatatypeConverterImpl._parseDateTime(s);
+		Assert.assertEquals(s, expected, actual);
+		Assert.assertEquals(s, expected.isSet(Calendar.MILLISECOND), actual.isSet(Calendar.MILLISECOND));
+		Assert.assertEquals(s, DatatypeConverterImpl.formatCalendar("%Y-%M-%DT%h:%m:%s%z", expected), DatatypeConverterImpl._printDateTime(actual));
+		Assert.assertEquals(s, expected.getTimeInMillis(), DatatypeConverterImpl._parseDateTimeMillis(s));
+
+		XMLGregorianCalendar xexpected = factory.newXMLGregorianCalendar(s.trim());
+		XMLGregorianCalendar xactual = IsoDateTime.parseXMLGregorianCalendar(s, factory);
+		if (xactual != null) {
+			Assert.assertEquals(s, xexpected, xactual);
+			Assert.assertEquals(s, xexpected.toXMLFormat(), xactual.toXMLFormat());
+			Assert.assertEquals(s, xexpected.getXMLSchemaType(), xactual.getXMLSchemaType());
+		}
+	}
+
+	private String randomDateTime() {
+		int year = random.nextInt(10) == 0 ? 1 + random.nextInt(9999) : 1900 + random.nextInt(200);
+		int month = 1 + random.nextInt(12);
+		int day = 1 + random.nextInt(28);
+		StringBuilder sb = new StringBuilder();
+		pad(sb, year, 4).append('-');
+		pad(sb, month, 2).append('-');
+		pad(sb, day, 2).append('T');
+		pad(sb, random.nextInt(24), 2).append(':');
+		pad(sb, random.nextInt(60), 2).append(':');
+		pad(sb, random.nextInt(60), 2);
+		sb.append(FRACTIONS[random.nextInt(FRACTIONS.length)]);
+		sb.append(OFFSETS[random.nextInt(OFFSETS.length)]);
+		return sb.toString();
+	}
+
+	private long randomMillis() {
+		// 1583年到9999年之间，并且常常落在毫秒为0的时刻
+		long min = -12212553600000L;
+		long max = 253402300799999L - 15L * 3600000L;
+		long millis = min + (long) (random.nextDouble() * (max - min));
+		if (random.nextBoolean()) {
+			millis -= millis % 1000;
+		}
+		return millis;
+	}
+
+	private static StringBuilder pad(StringBuilder sb, int v, int n) {
+		String s = String.valueOf(v);
+		for (int i = s.length(); i < n; i++) {
+			sb.append('0');
+		}
+		return sb.append(s);
+	}
+}
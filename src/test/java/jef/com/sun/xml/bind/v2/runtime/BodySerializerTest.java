@@ -0,0 +1,117 @@
+package jef.com.sun.xml.bind.v2.runtime;
+
+import java.io.StringWriter;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
+
+import jef.com.sun.xml.bind.api.JAXBRIContext;
+import jef.com.sun.xml.bind.v2.ContextFactory;
+import jef.com.sun.xml.bind.v2.model.annotation.RuntimeAnnotationReader;
+import jef.com.sun.xml.bind.v2.model.annotation.RuntimeInlineAnnotationReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 同一个类在两个JAXBContext中的属性不同时，各自使用与自己的属性对应的生成类
+ */
+public class BodySerializerTest {
+
+	@XmlRootElement(name = "item")
+	@XmlAccessorType(XmlAccessType.FIELD)
+	public static class Item {
+		public String name;
+		public int count;
+		public String note;
+	}
+
+	private static class Transient {
+		@XmlTransient
+		Object field;
+	}
+
+	@Test
+	public void testTwoLayouts() throws Exception {
+		JAXBContext full = createContext(false);
+		JAXBContext hidden = createContext(true);
+		JAXBContext another = createContext(false);
+
+		Item item = new Item();
+		item.name = "a";
+		item.count = 3;
+		item.note = "n";
+		Assert.assertTrue(marshal(full, item).endsWith("<item><name>a</name><count>3</count><note>n</note></item>"));
+		Assert.assertTrue(marshal(hidden, item).endsWith("<item><name>a</name><count>3</count></item>"));
+		Assert.assertTrue(marshal(another, item).endsWith("<item><name>a</name><count>3</count><note>n</note></item>"));
+
+		Object s1 = getBodySerializer(full);
+		Object s2 = getBodySerializer(hidden);
+		Object s3 = getBodySerializer(another);
+		Assert.assertNotNull(s1);
+		Assert.assertNotNull(s2);
+		Assert.assertFalse(s1.getClass() == s2.getClass());
+		// 属性相同的上下文共用生成的类，但各有自己的实例
+		Assert.assertSame(s1.getClass(), s3.getClass());
+		Assert.assertFalse(s1 == s3);
+	}
+
+	@Test
+	public void testNull() throws Exception {
+		Item item = new Item();
+		Assert.assertTrue(marshal(createContext(false), item).endsWith("<item><count>0</count></item>"));
+	}
+
+	private static JAXBContext createContext(boolean hideNote) throws Exception {
+		Map<String, Object> properties = new HashMap<String, Object>();
+		properties.put(JAXBRIContext.GENERATED_CODECS, Boolean.TRUE);
+		if (hideNote) {
+			properties.put(JAXBRIContext.ANNOTATION_READER, hidingReader("note"));
+		}
+		return ContextFactory.createContext(new Class[] { Item.class }, properties);
+	}
+
+	/*
+	 * 给指定名称的字段加上@XmlTransient，其他调用交给默认的实现
+	 */
+	private static RuntimeAnnotationReader hidingReader(final String fieldName) throws Exception {
+		final RuntimeAnnotationReader reader = new RuntimeInlineAnnotationReader();
+		final Annotation xmlTransient = Transient.class.getDeclaredField("field").getAnnotation(XmlTransient.class);
+		return (RuntimeAnnotationReader) Proxy.newProxyInstance(BodySerializerTest.class.getClassLoader(), new Class<?>[] { RuntimeAnnotationReader.class }, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if ("getAllFieldAnnotations".equals(method.getName()) && fieldName.equals(args[0].getClass().getMethod("getName").invoke(args[0]))) {
+					return new Annotation[] { xmlTransient };
+				}
+				try {
+					return method.invoke(reader, args);
+				} catch (InvocationTargetException e) {
+					throw e.getTargetException();
+				}
+			}
+		});
+	}
+
+	private static String marshal(JAXBContext context, Object o) throws Exception {
+		StringWriter out = new StringWriter();
+		context.createMarshaller().marshal(o, out);
+		return out.toString();
+	}
+
+	private static Object getBodySerializer(JAXBContext context) throws Exception {
+		Object beanInfo = ((JAXBContextImpl) context).getBeanInfo(Item.class);
+		Field field = ClassBeanInfoImpl.class.getDeclaredField("bodySerializer");
+		field.setAccessible(true);
+		return field.get(beanInfo);
+	}
+}
@@ -0,0 +1,189 @@
+package jef.com.sun.xml.bind.v2.runtime.unmarshaller;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+
+import jef.com.sun.xml.bind.v2.runtime.NameList;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.xml.sax.SAXParseException;
+
+/**
+ * 比较UTF8XmlConnector和StAXStreamConnector产生的事件，结果必须完全一致
+ */
+public class UTF8XmlConnectorTest {
+	private static final String[] DOCUMENTS = {
+			"<root/>",
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<root a='1' b=\"2\"></root>",
+			"﻿<?xml version='1.0'?><!-- c --><?pi x?>\r\n<root>text</root>",
+			"<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body>"
+					+ "<ns2:sayHello xmlns:ns2=\"http://jaxws.easyframe.org/\"><arg0>中文 &amp; 😀</arg0><arg1> </arg1><arg2/></ns2:sayHello>"
+					+ "</soap:Body></soap:Envelope>",
+			"<a xmlns='urn:a' xmlns:b='urn:b'><b:c b:x='&lt;&gt;&apos;&quot;&#65;&#x4e2d;&#x1F600;' y=\"a&#10;b\tc\r\nd\">\r\n x \r y </b:c><c xmlns=''/></a>",
+			"<a><![CDATA[<x> & \r\n]]>tail<!-- c -->more<?pi?>end</a>",
+			"<a>\n  <b>1</b>\n  <b xml:lang='zh'>2</b>\n</a >",
+			"<名字 属性='值'><子>内容</子></名字>",
+			"<a>] ]] ]&gt; ]]&gt; x]y]]</a>" };
+
+	@Test
+	public void testSameEvents() throws Exception {
+		UTF8XmlConnector connector = new UTF8XmlConnector(new NameList(new String[] { "", "urn:a" }, new boolean[2], new String[] { "a", "b" }, 2, 0));
+		for (String doc : DOCUMENTS) {
+			for (boolean expectText : new boolean[] { true, false }) {
+				// 分别一次读1个字节和整块读入，覆盖缓冲区边界
+				for (int chunk : new int[] { 1, 3, 8192 }) {
+					Recorder expected = new Recorder(expectText);
+					XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new ByteArrayInputStream(doc.getBytes("UTF-8")));
+					StAXStreamConnector.create(reader, expected).bridge();
+
+					Recorder actual = new Recorder(expectText);
+					Assert.assertTrue(doc, connector.readProlog(new ChunkedInputStream(doc.getBytes("UTF-8"), chunk), null));
+					connector.bridge(actual);
+					connector.release();
+					Assert.assertEquals(doc, expected.events, actual.events);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFallback() throws Exception {
+		String[] documents = { "<?xml version='1.0' encoding='ISO-8859-1'?><a/>", "<!DOCTYPE a [<!ENTITY e 'x'>]><a>&e;</a>", "<?xml version='1.1'?><a/>", "﻿<a/>" };
+		String[] encodings = { "UTF-8", "UTF-8", "UTF-8", "UTF-16" };
+		UTF8XmlConnector connector = new UTF8XmlConnector(null);
+		for (int i = 0; i < documents.length; i++) {
+			byte[] bytes = documents[i].getBytes(encodings[i]);
+			Assert.assertFalse(documents[i], connector.readProlog(new ChunkedInputStream(bytes, 2), null));
+			// 交给其他解析器的字节必须和原来的完全相同
+			InputStream replay = connector.replay();
+			connector.release();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			for (int b; (b = replay.read()) >= 0;) {
+				out.write(b);
+			}
+			Assert.assertTrue(documents[i], Arrays.equals(bytes, out.toByteArray()));
+		}
+	}
+
+	@Test
+	public void testMalformed() throws Exception {
+		String[] documents = { "<a></b>", "<a><b></a>", "<p:a/>", "<a>&nbsp;</a>", "<a>&#0;</a>", "<a x='<'/>", "<a x=1/>", "<a", "<a>text", "<a>\u0001</a>", "<a:b:c/>", "<a><1b/></a>", "<a>]]></a>",
+				"<a>x]]>y</a>", "<a><b/>\u0001<b/></a>" };
+		UTF8XmlConnector connector = new UTF8XmlConnector(null);
+		for (String doc : documents) {
+			// 不需要的文本也要检查
+			for (boolean expectText : new boolean[] { true, false }) {
+				try {
+					Assert.assertTrue(doc, connector.readProlog(new ByteArrayInputStream(doc.getBytes("UTF-8")), null));
+					connector.bridge(new Recorder(expectText));
+					Assert.fail(doc);
+				} catch (SAXParseException e) {
+					// expected
+				} finally {
+					connector.release();
+				}
+			}
+		}
+	}
+
+	/*
+	 * 每次最多返回chunk个字节
+	 */
+	private static final class ChunkedInputStream extends InputStream {
+		private final byte[] bytes;
+		private final int chunk;
+		private int pos;
+
+		ChunkedInputStream(byte[] bytes, int chunk) {
+			this.bytes = bytes;
+			this.chunk = chunk;
+		}
+
+		@Override
+		public int read() {
+			return pos < bytes.length ? bytes[pos++] & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (pos >= bytes.length) {
+				return -1;
+			}
+			int n = Math.min(Math.min(len, chunk), bytes.length - pos);
+			System.arraycopy(bytes, pos, b, off, n);
+			pos += n;
+			return n;
+		}
+	}
+
+	/*
+	 * 把事件记录成字符串，并检查名称都已intern
+	 */
+	private static final class Recorder implements XmlVisitor, XmlVisitor.TextPredictor {
+		private final List<String> events = new ArrayList<String>();
+		private final boolean expectText;
+
+		Recorder(boolean expectText) {
+			this.expectText = expectText;
+		}
+
+		public void startDocument(LocatorEx locator, NamespaceContext nsContext) {
+			events.add("startDocument");
+		}
+
+		public void endDocument() {
+			events.add("endDocument");
+		}
+
+		public void startElement(TagName tagName) {
+			StringBuilder sb = new StringBuilder("startElement ").append(interned(tagName.uri)).append(' ').append(interned(tagName.local));
+			for (int i = 0; i < tagName.atts.getLength(); i++) {
+				sb.append(' ').append(interned(tagName.atts.getURI(i))).append(' ').append(interned(tagName.atts.getLocalName(i)));
+				sb.append(' ').append(tagName.atts.getQName(i)).append('=').append(tagName.atts.getValue(i));
+			}
+			events.add(sb.toString());
+		}
+
+		public void endElement(TagName tagName) {
+			events.add("endElement " + interned(tagName.uri) + ' ' + interned(tagName.local) + ' ' + tagName.getQname());
+		}
+
+		public void startPrefixMapping(String prefix, String nsUri) {
+			events.add("startPrefixMapping " + interned(prefix) + '=' + interned(nsUri));
+		}
+
+		public void endPrefixMapping(String prefix) {
+			events.add("endPrefixMapping " + interned(prefix));
+		}
+
+		public void text(CharSequence pcdata) {
+			events.add("text " + pcdata);
+		}
+
+		public UnmarshallingContext getContext() {
+			return null;
+		}
+
+		public TextPredictor getPredictor() {
+			return this;
+		}
+
+		public boolean expectText() {
+			return expectText;
+		}
+
+		private static String interned(String s) {
+			Assert.assertSame(s, s.intern());
+			return s;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package org.apache.cxf.jaxbplus;
+
+import java.lang.annotation.Annotation;
+
+import javax.xml.bind.annotation.XmlList;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.jaxbplus.JAXBUtils.BridgeWrapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 同一个part第二次读写时必须命中缓存，上下文替换后不能再使用旧的Bridge
+ */
+public class JAXBBridgeCacheTest {
+
+	@Test
+	public void testSecondLookupHits() throws Exception {
+		JAXBDataBinding databinding = new JAXBDataBinding(Item.class);
+		JAXBBridgeCache cache = databinding.getBridgeCache();
+		QName qname = new QName(null, "values");
+		Annotation[] anns = annotations();
+
+		// 和DataReaderImpl/DataWriterImpl一样，每次都用getContextClasses()取得新的视图
+		BridgeWrapper first = cache.getBridge(databinding.getContext(), qname, String[].class, anns, databinding.getContextClasses());
+		BridgeWrapper second = cache.getBridge(databinding.getContext(), qname, String[].class, anns, databinding.getContextClasses());
+		Assert.assertSame(first, second);
+		Assert.assertEquals(1, cache.getMissCount());
+		Assert.assertEquals(1, cache.getHitCount());
+		Assert.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testSetContextClears() throws Exception {
+		JAXBDataBinding databinding = new JAXBDataBinding(Item.class);
+		JAXBBridgeCache cache = databinding.getBridgeCache();
+		cache.getBridge(databinding.getContext(), new QName(null, "values"), String[].class, annotations(), databinding.getContextClasses());
+		Assert.assertEquals(1, cache.size());
+
+		databinding.setContext(new JAXBDataBinding(Item.class).getContext());
+		Assert.assertEquals(0, cache.size());
+	}
+
+	private static Annotation[] annotations() throws Exception {
+		return JAXBBridgeCacheTest.class.getDeclaredMethod("sample", String[].class).getParameterAnnotations()[0];
+	}
+
+	void sample(@XmlList String[] values) {
+	}
+
+	@XmlRootElement
+	public static class Item {
+		private String name;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+}
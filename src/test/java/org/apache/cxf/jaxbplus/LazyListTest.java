@@ -0,0 +1,57 @@
+package org.apache.cxf.jaxbplus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * LazyList第一次迭代直接交出数据源，其他List方法先把剩余元素读入列表
+ */
+public class LazyListTest {
+
+	@Test
+	public void testIteratorStreamsSource() {
+		Iterator<String> source = Arrays.asList("a", "b", "c").iterator();
+		LazyList<String> list = new LazyList<String>(source);
+		Assert.assertFalse(list.isEmpty());
+		Assert.assertSame(source, list.iterator());
+		try {
+			list.size();
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			// 元素已经被取走
+		}
+	}
+
+	@Test
+	public void testListMethodsFillList() {
+		LazyList<String> list = new LazyList<String>(Arrays.asList("a", "b", "c").iterator());
+		Assert.assertEquals(3, list.size());
+		Assert.assertEquals("b", list.get(1));
+		Assert.assertEquals("[a, b, c]", list.toString());
+		Assert.assertEquals(Arrays.asList("a", "b", "c"), list);
+		Assert.assertEquals(Arrays.asList("a", "b", "c").hashCode(), list.hashCode());
+		Assert.assertTrue(list.contains("c"));
+
+		// 填充后可以反复迭代
+		for (int i = 0; i < 2; i++) {
+			List<String> copy = new ArrayList<String>();
+			for (String s : list) {
+				copy.add(s);
+			}
+			Assert.assertEquals(Arrays.asList("a", "b", "c"), copy);
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+		LazyList<String> list = new LazyList<String>(new ArrayList<String>().iterator());
+		Assert.assertTrue(list.isEmpty());
+		Assert.assertEquals(0, list.size());
+		Assert.assertTrue(list.isEmpty());
+	}
+}
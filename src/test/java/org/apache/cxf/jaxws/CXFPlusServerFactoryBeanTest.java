@@ -0,0 +1,85 @@
+package org.apache.cxf.jaxws;
+
+import javax.jws.WebService;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.apache.cxf.jaxbplus.JAXBContextGroup;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 只收集JAXB类时不创建上下文，也不留下服务模型；之后发布时整个组只创建一次上下文
+ */
+public class CXFPlusServerFactoryBeanTest {
+	private static final String GROUP = "test";
+
+	@WebService
+	public interface ItemService {
+		Item find(String id);
+	}
+
+	public static class ItemServiceImpl implements ItemService {
+		public Item find(String id) {
+			Item item = new Item();
+			item.setId(id);
+			return item;
+		}
+	}
+
+	@XmlRootElement
+	public static class Item {
+		private String id;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+	}
+
+	@After
+	public void clear() {
+		JAXBContextGroup.clearGroups();
+	}
+
+	@Test
+	public void testCollectContextClasses() {
+		CXFPlusServerFactoryBean sf = createFactory();
+		sf.collectContextClasses(GROUP);
+
+		Assert.assertEquals(1, JAXBContextGroup.getGroups().size());
+		JAXBContextGroup group = JAXBContextGroup.getGroups().iterator().next();
+		Assert.assertEquals(GROUP, group.getName());
+		Assert.assertTrue(group.getClasses().toString(), group.getClasses().contains(Item.class));
+		Assert.assertNull(group.getContext());
+		Assert.assertEquals(0, group.getBuildCount());
+		Assert.assertEquals(0, group.getMemberCount());
+		// 不完整的服务模型已丢弃，同一个工厂还能正常发布
+		Assert.assertNull(sf.getServiceFactory().getService());
+
+		sf.prepareService();
+		Assert.assertNotNull(group.getContext());
+		Assert.assertEquals(1, group.getBuildCount());
+		Assert.assertEquals(1, group.getMemberCount());
+	}
+
+	@Test
+	public void testClearGroups() {
+		createFactory().collectContextClasses(GROUP);
+		Assert.assertFalse(JAXBContextGroup.getGroups().isEmpty());
+
+		JAXBContextGroup.clearGroups();
+		Assert.assertTrue(JAXBContextGroup.getGroups().isEmpty());
+	}
+
+	private static CXFPlusServerFactoryBean createFactory() {
+		CXFPlusServerFactoryBean sf = new CXFPlusServerFactoryBean();
+		sf.setServiceClass(ItemService.class);
+		sf.setServiceBean(new ItemServiceImpl());
+		sf.setAddress("local://" + CXFPlusServerFactoryBeanTest.class.getName());
+		return sf;
+	}
+}
@@ -0,0 +1,164 @@
+package org.easyframe.cxfplus.batch;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.jws.WebService;
+import javax.xml.namespace.QName;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.BindingProvider;
+import javax.xml.ws.Dispatch;
+import javax.xml.ws.Service;
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.handler.MessageContext;
+import javax.xml.ws.soap.SOAPBinding;
+
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.frontend.ClientProxy;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.jaxws.JaxWsProxyFactoryBean;
+import org.apache.cxf.jaxws.JaxWsServerFactoryBean;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 批量服务带有目标服务的拦截器，未认证的批量请求和单个调用一样被拒绝；超过最大调用数的批量请求被拒绝。
+ * 没有并发调用时合并调用的代理不等待窗口
+ */
+public class BatchProviderTest {
+	private static final String ADDRESS = "local://" + BatchProviderTest.class.getName();
+	private static final String TOKEN = "secret";
+	private static final int MAX_CALLS = 2;
+
+	@WebService
+	public interface EchoService {
+		String echo(String s);
+	}
+
+	public static class EchoServiceImpl implements EchoService {
+		public String echo(String s) {
+			return s;
+		}
+	}
+
+	/**
+	 * 检查Authorization头的拦截器
+	 */
+	public static class TokenInterceptor extends AbstractPhaseInterceptor<Message> {
+		public TokenInterceptor() {
+			super(Phase.PRE_INVOKE);
+		}
+
+		@SuppressWarnings("unchecked")
+		public void handleMessage(Message message) throws Fault {
+			Map<String, List<String>> headers = (Map<String, List<String>>) message.get(Message.PROTOCOL_HEADERS);
+			List<String> values = headers == null ? null : headers.get("Authorization");
+			if (values == null || !values.contains(TOKEN)) {
+				throw new Fault(new SecurityException("Not authenticated"));
+			}
+		}
+	}
+
+	private Server server;
+	private Server batch;
+
+	@Before
+	public void publish() {
+		JaxWsServerFactoryBean sf = new JaxWsServerFactoryBean();
+		sf.setServiceClass(EchoService.class);
+		sf.setServiceBean(new EchoServiceImpl());
+		sf.setAddress(ADDRESS);
+		sf.getInInterceptors().add(new TokenInterceptor());
+		server = sf.create();
+		batch = BatchProvider.publish(sf, server, null, MAX_CALLS);
+	}
+
+	@After
+	public void destroy() {
+		if (batch != null) {
+			batch.destroy();
+		}
+		if (server != null) {
+			server.destroy();
+		}
+	}
+
+	@Test
+	public void testUnauthenticatedBatchRejected() throws Exception {
+		try {
+			invoke(null, "hello");
+			Assert.fail("The batch bypassed the interceptors of the service");
+		} catch (WebServiceException e) {
+			Assert.assertTrue(String.valueOf(e.getMessage()), String.valueOf(e.getMessage()).contains("Not authenticated"));
+		}
+	}
+
+	@Test
+	public void testAuthenticatedBatch() throws Exception {
+		String response = invoke(TOKEN, "hello", "world");
+		Assert.assertTrue(response, response.contains(">hello<"));
+		Assert.assertTrue(response, response.contains(">world<"));
+	}
+
+	@Test
+	public void testOversizedBatchRejected() throws Exception {
+		try {
+			invoke(TOKEN, "a", "b", "c");
+			Assert.fail("The batch exceeded the limit of calls");
+		} catch (WebServiceException e) {
+			Assert.assertTrue(String.valueOf(e.getMessage()), String.valueOf(e.getMessage()).contains("at most " + MAX_CALLS));
+		}
+	}
+
+	@Test
+	public void testLoneCallNotDelayed() throws Exception {
+		JaxWsProxyFactoryBean pf = new JaxWsProxyFactoryBean();
+		pf.setServiceClass(EchoService.class);
+		pf.setAddress(ADDRESS);
+		EchoService target = (EchoService) pf.create();
+		((BindingProvider) target).getRequestContext().put(MessageContext.HTTP_REQUEST_HEADERS, authorization(TOKEN));
+		EchoService proxy = BatchingProxy.create(target, ClientProxy.getClient(target), EchoService.class, ADDRESS + "/batch", 10000, 64, false, null);
+		long start = System.currentTimeMillis();
+		Assert.assertEquals("hello", proxy.echo("hello"));
+		Assert.assertTrue("A lone call waited for the batch window", System.currentTimeMillis() - start < 5000);
+	}
+
+	private static Map<String, List<String>> authorization(String token) {
+		// CXF还要往里面放SOAPAction，不能用不可修改的Map
+		Map<String, List<String>> headers = new HashMap<String, List<String>>();
+		headers.put("Authorization", Arrays.asList(token));
+		return headers;
+	}
+
+	private String invoke(String token, String... args) throws Exception {
+		QName serviceName = new QName(BatchOperation.NAMESPACE, "BatchService");
+		QName portName = new QName(BatchOperation.NAMESPACE, "BatchPort");
+		Service service = Service.create(serviceName);
+		service.addPort(portName, SOAPBinding.SOAP11HTTP_BINDING, ADDRESS + "/batch");
+		Dispatch<Source> dispatch = service.createDispatch(portName, Source.class, Service.Mode.PAYLOAD);
+		if (token != null) {
+			dispatch.getRequestContext().put(MessageContext.HTTP_REQUEST_HEADERS, authorization(token));
+		}
+		StringBuilder request = new StringBuilder("<batch xmlns='").append(BatchOperation.NAMESPACE).append("'>");
+		for (String arg : args) {
+			request.append("<call operation='echo'><arg0>").append(arg).append("</arg0></call>");
+		}
+		request.append("</batch>");
+		Source result = dispatch.invoke(new StreamSource(new StringReader(request.toString())));
+		StringWriter out = new StringWriter();
+		TransformerFactory.newInstance().newTransformer().transform(result, new StreamResult(out));
+		return out.toString();
+	}
+}